@@ -0,0 +1,33 @@
+package one.edee.oss.pmptt.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar. Accepts all standard JMH command line options (for example
+ * `-p nodeCount=1000000 -p storage=H2 HierarchyReadBenchmark`) and always attaches the GC profiler, so that
+ * the allocation rate and GC churn are reported with each result. Results are also written in JSON format
+ * to `jmh-result.json` (unless `-rff` is specified) so that runs may be compared.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		final Options options = new OptionsBuilder()
+			.parent(commandLineOptions)
+			.addProfiler(GCProfiler.class)
+			.resultFormat(commandLineOptions.getResultFormat().orElse(ResultFormatType.JSON))
+			.result(commandLineOptions.getResult().orElse("jmh-result.json"))
+			.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,50 @@
+package one.edee.oss.pmptt.benchmark;
+
+import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.dao.h2.H2Storage;
+import one.edee.oss.pmptt.dao.memory.MemoryStorage;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.annotation.Nonnull;
+import java.util.UUID;
+
+/**
+ * Storages the benchmarks may run against. Database storages use fresh embedded in-memory database with the schema
+ * created from the PMPTT SQL scripts, so that the benchmarks don't need any external infrastructure.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public enum BenchmarkStorage {
+
+	MEMORY {
+		@Nonnull
+		@Override
+		public HierarchyStorage createStorage() {
+			return new MemoryStorage();
+		}
+	},
+
+	H2 {
+		@Nonnull
+		@Override
+		public HierarchyStorage createStorage() {
+			final JdbcConnectionPool dataSource = JdbcConnectionPool.create(
+				"jdbc:h2:mem:pmptt-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""
+			);
+			dataSource.setMaxConnections(64);
+			new ResourceDatabasePopulator(new ClassPathResource("META-INF/pmptt_rdbms/sql/h2/create.sql"))
+				.execute(dataSource);
+			return new H2Storage(dataSource, new DataSourceTransactionManager(dataSource));
+		}
+	};
+
+	/**
+	 * Creates new empty storage.
+	 */
+	@Nonnull
+	public abstract HierarchyStorage createStorage();
+
+}
@@ -0,0 +1,48 @@
+package one.edee.oss.pmptt.benchmark;
+
+import one.edee.oss.pmptt.model.HierarchyItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the read operations of the {@link one.edee.oss.pmptt.model.Hierarchy}. Pivot items are picked
+ * from the pools prepared by {@link HierarchyState}.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HierarchyReadBenchmark {
+
+	@Benchmark
+	public List<HierarchyItem> getChildItems(HierarchyState state) {
+		return state.getHierarchy().getChildItems(state.nextParent());
+	}
+
+	@Benchmark
+	public List<HierarchyItem> getAllChildItems(HierarchyState state) {
+		return state.getHierarchy().getAllChildItems(state.nextParent());
+	}
+
+	@Benchmark
+	public List<HierarchyItem> getParentItems(HierarchyState state) {
+		return state.getHierarchy().getParentItems(state.nextLeaf());
+	}
+
+	@Benchmark
+	public List<HierarchyItem> getLeafItems(HierarchyState state) {
+		return state.getHierarchy().getLeafItems(state.nextParent());
+	}
+
+}
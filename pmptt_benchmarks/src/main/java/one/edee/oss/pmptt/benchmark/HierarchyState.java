@@ -0,0 +1,233 @@
+package one.edee.oss.pmptt.benchmark;
+
+import lombok.Getter;
+import one.edee.oss.pmptt.PMPTT;
+import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.util.TreeGenerator;
+import one.edee.oss.pmptt.util.TreeGenerator.FanOut;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Array;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Benchmark state holding hierarchy of requested shape filled with items in the requested storage. Tree is produced
+ * by {@link TreeGenerator} and bulk loaded into the storage - each item has at most `sectionSize * fillRatio` children
+ * distributed by the `fanOut` distribution. State also keeps pools of item codes the benchmarks pick their pivots
+ * from - pools are sampled while the tree is generated and picking sequence is deterministic so that the runs are
+ * comparable.
+ *
+ * Write benchmarks need spare room in the sections - keep `fillRatio` below 1.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@State(Scope.Benchmark)
+public class HierarchyState {
+	public static final String HIERARCHY_CODE = "benchmark";
+	private static final int POOL_SIZE = 1024;
+
+	@Param({"MEMORY", "H2"})
+	public BenchmarkStorage storage;
+	@Param({"5"})
+	public short levels;
+	@Param({"10"})
+	public short sectionSize;
+	@Param({"0.5"})
+	public double fillRatio;
+	@Param({"UNIFORM"})
+	public FanOut fanOut;
+	@Param({"10000"})
+	public long nodeCount;
+
+	@Getter private HierarchyStorage hierarchyStorage;
+	@Getter private Hierarchy hierarchy;
+	/**
+	 * Items that have at least one child.
+	 */
+	private String[] parents;
+	/**
+	 * Items with no children.
+	 */
+	private String[] leaves;
+	/**
+	 * Items that have room for another child.
+	 */
+	private String[] parentsWithRoom;
+	/**
+	 * Items that may be moved between two parents.
+	 */
+	private MovableItem[] movableItems;
+	private int parentIndex;
+	private int leafIndex;
+	private int roomIndex;
+	private int pairIndex;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.hierarchyStorage = storage.createStorage();
+		new PMPTT(hierarchyStorage).getOrCreateHierarchy(HIERARCHY_CODE, levels, sectionSize);
+		// re-read hierarchy so that storage specific implementation is used
+		this.hierarchy = hierarchyStorage.getHierarchy(HIERARCHY_CODE);
+		fill();
+	}
+
+	/**
+	 * Returns code of the next item having children.
+	 */
+	@Nonnull
+	public String nextParent() {
+		return parents[parentIndex++ & (parents.length - 1)];
+	}
+
+	/**
+	 * Returns code of the next item having no children.
+	 */
+	@Nonnull
+	public String nextLeaf() {
+		return leaves[leafIndex++ & (leaves.length - 1)];
+	}
+
+	/**
+	 * Returns code of the next item that may accept another child.
+	 */
+	@Nonnull
+	public String nextParentWithRoom() {
+		return parentsWithRoom[roomIndex++ & (parentsWithRoom.length - 1)];
+	}
+
+	/**
+	 * Returns next item that may be moved between two parents.
+	 */
+	@Nonnull
+	public MovableItem nextMovableItem() {
+		return movableItems[pairIndex++ & (movableItems.length - 1)];
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	private void fill() {
+		final Random random = new Random(42);
+		final Reservoir<String> parentCodes = new Reservoir<>(POOL_SIZE, random);
+		final Reservoir<String> leafCodes = new Reservoir<>(POOL_SIZE, random);
+		final Reservoir<String> roomCodes = new Reservoir<>(POOL_SIZE, random);
+		final Map<Short, Reservoir<Entry<String, String>>> lastChildrenByLevel = new TreeMap<>();
+		final Map<Short, Reservoir<String>> roomCodesByLevel = new TreeMap<>();
+		// items are generated depth first - parent of the item is the last item generated on the upper level
+		final HierarchyItem[] lastItemOnLevel = new HierarchyItem[levels + 1];
+		final TreeGenerator generator = TreeGenerator.tree(levels, sectionSize)
+			.nodes(nodeCount)
+			.fillRatio(fillRatio)
+			.fanOut(fanOut)
+			.codePrefix("item-");
+		generator.generate(hierarchy, hierarchyStorage, item -> {
+			lastItemOnLevel[item.getLevel()] = item;
+			if (item.getNumberOfChildren() > 0) {
+				parentCodes.add(item.getCode());
+			} else {
+				leafCodes.add(item.getCode());
+			}
+			if (item.getNumberOfChildren() < sectionSize && item.getLevel() < levels) {
+				roomCodes.add(item.getCode());
+				roomCodesByLevel.computeIfAbsent(item.getLevel(), lvl -> new Reservoir<>(POOL_SIZE, random)).add(item.getCode());
+			}
+			if (item.getLevel() > 1) {
+				final HierarchyItem parent = lastItemOnLevel[item.getLevel() - 1];
+				if (item.getOrder().equals(parent.getNumberOfChildren())) {
+					lastChildrenByLevel.computeIfAbsent(parent.getLevel(), lvl -> new Reservoir<>(POOL_SIZE, random))
+						.add(new SimpleImmutableEntry<>(item.getCode(), parent.getCode()));
+				}
+			}
+		});
+
+		// each parent with room accepts at most one moved item so that the moves never exhaust the section
+		final List<MovableItem> movables = new ArrayList<>();
+		for (Entry<Short, Reservoir<Entry<String, String>>> entry : lastChildrenByLevel.entrySet()) {
+			final Reservoir<String> levelRoomCodes = roomCodesByLevel.get(entry.getKey());
+			final List<String> freeTargets = levelRoomCodes == null ? new ArrayList<>() : new ArrayList<>(levelRoomCodes.getItems());
+			for (Entry<String, String> lastChild : entry.getValue().getItems()) {
+				String target = freeTargets.isEmpty() ? null : freeTargets.remove(freeTargets.size() - 1);
+				if (lastChild.getValue().equals(target)) {
+					// item cannot be moved to its own parent - try another target and return the parent to the pool
+					target = freeTargets.isEmpty() ? null : freeTargets.remove(freeTargets.size() - 1);
+					freeTargets.add(lastChild.getValue());
+				}
+				if (target == null) {
+					break;
+				}
+				movables.add(new MovableItem(lastChild.getKey(), lastChild.getValue(), target));
+			}
+		}
+		this.parents = toPool(parentCodes.getItems(), random);
+		this.leaves = toPool(leafCodes.getItems(), random);
+		this.parentsWithRoom = toPool(roomCodes.getItems(), random);
+		this.movableItems = toPool(movables, random, MovableItem.class);
+	}
+
+	@Nonnull
+	private static String[] toPool(@Nonnull List<String> codes, @Nonnull Random random) {
+		return toPool(codes, random, String.class);
+	}
+
+	/**
+	 * Shuffles the items and repeats them to the array of power of two length, so that cheap masking may be used
+	 * for cycling over it.
+	 */
+	@Nonnull
+	private static <T> T[] toPool(@Nonnull List<T> items, @Nonnull Random random, @Nonnull Class<T> type) {
+		if (items.isEmpty()) {
+			throw new IllegalStateException(
+				"Tree shape doesn't provide items of " + type.getSimpleName() + " required by the benchmark - adjust the parameters!"
+			);
+		}
+		final List<T> shuffled = new ArrayList<>(items);
+		Collections.shuffle(shuffled, random);
+		@SuppressWarnings("unchecked") final T[] pool = (T[]) Array.newInstance(type, POOL_SIZE);
+		for (int i = 0; i < POOL_SIZE; i++) {
+			pool[i] = shuffled.get(i % shuffled.size());
+		}
+		return pool;
+	}
+
+	/**
+	 * Item that is moved back and forth between its original parent and another parent on the same level.
+	 */
+	public static class MovableItem {
+		@Getter private final String code;
+		private final String originalParent;
+		private final String otherParent;
+		private boolean moved;
+
+		MovableItem(@Nonnull String code, @Nonnull String originalParent, @Nonnull String otherParent) {
+			this.code = code;
+			this.originalParent = originalParent;
+			this.otherParent = otherParent;
+		}
+
+		/**
+		 * Returns parent the item should be moved to now and flips the direction for the next call.
+		 */
+		@Nonnull
+		public String nextParent() {
+			moved = !moved;
+			return moved ? otherParent : originalParent;
+		}
+
+	}
+
+}
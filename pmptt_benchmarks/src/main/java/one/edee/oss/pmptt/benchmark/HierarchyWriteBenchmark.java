@@ -0,0 +1,163 @@
+package one.edee.oss.pmptt.benchmark;
+
+import one.edee.oss.pmptt.benchmark.HierarchyState.MovableItem;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the write operations of the {@link one.edee.oss.pmptt.model.Hierarchy}. Each benchmark keeps the shape
+ * of the tree stable so that the measurements don't drift as the iterations go - created items are removed, removed
+ * items are created in advance and moved items travel back and forth between two positions.
+ *
+ * Creation and removal use invocation level fixtures - their cost is not included in the measurement, but JMH
+ * timestamps each invocation, which slightly skews results of the fastest (memory) operations.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HierarchyWriteBenchmark {
+
+	@Benchmark
+	public HierarchyItem createItem(HierarchyState state, CreatedItem createdItem) {
+		return state.getHierarchy().createItem(createdItem.code, createdItem.parent);
+	}
+
+	@Benchmark
+	public HierarchyItem createItemBefore(HierarchyState state, CreatedItemBefore createdItem) {
+		return state.getHierarchy().createItem(createdItem.code, createdItem.parent, createdItem.before);
+	}
+
+	@Benchmark
+	public void removeItem(HierarchyState state, RemovedItem removedItem) {
+		state.getHierarchy().removeItem(removedItem.code);
+	}
+
+	@Benchmark
+	public void moveItemBefore(HierarchyState state, SiblingPair siblings) {
+		state.getHierarchy().moveItemBefore(siblings.second, siblings.first);
+	}
+
+	@Benchmark
+	public void moveItemBetweenLevelsFirst(HierarchyState state) {
+		final MovableItem item = state.nextMovableItem();
+		state.getHierarchy().moveItemBetweenLevelsFirst(item.getCode(), item.nextParent());
+	}
+
+	@Benchmark
+	public void moveItemBetweenLevelsLast(HierarchyState state) {
+		final MovableItem item = state.nextMovableItem();
+		state.getHierarchy().moveItemBetweenLevelsLast(item.getCode(), item.nextParent());
+	}
+
+	/**
+	 * Item to be created by the benchmark and removed afterwards.
+	 */
+	@State(Scope.Thread)
+	public static class CreatedItem {
+		private int sequence;
+		String code;
+		String parent;
+
+		@Setup(Level.Invocation)
+		public void setUp(HierarchyState state) {
+			this.code = "created-" + sequence++;
+			this.parent = state.nextParentWithRoom();
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown(HierarchyState state) {
+			state.getHierarchy().removeItem(code);
+		}
+
+	}
+
+	/**
+	 * Item to be created before the first child of the parent by the benchmark and removed afterwards.
+	 */
+	@State(Scope.Thread)
+	public static class CreatedItemBefore {
+		private int sequence;
+		String code;
+		String parent;
+		String before;
+
+		@Setup(Level.Invocation)
+		public void setUp(HierarchyState state) {
+			this.code = "created-before-" + sequence++;
+			List<HierarchyItem> children = Collections.emptyList();
+			for (int attempt = 0; children.isEmpty(); attempt++) {
+				if (attempt > 1024) {
+					throw new IllegalStateException("Tree shape doesn't contain parents with children and spare room - decrease fill ratio!");
+				}
+				this.parent = state.nextParentWithRoom();
+				children = state.getHierarchy().getChildItems(parent);
+			}
+			this.before = children.get(0).getCode();
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown(HierarchyState state) {
+			state.getHierarchy().removeItem(code);
+		}
+
+	}
+
+	/**
+	 * Leaf item created in advance to be removed by the benchmark.
+	 */
+	@State(Scope.Thread)
+	public static class RemovedItem {
+		private int sequence;
+		String code;
+
+		@Setup(Level.Invocation)
+		public void setUp(HierarchyState state) {
+			this.code = "removed-" + sequence++;
+			state.getHierarchy().createItem(code, state.nextParentWithRoom());
+		}
+
+	}
+
+	/**
+	 * First two children of the parent - swapping them keeps the tree stable.
+	 */
+	@State(Scope.Thread)
+	public static class SiblingPair {
+		String first;
+		String second;
+
+		@Setup(Level.Invocation)
+		public void setUp(HierarchyState state) {
+			List<HierarchyItem> children = state.getHierarchy().getChildItems(state.nextParent());
+			for (int attempt = 0; children.size() < 2; attempt++) {
+				if (attempt > 1024) {
+					throw new IllegalStateException("Tree shape doesn't contain parents with two children - increase fill ratio!");
+				}
+				children = state.getHierarchy().getChildItems(state.nextParent());
+			}
+			this.first = children.get(0).getCode();
+			this.second = children.get(1).getCode();
+		}
+
+	}
+
+}
@@ -0,0 +1,146 @@
+package one.edee.oss.pmptt.benchmark;
+
+import lombok.Getter;
+import one.edee.oss.pmptt.util.TreeGenerator.FanOut;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Configuration of the {@link LoadHarness} run. Configuration is parsed from `key=value` command line arguments,
+ * all keys are optional:
+ *
+ * - `storage` - MEMORY or H2, default H2
+ * - `threads` - number of worker threads, default 8
+ * - `warmup` / `duration` - length of the warm-up and measured phases (e.g. `10s`, `500ms`), default 10s / 60s
+ * - `thinkTime` - pause of each worker between two operations (e.g. `2ms`, `200us`), default 0
+ * - `mix` - relative weights of the operations (e.g. `getChildItems:40,createItem:2`), default 95% reads / 5% writes
+ * - `nodes`, `levels`, `sectionSize`, `fillRatio`, `fanOut`, `seed` - shape of the generated tree
+ * - `report` - path of the JSON report, default `load-report.json`
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@Getter
+public class LoadConfiguration {
+	private static final Pattern DURATION = Pattern.compile("(\\d+)(us|ms|s|m)?");
+	private BenchmarkStorage storage = BenchmarkStorage.H2;
+	private int threads = 8;
+	private long warmupNanos = TimeUnit.SECONDS.toNanos(10);
+	private long durationNanos = TimeUnit.SECONDS.toNanos(60);
+	private long thinkTimeNanos = 0L;
+	private final Map<LoadOperation, Double> mix = new EnumMap<>(LoadOperation.class);
+	private long nodes = 100_000;
+	private short levels = 5;
+	private short sectionSize = 20;
+	private double fillRatio = 0.5;
+	private FanOut fanOut = FanOut.ZIPF;
+	private long seed = 42L;
+	private String report = "load-report.json";
+
+	public LoadConfiguration() {
+		mix.put(LoadOperation.GET_CHILD_ITEMS, 40.0);
+		mix.put(LoadOperation.GET_PARENT_ITEMS, 35.0);
+		mix.put(LoadOperation.GET_LEAF_ITEMS, 20.0);
+		mix.put(LoadOperation.CREATE_ITEM, 1.5);
+		mix.put(LoadOperation.REMOVE_ITEM, 1.5);
+		mix.put(LoadOperation.MOVE_ITEM_BEFORE, 1.0);
+		mix.put(LoadOperation.MOVE_ITEM_BETWEEN_LEVELS, 1.0);
+	}
+
+	/**
+	 * Parses the configuration from the command line arguments.
+	 */
+	@Nonnull
+	public static LoadConfiguration parse(@Nonnull String... args) {
+		final LoadConfiguration configuration = new LoadConfiguration();
+		for (String arg : args) {
+			final int separator = arg.indexOf('=');
+			if (separator <= 0) {
+				throw new IllegalArgumentException("Argument `" + arg + "` is not in format key=value!");
+			}
+			configuration.set(arg.substring(0, separator), arg.substring(separator + 1));
+		}
+		return configuration;
+	}
+
+	/**
+	 * Returns configuration in the form of ordered key-value pairs for the report.
+	 */
+	@Nonnull
+	public Map<String, Object> toMap() {
+		final Map<String, Object> result = new LinkedHashMap<>();
+		result.put("storage", storage.name());
+		result.put("threads", threads);
+		result.put("warmupMillis", TimeUnit.NANOSECONDS.toMillis(warmupNanos));
+		result.put("durationMillis", TimeUnit.NANOSECONDS.toMillis(durationNanos));
+		result.put("thinkTimeMicros", TimeUnit.NANOSECONDS.toMicros(thinkTimeNanos));
+		final Map<String, Object> mixMap = new LinkedHashMap<>();
+		for (Map.Entry<LoadOperation, Double> entry : mix.entrySet()) {
+			mixMap.put(entry.getKey().getName(), entry.getValue());
+		}
+		result.put("mix", mixMap);
+		result.put("nodes", nodes);
+		result.put("levels", levels);
+		result.put("sectionSize", sectionSize);
+		result.put("fillRatio", fillRatio);
+		result.put("fanOut", fanOut.name());
+		result.put("seed", seed);
+		return Collections.unmodifiableMap(result);
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	private void set(@Nonnull String key, @Nonnull String value) {
+		switch (key) {
+			case "storage": storage = BenchmarkStorage.valueOf(value.toUpperCase()); break;
+			case "threads": threads = Integer.parseInt(value); break;
+			case "warmup": warmupNanos = parseDuration(value); break;
+			case "duration": durationNanos = parseDuration(value); break;
+			case "thinkTime": thinkTimeNanos = parseDuration(value); break;
+			case "mix": parseMix(value); break;
+			case "nodes": nodes = Long.parseLong(value); break;
+			case "levels": levels = Short.parseShort(value); break;
+			case "sectionSize": sectionSize = Short.parseShort(value); break;
+			case "fillRatio": fillRatio = Double.parseDouble(value); break;
+			case "fanOut": fanOut = FanOut.valueOf(value.toUpperCase()); break;
+			case "seed": seed = Long.parseLong(value); break;
+			case "report": report = value; break;
+			default: throw new IllegalArgumentException("Unknown argument `" + key + "`!");
+		}
+	}
+
+	private void parseMix(@Nonnull String value) {
+		mix.clear();
+		for (String part : value.split(",")) {
+			final String[] operationAndWeight = part.split(":");
+			if (operationAndWeight.length != 2) {
+				throw new IllegalArgumentException("Operation mix `" + part + "` is not in format operation:weight!");
+			}
+			mix.put(LoadOperation.forName(operationAndWeight[0].trim()), Double.parseDouble(operationAndWeight[1]));
+		}
+	}
+
+	private static long parseDuration(@Nonnull String value) {
+		final Matcher matcher = DURATION.matcher(value.trim());
+		if (!matcher.matches()) {
+			throw new IllegalArgumentException("Duration `" + value + "` is not in format <number>[us|ms|s|m]!");
+		}
+		final long amount = Long.parseLong(matcher.group(1));
+		final String unit = matcher.group(2) == null ? "ms" : matcher.group(2);
+		switch (unit) {
+			case "us": return TimeUnit.MICROSECONDS.toNanos(amount);
+			case "s": return TimeUnit.SECONDS.toNanos(amount);
+			case "m": return TimeUnit.MINUTES.toNanos(amount);
+			default: return TimeUnit.MILLISECONDS.toNanos(amount);
+		}
+	}
+
+}
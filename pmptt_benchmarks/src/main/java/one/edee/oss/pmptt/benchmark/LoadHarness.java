@@ -0,0 +1,226 @@
+package one.edee.oss.pmptt.benchmark;
+
+import lombok.Getter;
+import lombok.extern.apachecommons.CommonsLog;
+import one.edee.oss.pmptt.PMPTT;
+import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.util.TreeGenerator;
+
+import javax.annotation.Nonnull;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Soak / load test driving single {@link Hierarchy} from many threads with configurable mix of read and write
+ * operations (see {@link LoadConfiguration} for the arguments). Tree is generated by {@link TreeGenerator}, then
+ * the workers run for the warm-up period, statistics are reset and the workers run for the measured period. Latency
+ * percentiles, throughput and error rates of the individual operations are printed and written to the JSON report.
+ *
+ * Memory storage is not thread safe - writers are therefore serialized with the readers by read/write lock, database
+ * storages rely on their own locking.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@CommonsLog
+public class LoadHarness {
+	private static final String HIERARCHY_CODE = "load";
+	private static final int POOL_SIZE = 4096;
+	private final LoadConfiguration configuration;
+	private final Hierarchy hierarchy;
+	private final ReadWriteLock memoryLock;
+	private final LoadOperation[] operations;
+	private final double[] cumulativeWeights;
+	private String[] parents;
+	private String[] leaves;
+	private String[] targets;
+	private volatile LoadStatistics statistics = new LoadStatistics();
+	private volatile boolean running = true;
+
+	public static void main(String[] args) throws InterruptedException {
+		final LoadConfiguration configuration = LoadConfiguration.parse(args);
+		final LoadStatistics statistics = new LoadHarness(configuration).run();
+		statistics.print(System.out);
+		statistics.writeReport(Paths.get(configuration.getReport()), configuration);
+	}
+
+	public LoadHarness(@Nonnull LoadConfiguration configuration) {
+		this.configuration = configuration;
+		final HierarchyStorage storage = configuration.getStorage().createStorage();
+		new PMPTT(storage).getOrCreateHierarchy(HIERARCHY_CODE, configuration.getLevels(), configuration.getSectionSize());
+		// re-read hierarchy so that storage specific implementation is used
+		this.hierarchy = storage.getHierarchy(HIERARCHY_CODE);
+		this.memoryLock = configuration.getStorage() == BenchmarkStorage.MEMORY ? new ReentrantReadWriteLock() : null;
+		final Map<LoadOperation, Double> mix = configuration.getMix();
+		this.operations = mix.keySet().toArray(new LoadOperation[0]);
+		this.cumulativeWeights = new double[operations.length];
+		double sum = 0;
+		for (int i = 0; i < operations.length; i++) {
+			sum += mix.get(operations[i]);
+			cumulativeWeights[i] = sum;
+		}
+		if (sum <= 0) {
+			throw new IllegalArgumentException("Operation mix must contain at least one operation with positive weight!");
+		}
+		fill(storage);
+	}
+
+	/**
+	 * Executes the warm-up and the measured phase and returns statistics of the measured phase.
+	 */
+	@Nonnull
+	public LoadStatistics run() throws InterruptedException {
+		final ExecutorService executor = Executors.newFixedThreadPool(configuration.getThreads());
+		for (int i = 0; i < configuration.getThreads(); i++) {
+			executor.execute(new Worker(i));
+		}
+		log.info("Warming up for " + TimeUnit.NANOSECONDS.toSeconds(configuration.getWarmupNanos()) + "s ...");
+		TimeUnit.NANOSECONDS.sleep(configuration.getWarmupNanos());
+		final LoadStatistics measured = new LoadStatistics();
+		this.statistics = measured;
+		log.info("Measuring for " + TimeUnit.NANOSECONDS.toSeconds(configuration.getDurationNanos()) + "s ...");
+		TimeUnit.NANOSECONDS.sleep(configuration.getDurationNanos());
+		measured.finish();
+		this.running = false;
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+		return measured;
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	private void fill(@Nonnull HierarchyStorage storage) {
+		final Random random = new Random(configuration.getSeed());
+		final Reservoir<String> parentCodes = new Reservoir<>(POOL_SIZE, random);
+		final Reservoir<String> leafCodes = new Reservoir<>(POOL_SIZE, random);
+		final Reservoir<String> targetCodes = new Reservoir<>(POOL_SIZE, random);
+		final long start = System.nanoTime();
+		final long count = TreeGenerator.tree(hierarchy)
+			.nodes(configuration.getNodes())
+			.fillRatio(configuration.getFillRatio())
+			.fanOut(configuration.getFanOut())
+			.seed(configuration.getSeed())
+			.generate(hierarchy, storage, item -> {
+				if (item.getNumberOfChildren() > 0) {
+					parentCodes.add(item.getCode());
+				}
+				// leaves on the deepest level are never targets, so they may be moved anywhere
+				if (item.getLevel() < configuration.getLevels()) {
+					if (item.getNumberOfChildren() < configuration.getSectionSize()) {
+						targetCodes.add(item.getCode());
+					}
+				} else {
+					leafCodes.add(item.getCode());
+				}
+			});
+		log.info("Generated " + count + " items in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms.");
+		this.parents = toPool(parentCodes, "parents");
+		this.leaves = toPool(leafCodes, "leaves on the deepest level");
+		this.targets = toPool(targetCodes, "parents with spare room");
+	}
+
+	@Nonnull
+	private static String[] toPool(@Nonnull Reservoir<String> reservoir, @Nonnull String description) {
+		if (reservoir.getItems().isEmpty()) {
+			throw new IllegalStateException("Tree shape doesn't provide " + description + " required by the workload - adjust the parameters!");
+		}
+		return reservoir.getItems().toArray(new String[0]);
+	}
+
+	/**
+	 * Thread executing the operations.
+	 */
+	class Worker implements Runnable {
+		private final int index;
+		private final Random random;
+		@Getter private final Queue<String> createdItems = new ArrayDeque<>();
+		private long sequence;
+
+		Worker(int index) {
+			this.index = index;
+			this.random = new Random(configuration.getSeed() + index);
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				final LoadOperation operation = nextOperation();
+				final Lock lock = memoryLock == null ? null : operation.isWrite() ? memoryLock.writeLock() : memoryLock.readLock();
+				if (lock != null) {
+					lock.lock();
+				}
+				try {
+					final Runnable action = operation.prepare(this);
+					if (action != null) {
+						execute(operation, action);
+					}
+				} catch (RuntimeException ex) {
+					// picking the pivots failed
+					statistics.recordFailure(operation, ex);
+				} finally {
+					if (lock != null) {
+						lock.unlock();
+					}
+				}
+				if (configuration.getThinkTimeNanos() > 0) {
+					LockSupport.parkNanos(configuration.getThinkTimeNanos());
+				}
+			}
+		}
+
+		Hierarchy getHierarchy() {
+			return hierarchy;
+		}
+
+		String nextParent() {
+			return parents[random.nextInt(parents.length)];
+		}
+
+		String nextLeaf() {
+			return leaves[random.nextInt(leaves.length)];
+		}
+
+		String nextTarget() {
+			return targets[random.nextInt(targets.length)];
+		}
+
+		String nextCode() {
+			return "load-" + index + "-" + sequence++;
+		}
+
+		private LoadOperation nextOperation() {
+			final double value = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+			for (int i = 0; i < cumulativeWeights.length; i++) {
+				if (value < cumulativeWeights[i]) {
+					return operations[i];
+				}
+			}
+			return operations[operations.length - 1];
+		}
+
+		private void execute(@Nonnull LoadOperation operation, @Nonnull Runnable action) {
+			final LoadStatistics currentStatistics = statistics;
+			final long start = System.nanoTime();
+			try {
+				action.run();
+				currentStatistics.recordSuccess(operation, System.nanoTime() - start);
+			} catch (RuntimeException ex) {
+				currentStatistics.recordFailure(operation, ex);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,123 @@
+package one.edee.oss.pmptt.benchmark;
+
+import lombok.Getter;
+import one.edee.oss.pmptt.benchmark.LoadHarness.Worker;
+import one.edee.oss.pmptt.model.HierarchyItem;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Operations the {@link LoadHarness} mixes. Each operation first picks its pivots (this part is not measured) and
+ * returns the action that is timed. Writes keep the tree in a steady state - items are created only by
+ * {@link #CREATE_ITEM} and removed only by {@link #REMOVE_ITEM}, moved leaves travel among the parents with spare room.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public enum LoadOperation {
+
+	GET_CHILD_ITEMS("getChildItems", false) {
+		@Override
+		Runnable prepare(@Nonnull Worker worker) {
+			final String parent = worker.nextParent();
+			return () -> worker.getHierarchy().getChildItems(parent);
+		}
+	},
+
+	GET_PARENT_ITEMS("getParentItems", false) {
+		@Override
+		Runnable prepare(@Nonnull Worker worker) {
+			final String leaf = worker.nextLeaf();
+			return () -> worker.getHierarchy().getParentItems(leaf);
+		}
+	},
+
+	GET_LEAF_ITEMS("getLeafItems", false) {
+		@Override
+		Runnable prepare(@Nonnull Worker worker) {
+			final String parent = worker.nextParent();
+			return () -> worker.getHierarchy().getLeafItems(parent);
+		}
+	},
+
+	CREATE_ITEM("createItem", true) {
+		@Override
+		Runnable prepare(@Nonnull Worker worker) {
+			final String code = worker.nextCode();
+			final String parent = worker.nextTarget();
+			return () -> {
+				worker.getHierarchy().createItem(code, parent);
+				worker.getCreatedItems().add(code);
+			};
+		}
+	},
+
+	REMOVE_ITEM("removeItem", true) {
+		@Nullable
+		@Override
+		Runnable prepare(@Nonnull Worker worker) {
+			// only items created by the worker itself are removed
+			final String code = worker.getCreatedItems().poll();
+			return code == null ? null : () -> worker.getHierarchy().removeItem(code);
+		}
+	},
+
+	MOVE_ITEM_BEFORE("moveItemBefore", true) {
+		@Nullable
+		@Override
+		Runnable prepare(@Nonnull Worker worker) {
+			final List<HierarchyItem> children = worker.getHierarchy().getChildItems(worker.nextParent());
+			if (children.size() < 2) {
+				return null;
+			}
+			final String moved = children.get(children.size() - 1).getCode();
+			final String before = children.get(0).getCode();
+			return () -> worker.getHierarchy().moveItemBefore(moved, before);
+		}
+	},
+
+	MOVE_ITEM_BETWEEN_LEVELS("moveItemBetweenLevels", true) {
+		@Override
+		Runnable prepare(@Nonnull Worker worker) {
+			final String leaf = worker.nextLeaf();
+			final String target = worker.nextTarget();
+			return () -> worker.getHierarchy().moveItemBetweenLevelsLast(leaf, target);
+		}
+	};
+
+	/**
+	 * Name of the operation used in the configuration and the report.
+	 */
+	@Getter private final String name;
+	/**
+	 * True if the operation modifies the hierarchy.
+	 */
+	@Getter private final boolean write;
+
+	LoadOperation(@Nonnull String name, boolean write) {
+		this.name = name;
+		this.write = write;
+	}
+
+	/**
+	 * Returns operation of the passed name.
+	 */
+	@Nonnull
+	public static LoadOperation forName(@Nonnull String name) {
+		for (LoadOperation operation : values()) {
+			if (operation.name.equals(name)) {
+				return operation;
+			}
+		}
+		throw new IllegalArgumentException("Unknown operation `" + name + "`!");
+	}
+
+	/**
+	 * Picks the pivots of the operation and returns the action to be measured or null if the operation cannot be
+	 * executed right now (and another one should be picked instead).
+	 */
+	@Nullable
+	abstract Runnable prepare(@Nonnull Worker worker);
+
+}
@@ -0,0 +1,191 @@
+package one.edee.oss.pmptt.benchmark;
+
+import one.edee.oss.pmptt.exception.SectionExhausted;
+import one.edee.oss.pmptt.util.LatencyHistogram;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies, throughput and errors of the operations executed by the {@link LoadHarness} within the measured phase.
+ * Recording is lock-free so that it doesn't influence the measured workload.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class LoadStatistics {
+	private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+	private static final String[] PERCENTILE_LABELS = {"p50", "p90", "p99", "p99.9"};
+	private final Map<LoadOperation, OperationStatistics> operations = new EnumMap<>(LoadOperation.class);
+	private final long startNanos = System.nanoTime();
+	private volatile long endNanos;
+
+	public LoadStatistics() {
+		for (LoadOperation operation : LoadOperation.values()) {
+			operations.put(operation, new OperationStatistics());
+		}
+	}
+
+	/**
+	 * Records successful execution of the operation.
+	 */
+	public void recordSuccess(@Nonnull LoadOperation operation, long nanos) {
+		operations.get(operation).latency.record(nanos);
+	}
+
+	/**
+	 * Records failed execution of the operation.
+	 */
+	public void recordFailure(@Nonnull LoadOperation operation, @Nonnull Throwable error) {
+		final OperationStatistics statistics = operations.get(operation);
+		statistics.errors.increment();
+		if (error instanceof SectionExhausted) {
+			statistics.sectionExhausted.increment();
+		} else if (error instanceof ConcurrencyFailureException) {
+			statistics.lockFailures.increment();
+		}
+		statistics.errorsByType.computeIfAbsent(error.getClass().getSimpleName(), type -> new LongAdder()).increment();
+	}
+
+	/**
+	 * Closes the measured phase.
+	 */
+	public void finish() {
+		this.endNanos = System.nanoTime();
+	}
+
+	/**
+	 * Returns length of the measured phase in seconds.
+	 */
+	public double getElapsedSeconds() {
+		return ((endNanos == 0 ? System.nanoTime() : endNanos) - startNanos) / 1_000_000_000.0;
+	}
+
+	/**
+	 * Prints human readable summary.
+	 */
+	public void print(@Nonnull PrintStream out) {
+		out.printf(
+			"%-22s %10s %10s %8s %10s %10s %10s %10s %10s%n",
+			"operation", "ops", "ops/s", "errors", "mean[us]", "p50[us]", "p99[us]", "p99.9[us]", "max[us]"
+		);
+		for (Entry<LoadOperation, OperationStatistics> entry : operations.entrySet()) {
+			final LatencyHistogram latency = entry.getValue().latency;
+			final long attempts = entry.getValue().getAttempts();
+			if (attempts > 0) {
+				out.printf(
+					"%-22s %10d %10.1f %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+					entry.getKey().getName(), attempts, attempts / getElapsedSeconds(), entry.getValue().errors.sum(),
+					latency.getMeanNanos() / 1000.0, micros(latency.getPercentileNanos(50.0)),
+					micros(latency.getPercentileNanos(99.0)), micros(latency.getPercentileNanos(99.9)),
+					micros(latency.getMaxNanos())
+				);
+			}
+		}
+	}
+
+	/**
+	 * Writes machine readable report in JSON format, so that the runs may be compared.
+	 */
+	public void writeReport(@Nonnull Path file, @Nonnull LoadConfiguration configuration) {
+		final Map<String, Object> report = new LinkedHashMap<>();
+		report.put("configuration", configuration.toMap());
+		final double elapsedSeconds = getElapsedSeconds();
+		report.put("elapsedSeconds", elapsedSeconds);
+		long totalAttempts = 0;
+		long totalErrors = 0;
+		final Map<String, Object> operationReports = new LinkedHashMap<>();
+		for (Entry<LoadOperation, OperationStatistics> entry : operations.entrySet()) {
+			final OperationStatistics statistics = entry.getValue();
+			final long attempts = statistics.getAttempts();
+			totalAttempts += attempts;
+			totalErrors += statistics.errors.sum();
+			final Map<String, Object> operationReport = new LinkedHashMap<>();
+			operationReport.put("operations", attempts);
+			operationReport.put("throughput", attempts / elapsedSeconds);
+			operationReport.put("errors", statistics.errors.sum());
+			operationReport.put("errorRate", attempts == 0 ? 0.0 : (double) statistics.errors.sum() / attempts);
+			operationReport.put("sectionExhausted", statistics.sectionExhausted.sum());
+			operationReport.put("lockFailures", statistics.lockFailures.sum());
+			final Map<String, Object> errorsByType = new LinkedHashMap<>();
+			statistics.errorsByType.forEach((type, count) -> errorsByType.put(type, count.sum()));
+			operationReport.put("errorsByType", errorsByType);
+			final Map<String, Object> latency = new LinkedHashMap<>();
+			latency.put("mean", statistics.latency.getMeanNanos() / 1000.0);
+			for (int i = 0; i < PERCENTILES.length; i++) {
+				latency.put(PERCENTILE_LABELS[i], micros(statistics.latency.getPercentileNanos(PERCENTILES[i])));
+			}
+			latency.put("max", micros(statistics.latency.getMaxNanos()));
+			operationReport.put("latencyMicros", latency);
+			operationReports.put(entry.getKey().getName(), operationReport);
+		}
+		report.put("operations", totalAttempts);
+		report.put("throughput", totalAttempts / elapsedSeconds);
+		report.put("errors", totalErrors);
+		report.put("errorRate", totalAttempts == 0 ? 0.0 : (double) totalErrors / totalAttempts);
+		report.put("byOperation", operationReports);
+
+		final StringBuilder json = new StringBuilder();
+		appendJson(json, report, "");
+		try {
+			Files.write(file, json.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	private static double micros(long nanos) {
+		return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+	}
+
+	private static void appendJson(@Nonnull StringBuilder json, Object value, @Nonnull String indentation) {
+		if (value instanceof Map) {
+			final String nested = indentation + "  ";
+			json.append("{");
+			boolean first = true;
+			for (Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				json.append(first ? "\n" : ",\n").append(nested).append('"').append(entry.getKey()).append("\": ");
+				appendJson(json, entry.getValue(), nested);
+				first = false;
+			}
+			json.append(first ? "}" : "\n" + indentation + "}");
+		} else if (value instanceof Number || value instanceof Boolean) {
+			json.append(value);
+		} else {
+			json.append('"').append(String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+		}
+	}
+
+	/**
+	 * Statistics of single operation.
+	 */
+	private static class OperationStatistics {
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder sectionExhausted = new LongAdder();
+		private final LongAdder lockFailures = new LongAdder();
+		private final Map<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+
+		long getAttempts() {
+			return latency.getCount() + errors.sum();
+		}
+
+	}
+
+}
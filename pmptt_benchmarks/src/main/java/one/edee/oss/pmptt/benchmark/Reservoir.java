@@ -0,0 +1,39 @@
+package one.edee.oss.pmptt.benchmark;
+
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Uniform sample of at most `capacity` items of the stream - the pools of pivot items don't grow with the tree size.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+class Reservoir<T> {
+	private final int capacity;
+	private final Random random;
+	@Getter private final List<T> items;
+	private long seen;
+
+	Reservoir(int capacity, @Nonnull Random random) {
+		this.capacity = capacity;
+		this.random = random;
+		this.items = new ArrayList<>(capacity);
+	}
+
+	void add(@Nonnull T item) {
+		seen++;
+		if (items.size() < capacity) {
+			items.add(item);
+		} else {
+			final long index = (long) (random.nextDouble() * seen);
+			if (index < capacity) {
+				items.set((int) index, item);
+			}
+		}
+	}
+
+}
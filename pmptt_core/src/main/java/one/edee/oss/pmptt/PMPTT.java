@@ -2,7 +2,9 @@ package one.edee.oss.pmptt;
 
 import lombok.RequiredArgsConstructor;
 import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.model.Bounds;
 import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
 import one.edee.oss.pmptt.spi.HierarchyChangeListener;
 import one.edee.oss.pmptt.util.Assert;
 
@@ -30,6 +32,43 @@ public class PMPTT {
 		this.hierarchyStorage.registerChangeListener(listener);
 	}
 
+	/**
+	 * Registers new callback listener to be called back in case modification event occurs in the hierarchy
+	 * of passed code.
+	 *
+	 * @param hierarchyCode code of the observed hierarchy
+	 * @param listener implementation to be called back
+	 */
+	public void registerChangeListener(String hierarchyCode, HierarchyChangeListener listener) {
+		this.hierarchyStorage.registerChangeListener(hierarchyCode, listener);
+	}
+
+	/**
+	 * Registers new callback listener to be called back in case modification event occurs in the subtree of passed
+	 * item (including the item itself). Subscription observes current bounds of the item - it doesn't follow the item
+	 * when it is moved to another parent.
+	 *
+	 * @param subtreeRoot root item of the observed subtree
+	 * @param listener implementation to be called back
+	 */
+	public void registerChangeListener(HierarchyItem subtreeRoot, HierarchyChangeListener listener) {
+		this.hierarchyStorage.registerChangeListener(
+			subtreeRoot.getHierarchyCode(),
+			new Bounds(subtreeRoot.getLeftBound(), subtreeRoot.getRightBound()),
+			listener
+		);
+	}
+
+	/**
+	 * Removes all registrations of the callback listener.
+	 *
+	 * @param listener implementation registered earlier
+	 * @return true if listener was registered
+	 */
+	public boolean unregisterChangeListener(HierarchyChangeListener listener) {
+		return this.hierarchyStorage.unregisterChangeListener(listener);
+	}
+
 	/**
 	 * Returns or creates new hierarchy of certain (unique) code.
 	 *
@@ -40,9 +79,23 @@ public class PMPTT {
 	 * @throws IllegalArgumentException when dimensions in the arguments don't match dimensions of already created hierarchy
 	 */
 	public Hierarchy getOrCreateHierarchy(String code, short levels, short sectionSize) {
+		return getOrCreateHierarchy(code, levels, sectionSize, false);
+	}
+
+	/**
+	 * Returns or creates new hierarchy of certain (unique) code.
+	 *
+	 * @param code unique code of the hierarchy
+	 * @param levels maximum levels of the hierarchy
+	 * @param sectionSize maximum items inside the section
+	 * @param longCodes true if codes of all items in the hierarchy are 64-bit numbers (see {@link Hierarchy#isLongCodes()})
+	 * @return hierarchy looked up
+	 * @throws IllegalArgumentException when dimensions in the arguments don't match dimensions of already created hierarchy
+	 */
+	public Hierarchy getOrCreateHierarchy(String code, short levels, short sectionSize, boolean longCodes) {
 		final Hierarchy hierarchy = hierarchyStorage.getHierarchy(code);
 		if (hierarchy == null) {
-			final Hierarchy newHierarchy = new Hierarchy(code, levels, sectionSize);
+			final Hierarchy newHierarchy = new Hierarchy(code, levels, sectionSize, longCodes);
 			hierarchyStorage.createHierarchy(newHierarchy);
 			return newHierarchy;
 		} else {
@@ -54,6 +107,10 @@ public class PMPTT {
 					hierarchy.getSectionSize() - 1 == sectionSize,
 					"Incompatible section size - existing " + hierarchy.getSectionSize() + " wanted " + sectionSize + "!"
 			);
+			Assert.isTrue(
+					hierarchy.isLongCodes() == longCodes,
+					"Incompatible code type - existing " + (hierarchy.isLongCodes() ? "long" : "string") + " codes wanted " + (longCodes ? "long" : "string") + " codes!"
+			);
 			return hierarchy;
 		}
 	}
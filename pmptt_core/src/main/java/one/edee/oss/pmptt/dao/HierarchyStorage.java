@@ -1,13 +1,19 @@
 package one.edee.oss.pmptt.dao;
 
+import one.edee.oss.pmptt.model.Bounds;
 import one.edee.oss.pmptt.model.Hierarchy;
 import one.edee.oss.pmptt.model.HierarchyItem;
 import one.edee.oss.pmptt.model.SectionWithBucket;
+import one.edee.oss.pmptt.spi.FilteringHierarchyChangeListener;
 import one.edee.oss.pmptt.spi.HierarchyChangeListener;
+import one.edee.oss.pmptt.spi.HierarchyInstrumentation;
+import one.edee.oss.pmptt.util.Assert;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -26,6 +32,62 @@ public interface HierarchyStorage {
 	 */
 	void registerChangeListener(HierarchyChangeListener listener);
 
+	/**
+	 * Registers new {@link HierarchyChangeListener} that will be called in case any {@link HierarchyItem} of the
+	 * hierarchy with passed code is modified.
+	 *
+	 * Default implementation registers the listener wrapped in {@link FilteringHierarchyChangeListener} for all changes
+	 * - the wrapper is detached from the listener by {@link #unregisterChangeListener(HierarchyChangeListener)}.
+	 *
+	 * @param hierarchyCode code of the observed hierarchy
+	 * @param listener implementation that will be called back in observed situations
+	 */
+	default void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull HierarchyChangeListener listener) {
+		FilteringHierarchyChangeListener.register(this, hierarchyCode, null, listener);
+	}
+
+	/**
+	 * Registers new {@link HierarchyChangeListener} that will be called in case any {@link HierarchyItem} within
+	 * the subtree bounds of the hierarchy with passed code is modified. Updated items are matched by both original
+	 * and new bounds.
+	 *
+	 * Default implementation registers the listener wrapped in {@link FilteringHierarchyChangeListener} for all changes
+	 * - the wrapper is detached from the listener by {@link #unregisterChangeListener(HierarchyChangeListener)}.
+	 *
+	 * @param hierarchyCode code of the observed hierarchy
+	 * @param subtreeBounds bounds of the observed subtree (inclusive)
+	 * @param listener implementation that will be called back in observed situations
+	 */
+	default void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull Bounds subtreeBounds, @Nonnull HierarchyChangeListener listener) {
+		FilteringHierarchyChangeListener.register(this, hierarchyCode, subtreeBounds, listener);
+	}
+
+	/**
+	 * Removes all registrations of the {@link HierarchyChangeListener}. Default implementation removes only the scoped
+	 * registrations made by the default implementations of the scoped registration methods - it detaches their
+	 * {@link FilteringHierarchyChangeListener} wrappers from the listener. Storages that override this method but keep
+	 * the default scoped registrations should call {@link FilteringHierarchyChangeListener#unregister(HierarchyStorage, HierarchyChangeListener)}
+	 * as well.
+	 *
+	 * @param listener implementation registered earlier
+	 * @return true if listener was registered
+	 */
+	default boolean unregisterChangeListener(@Nonnull HierarchyChangeListener listener) {
+		return FilteringHierarchyChangeListener.unregister(this, listener);
+	}
+
+	/**
+	 * Returns {@link HierarchyInstrumentation} that should receive measurements of the {@link Hierarchy} operations
+	 * executed upon this storage. Storages are not instrumented by default - wrap them in
+	 * {@link InstrumentedHierarchyStorage} to collect the measurements.
+	 *
+	 * @return instrumentation, never null
+	 */
+	@Nonnull
+	default HierarchyInstrumentation getInstrumentation() {
+		return HierarchyInstrumentation.NO_OP;
+	}
+
 	/**
 	 * Created new MPTT hierarchy with unique code and configuration.
 	 *
@@ -65,6 +127,39 @@ public interface HierarchyStorage {
 	 */
 	void createItem(HierarchyItem newItem, HierarchyItem parent);
 
+	/**
+	 * Creates multiple hierarchy items at once - this method is targeted at bulk imports of large trees. Items must
+	 * have their bounds, buckets, orders and numbers of children already computed and must be ordered so that each parent
+	 * precedes its children (or is already present in the storage). Parent of each item is derived from its bounds.
+	 * Upon creation {@link HierarchyChangeListener} is called for each of the items.
+	 *
+	 * Default implementation creates the items one by one by {@link #createItem(HierarchyItem, HierarchyItem)} in the
+	 * order of their levels, looking up the parent of each item by descending from the root items - storages should
+	 * override it with a real bulk insert.
+	 *
+	 * @param newItems items to be added to the hierarchy
+	 */
+	default void createItems(@Nonnull Collection<HierarchyItem> newItems) {
+		final List<HierarchyItem> itemsByLevel = new ArrayList<>(newItems);
+		// sort is stable - items on the same level keep their order
+		itemsByLevel.sort(Comparator.comparing(HierarchyItem::getLevelAsShort));
+		for (HierarchyItem newItem : itemsByLevel) {
+			HierarchyItem parent = null;
+			while (parent == null ? newItem.getLevelAsShort() > 1 : parent.getLevelAsShort() < newItem.getLevelAsShort() - 1) {
+				HierarchyItem enclosingItem = null;
+				for (HierarchyItem candidate : parent == null ? getRootItems(newItem.getHierarchyCode()) : getChildItems(parent)) {
+					if (candidate.getLeftBoundAsLong() <= newItem.getLeftBoundAsLong() && candidate.getRightBoundAsLong() >= newItem.getRightBoundAsLong()) {
+						enclosingItem = candidate;
+						break;
+					}
+				}
+				Assert.notNull(enclosingItem, "Parent of the item " + newItem.getCode() + " is not present in the hierarchy " + newItem.getHierarchyCode() + "!");
+				parent = enclosingItem;
+			}
+			createItem(newItem, parent);
+		}
+	}
+
 	/**
 	 * Updated existing hierarchy item.
 	 * Upon update {@link HierarchyChangeListener} is called.
@@ -155,6 +250,141 @@ public interface HierarchyStorage {
 	@Nonnull
 	List<HierarchyItem> getLeafItems(String hierarchyCode);
 
+	/**
+	 * Returns immediate parent of the item with passed code - see {@link #getParentItem(HierarchyItem)}. Database
+	 * storages resolve the pivot item within the same query, default implementation looks it up first.
+	 *
+	 * @param hierarchyCode code of the hierarchy to look up
+	 * @param code code of the item whose parent is looked up for
+	 * @return immediate parent of the item, NULL if the item is root item or if it doesn't exist
+	 */
+	@Nullable
+	default HierarchyItem getParentItem(@Nonnull String hierarchyCode, @Nonnull String code) {
+		final HierarchyItem pivot = getItem(hierarchyCode, code);
+		return pivot == null ? null : getParentItem(pivot);
+	}
+
+	/**
+	 * Returns all parent items of the item with passed code from root to the pivot (pivot item is excluded). Database
+	 * storages resolve the pivot item within the same query, default implementation looks it up first.
+	 *
+	 * @param hierarchyCode code of the hierarchy to look up
+	 * @param code code of the item whose parents are looked up for
+	 * @return all parents of the item or empty collection, NULL if the item doesn't exist
+	 */
+	@Nullable
+	default List<HierarchyItem> getParentsOfItem(@Nonnull String hierarchyCode, @Nonnull String code) {
+		final HierarchyItem pivot = getItem(hierarchyCode, code);
+		return pivot == null ? null : getParentsOfItem(pivot);
+	}
+
+	/**
+	 * Returns immediate child items of the item with passed code - see {@link #getChildItems(HierarchyItem)}. Database
+	 * storages resolve the parent item within the same query, default implementation looks it up first.
+	 *
+	 * @param hierarchyCode code of the hierarchy to look up
+	 * @param parentCode code of the item which children should be returned
+	 * @return immediate child items or empty collection, NULL if the parent item doesn't exist
+	 */
+	@Nullable
+	default List<HierarchyItem> getChildItems(@Nonnull String hierarchyCode, @Nonnull String parentCode) {
+		final HierarchyItem parent = getItem(hierarchyCode, parentCode);
+		return parent == null ? null : getChildItems(parent);
+	}
+
+	/**
+	 * Returns all child items (deep wise) of the item with passed code - see {@link #getAllChildrenItems(HierarchyItem)}.
+	 * Database storages resolve the parent item within the same query, default implementation looks it up first.
+	 *
+	 * @param hierarchyCode code of the hierarchy to look up
+	 * @param parentCode code of the item which children should be returned
+	 * @return all child items or empty collection, NULL if the parent item doesn't exist
+	 */
+	@Nullable
+	default List<HierarchyItem> getAllChildrenItems(@Nonnull String hierarchyCode, @Nonnull String parentCode) {
+		final HierarchyItem parent = getItem(hierarchyCode, parentCode);
+		return parent == null ? null : getAllChildrenItems(parent);
+	}
+
+	/**
+	 * Returns all child items (deep wise) that contain no children themselves of the item with passed code - see
+	 * {@link #getLeafItems(HierarchyItem)}. Database storages resolve the parent item within the same query, default
+	 * implementation looks it up first.
+	 *
+	 * @param hierarchyCode code of the hierarchy to look up
+	 * @param parentCode code of the item which children should be returned
+	 * @return all leaf child items or empty collection, NULL if the parent item doesn't exist
+	 */
+	@Nullable
+	default List<HierarchyItem> getLeafItems(@Nonnull String hierarchyCode, @Nonnull String parentCode) {
+		final HierarchyItem parent = getItem(hierarchyCode, parentCode);
+		return parent == null ? null : getLeafItems(parent);
+	}
+
+	/**
+	 * Numeric variant of {@link #getItem(String, String)} for hierarchies with {@link Hierarchy#isLongCodes() long codes}.
+	 * Storages of such hierarchies look the item up by the number directly, default implementation converts it
+	 * to the {@link String} form of the code.
+	 *
+	 * @param hierarchyCode code of the hierarchy to look up
+	 * @param code numeric code of the item
+	 * @return item or NULL if the item doesn't exist
+	 */
+	@Nullable
+	default HierarchyItem getItem(@Nonnull String hierarchyCode, long code) {
+		return getItem(hierarchyCode, Long.toString(code));
+	}
+
+	/**
+	 * Numeric variant of {@link #getParentItem(String, String)}, default implementation looks the pivot up
+	 * by {@link #getItem(String, long)} first.
+	 */
+	@Nullable
+	default HierarchyItem getParentItem(@Nonnull String hierarchyCode, long code) {
+		final HierarchyItem pivot = getItem(hierarchyCode, code);
+		return pivot == null ? null : getParentItem(pivot);
+	}
+
+	/**
+	 * Numeric variant of {@link #getParentsOfItem(String, String)}, default implementation looks the pivot up
+	 * by {@link #getItem(String, long)} first.
+	 */
+	@Nullable
+	default List<HierarchyItem> getParentsOfItem(@Nonnull String hierarchyCode, long code) {
+		final HierarchyItem pivot = getItem(hierarchyCode, code);
+		return pivot == null ? null : getParentsOfItem(pivot);
+	}
+
+	/**
+	 * Numeric variant of {@link #getChildItems(String, String)}, default implementation looks the parent up
+	 * by {@link #getItem(String, long)} first.
+	 */
+	@Nullable
+	default List<HierarchyItem> getChildItems(@Nonnull String hierarchyCode, long parentCode) {
+		final HierarchyItem parent = getItem(hierarchyCode, parentCode);
+		return parent == null ? null : getChildItems(parent);
+	}
+
+	/**
+	 * Numeric variant of {@link #getAllChildrenItems(String, String)}, default implementation looks the parent up
+	 * by {@link #getItem(String, long)} first.
+	 */
+	@Nullable
+	default List<HierarchyItem> getAllChildrenItems(@Nonnull String hierarchyCode, long parentCode) {
+		final HierarchyItem parent = getItem(hierarchyCode, parentCode);
+		return parent == null ? null : getAllChildrenItems(parent);
+	}
+
+	/**
+	 * Numeric variant of {@link #getLeafItems(String, String)}, default implementation looks the parent up
+	 * by {@link #getItem(String, long)} first.
+	 */
+	@Nullable
+	default List<HierarchyItem> getLeafItems(@Nonnull String hierarchyCode, long parentCode) {
+		final HierarchyItem parent = getItem(hierarchyCode, parentCode);
+		return parent == null ? null : getLeafItems(parent);
+	}
+
 	/**
 	 * Returns information of first empty section on root level considering size of the section and maximum items in
 	 * root level.
@@ -0,0 +1,338 @@
+package one.edee.oss.pmptt.dao;
+
+import lombok.Getter;
+import one.edee.oss.pmptt.model.Bounds;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.SectionWithBucket;
+import one.edee.oss.pmptt.spi.HierarchyChangeListener;
+import one.edee.oss.pmptt.spi.HierarchyInstrumentation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Supplier;
+
+/**
+ * Decorator of the {@link HierarchyStorage} that reports latency, row counts and failures of each storage method
+ * to the {@link HierarchyInstrumentation}. Hierarchies returned or created by this storage are bound to the decorator
+ * so that their operations are both reported (see {@link Hierarchy}) and executed through the decorator.
+ *
+ * Database storages need to be wrapped by `InstrumentedDbHierarchyStorage` from the RDBMS module, which implements
+ * the extended storage contract the database hierarchies require.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class InstrumentedHierarchyStorage implements HierarchyStorage {
+	/**
+	 * Prefix of the operation names reported to {@link HierarchyInstrumentation}.
+	 */
+	public static final String OPERATION_PREFIX = "HierarchyStorage.";
+	private final HierarchyStorage delegate;
+	@Getter private final HierarchyInstrumentation instrumentation;
+
+	public InstrumentedHierarchyStorage(@Nonnull HierarchyStorage delegate, @Nonnull HierarchyInstrumentation instrumentation) {
+		this.delegate = delegate;
+		this.instrumentation = instrumentation;
+	}
+
+	@Override
+	public void registerChangeListener(HierarchyChangeListener listener) {
+		delegate.registerChangeListener(listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull HierarchyChangeListener listener) {
+		delegate.registerChangeListener(hierarchyCode, listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull Bounds subtreeBounds, @Nonnull HierarchyChangeListener listener) {
+		delegate.registerChangeListener(hierarchyCode, subtreeBounds, listener);
+	}
+
+	@Override
+	public boolean unregisterChangeListener(@Nonnull HierarchyChangeListener listener) {
+		return delegate.unregisterChangeListener(listener);
+	}
+
+	@Override
+	public void createHierarchy(Hierarchy hierarchy) {
+		measure(hierarchy.getCode(), "createHierarchy", () -> {
+			delegate.createHierarchy(hierarchy);
+			return null;
+		});
+		hierarchy.setStorage(this);
+	}
+
+	@Nullable
+	@Override
+	public Hierarchy getHierarchy(String code) {
+		final Hierarchy hierarchy = measure(code, "getHierarchy", () -> delegate.getHierarchy(code));
+		if (hierarchy != null) {
+			hierarchy.setStorage(this);
+		}
+		return hierarchy;
+	}
+
+	@Override
+	public Collection<String> getExistingHierarchyCodes() {
+		return measure(HierarchyInstrumentation.ALL_HIERARCHIES, "getExistingHierarchyCodes", delegate::getExistingHierarchyCodes);
+	}
+
+	@Override
+	public boolean removeHierarchy(String code) {
+		return measure(code, "removeHierarchy", () -> delegate.removeHierarchy(code));
+	}
+
+	@Override
+	public void createItem(HierarchyItem newItem, HierarchyItem parent) {
+		measureWrite(newItem.getHierarchyCode(), "createItem", newItem, () -> delegate.createItem(newItem, parent));
+	}
+
+	@Override
+	public void createItems(@Nonnull Collection<HierarchyItem> newItems) {
+		final Map<String, Integer> countsByHierarchy = new HashMap<>();
+		for (HierarchyItem newItem : newItems) {
+			countsByHierarchy.merge(newItem.getHierarchyCode(), 1, Integer::sum);
+		}
+		final String hierarchyCode = countsByHierarchy.size() == 1 ?
+			countsByHierarchy.keySet().iterator().next() : HierarchyInstrumentation.ALL_HIERARCHIES;
+		final String operation = OPERATION_PREFIX + "createItems";
+		measure(hierarchyCode, "createItems", null, () -> {
+			delegate.createItems(newItems);
+			for (Entry<String, Integer> entry : countsByHierarchy.entrySet()) {
+				instrumentation.rowsWritten(entry.getKey(), operation, entry.getValue());
+			}
+			return null;
+		});
+	}
+
+	@Override
+	public void updateItem(HierarchyItem updatedItem) {
+		measureWrite(updatedItem.getHierarchyCode(), "updateItem", updatedItem, () -> delegate.updateItem(updatedItem));
+	}
+
+	@Override
+	public void removeItem(HierarchyItem removedItem) {
+		measureWrite(removedItem.getHierarchyCode(), "removeItem", removedItem, () -> delegate.removeItem(removedItem));
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getItem(String hierarchyCode, String code) {
+		return measure(hierarchyCode, "getItem", null, () -> {
+			final HierarchyItem result = delegate.getItem(hierarchyCode, code);
+			instrumentation.rowsRead(hierarchyCode, OPERATION_PREFIX + "getItem", result == null ? 0 : 1);
+			return result;
+		});
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getParentItem(HierarchyItem pivot) {
+		return measure(pivot.getHierarchyCode(), "getParentItem", pivot, () -> {
+			final HierarchyItem result = delegate.getParentItem(pivot);
+			instrumentation.rowsRead(pivot.getHierarchyCode(), OPERATION_PREFIX + "getParentItem", result == null ? 0 : 1);
+			return result;
+		});
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getParentsOfItem(HierarchyItem pivot) {
+		return measureReadList(pivot.getHierarchyCode(), "getParentsOfItem", pivot, () -> delegate.getParentsOfItem(pivot));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getRootItems(String hierarchyCode) {
+		return measureReadList(hierarchyCode, "getRootItems", null, () -> delegate.getRootItems(hierarchyCode));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getChildItems(HierarchyItem parent) {
+		return measureReadList(parent.getHierarchyCode(), "getChildItems", parent, () -> delegate.getChildItems(parent));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getAllChildrenItems(HierarchyItem parent) {
+		return measureReadList(parent.getHierarchyCode(), "getAllChildrenItems", parent, () -> delegate.getAllChildrenItems(parent));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getLeafItems(HierarchyItem parent) {
+		return measureReadList(parent.getHierarchyCode(), "getLeafItems", parent, () -> delegate.getLeafItems(parent));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getLeafItems(String hierarchyCode) {
+		return measureReadList(hierarchyCode, "getLeafItems", null, () -> delegate.getLeafItems(hierarchyCode));
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getParentItem(@Nonnull String hierarchyCode, @Nonnull String code) {
+		return measure(hierarchyCode, "getParentItem", null, () -> {
+			final HierarchyItem result = delegate.getParentItem(hierarchyCode, code);
+			instrumentation.rowsRead(hierarchyCode, OPERATION_PREFIX + "getParentItem", result == null ? 0 : 1);
+			return result;
+		});
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getParentsOfItem(@Nonnull String hierarchyCode, @Nonnull String code) {
+		return measureReadPivotList(hierarchyCode, "getParentsOfItem", () -> delegate.getParentsOfItem(hierarchyCode, code));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getChildItems(@Nonnull String hierarchyCode, @Nonnull String parentCode) {
+		return measureReadPivotList(hierarchyCode, "getChildItems", () -> delegate.getChildItems(hierarchyCode, parentCode));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getAllChildrenItems(@Nonnull String hierarchyCode, @Nonnull String parentCode) {
+		return measureReadPivotList(hierarchyCode, "getAllChildrenItems", () -> delegate.getAllChildrenItems(hierarchyCode, parentCode));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getLeafItems(@Nonnull String hierarchyCode, @Nonnull String parentCode) {
+		return measureReadPivotList(hierarchyCode, "getLeafItems", () -> delegate.getLeafItems(hierarchyCode, parentCode));
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getItem(@Nonnull String hierarchyCode, long code) {
+		return measure(hierarchyCode, "getItem", null, () -> {
+			final HierarchyItem result = delegate.getItem(hierarchyCode, code);
+			instrumentation.rowsRead(hierarchyCode, OPERATION_PREFIX + "getItem", result == null ? 0 : 1);
+			return result;
+		});
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getParentItem(@Nonnull String hierarchyCode, long code) {
+		return measure(hierarchyCode, "getParentItem", null, () -> {
+			final HierarchyItem result = delegate.getParentItem(hierarchyCode, code);
+			instrumentation.rowsRead(hierarchyCode, OPERATION_PREFIX + "getParentItem", result == null ? 0 : 1);
+			return result;
+		});
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getParentsOfItem(@Nonnull String hierarchyCode, long code) {
+		return measureReadPivotList(hierarchyCode, "getParentsOfItem", () -> delegate.getParentsOfItem(hierarchyCode, code));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getChildItems(@Nonnull String hierarchyCode, long parentCode) {
+		return measureReadPivotList(hierarchyCode, "getChildItems", () -> delegate.getChildItems(hierarchyCode, parentCode));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getAllChildrenItems(@Nonnull String hierarchyCode, long parentCode) {
+		return measureReadPivotList(hierarchyCode, "getAllChildrenItems", () -> delegate.getAllChildrenItems(hierarchyCode, parentCode));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getLeafItems(@Nonnull String hierarchyCode, long parentCode) {
+		return measureReadPivotList(hierarchyCode, "getLeafItems", () -> delegate.getLeafItems(hierarchyCode, parentCode));
+	}
+
+	@Nullable
+	@Override
+	public SectionWithBucket getFirstEmptySection(String hierarchyCode, long sectionSize, short maxCount) {
+		return measure(hierarchyCode, "getFirstEmptySection", () -> delegate.getFirstEmptySection(hierarchyCode, sectionSize, maxCount));
+	}
+
+	@Nullable
+	@Override
+	public SectionWithBucket getFirstEmptySection(String hierarchyCode, long sectionSize, short maxCount, HierarchyItem parent) {
+		return measure(hierarchyCode, "getFirstEmptySection", parent, () -> delegate.getFirstEmptySection(hierarchyCode, sectionSize, maxCount, parent));
+	}
+
+	/**
+	 * Returns decorated storage.
+	 */
+	@Nonnull
+	protected HierarchyStorage getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Executes the storage method and reports its duration and outcome.
+	 */
+	protected <T> T measure(@Nonnull String hierarchyCode, @Nonnull String method, @Nonnull Supplier<T> logic) {
+		return measure(hierarchyCode, method, null, logic);
+	}
+
+	/**
+	 * Executes the storage method working with the passed item and reports its duration and outcome. Logic is expected
+	 * to report rows it read or written before it returns.
+	 */
+	protected <T> T measure(@Nonnull String hierarchyCode, @Nonnull String method, @Nullable HierarchyItem item, @Nonnull Supplier<T> logic) {
+		final String operation = OPERATION_PREFIX + method;
+		instrumentation.operationStarted(hierarchyCode, operation, item == null ? null : item.getCode());
+		final long start = System.nanoTime();
+		Throwable failure = null;
+		try {
+			if (item != null) {
+				instrumentation.itemAccessed(hierarchyCode, operation, item);
+			}
+			return logic.get();
+		} catch (RuntimeException | Error ex) {
+			failure = ex;
+			throw ex;
+		} finally {
+			instrumentation.operationCompleted(hierarchyCode, operation, System.nanoTime() - start, failure);
+		}
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	private void measureWrite(@Nonnull String hierarchyCode, @Nonnull String method, @Nonnull HierarchyItem item, @Nonnull Runnable logic) {
+		measure(hierarchyCode, method, item, () -> {
+			logic.run();
+			instrumentation.rowsWritten(hierarchyCode, OPERATION_PREFIX + method, 1);
+			return null;
+		});
+	}
+
+	@Nullable
+	private List<HierarchyItem> measureReadPivotList(@Nonnull String hierarchyCode, @Nonnull String method, @Nonnull Supplier<List<HierarchyItem>> logic) {
+		return measure(hierarchyCode, method, null, () -> {
+			final List<HierarchyItem> result = logic.get();
+			instrumentation.rowsRead(hierarchyCode, OPERATION_PREFIX + method, result == null ? 0 : result.size());
+			return result;
+		});
+	}
+
+	@Nonnull
+	private List<HierarchyItem> measureReadList(@Nonnull String hierarchyCode, @Nonnull String method, @Nullable HierarchyItem pivot, @Nonnull Supplier<List<HierarchyItem>> logic) {
+		return measure(hierarchyCode, method, pivot, () -> {
+			final List<HierarchyItem> result = logic.get();
+			instrumentation.rowsRead(hierarchyCode, OPERATION_PREFIX + method, result.size());
+			return result;
+		});
+	}
+
+}
@@ -0,0 +1,235 @@
+package one.edee.oss.pmptt.dao;
+
+import one.edee.oss.pmptt.model.Bounds;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.SectionWithBucket;
+import one.edee.oss.pmptt.replay.WorkloadLayer;
+import one.edee.oss.pmptt.replay.WorkloadLogWriter;
+import one.edee.oss.pmptt.replay.WorkloadReplayer;
+import one.edee.oss.pmptt.spi.HierarchyChangeListener;
+import one.edee.oss.pmptt.spi.HierarchyInstrumentation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Decorator of the {@link HierarchyStorage} that records every storage call with its arguments to the
+ * {@link WorkloadLogWriter}, so that the exact sequence of storage calls can be executed again against another storage
+ * by the {@link WorkloadReplayer}. Hierarchies returned or created by this storage are bound to the decorator so that
+ * the storage calls of their operations are recorded too. Registration of the change listeners is not recorded.
+ *
+ * Database storages need to be wrapped by `RecordingDbHierarchyStorage` from the RDBMS module, which implements
+ * the extended storage contract the database hierarchies require.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class RecordingHierarchyStorage implements HierarchyStorage {
+	private static final String[] NO_ARGUMENTS = new String[0];
+	private static final long[] NO_NUMBERS = new long[0];
+	private static final HierarchyItem[] NO_ITEMS = new HierarchyItem[0];
+	private final HierarchyStorage delegate;
+	private final WorkloadLogWriter writer;
+
+	public RecordingHierarchyStorage(@Nonnull HierarchyStorage delegate, @Nonnull WorkloadLogWriter writer) {
+		this.delegate = delegate;
+		this.writer = writer;
+	}
+
+	@Nonnull
+	@Override
+	public HierarchyInstrumentation getInstrumentation() {
+		return delegate.getInstrumentation();
+	}
+
+	@Override
+	public void registerChangeListener(HierarchyChangeListener listener) {
+		delegate.registerChangeListener(listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull HierarchyChangeListener listener) {
+		delegate.registerChangeListener(hierarchyCode, listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull Bounds subtreeBounds, @Nonnull HierarchyChangeListener listener) {
+		delegate.registerChangeListener(hierarchyCode, subtreeBounds, listener);
+	}
+
+	@Override
+	public boolean unregisterChangeListener(@Nonnull HierarchyChangeListener listener) {
+		return delegate.unregisterChangeListener(listener);
+	}
+
+	@Override
+	public void createHierarchy(Hierarchy hierarchy) {
+		// dimensions are recorded as the user passed them to the hierarchy constructor, followed by the kind of codes
+		final long[] dimensions = {hierarchy.getLevels() - 1, hierarchy.getSectionSize() - 1, hierarchy.isLongCodes() ? 1 : 0};
+		record(hierarchy.getCode(), "createHierarchy", NO_ARGUMENTS, dimensions, NO_ITEMS, () -> {
+			delegate.createHierarchy(hierarchy);
+			return null;
+		});
+		hierarchy.setStorage(this);
+	}
+
+	@Nullable
+	@Override
+	public Hierarchy getHierarchy(String code) {
+		final Hierarchy hierarchy = record(code, "getHierarchy", () -> delegate.getHierarchy(code));
+		if (hierarchy != null) {
+			hierarchy.setStorage(this);
+		}
+		return hierarchy;
+	}
+
+	@Override
+	public Collection<String> getExistingHierarchyCodes() {
+		return record(HierarchyInstrumentation.ALL_HIERARCHIES, "getExistingHierarchyCodes", delegate::getExistingHierarchyCodes);
+	}
+
+	@Override
+	public boolean removeHierarchy(String code) {
+		return record(code, "removeHierarchy", () -> delegate.removeHierarchy(code));
+	}
+
+	@Override
+	public void createItem(HierarchyItem newItem, HierarchyItem parent) {
+		record(newItem.getHierarchyCode(), "createItem", NO_ARGUMENTS, NO_NUMBERS, new HierarchyItem[] {newItem, parent}, () -> {
+			delegate.createItem(newItem, parent);
+			return null;
+		});
+	}
+
+	@Override
+	public void createItems(@Nonnull Collection<HierarchyItem> newItems) {
+		final HierarchyItem[] items = newItems.toArray(new HierarchyItem[0]);
+		final String hierarchyCode = items.length == 0 ? HierarchyInstrumentation.ALL_HIERARCHIES : items[0].getHierarchyCode();
+		record(hierarchyCode, "createItems", NO_ARGUMENTS, NO_NUMBERS, items, () -> {
+			delegate.createItems(newItems);
+			return null;
+		});
+	}
+
+	@Override
+	public void updateItem(HierarchyItem updatedItem) {
+		record(updatedItem.getHierarchyCode(), "updateItem", NO_ARGUMENTS, NO_NUMBERS, new HierarchyItem[] {updatedItem}, () -> {
+			delegate.updateItem(updatedItem);
+			return null;
+		});
+	}
+
+	@Override
+	public void removeItem(HierarchyItem removedItem) {
+		record(removedItem.getHierarchyCode(), "removeItem", NO_ARGUMENTS, NO_NUMBERS, new HierarchyItem[] {removedItem}, () -> {
+			delegate.removeItem(removedItem);
+			return null;
+		});
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getItem(String hierarchyCode, String code) {
+		return record(hierarchyCode, "getItem", new String[] {code}, NO_NUMBERS, NO_ITEMS, () -> delegate.getItem(hierarchyCode, code));
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getParentItem(HierarchyItem pivot) {
+		return record(pivot, "getParentItem", () -> delegate.getParentItem(pivot));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getParentsOfItem(HierarchyItem pivot) {
+		return record(pivot, "getParentsOfItem", () -> delegate.getParentsOfItem(pivot));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getRootItems(String hierarchyCode) {
+		return record(hierarchyCode, "getRootItems", () -> delegate.getRootItems(hierarchyCode));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getChildItems(HierarchyItem parent) {
+		return record(parent, "getChildItems", () -> delegate.getChildItems(parent));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getAllChildrenItems(HierarchyItem parent) {
+		return record(parent, "getAllChildrenItems", () -> delegate.getAllChildrenItems(parent));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getLeafItems(HierarchyItem parent) {
+		return record(parent, "getLeafItems", () -> delegate.getLeafItems(parent));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getLeafItems(String hierarchyCode) {
+		return record(hierarchyCode, "getLeafItems", () -> delegate.getLeafItems(hierarchyCode));
+	}
+
+	@Nullable
+	@Override
+	public SectionWithBucket getFirstEmptySection(String hierarchyCode, long sectionSize, short maxCount) {
+		return record(
+			hierarchyCode, "getFirstEmptySection", NO_ARGUMENTS, new long[] {sectionSize, maxCount}, NO_ITEMS,
+			() -> delegate.getFirstEmptySection(hierarchyCode, sectionSize, maxCount)
+		);
+	}
+
+	@Nullable
+	@Override
+	public SectionWithBucket getFirstEmptySection(String hierarchyCode, long sectionSize, short maxCount, HierarchyItem parent) {
+		return record(
+			hierarchyCode, "getFirstEmptySection", NO_ARGUMENTS, new long[] {sectionSize, maxCount}, new HierarchyItem[] {parent},
+			() -> delegate.getFirstEmptySection(hierarchyCode, sectionSize, maxCount, parent)
+		);
+	}
+
+	/**
+	 * Returns decorated storage.
+	 */
+	@Nonnull
+	protected HierarchyStorage getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Executes the storage method and records it with its arguments, its duration and outcome.
+	 */
+	protected <T> T record(@Nonnull String hierarchyCode, @Nonnull String method, @Nonnull String[] arguments,
+	                       @Nonnull long[] numbers, @Nonnull HierarchyItem[] items, @Nonnull Supplier<T> logic) {
+		final long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			final T result = logic.get();
+			failed = false;
+			return result;
+		} finally {
+			writer.write(WorkloadLayer.STORAGE, start, System.nanoTime() - start, failed, hierarchyCode, method, arguments, numbers, items);
+		}
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	private <T> T record(@Nonnull String hierarchyCode, @Nonnull String method, @Nonnull Supplier<T> logic) {
+		return record(hierarchyCode, method, NO_ARGUMENTS, NO_NUMBERS, NO_ITEMS, logic);
+	}
+
+	private <T> T record(@Nonnull HierarchyItem pivot, @Nonnull String method, @Nonnull Supplier<T> logic) {
+		return record(pivot.getHierarchyCode(), method, NO_ARGUMENTS, NO_NUMBERS, new HierarchyItem[] {pivot}, logic);
+	}
+
+}
@@ -2,29 +2,37 @@ package one.edee.oss.pmptt.dao.memory;
 
 import lombok.Getter;
 import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.model.Bounds;
+import one.edee.oss.pmptt.model.CompactHierarchyItem;
 import one.edee.oss.pmptt.model.Hierarchy;
 import one.edee.oss.pmptt.model.HierarchyItem;
-import one.edee.oss.pmptt.model.HierarchyItemWithHistory;
 import one.edee.oss.pmptt.model.HierarchyLevel;
+import one.edee.oss.pmptt.model.LongHierarchyItem;
 import one.edee.oss.pmptt.model.Section;
 import one.edee.oss.pmptt.model.SectionWithBucket;
+import one.edee.oss.pmptt.model.TrackedHierarchyItem;
+import one.edee.oss.pmptt.spi.ChangeListenerRegistry;
 import one.edee.oss.pmptt.spi.HierarchyChangeListener;
 import one.edee.oss.pmptt.util.Assert;
+import one.edee.oss.pmptt.util.LongObjectHashMap;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Memory implementation of the PMPTT storage. Used only in tests as data are not persistent in any way.
@@ -32,12 +40,27 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2019
  */
 public class MemoryStorage implements HierarchyStorage {
-	private final List<HierarchyChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+	private final ChangeListenerRegistry changeListeners = new ChangeListenerRegistry();
 	private final Map<String, HierarchyWithContents> hierarchyIndex = new ConcurrentHashMap<>();
 
 	@Override
 	public void registerChangeListener(HierarchyChangeListener listener) {
-		this.changeListeners.add(listener);
+		this.changeListeners.register(listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull HierarchyChangeListener listener) {
+		this.changeListeners.register(hierarchyCode, listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull Bounds subtreeBounds, @Nonnull HierarchyChangeListener listener) {
+		this.changeListeners.register(hierarchyCode, subtreeBounds, listener);
+	}
+
+	@Override
+	public boolean unregisterChangeListener(@Nonnull HierarchyChangeListener listener) {
+		return this.changeListeners.unregister(listener);
 	}
 
 	@Override
@@ -47,6 +70,24 @@ public class MemoryStorage implements HierarchyStorage {
 		hierarchy.setStorage(this);
 	}
 
+	/**
+	 * Registers the hierarchy together with all its items without executing any allocation logic - items are linked
+	 * to their parents as they come, so that the hierarchy is ready as soon as the last item is read. Used for loading
+	 * hierarchy snapshots (see {@link one.edee.oss.pmptt.snapshot.HierarchySnapshotReader}).
+	 *
+	 * @param hierarchy hierarchy to register
+	 * @param itemsInPreorder items with all their attributes computed, ordered so that each item follows its parent
+	 *                        and the entire subtree of the item follows the item before the next sibling of the item
+	 * @throws IllegalArgumentException when the items are not in preorder or their bounds don't nest
+	 */
+	public void loadHierarchy(@Nonnull Hierarchy hierarchy, @Nonnull Iterator<HierarchyItem> itemsInPreorder) {
+		Assert.isTrue(!hierarchyIndex.containsKey(hierarchy.getCode()), "Hierarchy code " + hierarchy.getCode() + " is not unique!");
+		final HierarchyWithContents hierarchyWithContents = new HierarchyWithContents(hierarchy);
+		hierarchyWithContents.loadItems(itemsInPreorder);
+		hierarchyIndex.put(hierarchy.getCode(), hierarchyWithContents);
+		hierarchy.setStorage(this);
+	}
+
 	@Override
 	public Hierarchy getHierarchy(String code) {
 		final HierarchyWithContents hierarchyWithContents = hierarchyIndex.get(code);
@@ -67,22 +108,40 @@ public class MemoryStorage implements HierarchyStorage {
 	public void createItem(HierarchyItem newItem, HierarchyItem parent) {
 		final HierarchyWithContents hierarchyWithContents = getHierarchyWithContents(newItem.getHierarchyCode());
 
-		hierarchyWithContents.addItem(newItem, parent == null ? null : parent.getCode());
-		for (HierarchyChangeListener changeListener : changeListeners) {
+		hierarchyWithContents.addItem(newItem, parent);
+		for (HierarchyChangeListener changeListener : changeListeners.getListeners(newItem)) {
 			changeListener.itemCreated(newItem);
 		}
 	}
 
+	@Override
+	public void createItems(@Nonnull Collection<HierarchyItem> newItems) {
+		final Map<String, List<HierarchyItem>> itemsByHierarchy = new LinkedHashMap<>();
+		for (HierarchyItem newItem : newItems) {
+			itemsByHierarchy.computeIfAbsent(newItem.getHierarchyCode(), code -> new ArrayList<>()).add(newItem);
+		}
+		for (Entry<String, List<HierarchyItem>> entry : itemsByHierarchy.entrySet()) {
+			getHierarchyWithContents(entry.getKey()).addItems(entry.getValue());
+		}
+		for (HierarchyItem newItem : newItems) {
+			for (HierarchyChangeListener changeListener : changeListeners.getListeners(newItem)) {
+				changeListener.itemCreated(newItem);
+			}
+		}
+	}
+
 	@Override
 	public void updateItem(HierarchyItem updatedItem) {
 		final HierarchyWithContents hierarchyWithContents = getHierarchyWithContents(updatedItem.getHierarchyCode());
 		hierarchyWithContents.updateItem(updatedItem);
 
 		// in memory implementation instances are identities and are already updated
-		for (HierarchyChangeListener changeListener : changeListeners) {
-			Assert.isTrue(updatedItem instanceof HierarchyItemWithHistory, "Hierarchy item is not of type HierarchyItemWithHistory!");
-			final HierarchyItemWithHistory hiwh = (HierarchyItemWithHistory) updatedItem;
-			changeListener.itemUpdated(hiwh.getDelegate(), hiwh.getOriginal());
+		if (!changeListeners.isEmpty()) {
+			Assert.isTrue(updatedItem instanceof TrackedHierarchyItem, "Hierarchy item is not of type TrackedHierarchyItem!");
+			final HierarchyItem originalItem = ((TrackedHierarchyItem) updatedItem).getOriginal();
+			for (HierarchyChangeListener changeListener : changeListeners.getListeners(updatedItem, originalItem)) {
+				changeListener.itemUpdated(updatedItem, originalItem);
+			}
 		}
 	}
 
@@ -91,7 +150,7 @@ public class MemoryStorage implements HierarchyStorage {
 		final HierarchyWithContents hierarchyWithContents = getHierarchyWithContents(removedItem.getHierarchyCode());
 		hierarchyWithContents.removeItem(removedItem);
 
-		for (HierarchyChangeListener changeListener : changeListeners) {
+		for (HierarchyChangeListener changeListener : changeListeners.getListeners(removedItem)) {
 			changeListener.itemRemoved(removedItem);
 		}
 	}
@@ -102,17 +161,23 @@ public class MemoryStorage implements HierarchyStorage {
 		return hierarchyWithContents.getItem(code);
 	}
 
+	@Override
+	public HierarchyItem getItem(@Nonnull String hierarchyCode, long code) {
+		final HierarchyWithContents hierarchyWithContents = getHierarchyWithContents(hierarchyCode);
+		return hierarchyWithContents.getItem(code);
+	}
+
 	@Override
 	public HierarchyItem getParentItem(HierarchyItem pivot) {
 		final HierarchyWithContents hierarchyWithContents = getHierarchyWithContents(pivot.getHierarchyCode());
-		return hierarchyWithContents.getParentItem(pivot.getCode());
+		return hierarchyWithContents.getParentItem(pivot);
 	}
 
 	@Nonnull
 	@Override
 	public List<HierarchyItem> getParentsOfItem(HierarchyItem pivot) {
 		final HierarchyWithContents hierarchyWithContents = getHierarchyWithContents(pivot.getHierarchyCode());
-		return hierarchyWithContents.getParentItems(pivot.getCode());
+		return hierarchyWithContents.getParentItems(pivot);
 	}
 
 	@Nonnull
@@ -184,7 +249,7 @@ public class MemoryStorage implements HierarchyStorage {
 			for (int i = 0; i < items.size(); i++) {
 				final HierarchyItem item = items.get(i);
 				if (lastLeftBound == null) {
-					if (item.getLeftBound() > initialLeftBound) {
+					if (item.getLeftBoundAsLong() > initialLeftBound) {
 						return new SectionWithBucket(
 								initialLeftBound,
 								initialLeftBound + sectionSize - 1,
@@ -192,7 +257,7 @@ public class MemoryStorage implements HierarchyStorage {
 						);
 					}
 				} else {
-					if (item.getLeftBound() > lastLeftBound + sectionSize) {
+					if (item.getLeftBoundAsLong() > lastLeftBound + sectionSize) {
 						return new SectionWithBucket(
 								lastLeftBound + sectionSize,
 								lastLeftBound + 2 * sectionSize - 1,
@@ -200,7 +265,7 @@ public class MemoryStorage implements HierarchyStorage {
 						);
 					}
 				}
-				lastLeftBound = item.getLeftBound();
+				lastLeftBound = item.getLeftBoundAsLong();
 			}
 			return new SectionWithBucket(
 					lastLeftBound + sectionSize,
@@ -213,19 +278,22 @@ public class MemoryStorage implements HierarchyStorage {
 	private static class HierarchyWithContents {
 		private static final String ROOT_LEVEL = "__root";
 		@Getter private final Hierarchy hierarchy;
-		private final Map<String, HierarchyLevel> levels = new HashMap<>();
-		private final Map<String, HierarchyLevel> itemParents = new HashMap<>();
+		private final HierarchyLevel rootLevel;
+		private final ItemIndex<HierarchyLevel> levels;
+		private final ItemIndex<HierarchyLevel> itemParents;
 
 		HierarchyWithContents(Hierarchy hierarchy) {
 			this.hierarchy = hierarchy;
 			final Section rootSection = Section.computeEntireHierarchyBounds(hierarchy.getSectionSize(), hierarchy.getLevels());
-			final HierarchyItem rootItem = new HierarchyItemWithHistory(hierarchy.getCode(), ROOT_LEVEL, (short) 0, rootSection.getLeftBound(), rootSection.getRightBound(), (short) 1);
-			this.levels.put(ROOT_LEVEL, new HierarchyLevel(rootItem));
+			final HierarchyItem rootItem = new CompactHierarchyItem(hierarchy.getCode(), ROOT_LEVEL, (short) 0, rootSection.getLeftBound(), rootSection.getRightBound(), (short) 1);
+			this.rootLevel = new HierarchyLevel(rootItem);
+			this.levels = hierarchy.isLongCodes() ? new LongItemIndex<>() : new StringItemIndex<>();
+			this.itemParents = hierarchy.isLongCodes() ? new LongItemIndex<>() : new StringItemIndex<>();
 		}
 
 		List<HierarchyItem> getAllLeafItems(HierarchyItem withParent) {
 			final LinkedList<HierarchyItem> result = new LinkedList<>();
-			final List<HierarchyItem> itemsToGoThrough = withParent == null ? levels.get(ROOT_LEVEL).getChildren() : levels.get(withParent.getCode()).getChildren();
+			final List<HierarchyItem> itemsToGoThrough = withParent == null ? rootLevel.getChildren() : levels.get(withParent).getChildren();
 			addLeafItems(result, itemsToGoThrough);
 			return result;
 		}
@@ -235,49 +303,45 @@ public class MemoryStorage implements HierarchyStorage {
 				if (item.getNumberOfChildren() == 0) {
 					result.add(item);
 				}
-				final HierarchyLevel level = levels.get(item.getCode());
+				final HierarchyLevel level = levels.get(item);
 				if (!level.getChildren().isEmpty()) {
 					addLeafItems(result, level.getChildren());
 				}
 			}
 		}
 
-		List<HierarchyItem> getParentItems(String code) {
+		List<HierarchyItem> getParentItems(HierarchyItem item) {
 			final LinkedList<HierarchyItem> result = new LinkedList<>();
-			String lookUpCode = code;
-			HierarchyLevel level;
-			do {
-				level = itemParents.get(lookUpCode);
-				if (!ROOT_LEVEL.equals(level.getItem().getCode())) {
-					lookUpCode = level.getItem().getCode();
-					result.add(level.getItem());
-				}
-			} while (!ROOT_LEVEL.equals(level.getItem().getCode()));
+			HierarchyLevel level = itemParents.get(item);
+			while (level != rootLevel) {
+				result.add(level.getItem());
+				level = itemParents.get(level.getItem());
+			}
 			Collections.reverse(result);
 			return result;
 		}
 
 		List<HierarchyItem> getRootItems() {
-			final List<HierarchyItem> result = new ArrayList<>(levels.get(ROOT_LEVEL).getChildren());
+			final List<HierarchyItem> result = new ArrayList<>(rootLevel.getChildren());
 			result.sort(HierarchyItemOrderComparator.INSTANCE);
 			return result;
 		}
 
 		List<HierarchyItem> getRootItemsByLeftBound() {
-			final List<HierarchyItem> result = new ArrayList<>(levels.get(ROOT_LEVEL).getChildren());
+			final List<HierarchyItem> result = new ArrayList<>(rootLevel.getChildren());
 			result.sort(HierarchyItemLeftBoundComparator.INSTANCE);
 			return result;
 		}
 
 		List<HierarchyItem> getChildItems(HierarchyItem parent) {
-			final List<HierarchyItem> result = new ArrayList<>(levels.get(parent.getCode()).getChildren());
+			final List<HierarchyItem> result = new ArrayList<>(levels.get(parent).getChildren());
 			result.sort(HierarchyItemOrderComparator.INSTANCE);
 			return result;
 		}
 
 		List<HierarchyItem> getChildItemsByLeftBound(HierarchyItem parent) {
-			final List<HierarchyItem> result = new ArrayList<>(levels.get(parent.getCode()).getChildren());
-			result.removeIf(child -> !(child.getLeftBound() >= parent.getLeftBound() && child.getRightBound() <= parent.getRightBound()));
+			final List<HierarchyItem> result = new ArrayList<>(levels.get(parent).getChildren());
+			result.removeIf(child -> !(child.getLeftBoundAsLong() >= parent.getLeftBoundAsLong() && child.getRightBoundAsLong() <= parent.getRightBoundAsLong()));
 			result.sort(HierarchyItemLeftBoundComparator.INSTANCE);
 			return result;
 		}
@@ -288,57 +352,105 @@ public class MemoryStorage implements HierarchyStorage {
 			return result;
 		}
 
-		HierarchyItem getParentItem(String code) {
-			final HierarchyLevel hierarchyLevel = itemParents.get(code);
-			return ROOT_LEVEL.equals(hierarchyLevel.getItem().getCode()) ? null : hierarchyLevel.getItem();
+		HierarchyItem getParentItem(HierarchyItem item) {
+			final HierarchyLevel hierarchyLevel = itemParents.get(item);
+			return hierarchyLevel == rootLevel ? null : hierarchyLevel.getItem();
 		}
 
 		HierarchyItem getItem(String code) {
-			final HierarchyLevel hierarchyLevel = itemParents.get(code);
-			if (hierarchyLevel != null) {
-				for (HierarchyItem child : hierarchyLevel.getChildren()) {
-					if (Objects.equals(code, child.getCode())) {
-						return child;
-					}
-				}
-			}
-			return null;
+			final HierarchyLevel hierarchyLevel = levels.get(code);
+			return hierarchyLevel == null ? null : hierarchyLevel.getItem();
 		}
 
-		void addItem(HierarchyItem item, String parent) {
-			final HierarchyLevel level = levels.get(parent == null ? ROOT_LEVEL : parent);
+		HierarchyItem getItem(long code) {
+			final HierarchyLevel hierarchyLevel = levels.get(code);
+			return hierarchyLevel == null ? null : hierarchyLevel.getItem();
+		}
+
+		void addItem(HierarchyItem item, HierarchyItem parent) {
+			final HierarchyLevel level = parent == null ? rootLevel : levels.get(parent);
 			level.getChildren().add(item);
-			itemParents.put(item.getCode(), level);
-			levels.put(item.getCode(), new HierarchyLevel(item));
+			itemParents.put(item, level);
+			levels.put(item, new HierarchyLevel(item));
+		}
+
+		void addItems(List<HierarchyItem> items) {
+			// index levels by bounds so that parent of each item is found in constant time
+			final Map<Section, HierarchyLevel> levelsByBounds = new HashMap<>(levels.size() + items.size() + 1);
+			levelsByBounds.put(new Section(rootLevel.getItem().getLeftBound(), rootLevel.getItem().getRightBound()), rootLevel);
+			for (HierarchyLevel level : levels) {
+				levelsByBounds.put(new Section(level.getItem().getLeftBound(), level.getItem().getRightBound()), level);
+			}
+			for (HierarchyItem item : items) {
+				final Section parentSection = Section.computeParentSectionBounds(hierarchy.getSectionSize(), item);
+				final HierarchyLevel parentLevel = levelsByBounds.get(parentSection);
+				Assert.notNull(parentLevel, "Parent with bounds " + parentSection.getLeftBound() + "-" + parentSection.getRightBound() + " was not found!");
+				parentLevel.getChildren().add(item);
+				itemParents.put(item, parentLevel);
+				final HierarchyLevel level = new HierarchyLevel(item);
+				levels.put(item, level);
+				levelsByBounds.put(new Section(item.getLeftBound(), item.getRightBound()), level);
+			}
+		}
+
+		void loadItems(Iterator<HierarchyItem> itemsInPreorder) {
+			// path from the root to the last loaded item - parent of the next item is always on it
+			final Deque<HierarchyLevel> path = new ArrayDeque<>();
+			path.push(rootLevel);
+			while (itemsInPreorder.hasNext()) {
+				final HierarchyItem item = itemsInPreorder.next();
+				Assert.isTrue(item.getLevel() > 0, "Item " + item.getCode() + " has invalid level " + item.getLevel() + "!");
+				while (path.peek().getItem().getLevel() >= item.getLevel()) {
+					path.pop();
+				}
+				final HierarchyLevel parentLevel = path.peek();
+				final HierarchyItem parent = parentLevel.getItem();
+				Assert.isTrue(
+					parent.getLevel() + 1 == item.getLevel() &&
+						item.getLeftBoundAsLong() > parent.getLeftBoundAsLong() && item.getRightBoundAsLong() <= parent.getRightBoundAsLong(),
+					"Item " + item.getCode() + " doesn't fit into its parent " + parent.getCode() + " - items are not in preorder!"
+				);
+				Assert.isTrue(!levels.containsKey(item), "Item " + item.getCode() + " is present more than once!");
+				parentLevel.getChildren().add(item);
+				itemParents.put(item, parentLevel);
+				final HierarchyLevel level = new HierarchyLevel(item);
+				levels.put(item, level);
+				path.push(level);
+			}
 		}
 
 		void updateItem(HierarchyItem updatedItem) {
 			final Section parentSection = Section.computeParentSectionBounds(hierarchy.getSectionSize(), updatedItem);
-			boolean parentFound = false;
-			for (HierarchyLevel level : levels.values()) {
-				if (level.getItem().getLeftBound().equals(parentSection.getLeftBound()) && level.getItem().getRightBound().equals(parentSection.getRightBound())) {
-					parentFound = true;
-					if (!level.getChildren().contains(updatedItem)) {
-						level.getChildren().add(updatedItem);
-						final HierarchyLevel oldParent = itemParents.get(updatedItem.getCode());
-						if (oldParent != null) {
-							oldParent.getChildren().remove(updatedItem);
-						}
-						itemParents.put(updatedItem.getCode(), level);
-					}
-				}
+			boolean parentFound = updateParent(rootLevel, updatedItem, parentSection);
+			for (HierarchyLevel level : levels) {
+				parentFound |= updateParent(level, updatedItem, parentSection);
 			}
 			Assert.isTrue(parentFound, "Parent with bounds " + parentSection.getLeftBound() + "-" + parentSection.getRightBound() + " was not found!");
 		}
 
 		void removeItem(HierarchyItem item) {
-			final HierarchyLevel hierarchyLevel = itemParents.remove(item.getCode());
+			final HierarchyLevel hierarchyLevel = itemParents.remove(item);
 			hierarchyLevel.getChildren().remove(item);
-			levels.remove(item.getCode());
+			levels.remove(item);
+		}
+
+		private boolean updateParent(HierarchyLevel level, HierarchyItem updatedItem, Section parentSection) {
+			if (level.getItem().getLeftBound().equals(parentSection.getLeftBound()) && level.getItem().getRightBound().equals(parentSection.getRightBound())) {
+				if (!level.getChildren().contains(updatedItem)) {
+					level.getChildren().add(updatedItem);
+					final HierarchyLevel oldParent = itemParents.get(updatedItem);
+					if (oldParent != null) {
+						oldParent.getChildren().remove(updatedItem);
+					}
+					itemParents.put(updatedItem, level);
+				}
+				return true;
+			}
+			return false;
 		}
 
 		private void addChildren(HierarchyItem parent, List<HierarchyItem> result) {
-			final List<HierarchyItem> children = new ArrayList<>(levels.get(parent.getCode()).getChildren());
+			final List<HierarchyItem> children = new ArrayList<>(levels.get(parent).getChildren());
 			children.sort(HierarchyItemOrderComparator.INSTANCE);
 			result.addAll(children);
 
@@ -349,6 +461,141 @@ public class MemoryStorage implements HierarchyStorage {
 
 	}
 
+	/**
+	 * Index of values by the code of the hierarchy item.
+	 */
+	private interface ItemIndex<V> extends Iterable<V> {
+
+		@Nullable
+		V get(@Nonnull String code);
+
+		@Nullable
+		V get(long code);
+
+		@Nullable
+		V get(@Nonnull HierarchyItem item);
+
+		boolean containsKey(@Nonnull HierarchyItem item);
+
+		void put(@Nonnull HierarchyItem item, @Nonnull V value);
+
+		@Nullable
+		V remove(@Nonnull HierarchyItem item);
+
+		int size();
+
+	}
+
+	/**
+	 * Index of hierarchy with {@link String} codes.
+	 */
+	private static class StringItemIndex<V> implements ItemIndex<V> {
+		private final Map<String, V> index = new HashMap<>();
+
+		@Nullable
+		@Override
+		public V get(@Nonnull String code) {
+			return index.get(code);
+		}
+
+		@Nullable
+		@Override
+		public V get(long code) {
+			return index.get(Long.toString(code));
+		}
+
+		@Nullable
+		@Override
+		public V get(@Nonnull HierarchyItem item) {
+			return index.get(item.getCode());
+		}
+
+		@Override
+		public boolean containsKey(@Nonnull HierarchyItem item) {
+			return index.containsKey(item.getCode());
+		}
+
+		@Override
+		public void put(@Nonnull HierarchyItem item, @Nonnull V value) {
+			index.put(item.getCode(), value);
+		}
+
+		@Nullable
+		@Override
+		public V remove(@Nonnull HierarchyItem item) {
+			return index.remove(item.getCode());
+		}
+
+		@Override
+		public int size() {
+			return index.size();
+		}
+
+		@Nonnull
+		@Override
+		public Iterator<V> iterator() {
+			return index.values().iterator();
+		}
+	}
+
+	/**
+	 * Index of hierarchy with {@link Hierarchy#isLongCodes() long codes} - neither the codes are materialized as strings
+	 * nor the keys are boxed.
+	 */
+	private static class LongItemIndex<V> implements ItemIndex<V> {
+		private final LongObjectHashMap<V> index = new LongObjectHashMap<>();
+
+		@Nullable
+		@Override
+		public V get(@Nonnull String code) {
+			try {
+				return index.get(Long.parseLong(code));
+			} catch (NumberFormatException ex) {
+				// code that is not a valid long number matches no item
+				return null;
+			}
+		}
+
+		@Nullable
+		@Override
+		public V get(long code) {
+			return index.get(code);
+		}
+
+		@Nullable
+		@Override
+		public V get(@Nonnull HierarchyItem item) {
+			return index.get(LongHierarchyItem.toId(item));
+		}
+
+		@Override
+		public boolean containsKey(@Nonnull HierarchyItem item) {
+			return index.containsKey(LongHierarchyItem.toId(item));
+		}
+
+		@Override
+		public void put(@Nonnull HierarchyItem item, @Nonnull V value) {
+			index.put(LongHierarchyItem.toId(item), value);
+		}
+
+		@Nullable
+		@Override
+		public V remove(@Nonnull HierarchyItem item) {
+			return index.remove(LongHierarchyItem.toId(item));
+		}
+
+		@Override
+		public int size() {
+			return index.size();
+		}
+
+		@Nonnull
+		@Override
+		public Iterator<V> iterator() {
+			return index.iterator();
+		}
+	}
+
 	private static class HierarchyItemOrderComparator implements Comparator<HierarchyItem>, Serializable {
 		private static final HierarchyItemOrderComparator INSTANCE = new HierarchyItemOrderComparator();
 		private static final long serialVersionUID = 3021563606387314468L;
@@ -365,7 +612,7 @@ public class MemoryStorage implements HierarchyStorage {
 
 		@Override
 		public int compare(HierarchyItem o1, HierarchyItem o2) {
-			return Long.compare(o1.getLeftBound(), o2.getLeftBound());
+			return Long.compare(o1.getLeftBoundAsLong(), o2.getLeftBoundAsLong());
 		}
 	}
 
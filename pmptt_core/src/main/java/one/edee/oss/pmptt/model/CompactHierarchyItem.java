@@ -0,0 +1,265 @@
+package one.edee.oss.pmptt.model;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * Allocation-lean form of the {@link HierarchyItemWithHistory}. The state is kept in primitive fields and the previous
+ * form of the item is not copied up front - the first change of each field records its previous value in a lazily
+ * allocated array and marks the field in the dirty bitmask. Items that are only read therefore cost a single object
+ * and items that are updated allocate one small array on top of it.
+ *
+ * Missing (null) values are stored as zero, boxed getters are kept for the sake of {@link HierarchyItem} contract but
+ * the primitive ones (such as {@link #getLeftBoundAsLong()}) should be preferred on hot paths.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class CompactHierarchyItem implements TrackedHierarchyItem {
+	private static final byte LEVEL = 0;
+	private static final byte LEFT_BOUND = 1;
+	private static final byte RIGHT_BOUND = 2;
+	private static final byte NUMBER_OF_CHILDREN = 3;
+	private static final byte ORDER = 4;
+	private static final byte BUCKET = 5;
+	private static final byte FIELD_COUNT = 6;
+
+	private final String hierarchyCode;
+	private final String code;
+	private short level;
+	private long leftBound;
+	private long rightBound;
+	private short numberOfChildren;
+	private short order;
+	private short bucket;
+	/**
+	 * Bit set at position of the field (see constants) when its value differs from the original one.
+	 */
+	private byte dirty;
+	/**
+	 * Original values of the dirty fields indexed by field constants, allocated on the first change.
+	 */
+	private long[] previous;
+
+	public CompactHierarchyItem(String hierarchyCode, String code, short level, long leftBound, long rightBound, short bucket) {
+		this(hierarchyCode, code, level, leftBound, rightBound, (short) 0, (short) 0, bucket);
+	}
+
+	public CompactHierarchyItem(String hierarchyCode, String code, short level, long leftBound, long rightBound, short numberOfChildren, short order, short bucket) {
+		this.hierarchyCode = hierarchyCode;
+		this.code = code;
+		this.level = level;
+		this.leftBound = leftBound;
+		this.rightBound = rightBound;
+		this.numberOfChildren = numberOfChildren;
+		this.order = order;
+		this.bucket = bucket;
+	}
+
+	@Override
+	public String getHierarchyCode() {
+		return hierarchyCode;
+	}
+
+	@Override
+	public String getCode() {
+		return code;
+	}
+
+	@Override
+	public Short getLevel() {
+		return level;
+	}
+
+	@Override
+	public Long getLeftBound() {
+		return leftBound;
+	}
+
+	@Override
+	public Long getRightBound() {
+		return rightBound;
+	}
+
+	@Override
+	public Short getNumberOfChildren() {
+		return numberOfChildren;
+	}
+
+	@Override
+	public Short getOrder() {
+		return order;
+	}
+
+	@Override
+	public Short getBucket() {
+		return bucket;
+	}
+
+	@Override
+	public short getLevelAsShort() {
+		return level;
+	}
+
+	@Override
+	public long getLeftBoundAsLong() {
+		return leftBound;
+	}
+
+	@Override
+	public long getRightBoundAsLong() {
+		return rightBound;
+	}
+
+	@Override
+	public short getNumberOfChildrenAsShort() {
+		return numberOfChildren;
+	}
+
+	@Override
+	public short getOrderAsShort() {
+		return order;
+	}
+
+	@Override
+	public short getBucketAsShort() {
+		return bucket;
+	}
+
+	@Override
+	public void setLevel(Short level) {
+		final short newLevel = level == null ? 0 : level;
+		track(LEVEL, this.level, newLevel);
+		this.level = newLevel;
+	}
+
+	@Override
+	public void setLeftBound(Long leftBound) {
+		final long newLeftBound = leftBound == null ? 0L : leftBound;
+		track(LEFT_BOUND, this.leftBound, newLeftBound);
+		this.leftBound = newLeftBound;
+	}
+
+	@Override
+	public void setRightBound(Long rightBound) {
+		final long newRightBound = rightBound == null ? 0L : rightBound;
+		track(RIGHT_BOUND, this.rightBound, newRightBound);
+		this.rightBound = newRightBound;
+	}
+
+	@Override
+	public void setNumberOfChildren(Short numberOfChildren) {
+		final short newNumberOfChildren = numberOfChildren == null ? 0 : numberOfChildren;
+		track(NUMBER_OF_CHILDREN, this.numberOfChildren, newNumberOfChildren);
+		this.numberOfChildren = newNumberOfChildren;
+	}
+
+	@Override
+	public void setOrder(Short order) {
+		final short newOrder = order == null ? 0 : order;
+		track(ORDER, this.order, newOrder);
+		this.order = newOrder;
+	}
+
+	@Override
+	public void setBucket(Short bucket) {
+		final short newBucket = bucket == null ? 0 : bucket;
+		track(BUCKET, this.bucket, newBucket);
+		this.bucket = newBucket;
+	}
+
+	/**
+	 * Returns true if any field differs from the original form of the item.
+	 *
+	 * @return true when item has been changed
+	 */
+	public boolean isChanged() {
+		return dirty != 0;
+	}
+
+	/**
+	 * Materializes the original form of the item as a new instance - the item itself keeps only the previous values
+	 * of the changed fields.
+	 *
+	 * @return new item with the original state
+	 */
+	@Nonnull
+	@Override
+	public HierarchyItem getOriginal() {
+		return createCopy(
+				(short) original(LEVEL, level),
+				original(LEFT_BOUND, leftBound),
+				original(RIGHT_BOUND, rightBound),
+				(short) original(NUMBER_OF_CHILDREN, numberOfChildren),
+				(short) original(ORDER, order),
+				(short) original(BUCKET, bucket)
+		);
+	}
+
+	@Override
+	public void resetOriginal(@Nonnull HierarchyItem originalState) {
+		dirty = 0;
+		remember(LEVEL, originalState.getLevelAsShort(), level);
+		remember(LEFT_BOUND, originalState.getLeftBoundAsLong(), leftBound);
+		remember(RIGHT_BOUND, originalState.getRightBoundAsLong(), rightBound);
+		remember(NUMBER_OF_CHILDREN, originalState.getNumberOfChildrenAsShort(), numberOfChildren);
+		remember(ORDER, originalState.getOrderAsShort(), order);
+		remember(BUCKET, originalState.getBucketAsShort(), bucket);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		// items with numeric codes are never equal to items with string codes
+		if (!(o instanceof HierarchyItem) || o instanceof LongHierarchyItem) return false;
+		HierarchyItem that = (HierarchyItem) o;
+		return hierarchyCode.equals(that.getHierarchyCode()) &&
+				getCode().equals(that.getCode());
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(hierarchyCode, getCode());
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(hierarchyCode=" + hierarchyCode + ", code=" + getCode() +
+				", level=" + level + ", leftBound=" + leftBound + ", rightBound=" + rightBound +
+				", numberOfChildren=" + numberOfChildren + ", order=" + order + ", bucket=" + bucket + ")";
+	}
+
+	/**
+	 * Creates new instance of the same item with passed state.
+	 */
+	@Nonnull
+	protected CompactHierarchyItem createCopy(short level, long leftBound, long rightBound, short numberOfChildren, short order, short bucket) {
+		return new CompactHierarchyItem(hierarchyCode, code, level, leftBound, rightBound, numberOfChildren, order, bucket);
+	}
+
+	/**
+	 * Captures the current value of the field as the original one unless the field has already been changed.
+	 */
+	private void track(byte field, long currentValue, long newValue) {
+		if (currentValue != newValue && (dirty & (1 << field)) == 0) {
+			remember(field, currentValue, newValue);
+		}
+	}
+
+	/**
+	 * Records original value of the field if it differs from the current one.
+	 */
+	private void remember(byte field, long originalValue, long currentValue) {
+		if (originalValue != currentValue) {
+			if (previous == null) {
+				previous = new long[FIELD_COUNT];
+			}
+			previous[field] = originalValue;
+			dirty |= 1 << field;
+		}
+	}
+
+	private long original(byte field, long currentValue) {
+		return (dirty & (1 << field)) == 0 ? currentValue : previous[field];
+	}
+
+}
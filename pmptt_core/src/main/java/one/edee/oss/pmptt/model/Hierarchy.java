@@ -3,20 +3,31 @@ package one.edee.oss.pmptt.model;
 import lombok.Data;
 import lombok.Setter;
 import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.dao.InstrumentedHierarchyStorage;
 import one.edee.oss.pmptt.exception.ItemAlreadyPresent;
 import one.edee.oss.pmptt.exception.MaxLevelExceeded;
 import one.edee.oss.pmptt.exception.NumericTypeExceeded;
 import one.edee.oss.pmptt.exception.PivotHierarchyNodeNotFound;
 import one.edee.oss.pmptt.exception.SectionExhausted;
+import one.edee.oss.pmptt.spi.CompositeHierarchyInstrumentation;
+import one.edee.oss.pmptt.spi.HierarchyEventEmitter;
+import one.edee.oss.pmptt.spi.HierarchyInstrumentation;
+import one.edee.oss.pmptt.spi.OperationStats;
+import one.edee.oss.pmptt.spi.OperationStatsCollector;
 import one.edee.oss.pmptt.util.Assert;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Central point of the MPTT algorithm. Create and use instance of the {@link Hierarchy} to perform all operations
@@ -112,10 +123,23 @@ public class Hierarchy {
 	 * Maximal number of children in each section of the tree (ie. maximal numbers of children in each node).
 	 */
 	private final short sectionSize;
+	/**
+	 * True when all item codes are 64-bit numbers - items are represented by {@link LongHierarchyItem} and storages
+	 * index them by primitive long instead of {@link String}.
+	 */
+	private final boolean longCodes;
 	/**
 	 * Storage implementation.
 	 */
 	@Setter private HierarchyStorage storage;
+	/**
+	 * Prefix of the operation names reported to {@link HierarchyInstrumentation}.
+	 */
+	public static final String OPERATION_PREFIX = "Hierarchy.";
+	/**
+	 * Instrumented operation currently executed by the thread.
+	 */
+	private static final ThreadLocal<String> CURRENT_OPERATION = new ThreadLocal<>();
 
 	/**
 	 * Hierarchy constructor.
@@ -126,9 +150,23 @@ public class Hierarchy {
 	 * @throws NumericTypeExceeded if combination size of the maximum nodes boundaries held in hierarchy exceeds {@link Long}
 	 */
 	public Hierarchy(String code, short levels, short sectionSize) throws NumericTypeExceeded {
+		this(code, levels, sectionSize, false);
+	}
+
+	/**
+	 * Hierarchy constructor.
+	 *
+	 * @param code unique hierarchy code
+	 * @param levels maximum levels preallocated in the hierarchy
+	 * @param sectionSize maximum nodes in section preallocated in the hierarchy.
+	 * @param longCodes true if codes of all items are 64-bit numbers (see numeric variants of the methods)
+	 * @throws NumericTypeExceeded if combination size of the maximum nodes boundaries held in hierarchy exceeds {@link Long}
+	 */
+	public Hierarchy(String code, short levels, short sectionSize, boolean longCodes) throws NumericTypeExceeded {
 		this.code = code;
 		this.levels = (short)(levels + 1);
 		this.sectionSize = (short)(sectionSize + 1);
+		this.longCodes = longCodes;
 		// check long overflow for first level
 		try {
 			Section.getSectionSizeForLevel(this.sectionSize, (short) 1, this.levels);
@@ -146,11 +184,13 @@ public class Hierarchy {
 	 */
 	@Nonnull
 	public HierarchyItem createRootItem(@Nonnull String externalId) throws SectionExhausted, ItemAlreadyPresent {
-		verifyNotPresentAlready(externalId);
-		final HierarchyItem newItem = createRootItemInternal(externalId);
-		newItem.setOrder((short)(storage.getRootItems(code).size() + 1));
-		storage.createItem(newItem, null);
-		return newItem;
+		return instrument("createRootItem", externalId, () -> {
+			verifyNotPresentAlready(externalId);
+			final HierarchyItem newItem = createRootItemInternal(externalId);
+			newItem.setOrder((short)(storage().getRootItems(code).size() + 1));
+			storage().createItem(newItem, null);
+			return newItem;
+		});
 	}
 
 	/**
@@ -164,15 +204,17 @@ public class Hierarchy {
 	 */
 	@Nonnull
 	public HierarchyItem createRootItem(@Nonnull String externalId, String before) throws PivotHierarchyNodeNotFound, SectionExhausted, ItemAlreadyPresent {
-		verifyNotPresentAlready(externalId);
-		final HierarchyItem newItem = createRootItemInternal(externalId);
-		final HierarchyItem beforeItem = getHierarchyItemWithNullabilityCheck(before, "used as pivot");
-		final List<HierarchyItem> rootItems = getRootItems();
-		assertItemIsPartOf(beforeItem, rootItems);
-		newItem.setOrder(beforeItem.getOrder());
-		storage.createItem(newItem, null);
-		moveAllItemsRight(beforeItem, rootItems);
-		return newItem;
+		return instrument("createRootItem", externalId, before, () -> {
+			verifyNotPresentAlready(externalId);
+			final HierarchyItem newItem = createRootItemInternal(externalId);
+			final HierarchyItem beforeItem = getHierarchyItemWithNullabilityCheck(before, "used as pivot");
+			final List<HierarchyItem> rootItems = getRootItems();
+			assertItemIsPartOf(beforeItem, rootItems);
+			newItem.setOrder(beforeItem.getOrder());
+			storage().createItem(newItem, null);
+			moveAllItemsRight(beforeItem, rootItems);
+			return newItem;
+		});
 	}
 
 	/**
@@ -187,24 +229,26 @@ public class Hierarchy {
 	 */
 	@Nonnull
 	public HierarchyItem createItem(@Nonnull String externalId, @Nonnull String withParent) throws PivotHierarchyNodeNotFound, SectionExhausted, MaxLevelExceeded, ItemAlreadyPresent {
-		verifyNotPresentAlready(externalId);
-		final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as parent");
-		if (parentItem.getLevel() + 1 > levels - 1) {
-			throw new MaxLevelExceeded(
-					"Cannot add item on level " + (parentItem.getLevel() + 1) + "! Maximum allowed levels is " + (levels - 1) + ".",
-					(short) (parentItem.getLevel() + 1),
-					(short) (levels - 1)
-			);
-		}
-		final HierarchyItem newItem = createNewItemUnder(externalId, parentItem);
-		final short newChildrenCount = (short) (parentItem.getNumberOfChildren() + 1);
-		newItem.setOrder(newChildrenCount);
-		storage.createItem(newItem, parentItem);
+		return instrument("createItem", externalId, withParent, () -> {
+			verifyNotPresentAlready(externalId);
+			final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as parent");
+			if (parentItem.getLevel() + 1 > levels - 1) {
+				throw new MaxLevelExceeded(
+						"Cannot add item on level " + (parentItem.getLevel() + 1) + "! Maximum allowed levels is " + (levels - 1) + ".",
+						(short) (parentItem.getLevel() + 1),
+						(short) (levels - 1)
+				);
+			}
+			final HierarchyItem newItem = createNewItemUnder(externalId, parentItem);
+			final short newChildrenCount = (short) (parentItem.getNumberOfChildren() + 1);
+			newItem.setOrder(newChildrenCount);
+			storage().createItem(newItem, parentItem);
 
-		parentItem.setNumberOfChildren(newChildrenCount);
-		storage.updateItem(parentItem);
+			parentItem.setNumberOfChildren(newChildrenCount);
+			storage().updateItem(parentItem);
 
-		return newItem;
+			return newItem;
+		});
 	}
 
 	/**
@@ -221,29 +265,31 @@ public class Hierarchy {
 	 */
 	@Nonnull
 	public HierarchyItem createItem(@Nonnull String externalId, @Nonnull String withParent, String before) throws PivotHierarchyNodeNotFound, SectionExhausted, MaxLevelExceeded, ItemAlreadyPresent {
-		verifyNotPresentAlready(externalId);
-		final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as parent");
-		if (parentItem.getLevel() + 1 > levels - 1) {
-			throw new MaxLevelExceeded(
-				"Cannot add item on level " + (parentItem.getLevel() + 1) + "! Maximum allowed levels is " + (levels - 1) + ".",
-				(short) (parentItem.getLevel() + 1),
-				(short) (levels - 1)
-			);
-		}
-		final HierarchyItem beforeItem = getHierarchyItemWithNullabilityCheck(before, "used as pivot");
-		final List<HierarchyItem> children = storage.getChildItems(parentItem);
-		assertItemIsPartOf(beforeItem, children);
+		return instrument("createItem", externalId, withParent, before, () -> {
+			verifyNotPresentAlready(externalId);
+			final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as parent");
+			if (parentItem.getLevel() + 1 > levels - 1) {
+				throw new MaxLevelExceeded(
+					"Cannot add item on level " + (parentItem.getLevel() + 1) + "! Maximum allowed levels is " + (levels - 1) + ".",
+					(short) (parentItem.getLevel() + 1),
+					(short) (levels - 1)
+				);
+			}
+			final HierarchyItem beforeItem = getHierarchyItemWithNullabilityCheck(before, "used as pivot");
+			final List<HierarchyItem> children = storage().getChildItems(parentItem);
+			assertItemIsPartOf(beforeItem, children);
 
-		final HierarchyItem newItem = createNewItemUnder(externalId, parentItem);
-		newItem.setOrder(beforeItem.getOrder());
-		storage.createItem(newItem, parentItem);
+			final HierarchyItem newItem = createNewItemUnder(externalId, parentItem);
+			newItem.setOrder(beforeItem.getOrder());
+			storage().createItem(newItem, parentItem);
 
-		parentItem.setNumberOfChildren((short)(parentItem.getNumberOfChildren() + 1));
-		storage.updateItem(parentItem);
+			parentItem.setNumberOfChildren((short)(parentItem.getNumberOfChildren() + 1));
+			storage().updateItem(parentItem);
 
-		moveAllItemsRight(beforeItem, children);
+			moveAllItemsRight(beforeItem, children);
 
-		return newItem;
+			return newItem;
+		});
 	}
 
 	/**
@@ -253,19 +299,21 @@ public class Hierarchy {
 	 * @throws PivotHierarchyNodeNotFound if externalId item is not found in entire hierarchy
 	 */
 	public void removeItem(@Nonnull String externalId) throws PivotHierarchyNodeNotFound {
-		final HierarchyItem removedItem = getHierarchyItemWithNullabilityCheck(externalId, "removed");
-		final HierarchyItem parentItem = storage.getParentItem(removedItem);
-		for (HierarchyItem itemToRemove : storage.getAllChildrenItems(removedItem)) {
-			storage.removeItem(itemToRemove);
-		}
+		instrument("removeItem", externalId, () -> {
+			final HierarchyItem removedItem = getHierarchyItemWithNullabilityCheck(externalId, "removed");
+			final HierarchyItem parentItem = storage().getParentItem(removedItem);
+			for (HierarchyItem itemToRemove : storage().getAllChildrenItems(removedItem)) {
+				storage().removeItem(itemToRemove);
+			}
 
-		if (parentItem != null) {
-			parentItem.setNumberOfChildren((short)(parentItem.getNumberOfChildren() - 1));
-			storage.updateItem(parentItem);
-		}
+			if (parentItem != null) {
+				parentItem.setNumberOfChildren((short)(parentItem.getNumberOfChildren() - 1));
+				storage().updateItem(parentItem);
+			}
 
-		moveNeighboursLeft(removedItem, parentItem);
-		storage.removeItem(removedItem);
+			moveNeighboursLeft(removedItem, parentItem);
+			storage().removeItem(removedItem);
+		});
 	}
 
 	/**
@@ -277,11 +325,13 @@ public class Hierarchy {
 	 * @param before code of the sibling item that would follow newly created item
 	 */
 	public void moveItemBetweenLevelsBefore(@Nonnull String externalId, @Nonnull String withParent, @Nonnull String before) {
-		final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
-		final HierarchyItem beforeItem = getHierarchyItemWithNullabilityCheck(before, "used as pivot");
-		final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as new parent");
+		instrument("moveItemBetweenLevelsBefore", externalId, withParent, before, () -> {
+			final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
+			final HierarchyItem beforeItem = getHierarchyItemWithNullabilityCheck(before, "used as pivot");
+			final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as new parent");
 
-		moveItemBetweenLevels(movedItem, parentItem, (item, neighbours) -> insertIntoNeighboursBefore(item, beforeItem, neighbours));
+			moveItemBetweenLevels(movedItem, parentItem, (item, neighbours) -> insertIntoNeighboursBefore(item, beforeItem, neighbours));
+		});
 	}
 
 	/**
@@ -292,10 +342,12 @@ public class Hierarchy {
 	 * @param before code of the sibling item that would follow newly created item
 	 */
 	public void moveItemBetweenLevelsBefore(@Nonnull String externalId, @Nonnull String before) {
-		final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
-		final HierarchyItem beforeItem = getHierarchyItemWithNullabilityCheck(before, "used as pivot");
+		instrument("moveItemBetweenLevelsBefore", externalId, before, () -> {
+			final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
+			final HierarchyItem beforeItem = getHierarchyItemWithNullabilityCheck(before, "used as pivot");
 
-		moveItemBetweenLevels(movedItem, null, (item, neighbours) -> insertIntoNeighboursBefore(item, beforeItem, neighbours));
+			moveItemBetweenLevels(movedItem, null, (item, neighbours) -> insertIntoNeighboursBefore(item, beforeItem, neighbours));
+		});
 	}
 
 	/**
@@ -307,11 +359,13 @@ public class Hierarchy {
 	 * @param after code of the sibling item that would precede newly created item
 	 */
 	public void moveItemBetweenLevelsAfter(@Nonnull String externalId, @Nonnull String withParent, @Nonnull String after) {
-		final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
-		final HierarchyItem afterItem = getHierarchyItemWithNullabilityCheck(after, "used as pivot");
-		final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as new parent");
+		instrument("moveItemBetweenLevelsAfter", externalId, withParent, after, () -> {
+			final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
+			final HierarchyItem afterItem = getHierarchyItemWithNullabilityCheck(after, "used as pivot");
+			final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as new parent");
 
-		moveItemBetweenLevels(movedItem, parentItem, (item, neighbours) -> insertIntoNeighboursAfter(item, afterItem, neighbours));
+			moveItemBetweenLevels(movedItem, parentItem, (item, neighbours) -> insertIntoNeighboursAfter(item, afterItem, neighbours));
+		});
 	}
 
 	/**
@@ -322,10 +376,12 @@ public class Hierarchy {
 	 * @param after code of the sibling item that would precede newly created item
 	 */
 	public void moveItemBetweenLevelsAfter(@Nonnull String externalId, @Nonnull String after) {
-		final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
-		final HierarchyItem beforeItem = getHierarchyItemWithNullabilityCheck(after, "used as pivot");
+		instrument("moveItemBetweenLevelsAfter", externalId, after, () -> {
+			final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
+			final HierarchyItem beforeItem = getHierarchyItemWithNullabilityCheck(after, "used as pivot");
 
-		moveItemBetweenLevels(movedItem, null, (item, neighbours) -> insertIntoNeighboursAfter(item, beforeItem, neighbours));
+			moveItemBetweenLevels(movedItem, null, (item, neighbours) -> insertIntoNeighboursAfter(item, beforeItem, neighbours));
+		});
 	}
 
 	/**
@@ -335,9 +391,11 @@ public class Hierarchy {
 	 * @param externalId unique code of the item in the hierarchy (usually business code of some external entity)
 	 */
 	public void moveItemBetweenLevelsFirst(@Nonnull String externalId) {
-		final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
+		instrument("moveItemBetweenLevelsFirst", externalId, () -> {
+			final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
 
-		moveItemBetweenLevels(movedItem, null, this::insertIntoNeighboursFirst);
+			moveItemBetweenLevels(movedItem, null, this::insertIntoNeighboursFirst);
+		});
 	}
 
 	/**
@@ -348,10 +406,12 @@ public class Hierarchy {
 	 * @param withParent code of the other item in the hierarchy that would become parent item of the newly created item
 	 */
 	public void moveItemBetweenLevelsFirst(@Nonnull String externalId, @Nonnull String withParent) {
-		final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
-		final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as new parent");
+		instrument("moveItemBetweenLevelsFirst", externalId, withParent, () -> {
+			final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
+			final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as new parent");
 
-		moveItemBetweenLevels(movedItem, parentItem, this::insertIntoNeighboursFirst);
+			moveItemBetweenLevels(movedItem, parentItem, this::insertIntoNeighboursFirst);
+		});
 	}
 
 	/**
@@ -362,10 +422,12 @@ public class Hierarchy {
 	 * @param withParent code of the other item in the hierarchy that would become parent item of the newly created item
 	 */
 	public void moveItemBetweenLevelsLast(@Nonnull String externalId, @Nonnull String withParent) {
-		final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
-		final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as new parent");
+		instrument("moveItemBetweenLevelsLast", externalId, withParent, () -> {
+			final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
+			final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as new parent");
 
-		moveItemBetweenLevels(movedItem, parentItem, this::insertIntoNeighboursLast);
+			moveItemBetweenLevels(movedItem, parentItem, this::insertIntoNeighboursLast);
+		});
 	}
 
 	/**
@@ -375,9 +437,11 @@ public class Hierarchy {
 	 * @param externalId unique code of the item in the hierarchy (usually business code of some external entity)
 	 */
 	public void moveItemBetweenLevelsLast(@Nonnull String externalId) {
-		final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
+		instrument("moveItemBetweenLevelsLast", externalId, () -> {
+			final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
 
-		moveItemBetweenLevels(movedItem, null, this::insertIntoNeighboursLast);
+			moveItemBetweenLevels(movedItem, null, this::insertIntoNeighboursLast);
+		});
 	}
 
 	/**
@@ -388,13 +452,15 @@ public class Hierarchy {
 	 * @throws PivotHierarchyNodeNotFound if externalId or beforeItem is not found in entire hierarchy
 	 */
 	public void moveItemBefore(@Nonnull String externalId, @Nonnull String before) throws PivotHierarchyNodeNotFound {
-		final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
-		final HierarchyItem beforeItem = getHierarchyItemWithNullabilityCheck(before, "used as pivot");
-		final HierarchyItem parentItem = storage.getParentItem(movedItem);
+		instrument("moveItemBefore", externalId, before, () -> {
+			final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
+			final HierarchyItem beforeItem = getHierarchyItemWithNullabilityCheck(before, "used as pivot");
+			final HierarchyItem parentItem = storage().getParentItem(movedItem);
 
-		insertIntoNeighboursBefore(movedItem, beforeItem, getNeighbours(parentItem));
+			insertIntoNeighboursBefore(movedItem, beforeItem, getNeighbours(parentItem));
 
-		storage.updateItem(movedItem);
+			storage().updateItem(movedItem);
+		});
 	}
 
 	/**
@@ -405,14 +471,16 @@ public class Hierarchy {
 	 * @throws PivotHierarchyNodeNotFound if externalId or afterItem is not found in entire hierarchy
 	 */
 	public void moveItemAfter(@Nonnull String externalId, @Nonnull String after) throws PivotHierarchyNodeNotFound {
-		final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
-		final HierarchyItem afterItem = getHierarchyItemWithNullabilityCheck(after, "used as pivot");
-		final HierarchyItem parentItem = storage.getParentItem(movedItem);
+		instrument("moveItemAfter", externalId, after, () -> {
+			final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
+			final HierarchyItem afterItem = getHierarchyItemWithNullabilityCheck(after, "used as pivot");
+			final HierarchyItem parentItem = storage().getParentItem(movedItem);
 
-		final List<HierarchyItem> neighbours = getNeighbours(parentItem);
-		insertIntoNeighboursAfter(movedItem, afterItem, neighbours);
+			final List<HierarchyItem> neighbours = getNeighbours(parentItem);
+			insertIntoNeighboursAfter(movedItem, afterItem, neighbours);
 
-		storage.updateItem(movedItem);
+			storage().updateItem(movedItem);
+		});
 	}
 
 	/**
@@ -422,10 +490,12 @@ public class Hierarchy {
 	 * @throws PivotHierarchyNodeNotFound if externalId is not found in entire hierarchy
 	 */
 	public void moveItemToFirst(@Nonnull String externalId) throws PivotHierarchyNodeNotFound {
-		final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
-		final HierarchyItem parentItem = storage.getParentItem(movedItem);
+		instrument("moveItemToFirst", externalId, () -> {
+			final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
+			final HierarchyItem parentItem = storage().getParentItem(movedItem);
 
-		insertIntoNeighboursFirst(movedItem, getNeighbours(parentItem));
+			insertIntoNeighboursFirst(movedItem, getNeighbours(parentItem));
+		});
 	}
 
 	/**
@@ -435,10 +505,12 @@ public class Hierarchy {
 	 * @throws PivotHierarchyNodeNotFound if externalId is not found in entire hierarchy
 	 */
 	public void moveItemToLast(@Nonnull String externalId) throws PivotHierarchyNodeNotFound {
-		final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
-		final HierarchyItem parentItem = storage.getParentItem(movedItem);
+		instrument("moveItemToLast", externalId, () -> {
+			final HierarchyItem movedItem = getHierarchyItemWithNullabilityCheck(externalId, "moved");
+			final HierarchyItem parentItem = storage().getParentItem(movedItem);
 
-		insertIntoNeighboursLast(movedItem, getNeighbours(parentItem));
+			insertIntoNeighboursLast(movedItem, getNeighbours(parentItem));
+		});
 	}
 
 	/**
@@ -448,7 +520,9 @@ public class Hierarchy {
 	 */
 	@Nonnull
 	public List<HierarchyItem> getRootItems() {
-		return storage.getRootItems(code);
+		return instrument("getRootItems", () -> {
+			return storage().getRootItems(code);
+		});
 	}
 
 	/**
@@ -460,8 +534,9 @@ public class Hierarchy {
 	 */
 	@Nonnull
 	public List<HierarchyItem> getChildItems(@Nonnull String withParent) throws PivotHierarchyNodeNotFound {
-		final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as parent");
-		return storage.getChildItems(parentItem);
+		return instrument("getChildItems", withParent, () -> {
+			return requirePivot(storage().getChildItems(code, withParent), withParent, "used as parent");
+		});
 	}
 
 	/**
@@ -474,8 +549,9 @@ public class Hierarchy {
 	 */
 	@Nonnull
 	public List<HierarchyItem> getAllChildItems(@Nonnull String withParent) throws PivotHierarchyNodeNotFound {
-		final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as parent");
-		return storage.getAllChildrenItems(parentItem);
+		return instrument("getAllChildItems", withParent, () -> {
+			return requirePivot(storage().getAllChildrenItems(code, withParent), withParent, "used as parent");
+		});
 	}
 
 	/**
@@ -488,12 +564,13 @@ public class Hierarchy {
 	 */
 	@Nonnull
 	public List<HierarchyItem> getLeafItems(String withParent) throws PivotHierarchyNodeNotFound {
-		if (withParent == null) {
-			return storage.getLeafItems(code);
-		} else {
-			final HierarchyItem parentItem = getHierarchyItemWithNullabilityCheck(withParent, "used as parent");
-			return storage.getLeafItems(parentItem);
-		}
+		return instrument("getLeafItems", withParent, () -> {
+			if (withParent == null) {
+				return storage().getLeafItems(code);
+			} else {
+				return requirePivot(storage().getLeafItems(code, withParent), withParent, "used as parent");
+			}
+		});
 	}
 
 	/**
@@ -505,7 +582,9 @@ public class Hierarchy {
 	 */
 	@Nonnull
 	public HierarchyItem getItem(@Nonnull String externalId) throws PivotHierarchyNodeNotFound {
-		return getHierarchyItemWithNullabilityCheck(externalId, "retrieved");
+		return instrument("getItem", externalId, () -> {
+			return getHierarchyItemWithNullabilityCheck(externalId, "retrieved");
+		});
 	}
 
 	/**
@@ -517,8 +596,14 @@ public class Hierarchy {
 	 */
 	@Nullable
 	public HierarchyItem getParentItem(@Nonnull String externalId) throws PivotHierarchyNodeNotFound {
-		final HierarchyItem pivot = getHierarchyItemWithNullabilityCheck(externalId, "used as child pivot");
-		return storage.getParentItem(pivot);
+		return instrument("getParentItem", externalId, () -> {
+			final HierarchyItem parent = storage().getParentItem(code, externalId);
+			if (parent == null) {
+				// item is either root item or it doesn't exist at all
+				requirePivot(storage().getItem(code, externalId), externalId, "used as child pivot");
+			}
+			return parent;
+		});
 	}
 
 	/**
@@ -530,8 +615,197 @@ public class Hierarchy {
 	 */
 	@Nonnull
 	public List<HierarchyItem> getParentItems(@Nonnull String externalId) throws PivotHierarchyNodeNotFound {
-		final HierarchyItem pivot = getHierarchyItemWithNullabilityCheck(externalId, "used as child pivot");
-		return storage.getParentsOfItem(pivot);
+		return instrument("getParentItems", externalId, () -> {
+			return requirePivot(storage().getParentsOfItem(code, externalId), externalId, "used as child pivot");
+		});
+	}
+
+	/**
+	 * Numeric variant of {@link #createRootItem(String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	@Nonnull
+	public HierarchyItem createRootItem(long externalId) throws SectionExhausted, ItemAlreadyPresent {
+		return createRootItem(Long.toString(externalId));
+	}
+
+	/**
+	 * Numeric variant of {@link #createRootItem(String, String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	@Nonnull
+	public HierarchyItem createRootItem(long externalId, long before) throws PivotHierarchyNodeNotFound, SectionExhausted, ItemAlreadyPresent {
+		return createRootItem(Long.toString(externalId), Long.toString(before));
+	}
+
+	/**
+	 * Numeric variant of {@link #createItem(String, String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	@Nonnull
+	public HierarchyItem createItem(long externalId, long withParent) throws PivotHierarchyNodeNotFound, SectionExhausted, MaxLevelExceeded, ItemAlreadyPresent {
+		return createItem(Long.toString(externalId), Long.toString(withParent));
+	}
+
+	/**
+	 * Numeric variant of {@link #createItem(String, String, String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	@Nonnull
+	public HierarchyItem createItem(long externalId, long withParent, long before) throws PivotHierarchyNodeNotFound, SectionExhausted, MaxLevelExceeded, ItemAlreadyPresent {
+		return createItem(Long.toString(externalId), Long.toString(withParent), Long.toString(before));
+	}
+
+	/**
+	 * Numeric variant of {@link #removeItem(String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	public void removeItem(long externalId) throws PivotHierarchyNodeNotFound {
+		removeItem(Long.toString(externalId));
+	}
+
+	/**
+	 * Numeric variant of {@link #moveItemBetweenLevelsBefore(String, String, String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	public void moveItemBetweenLevelsBefore(long externalId, long withParent, long before) {
+		moveItemBetweenLevelsBefore(Long.toString(externalId), Long.toString(withParent), Long.toString(before));
+	}
+
+	/**
+	 * Numeric variant of {@link #moveItemBetweenLevelsBefore(String, String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	public void moveItemBetweenLevelsBefore(long externalId, long before) {
+		moveItemBetweenLevelsBefore(Long.toString(externalId), Long.toString(before));
+	}
+
+	/**
+	 * Numeric variant of {@link #moveItemBetweenLevelsAfter(String, String, String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	public void moveItemBetweenLevelsAfter(long externalId, long withParent, long after) {
+		moveItemBetweenLevelsAfter(Long.toString(externalId), Long.toString(withParent), Long.toString(after));
+	}
+
+	/**
+	 * Numeric variant of {@link #moveItemBetweenLevelsAfter(String, String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	public void moveItemBetweenLevelsAfter(long externalId, long after) {
+		moveItemBetweenLevelsAfter(Long.toString(externalId), Long.toString(after));
+	}
+
+	/**
+	 * Numeric variant of {@link #moveItemBetweenLevelsFirst(String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	public void moveItemBetweenLevelsFirst(long externalId) {
+		moveItemBetweenLevelsFirst(Long.toString(externalId));
+	}
+
+	/**
+	 * Numeric variant of {@link #moveItemBetweenLevelsFirst(String, String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	public void moveItemBetweenLevelsFirst(long externalId, long withParent) {
+		moveItemBetweenLevelsFirst(Long.toString(externalId), Long.toString(withParent));
+	}
+
+	/**
+	 * Numeric variant of {@link #moveItemBetweenLevelsLast(String, String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	public void moveItemBetweenLevelsLast(long externalId, long withParent) {
+		moveItemBetweenLevelsLast(Long.toString(externalId), Long.toString(withParent));
+	}
+
+	/**
+	 * Numeric variant of {@link #moveItemBetweenLevelsLast(String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	public void moveItemBetweenLevelsLast(long externalId) {
+		moveItemBetweenLevelsLast(Long.toString(externalId));
+	}
+
+	/**
+	 * Numeric variant of {@link #moveItemBefore(String, String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	public void moveItemBefore(long externalId, long before) throws PivotHierarchyNodeNotFound {
+		moveItemBefore(Long.toString(externalId), Long.toString(before));
+	}
+
+	/**
+	 * Numeric variant of {@link #moveItemAfter(String, String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	public void moveItemAfter(long externalId, long after) throws PivotHierarchyNodeNotFound {
+		moveItemAfter(Long.toString(externalId), Long.toString(after));
+	}
+
+	/**
+	 * Numeric variant of {@link #moveItemToFirst(String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	public void moveItemToFirst(long externalId) throws PivotHierarchyNodeNotFound {
+		moveItemToFirst(Long.toString(externalId));
+	}
+
+	/**
+	 * Numeric variant of {@link #moveItemToLast(String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	public void moveItemToLast(long externalId) throws PivotHierarchyNodeNotFound {
+		moveItemToLast(Long.toString(externalId));
+	}
+
+	/**
+	 * Numeric variant of {@link #getChildItems(String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	@Nonnull
+	public List<HierarchyItem> getChildItems(long withParent) throws PivotHierarchyNodeNotFound {
+		return instrument("getChildItems", withParent, () -> {
+			return requirePivot(storage().getChildItems(code, withParent), withParent, "used as parent");
+		});
+	}
+
+	/**
+	 * Numeric variant of {@link #getAllChildItems(String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	@Nonnull
+	public List<HierarchyItem> getAllChildItems(long withParent) throws PivotHierarchyNodeNotFound {
+		return instrument("getAllChildItems", withParent, () -> {
+			return requirePivot(storage().getAllChildrenItems(code, withParent), withParent, "used as parent");
+		});
+	}
+
+	/**
+	 * Numeric variant of {@link #getLeafItems(String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	@Nonnull
+	public List<HierarchyItem> getLeafItems(long withParent) throws PivotHierarchyNodeNotFound {
+		return instrument("getLeafItems", withParent, () -> {
+			return requirePivot(storage().getLeafItems(code, withParent), withParent, "used as parent");
+		});
+	}
+
+	/**
+	 * Numeric variant of {@link #getItem(String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	@Nonnull
+	public HierarchyItem getItem(long externalId) throws PivotHierarchyNodeNotFound {
+		return instrument("getItem", externalId, () -> {
+			return requirePivot(storage().getItem(code, externalId), externalId, "retrieved");
+		});
+	}
+
+	/**
+	 * Numeric variant of {@link #getParentItem(String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	@Nullable
+	public HierarchyItem getParentItem(long externalId) throws PivotHierarchyNodeNotFound {
+		return instrument("getParentItem", externalId, () -> {
+			final HierarchyItem parent = storage().getParentItem(code, externalId);
+			if (parent == null) {
+				// item is either root item or it doesn't exist at all
+				requirePivot(storage().getItem(code, externalId), externalId, "used as child pivot");
+			}
+			return parent;
+		});
+	}
+
+	/**
+	 * Numeric variant of {@link #getParentItems(String)} for hierarchies with {@link #isLongCodes() long codes}.
+	 */
+	@Nonnull
+	public List<HierarchyItem> getParentItems(long externalId) throws PivotHierarchyNodeNotFound {
+		return instrument("getParentItems", externalId, () -> {
+			return requirePivot(storage().getParentsOfItem(code, externalId), externalId, "used as child pivot");
+		});
 	}
 
 	/**
@@ -543,17 +817,299 @@ public class Hierarchy {
 	 */
 	@Nonnull
 	public String printTree(@Nullable String fromParent, int indent) {
-		final StringBuilder sb = new StringBuilder();
-		printTree(fromParent != null ? getItem(fromParent) : null, indent, 0, sb);
-		return sb.toString();
+		return instrument("printTree", fromParent, String.valueOf(indent), () -> {
+			final StringBuilder sb = new StringBuilder();
+			executeReadOnly(() -> printTree(fromParent != null ? getItem(fromParent) : null, indent, 0, sb));
+			return sb.toString();
+		});
+	}
+
+	/**
+	 * Executes several read operations of this hierarchy as a single unit - database hierarchies execute them
+	 * in single read-only transaction using single connection, so that all reads observe the same state of the tree
+	 * (as far as the isolation level of the database allows) and the connection is not borrowed from the pool for each
+	 * of them. Typical use is rendering a page that needs breadcrumb, children and leaves of the same category.
+	 *
+	 * Reads executed within the block target the primary database even if read replicas are configured. Hierarchy
+	 * kept in memory executes the logic as is.
+	 *
+	 * @param logic logic calling read methods of this hierarchy
+	 * @return result of the logic
+	 */
+	public <T> T readConsistent(@Nonnull Function<Hierarchy, T> logic) {
+		return executeReadOnly(() -> logic.apply(this));
+	}
+
+	/**
+	 * Executes the operation (usually single mutating method of this hierarchy) with {@link OperationStatsCollector}
+	 * enabled and returns cost report of the last hierarchy operation it executed. Method must not be called from
+	 * within another hierarchy operation - the nested operations are recorded as part of the outer one and have
+	 * no report of their own.
+	 *
+	 * @param operation logic calling the hierarchy method
+	 * @return cost report of the operation
+	 */
+	@Nonnull
+	public OperationStats executeWithStats(@Nonnull Consumer<Hierarchy> operation) {
+		Assert.isTrue(
+			CURRENT_OPERATION.get() == null && !OperationStatsCollector.isRecording(),
+			"Statistics cannot be collected for operation nested in another hierarchy operation!"
+		);
+		final boolean enabled = OperationStatsCollector.isEnabled();
+		OperationStatsCollector.enable();
+		OperationStatsCollector.resetLastOperationStats();
+		try {
+			operation.accept(this);
+			final OperationStats stats = OperationStatsCollector.getLastOperationStats();
+			Assert.notNull(stats, "No hierarchy operation has been executed!");
+			return stats;
+		} finally {
+			if (!enabled) {
+				OperationStatsCollector.disable();
+			}
+		}
+	}
+
+	/**
+	 * Executes logic of the public operation and reports its duration and outcome to the {@link HierarchyInstrumentation}
+	 * of the storage. Operations nested in another instrumented operation (public method calling other public method,
+	 * or subclass wrapping the parent implementation) are reported only once - as the outermost operation. When there
+	 * is nobody to report to (see {@link #isInstrumented()}) the logic is executed directly.
+	 *
+	 * @param operation name of the public method
+	 * @param logic operation logic
+	 * @return result of the logic
+	 */
+	protected <T> T instrument(@Nonnull String operation, @Nonnull Supplier<T> logic) {
+		return instrument(operation, 0, null, null, null, logic);
+	}
+
+	/**
+	 * Executes logic of the public operation targeting the item, see {@link #instrument(String, Supplier)}. The item
+	 * code is reported as the only argument of the operation to {@link HierarchyInstrumentation#operationInvoked(String, String, String[])}.
+	 *
+	 * @param operation name of the public method
+	 * @param itemCode code of the item the operation targets
+	 * @param logic operation logic
+	 * @return result of the logic
+	 */
+	protected <T> T instrument(@Nonnull String operation, @Nullable String itemCode, @Nonnull Supplier<T> logic) {
+		return instrument(operation, 1, itemCode, null, null, logic);
+	}
+
+	/**
+	 * Executes logic of the public operation targeting the item with numeric code, see
+	 * {@link #instrument(String, String, Supplier)}. The code is converted to {@link String} only when the operation
+	 * is really reported.
+	 *
+	 * @param operation name of the public method
+	 * @param itemCode numeric code of the item the operation targets
+	 * @param logic operation logic
+	 * @return result of the logic
+	 */
+	protected <T> T instrument(@Nonnull String operation, long itemCode, @Nonnull Supplier<T> logic) {
+		if (!isInstrumented() || CURRENT_OPERATION.get() != null) {
+			return logic.get();
+		}
+		return instrument(operation, 1, Long.toString(itemCode), null, null, logic);
+	}
+
+	/**
+	 * Executes logic of the public operation with two arguments, see {@link #instrument(String, Supplier)}. First
+	 * argument is reported as the code of the item the operation targets, all arguments are passed
+	 * to {@link HierarchyInstrumentation#operationInvoked(String, String, String[])}.
+	 *
+	 * @param operation name of the public method
+	 * @param itemCode first argument of the public method - code of the item the operation targets
+	 * @param second second argument of the public method
+	 * @param logic operation logic
+	 * @return result of the logic
+	 */
+	protected <T> T instrument(@Nonnull String operation, @Nullable String itemCode, @Nullable String second, @Nonnull Supplier<T> logic) {
+		return instrument(operation, 2, itemCode, second, null, logic);
+	}
+
+	/**
+	 * Executes logic of the public operation with three arguments, see {@link #instrument(String, String, String, Supplier)}.
+	 */
+	protected <T> T instrument(@Nonnull String operation, @Nullable String itemCode, @Nullable String second, @Nullable String third, @Nonnull Supplier<T> logic) {
+		return instrument(operation, 3, itemCode, second, third, logic);
+	}
+
+	/**
+	 * Executes logic of the public operation that returns no value, see {@link #instrument(String, Supplier)}.
+	 */
+	protected void instrument(@Nonnull String operation, @Nonnull Runnable logic) {
+		instrument(operation, 0, null, null, null, toSupplier(logic));
+	}
+
+	/**
+	 * Executes logic of the public operation targeting the item that returns no value,
+	 * see {@link #instrument(String, String, Supplier)}.
+	 */
+	protected void instrument(@Nonnull String operation, @Nullable String itemCode, @Nonnull Runnable logic) {
+		instrument(operation, 1, itemCode, null, null, toSupplier(logic));
+	}
+
+	/**
+	 * Executes logic of the public operation with two arguments that returns no value,
+	 * see {@link #instrument(String, String, String, Supplier)}.
+	 */
+	protected void instrument(@Nonnull String operation, @Nullable String itemCode, @Nullable String second, @Nonnull Runnable logic) {
+		instrument(operation, 2, itemCode, second, null, toSupplier(logic));
+	}
+
+	/**
+	 * Executes logic of the public operation with three arguments that returns no value,
+	 * see {@link #instrument(String, String, String, Supplier)}.
+	 */
+	protected void instrument(@Nonnull String operation, @Nullable String itemCode, @Nullable String second, @Nullable String third, @Nonnull Runnable logic) {
+		instrument(operation, 3, itemCode, second, third, toSupplier(logic));
+	}
+
+	/**
+	 * Returns true if there is anybody interested in the measurements of the operations - the storage has other than
+	 * {@link HierarchyInstrumentation#NO_OP} instrumentation, the {@link HierarchyEventEmitter} is enabled or
+	 * the current thread collects {@link OperationStatsCollector statistics}.
+	 */
+	protected boolean isInstrumented() {
+		return (storage != null && storage.getInstrumentation() != HierarchyInstrumentation.NO_OP) ||
+			HierarchyEventEmitter.getEnabledEmitter() != null ||
+			OperationStatsCollector.isEnabled();
+	}
+
+	/**
+	 * Executes logic consisting of several read operations, see {@link #readConsistent(Function)}. Logic is executed
+	 * as is by default.
+	 *
+	 * @param logic read logic
+	 * @return result of the logic
+	 */
+	protected <T> T executeReadOnly(@Nonnull Supplier<T> logic) {
+		return logic.get();
+	}
+
+	/**
+	 * Executes read logic that returns no value, see {@link #executeReadOnly(Supplier)}.
+	 */
+	protected void executeReadOnly(@Nonnull Runnable logic) {
+		executeReadOnly(() -> {
+			logic.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Returns name of the instrumented operation currently executed by this thread or NULL.
+	 */
+	@Nullable
+	protected static String getCurrentOperation() {
+		return CURRENT_OPERATION.get();
+	}
+
+	/**
+	 * Executes logic on behalf of the operation started by another thread - the operation has been already reported
+	 * to the instrumentation by the thread that started it, so that nested public operations are not reported again.
+	 *
+	 * @param operation name of the instrumented operation captured by {@link #getCurrentOperation()}
+	 * @param logic operation logic
+	 * @return result of the logic
+	 */
+	protected static <T> T executeAsPartOf(@Nullable String operation, @Nonnull Supplier<T> logic) {
+		final String previousOperation = CURRENT_OPERATION.get();
+		CURRENT_OPERATION.set(operation == null ? OPERATION_PREFIX + "unknown" : operation);
+		try {
+			return logic.get();
+		} finally {
+			if (previousOperation == null) {
+				CURRENT_OPERATION.remove();
+			} else {
+				CURRENT_OPERATION.set(previousOperation);
+			}
+		}
+	}
+
+	/**
+	 * Returns instrumentation of the storage combined with the {@link HierarchyEventEmitter} when it's enabled.
+	 */
+	@Nonnull
+	protected HierarchyInstrumentation getInstrumentation() {
+		final HierarchyInstrumentation instrumentation = CompositeHierarchyInstrumentation.combine(
+			storage == null ? null : storage.getInstrumentation(),
+			HierarchyEventEmitter.getEnabledEmitter()
+		);
+		return instrumentation == null ? HierarchyInstrumentation.NO_OP : instrumentation;
+	}
+
+	/**
+	 * Returns storage all the hierarchy logic should use - it's the storage of this hierarchy, decorated when
+	 * the current operation is recorded by {@link OperationStatsCollector} or observed by {@link HierarchyEventEmitter}.
+	 */
+	@Nonnull
+	protected HierarchyStorage storage() {
+		return decorate(storage, InstrumentedHierarchyStorage::new);
+	}
+
+	/**
+	 * Wraps the storage by the decorator created by passed factory if storage calls need to be observed
+	 * by the {@link OperationStatsCollector} or {@link HierarchyEventEmitter}, otherwise returns the storage as is.
+	 */
+	@Nonnull
+	protected static <S extends HierarchyStorage> S decorate(@Nonnull S storage, @Nonnull BiFunction<S, HierarchyInstrumentation, ? extends S> decoratorFactory) {
+		final HierarchyInstrumentation instrumentation = CompositeHierarchyInstrumentation.combine(
+			OperationStatsCollector.getRecordingInstrumentation(),
+			HierarchyEventEmitter.getEnabledEmitter()
+		);
+		return instrumentation == null ? storage : decoratorFactory.apply(storage, instrumentation);
 	}
 
 	/*
 		PRIVATE METHODS
 	 */
 
+	/**
+	 * Executes logic of the public operation with up to three arguments, see {@link #instrument(String, Supplier)}.
+	 * Array of the arguments is created only when the instrumentation observes the invocations.
+	 */
+	private <T> T instrument(@Nonnull String operation, int argumentCount, @Nullable String first, @Nullable String second, @Nullable String third, @Nonnull Supplier<T> logic) {
+		if (!isInstrumented() || CURRENT_OPERATION.get() != null) {
+			return logic.get();
+		}
+		final HierarchyInstrumentation instrumentation = getInstrumentation();
+		final String operationName = OPERATION_PREFIX + operation;
+		CURRENT_OPERATION.set(operationName);
+		final boolean recordStats = OperationStatsCollector.startOperation(code, operationName);
+		instrumentation.operationStarted(code, operationName, first);
+		if (instrumentation.isOperationInvocationObserved()) {
+			instrumentation.operationInvoked(code, operationName, Arrays.copyOf(new String[] {first, second, third}, argumentCount));
+		}
+		final long start = System.nanoTime();
+		Throwable failure = null;
+		try {
+			return logic.get();
+		} catch (RuntimeException | Error ex) {
+			failure = ex;
+			throw ex;
+		} finally {
+			final long elapsedNanos = System.nanoTime() - start;
+			CURRENT_OPERATION.remove();
+			if (recordStats) {
+				OperationStatsCollector.finishOperation(elapsedNanos, failure != null);
+			}
+			instrumentation.operationCompleted(code, operationName, elapsedNanos, failure);
+		}
+	}
+
+	@Nonnull
+	private static Supplier<Object> toSupplier(@Nonnull Runnable logic) {
+		return () -> {
+			logic.run();
+			return null;
+		};
+	}
+
 	private void verifyNotPresentAlready(String externalId) {
-		if (storage.getItem(code, externalId) != null) {
+		if (storage().getItem(code, externalId) != null) {
 			throw new ItemAlreadyPresent(code, externalId);
 		}
 	}
@@ -571,14 +1127,14 @@ public class Hierarchy {
 
 	private HierarchyItem createRootItemInternal(@Nonnull String externalId) {
 		final SectionWithBucket section = computeBounds();
-		final HierarchyItem newItem = new HierarchyItemWithHistory(code, externalId, (short) 1, section.getLeftBound(), section.getRightBound(), section.getBucket());
+		final HierarchyItem newItem = newItem(externalId, (short) 1, section);
 		newItem.setNumberOfChildren((short)0);
 		return newItem;
 	}
 
 	private SectionWithBucket computeBounds() {
 		final long sectionSizeForLevel = Section.getSectionSizeForLevel(sectionSize, (short) 2, levels);
-		final SectionWithBucket section = storage.getFirstEmptySection(code, sectionSizeForLevel, sectionSize);
+		final SectionWithBucket section = storage().getFirstEmptySection(code, sectionSizeForLevel, sectionSize);
 		if (section == null) {
 			throw new SectionExhausted(
 					"Root level is filled up with items to the maximum. Cannot add another item!",
@@ -594,11 +1150,20 @@ public class Hierarchy {
 	private HierarchyItem createNewItemUnder(@Nonnull String externalId, HierarchyItem parentItem) {
 		final short targetLevel = (short) (parentItem.getLevel() + 1);
 		final SectionWithBucket section = computeBounds(parentItem, targetLevel);
-		final HierarchyItem newItem = new HierarchyItemWithHistory(code, externalId, targetLevel, section.getLeftBound(), section.getRightBound(), section.getBucket());
+		final HierarchyItem newItem = newItem(externalId, targetLevel, section);
 		newItem.setNumberOfChildren((short)0);
 		return newItem;
 	}
 
+	private HierarchyItem newItem(@Nonnull String externalId, short level, SectionWithBucket section) {
+		if (longCodes) {
+			final Long id = LongHierarchyItem.parseId(externalId);
+			Assert.notNull(id, "Hierarchy " + code + " accepts only numeric codes - " + externalId + " is not a valid long number!");
+			return new LongHierarchyItem(code, id, level, section.getLeftBound(), section.getRightBound(), section.getBucket());
+		}
+		return new CompactHierarchyItem(code, externalId, level, section.getLeftBound(), section.getRightBound(), section.getBucket());
+	}
+
 	private void updateMovedItemBoundsUnder(@Nonnull HierarchyItem movedItem, HierarchyItem parentItem) {
 		final short targetLevel;
 		final SectionWithBucket section;
@@ -617,7 +1182,7 @@ public class Hierarchy {
 
 	private SectionWithBucket computeBounds(HierarchyItem parentItem, short targetLevel) {
 		final long sectionSizeForLevel = Section.getSectionSizeForLevel(sectionSize, (short) (targetLevel + 1), levels);
-		final SectionWithBucket section = storage.getFirstEmptySection(
+		final SectionWithBucket section = storage().getFirstEmptySection(
 				code,
 				sectionSizeForLevel,
 				sectionSize,
@@ -636,14 +1201,31 @@ public class Hierarchy {
 	}
 
 	private HierarchyItem getHierarchyItemWithNullabilityCheck(@Nonnull String externalId, final String reasonToUse) {
-		final HierarchyItem movedItem = storage.getItem(code, externalId);
-		if (movedItem == null) {
+		return requirePivot(storage().getItem(code, externalId), externalId, reasonToUse);
+	}
+
+	/**
+	 * Returns result of the storage lookup resolving the pivot item by its code, NULL result means that the pivot
+	 * item doesn't exist.
+	 */
+	@Nonnull
+	private static <T> T requirePivot(@Nullable T result, @Nonnull String externalId, final String reasonToUse) {
+		if (result == null) {
 			throw new PivotHierarchyNodeNotFound(
 					"Item to be " + reasonToUse + " with code " + externalId + " not found!",
 					externalId
 			);
 		}
-		return movedItem;
+		return result;
+	}
+
+	/**
+	 * Numeric variant of {@link #requirePivot(Object, String, String)} - the code is converted to {@link String} only
+	 * when the pivot item doesn't exist.
+	 */
+	@Nonnull
+	private static <T> T requirePivot(@Nullable T result, long externalId, final String reasonToUse) {
+		return result == null ? requirePivot(null, Long.toString(externalId), reasonToUse) : result;
 	}
 
 	private void assertItemIsPartOf(HierarchyItem item, List<HierarchyItem> items) {
@@ -662,13 +1244,13 @@ public class Hierarchy {
 		for (HierarchyItem item : items) {
 			if (item.getOrder() >= beforeItem.getOrder()) {
 				item.setOrder((short)(item.getOrder() + 1));
-				storage.updateItem(item);
+				storage().updateItem(item);
 			}
 		}
 	}
 
 	private List<HierarchyItem> getNeighbours(HierarchyItem parentItem) {
-		return parentItem == null ? storage.getRootItems(code) : storage.getChildItems(parentItem);
+		return parentItem == null ? storage().getRootItems(code) : storage().getChildItems(parentItem);
 	}
 
 	private Map<String, String> createChildToParentIndex(List<HierarchyItem> childItems, HierarchyItem parentItem) {
@@ -705,11 +1287,11 @@ public class Hierarchy {
 			}
 			if (child.getOrder() > movedItem.getOrder() && child.getOrder() < beforeItemOrder) {
 				child.setOrder((short) (child.getOrder() - 1));
-				storage.updateItem(child);
+				storage().updateItem(child);
 			}
 			if (child.getOrder() < movedItem.getOrder() && child.getOrder() >= beforeItemOrder) {
 				child.setOrder((short) (child.getOrder() + 1));
-				storage.updateItem(child);
+				storage().updateItem(child);
 			}
 		}
 
@@ -729,11 +1311,11 @@ public class Hierarchy {
 			}
 			if (child.getOrder() > movedItem.getOrder() && child.getOrder() <= afterItemOrder) {
 				child.setOrder((short) (child.getOrder() - 1));
-				storage.updateItem(child);
+				storage().updateItem(child);
 			}
 			if (child.getOrder() < movedItem.getOrder() && child.getOrder() > afterItemOrder) {
 				child.setOrder((short) (child.getOrder() + 1));
-				storage.updateItem(child);
+				storage().updateItem(child);
 			}
 		}
 
@@ -745,23 +1327,23 @@ public class Hierarchy {
 		for (HierarchyItem child : neighbours) {
 			if (child.getOrder() < movedItem.getOrder()) {
 				child.setOrder((short)(child.getOrder() + 1));
-				storage.updateItem(child);
+				storage().updateItem(child);
 			}
 		}
 		movedItem.setOrder((short)1);
-		storage.updateItem(movedItem);
+		storage().updateItem(movedItem);
 	}
 
 	private void insertIntoNeighboursLast(HierarchyItem movedItem,  List<HierarchyItem> neighbours) {
 		for (HierarchyItem child : neighbours) {
 			if (child.getOrder() > movedItem.getOrder()) {
 				child.setOrder((short)(child.getOrder() - 1));
-				storage.updateItem(child);
+				storage().updateItem(child);
 			}
 		}
 
 		movedItem.setOrder((short) neighbours.size());
-		storage.updateItem(movedItem);
+		storage().updateItem(movedItem);
 	}
 
 	private void moveNeighboursLeft(HierarchyItem movedItem, HierarchyItem parentItem) {
@@ -769,7 +1351,7 @@ public class Hierarchy {
 		for (HierarchyItem child : neighbours) {
 			if (child.getOrder() > movedItem.getOrder()) {
 				child.setOrder((short)(child.getOrder() - 1));
-				storage.updateItem(child);
+				storage().updateItem(child);
 			}
 		}
 	}
@@ -783,14 +1365,14 @@ public class Hierarchy {
 			);
 		}
 
-		final List<HierarchyItem> allChildrenItems = storage.getAllChildrenItems(movedItem);
+		final List<HierarchyItem> allChildrenItems = storage().getAllChildrenItems(movedItem);
 		final Map<String, String> childToParentIndex = createChildToParentIndex(allChildrenItems, movedItem);
-		final HierarchyItem movedItemParent = storage.getParentItem(movedItem);
+		final HierarchyItem movedItemParent = storage().getParentItem(movedItem);
 		moveNeighboursLeft(movedItem, movedItemParent);
 
 		if (movedItemParent != null) {
 			movedItemParent.setNumberOfChildren((short) (movedItemParent.getNumberOfChildren() - 1));
-			storage.updateItem(movedItemParent);
+			storage().updateItem(movedItemParent);
 		}
 
 		final List<HierarchyItem> newParentChildren = getNeighbours(parentItem);
@@ -798,7 +1380,7 @@ public class Hierarchy {
 
 		if (parentItem != null) {
 			parentItem.setNumberOfChildren(newChildrenCount);
-			storage.updateItem(parentItem);
+			storage().updateItem(parentItem);
 		}
 
 		movedItem.setOrder(newChildrenCount);
@@ -808,12 +1390,12 @@ public class Hierarchy {
 		positioningLogic.positionItem(movedItem, neighbours);
 
 		updateMovedItemBoundsUnder(movedItem, parentItem);
-		storage.updateItem(movedItem);
+		storage().updateItem(movedItem);
 
 		for (HierarchyItem movedItemChild : allChildrenItems) {
-			final HierarchyItem currentParent = storage.getItem(code, childToParentIndex.get(movedItemChild.getCode()));
+			final HierarchyItem currentParent = storage().getItem(code, childToParentIndex.get(movedItemChild.getCode()));
 			updateMovedItemBoundsUnder(movedItemChild, currentParent);
-			storage.updateItem(movedItemChild);
+			storage().updateItem(movedItemChild);
 		}
 	}
 
@@ -0,0 +1,60 @@
+package one.edee.oss.pmptt.model;
+
+import lombok.Data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Immutable description of single change of the {@link HierarchyItem} delivered to the
+ * {@link one.edee.oss.pmptt.spi.BulkHierarchyChangeListener}. Items are detached snapshots taken at the moment
+ * the change happened so that they could be safely handed over to another thread.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@Data
+public class HierarchyChange {
+	/**
+	 * Type of the change.
+	 */
+	@Nonnull private final HierarchyChangeType type;
+	/**
+	 * State of the item after the change - in case of {@link HierarchyChangeType#REMOVED} the last state of the item
+	 * before it was removed.
+	 */
+	@Nonnull private final HierarchyItem item;
+	/**
+	 * State of the item before the change, present only for {@link HierarchyChangeType#UPDATED}.
+	 */
+	@Nullable private final HierarchyItem originalItem;
+
+	/**
+	 * Creates change with detached copies of passed items.
+	 */
+	public static HierarchyChange snapshot(@Nonnull HierarchyChangeType type, @Nonnull HierarchyItem item, @Nullable HierarchyItem originalItem) {
+		return new HierarchyChange(type, copy(item), originalItem == null ? null : copy(originalItem));
+	}
+
+	/**
+	 * Returns code of the hierarchy the changed item belongs to.
+	 */
+	public String getHierarchyCode() {
+		return item.getHierarchyCode();
+	}
+
+	/**
+	 * Returns code of the changed item.
+	 */
+	public String getCode() {
+		return item.getCode();
+	}
+
+	private static HierarchyItem copy(@Nonnull HierarchyItem item) {
+		return new HierarchyItemBase(
+			item.getHierarchyCode(), item.getCode(), item.getLevel(),
+			item.getLeftBound(), item.getRightBound(),
+			item.getNumberOfChildren(), item.getOrder(), item.getBucket()
+		);
+	}
+
+}
@@ -0,0 +1,27 @@
+package one.edee.oss.pmptt.model;
+
+/**
+ * Enumerates types of changes that may happen to the {@link HierarchyItem} or entire {@link Hierarchy}.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public enum HierarchyChangeType {
+
+	/**
+	 * New item was attached to the hierarchy.
+	 */
+	CREATED,
+	/**
+	 * Existing item changed its bounds, level, order or number of children.
+	 */
+	UPDATED,
+	/**
+	 * Item was removed from the hierarchy.
+	 */
+	REMOVED,
+	/**
+	 * Entire hierarchy was removed along with all its items.
+	 */
+	HIERARCHY_REMOVED
+
+}
@@ -70,4 +70,58 @@ public interface HierarchyItem {
 	Short getBucket();
 	void setBucket(Short bucket);
 
+	/**
+	 * Primitive form of {@link #getLevel()} that avoids boxing, missing value is returned as zero.
+	 * @return level of the item
+	 */
+	default short getLevelAsShort() {
+		final Short level = getLevel();
+		return level == null ? 0 : level;
+	}
+
+	/**
+	 * Primitive form of {@link #getLeftBound()} that avoids boxing, missing value is returned as zero.
+	 * @return left bound of the item
+	 */
+	default long getLeftBoundAsLong() {
+		final Long leftBound = getLeftBound();
+		return leftBound == null ? 0L : leftBound;
+	}
+
+	/**
+	 * Primitive form of {@link #getRightBound()} that avoids boxing, missing value is returned as zero.
+	 * @return right bound of the item
+	 */
+	default long getRightBoundAsLong() {
+		final Long rightBound = getRightBound();
+		return rightBound == null ? 0L : rightBound;
+	}
+
+	/**
+	 * Primitive form of {@link #getNumberOfChildren()} that avoids boxing, missing value is returned as zero.
+	 * @return number of immediate children of this item
+	 */
+	default short getNumberOfChildrenAsShort() {
+		final Short numberOfChildren = getNumberOfChildren();
+		return numberOfChildren == null ? 0 : numberOfChildren;
+	}
+
+	/**
+	 * Primitive form of {@link #getOrder()} that avoids boxing, missing value is returned as zero.
+	 * @return order of the node among siblings
+	 */
+	default short getOrderAsShort() {
+		final Short order = getOrder();
+		return order == null ? 0 : order;
+	}
+
+	/**
+	 * Primitive form of {@link #getBucket()} that avoids boxing, missing value is returned as zero.
+	 * @return number of occupied bucket in the section
+	 */
+	default short getBucketAsShort() {
+		final Short bucket = getBucket();
+		return bucket == null ? 0 : bucket;
+	}
+
 }
@@ -63,7 +63,8 @@ public class HierarchyItemBase implements HierarchyItem {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (!(o instanceof HierarchyItem)) return false;
+		// items with numeric codes are never equal to items with string codes
+		if (!(o instanceof HierarchyItem) || o instanceof LongHierarchyItem) return false;
 		HierarchyItem that = (HierarchyItem) o;
 		return hierarchyCode.equals(that.getHierarchyCode()) &&
 				code.equals(that.getCode());
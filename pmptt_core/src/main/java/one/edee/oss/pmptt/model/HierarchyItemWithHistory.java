@@ -2,14 +2,19 @@ package one.edee.oss.pmptt.model;
 
 import lombok.Getter;
 
+import javax.annotation.Nonnull;
+
 /**
  * Special form of the item, that holds information about previous form of the item before it has been updated.
  * This information is precious in cases when node is moved in the hierarchy and we want to know its previous and current
  * location in order to execute updates in external systems.
  *
+ * Keeps two full copies of the item - {@link CompactHierarchyItem} is the leaner alternative used by the library
+ * itself.
+ *
  * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2019
  */
-public class HierarchyItemWithHistory implements HierarchyItem {
+public class HierarchyItemWithHistory implements TrackedHierarchyItem {
 	@Getter private final HierarchyItemBase original;
 	@Getter private final HierarchyItemBase delegate;
 
@@ -93,6 +98,16 @@ public class HierarchyItemWithHistory implements HierarchyItem {
 		delegate.setBucket(bucket);
 	}
 
+	@Override
+	public void resetOriginal(@Nonnull HierarchyItem originalState) {
+		original.setLevel(originalState.getLevel());
+		original.setLeftBound(originalState.getLeftBound());
+		original.setRightBound(originalState.getRightBound());
+		original.setNumberOfChildren(originalState.getNumberOfChildren());
+		original.setOrder(originalState.getOrder());
+		original.setBucket(originalState.getBucket());
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		return delegate.equals(o);
@@ -0,0 +1,90 @@
+package one.edee.oss.pmptt.model;
+
+import lombok.Getter;
+import one.edee.oss.pmptt.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Item of the hierarchy with numeric codes (see {@link Hierarchy#isLongCodes()}). The code is kept as primitive long
+ * and its {@link String} form required by the {@link HierarchyItem} contract is materialized only when asked for,
+ * storages index these items by {@link #getId()} directly. Items with numeric codes are equal only to other items with
+ * numeric codes - neither equality nor hash code materialize the {@link String} form of the code.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class LongHierarchyItem extends CompactHierarchyItem {
+	/**
+	 * Numeric code of the item.
+	 */
+	@Getter private final long id;
+
+	public LongHierarchyItem(String hierarchyCode, long id, short level, long leftBound, long rightBound, short bucket) {
+		this(hierarchyCode, id, level, leftBound, rightBound, (short) 0, (short) 0, bucket);
+	}
+
+	public LongHierarchyItem(String hierarchyCode, long id, short level, long leftBound, long rightBound, short numberOfChildren, short order, short bucket) {
+		super(hierarchyCode, null, level, leftBound, rightBound, numberOfChildren, order, bucket);
+		this.id = id;
+	}
+
+	/**
+	 * Returns numeric form of the code or NULL when the code is not a valid long number.
+	 *
+	 * @param code code of the item
+	 * @return numeric code
+	 */
+	@Nullable
+	public static Long parseId(@Nullable String code) {
+		if (code == null || code.isEmpty()) {
+			return null;
+		}
+		try {
+			return Long.parseLong(code);
+		} catch (NumberFormatException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns numeric form of the code of any item - without parsing when the item is {@link LongHierarchyItem}.
+	 *
+	 * @param item item of the hierarchy with numeric codes
+	 * @return numeric code
+	 * @throws IllegalArgumentException when the code of the item is not a valid long number
+	 */
+	public static long toId(@Nonnull HierarchyItem item) {
+		if (item instanceof LongHierarchyItem) {
+			return ((LongHierarchyItem) item).getId();
+		}
+		final Long id = parseId(item.getCode());
+		Assert.notNull(id, "Code " + item.getCode() + " of hierarchy " + item.getHierarchyCode() + " is not a valid long number!");
+		return id;
+	}
+
+	@Override
+	public String getCode() {
+		return Long.toString(id);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof LongHierarchyItem)) return false;
+		final LongHierarchyItem that = (LongHierarchyItem) o;
+		return id == that.id && getHierarchyCode().equals(that.getHierarchyCode());
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * getHierarchyCode().hashCode() + Long.hashCode(id);
+	}
+
+	@Nonnull
+	@Override
+	protected CompactHierarchyItem createCopy(short level, long leftBound, long rightBound, short numberOfChildren, short order, short bucket) {
+		return new LongHierarchyItem(getHierarchyCode(), id, level, leftBound, rightBound, numberOfChildren, order, bucket);
+	}
+
+}
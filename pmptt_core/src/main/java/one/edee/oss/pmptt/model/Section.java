@@ -114,10 +114,10 @@ public class Section {
 	 * @return left and right bounds for the parent item of the passed item
 	 */
 	public static Section computeParentSectionBounds(short sectionSize, HierarchyItem item) {
-		final long itemSize = item.getRightBound() - item.getLeftBound() + 1;
+		final long itemSize = item.getRightBoundAsLong() - item.getLeftBoundAsLong() + 1;
 		return new Section(
-				item.getLeftBound() - (item.getBucket() - 1) * itemSize - 1,
-				item.getLeftBound() + (sectionSize - item.getBucket() + 1) * itemSize
+				item.getLeftBoundAsLong() - (item.getBucketAsShort() - 1) * itemSize - 1,
+				item.getLeftBoundAsLong() + (sectionSize - item.getBucketAsShort() + 1) * itemSize
 		);
 	}
 
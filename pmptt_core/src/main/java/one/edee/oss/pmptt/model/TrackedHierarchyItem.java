@@ -0,0 +1,29 @@
+package one.edee.oss.pmptt.model;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Item that remembers its previous form since it has been loaded (or since {@link #resetOriginal(HierarchyItem)}
+ * has been called). Storages use the previous form for emitting change events and change log entries.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public interface TrackedHierarchyItem extends HierarchyItem {
+
+	/**
+	 * Returns form of the item before it has been updated.
+	 *
+	 * @return item with the original level, bounds, number of children, order and bucket
+	 */
+	@Nonnull
+	HierarchyItem getOriginal();
+
+	/**
+	 * Forgets all tracked changes and considers passed state as the original form of the item. Current state of
+	 * the item stays intact.
+	 *
+	 * @param originalState item whose level, bounds, number of children, order and bucket become the original form
+	 */
+	void resetOriginal(@Nonnull HierarchyItem originalState);
+
+}
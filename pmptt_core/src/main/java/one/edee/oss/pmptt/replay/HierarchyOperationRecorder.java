@@ -0,0 +1,73 @@
+package one.edee.oss.pmptt.replay;
+
+import one.edee.oss.pmptt.dao.InstrumentedHierarchyStorage;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.spi.HierarchyInstrumentationAdapter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Instrumentation recording public {@link Hierarchy} operations with their arguments to the {@link WorkloadLogWriter}.
+ * Storage calls triggered by the operations are not recorded - use {@link one.edee.oss.pmptt.dao.RecordingHierarchyStorage}
+ * to capture them. Plug the recorder in the same way as any other instrumentation:
+ *
+ * `new PMPTT(new InstrumentedHierarchyStorage(storage, new HierarchyOperationRecorder(writer)))`
+ *
+ * Database storages need to be wrapped by `InstrumentedDbHierarchyStorage` - see {@link InstrumentedHierarchyStorage}.
+ * Operations are written when they complete, so that the log contains their original duration and outcome.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class HierarchyOperationRecorder extends HierarchyInstrumentationAdapter {
+	private static final long[] NO_NUMBERS = new long[0];
+	private static final HierarchyItem[] NO_ITEMS = new HierarchyItem[0];
+	private final WorkloadLogWriter writer;
+	private final ThreadLocal<Invocation> currentInvocation = new ThreadLocal<>();
+
+	public HierarchyOperationRecorder(@Nonnull WorkloadLogWriter writer) {
+		this.writer = writer;
+	}
+
+	@Override
+	public void operationInvoked(@Nonnull String hierarchyCode, @Nonnull String operation, @Nonnull String[] arguments) {
+		currentInvocation.set(new Invocation(System.nanoTime(), arguments.clone()));
+	}
+
+	@Override
+	public boolean isOperationInvocationObserved() {
+		return true;
+	}
+
+	@Override
+	public void operationCompleted(@Nonnull String hierarchyCode, @Nonnull String operation, long durationNanos, @Nullable Throwable failure) {
+		if (!operation.startsWith(Hierarchy.OPERATION_PREFIX)) {
+			return;
+		}
+		final Invocation invocation = currentInvocation.get();
+		if (invocation != null) {
+			currentInvocation.remove();
+			writer.write(
+				WorkloadLayer.HIERARCHY, invocation.startNanos, durationNanos, failure != null,
+				hierarchyCode, operation.substring(Hierarchy.OPERATION_PREFIX.length()),
+				invocation.arguments, NO_NUMBERS, NO_ITEMS
+			);
+		}
+	}
+
+	/**
+	 * Arguments of the operation executed by the thread.
+	 */
+	private static class Invocation {
+		private final long startNanos;
+		private final String[] arguments;
+
+		Invocation(long startNanos, @Nonnull String[] arguments) {
+			this.startNanos = startNanos;
+			this.arguments = arguments;
+		}
+
+	}
+
+}
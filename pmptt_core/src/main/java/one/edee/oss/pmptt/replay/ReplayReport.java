@@ -0,0 +1,125 @@
+package one.edee.oss.pmptt.replay;
+
+import lombok.Getter;
+import one.edee.oss.pmptt.util.LatencyHistogram;
+
+import javax.annotation.Nonnull;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Timing of the workload replayed by {@link WorkloadReplayer} compared to the timing of the original recording.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class ReplayReport {
+	private final Map<String, OperationReport> operations = new TreeMap<>();
+	/**
+	 * Count of replayed records.
+	 */
+	@Getter private long recordCount;
+	/**
+	 * Count of replayed records that failed.
+	 */
+	@Getter private long errorCount;
+	/**
+	 * Count of replayed records whose outcome (success / failure) differs from the original one.
+	 */
+	@Getter private long outcomeMismatchCount;
+	/**
+	 * Time between the start of the first and the end of the last recorded operation.
+	 */
+	@Getter private long originalElapsedNanos;
+	/**
+	 * Wall clock time the replay took.
+	 */
+	@Getter private long elapsedNanos;
+	private long firstStartNanos = -1;
+
+	/**
+	 * Returns reports of the individual operations by the operation name including the layer prefix.
+	 */
+	@Nonnull
+	public Map<String, OperationReport> getOperations() {
+		return Collections.unmodifiableMap(operations);
+	}
+
+	/**
+	 * Prints human readable summary.
+	 */
+	public void print(@Nonnull PrintStream out) {
+		out.printf(
+			"Replayed %d operations in %.1f ms (recorded in %.1f ms), %d errors, %d outcomes differ from the recording.%n",
+			recordCount, elapsedNanos / 1_000_000.0, originalElapsedNanos / 1_000_000.0, errorCount, outcomeMismatchCount
+		);
+		out.printf(
+			"%-42s %8s %8s %15s %15s %12s %12s%n",
+			"operation", "ops", "errors", "orig mean[us]", "replay mean[us]", "p50[us]", "p99[us]"
+		);
+		for (Entry<String, OperationReport> entry : operations.entrySet()) {
+			final OperationReport report = entry.getValue();
+			out.printf(
+				"%-42s %8d %8d %15.1f %15.1f %12.1f %12.1f%n",
+				entry.getKey(), report.getCount(), report.getErrors(),
+				report.getOriginal().getMeanNanos() / 1000.0, report.getReplayed().getMeanNanos() / 1000.0,
+				report.getReplayed().getPercentileNanos(50.0) / 1000.0, report.getReplayed().getPercentileNanos(99.0) / 1000.0
+			);
+		}
+	}
+
+	/**
+	 * Records outcome of the replayed operation.
+	 */
+	void record(@Nonnull WorkloadRecord record, long replayedNanos, boolean failed) {
+		final OperationReport report = operations.computeIfAbsent(record.getQualifiedOperation(), operation -> new OperationReport());
+		report.count++;
+		report.original.record(record.getDurationNanos());
+		report.replayed.record(replayedNanos);
+		recordCount++;
+		if (failed) {
+			report.errors++;
+			errorCount++;
+		}
+		if (failed != record.isFailed()) {
+			outcomeMismatchCount++;
+		}
+		if (firstStartNanos < 0) {
+			firstStartNanos = record.getStartNanos();
+		}
+		originalElapsedNanos = Math.max(originalElapsedNanos, record.getStartNanos() + record.getDurationNanos() - firstStartNanos);
+	}
+
+	/**
+	 * Closes the report.
+	 */
+	void finish(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Timing of single operation.
+	 */
+	public static class OperationReport {
+		/**
+		 * Durations of the operation in the recording.
+		 */
+		@Getter private final LatencyHistogram original = new LatencyHistogram();
+		/**
+		 * Durations of the operation in the replay.
+		 */
+		@Getter private final LatencyHistogram replayed = new LatencyHistogram();
+		/**
+		 * Count of replayed operations.
+		 */
+		@Getter private long count;
+		/**
+		 * Count of replayed operations that failed.
+		 */
+		@Getter private long errors;
+
+	}
+
+}
@@ -0,0 +1,21 @@
+package one.edee.oss.pmptt.replay;
+
+/**
+ * Pace the {@link WorkloadReplayer} executes the recorded operations at.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public enum ReplaySpeed {
+
+	/**
+	 * Each operation is started at the same offset from the beginning of the replay as it was started at
+	 * from the beginning of the recording - pauses between the operations are kept (operations that are late
+	 * are started immediately).
+	 */
+	ORIGINAL,
+	/**
+	 * Operations are executed one after another without any pause.
+	 */
+	MAXIMUM
+
+}
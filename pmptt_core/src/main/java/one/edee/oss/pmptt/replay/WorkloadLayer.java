@@ -0,0 +1,35 @@
+package one.edee.oss.pmptt.replay;
+
+import lombok.Getter;
+import one.edee.oss.pmptt.dao.InstrumentedHierarchyStorage;
+import one.edee.oss.pmptt.model.Hierarchy;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Layer the {@link WorkloadRecord} was captured on.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public enum WorkloadLayer {
+
+	/**
+	 * Public operations of the {@link Hierarchy} - replay executes the whole logic of the operation again.
+	 */
+	HIERARCHY(Hierarchy.OPERATION_PREFIX),
+	/**
+	 * Calls of the {@link one.edee.oss.pmptt.dao.HierarchyStorage} - replay executes the same storage calls with
+	 * the same items, no hierarchy logic is involved.
+	 */
+	STORAGE(InstrumentedHierarchyStorage.OPERATION_PREFIX);
+
+	/**
+	 * Prefix of the operation names of the layer.
+	 */
+	@Getter private final String prefix;
+
+	WorkloadLayer(@Nonnull String prefix) {
+		this.prefix = prefix;
+	}
+
+}
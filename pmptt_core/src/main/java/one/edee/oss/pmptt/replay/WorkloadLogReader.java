@@ -0,0 +1,179 @@
+package one.edee.oss.pmptt.replay;
+
+import lombok.Getter;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.HierarchyItemWithHistory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads {@link WorkloadRecord records} from the binary workload log written by {@link WorkloadLogWriter}. Items are
+ * materialized as new {@link HierarchyItemWithHistory} instances.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class WorkloadLogReader implements Closeable {
+	private static final WorkloadLayer[] LAYERS = WorkloadLayer.values();
+	private final DataInputStream input;
+	private final List<String> dictionary = new ArrayList<>();
+	/**
+	 * Wall clock time in milliseconds the log was opened at.
+	 */
+	@Getter private final long startEpochMillis;
+	private long previousStartNanos;
+
+	public WorkloadLogReader(@Nonnull Path file) {
+		this(openFile(file));
+	}
+
+	public WorkloadLogReader(@Nonnull InputStream inputStream) {
+		this.input = new DataInputStream(new BufferedInputStream(inputStream, 64 * 1024));
+		try {
+			if (input.readInt() != WorkloadLogWriter.MAGIC) {
+				throw new IOException("Stream doesn't contain PMPTT workload log!");
+			}
+			final byte version = input.readByte();
+			if (version != WorkloadLogWriter.VERSION) {
+				throw new IOException("Unsupported workload log version " + version + "!");
+			}
+			this.startEpochMillis = input.readLong();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Returns next record of the log or NULL when the end of the log was reached.
+	 */
+	@Nullable
+	public WorkloadRecord read() {
+		try {
+			final int tag = input.read();
+			if (tag < 0) {
+				return null;
+			}
+			final int layerIndex = tag & ~WorkloadLogWriter.FAILED_FLAG;
+			if (layerIndex >= LAYERS.length) {
+				throw new IOException("Unknown record layer " + layerIndex + " - workload log is corrupted!");
+			}
+			final long startNanos = previousStartNanos + unZigZag(readVarLong());
+			final long durationNanos = readVarLong();
+			final String hierarchyCode = readString();
+			final String operation = readString();
+			final String[] arguments = new String[(int) readVarLong()];
+			for (int i = 0; i < arguments.length; i++) {
+				arguments[i] = readString();
+			}
+			final long[] numbers = new long[(int) readVarLong()];
+			for (int i = 0; i < numbers.length; i++) {
+				numbers[i] = unZigZag(readVarLong());
+			}
+			final HierarchyItem[] items = new HierarchyItem[(int) readVarLong()];
+			for (int i = 0; i < items.length; i++) {
+				items[i] = readItem();
+			}
+			if (hierarchyCode == null || operation == null) {
+				throw new IOException("Record without hierarchy or operation - workload log is corrupted!");
+			}
+			previousStartNanos = startNanos;
+			return new WorkloadRecord(
+				LAYERS[layerIndex], startNanos, durationNanos, (tag & WorkloadLogWriter.FAILED_FLAG) != 0,
+				hierarchyCode, operation, arguments, numbers, items
+			);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			input.close();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	@Nonnull
+	private static InputStream openFile(@Nonnull Path file) {
+		try {
+			return Files.newInputStream(file);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	@Nullable
+	private HierarchyItem readItem() throws IOException {
+		final String code = readString();
+		if (code == null) {
+			return null;
+		}
+		final String hierarchyCode = readString();
+		final Short level = readNullableShort();
+		final long leftBound = readVarLong();
+		final long rightBound = leftBound + readVarLong();
+		final Short numberOfChildren = readNullableShort();
+		final Short order = readNullableShort();
+		final Short bucket = readNullableShort();
+		return new HierarchyItemWithHistory(hierarchyCode, code, level, leftBound, rightBound, numberOfChildren, order, bucket);
+	}
+
+	@Nullable
+	private Short readNullableShort() throws IOException {
+		final long value = readVarLong();
+		return value == 0 ? null : (short) (value - 1);
+	}
+
+	@Nullable
+	private String readString() throws IOException {
+		final long id = readVarLong();
+		if (id == 0) {
+			return null;
+		} else if (id <= dictionary.size()) {
+			return dictionary.get((int) id - 1);
+		} else if (id == dictionary.size() + 1) {
+			final String value = input.readUTF();
+			dictionary.add(value);
+			return value;
+		} else {
+			throw new IOException("Unknown string identifier " + id + " - workload log is corrupted!");
+		}
+	}
+
+	private long readVarLong() throws IOException {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final int b = input.read();
+			if (b < 0) {
+				throw new EOFException("Workload log ends in the middle of the record!");
+			}
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IOException("Malformed variable length number - workload log is corrupted!");
+	}
+
+}
@@ -0,0 +1,201 @@
+package one.edee.oss.pmptt.replay;
+
+import lombok.extern.apachecommons.CommonsLog;
+import one.edee.oss.pmptt.model.HierarchyItem;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes {@link WorkloadRecord records} to the compact binary workload log read by {@link WorkloadLogReader}.
+ *
+ * Log starts with the magic number, format version and the wall clock time the log was opened at. Each record consists
+ * of the layer tag, start of the operation as the (zig-zag encoded) difference from the start of the previous record,
+ * the duration and the arguments. All numbers are written as variable length integers and strings (hierarchy codes,
+ * operation names, item codes) are written only once - each following occurrence is replaced by the identifier
+ * of the string in the dictionary built along the way. Single item update thus takes a few dozen bytes.
+ *
+ * Writer is thread safe - records of concurrently executed operations are written in the order the operations
+ * complete. Writer never throws exception to the recorded operation - the first I/O failure stops the recording
+ * and is rethrown from {@link #close()}.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@CommonsLog
+public class WorkloadLogWriter implements Closeable {
+	static final int MAGIC = 0x504D5054;
+	static final byte VERSION = 1;
+	static final int FAILED_FLAG = 0x80;
+	private final DataOutputStream output;
+	private final long openedNanos = System.nanoTime();
+	private final Map<String, Integer> dictionary = new HashMap<>();
+	private long previousStartNanos;
+	private long recordCount;
+	private IOException failure;
+
+	public WorkloadLogWriter(@Nonnull Path file) {
+		this(openFile(file));
+	}
+
+	public WorkloadLogWriter(@Nonnull OutputStream outputStream) {
+		this.output = new DataOutputStream(new BufferedOutputStream(outputStream, 64 * 1024));
+		try {
+			output.writeInt(MAGIC);
+			output.writeByte(VERSION);
+			output.writeLong(System.currentTimeMillis());
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Returns count of records written so far.
+	 */
+	public synchronized long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Writes single record to the log.
+	 *
+	 * @param layer layer the operation was captured on
+	 * @param startNanos {@link System#nanoTime()} when the operation started
+	 * @param durationNanos duration of the operation
+	 * @param failed true if the operation ended with an exception
+	 * @param hierarchyCode code of the hierarchy
+	 * @param operation name of the method without the layer prefix
+	 * @param arguments string arguments of the method
+	 * @param numbers numeric arguments of the method
+	 * @param items items passed to the method
+	 */
+	public synchronized void write(@Nonnull WorkloadLayer layer, long startNanos, long durationNanos, boolean failed,
+	                               @Nonnull String hierarchyCode, @Nonnull String operation,
+	                               @Nonnull String[] arguments, @Nonnull long[] numbers, @Nonnull HierarchyItem[] items) {
+		if (failure != null) {
+			return;
+		}
+		try {
+			final long relativeStart = startNanos - openedNanos;
+			output.writeByte(layer.ordinal() | (failed ? FAILED_FLAG : 0));
+			writeVarLong(zigZag(relativeStart - previousStartNanos));
+			writeVarLong(durationNanos);
+			writeString(hierarchyCode);
+			writeString(operation);
+			writeVarLong(arguments.length);
+			for (String argument : arguments) {
+				writeString(argument);
+			}
+			writeVarLong(numbers.length);
+			for (long number : numbers) {
+				writeVarLong(zigZag(number));
+			}
+			writeVarLong(items.length);
+			for (HierarchyItem item : items) {
+				writeItem(item);
+			}
+			previousStartNanos = relativeStart;
+			recordCount++;
+		} catch (IOException ex) {
+			log.error("Writing workload log failed, recording stopped: " + ex.getMessage(), ex);
+			failure = ex;
+		}
+	}
+
+	/**
+	 * Flushes buffered records to the underlying stream.
+	 */
+	public synchronized void flush() {
+		try {
+			output.flush();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		try {
+			output.close();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		if (failure != null) {
+			throw new UncheckedIOException("Workload log is incomplete!", failure);
+		}
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	@Nonnull
+	private static OutputStream openFile(@Nonnull Path file) {
+		try {
+			return Files.newOutputStream(file);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private void writeItem(@Nullable HierarchyItem item) throws IOException {
+		if (item == null) {
+			writeString(null);
+		} else {
+			writeString(item.getCode());
+			writeString(item.getHierarchyCode());
+			writeNullableShort(item.getLevel());
+			writeVarLong(item.getLeftBound());
+			writeVarLong(item.getRightBound() - item.getLeftBound());
+			writeNullableShort(item.getNumberOfChildren());
+			writeNullableShort(item.getOrder());
+			writeNullableShort(item.getBucket());
+		}
+	}
+
+	private void writeNullableShort(@Nullable Short value) throws IOException {
+		writeVarLong(value == null ? 0 : value + 1);
+	}
+
+	/**
+	 * NULL is written as zero, known string as its identifier and new string as the next free identifier followed
+	 * by the string itself.
+	 */
+	private void writeString(@Nullable String value) throws IOException {
+		if (value == null) {
+			writeVarLong(0);
+			return;
+		}
+		final Integer id = dictionary.get(value);
+		if (id == null) {
+			final int newId = dictionary.size() + 1;
+			dictionary.put(value, newId);
+			writeVarLong(newId);
+			output.writeUTF(value);
+		} else {
+			writeVarLong(id);
+		}
+	}
+
+	private void writeVarLong(long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			output.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		output.writeByte((int) value);
+	}
+
+}
@@ -0,0 +1,79 @@
+package one.edee.oss.pmptt.replay;
+
+import lombok.Data;
+import one.edee.oss.pmptt.model.HierarchyItem;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Single operation captured in the workload log by {@link HierarchyOperationRecorder} or
+ * {@link one.edee.oss.pmptt.dao.RecordingHierarchyStorage}. Record keeps everything needed to execute the operation
+ * again - string arguments, numeric arguments and full state of the items passed to the storage method.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@Data
+public class WorkloadRecord {
+	/**
+	 * Layer the operation was captured on.
+	 */
+	@Nonnull private final WorkloadLayer layer;
+	/**
+	 * Start of the operation in nanoseconds since the log was opened.
+	 */
+	private final long startNanos;
+	/**
+	 * Original duration of the operation in nanoseconds.
+	 */
+	private final long durationNanos;
+	/**
+	 * True if the original operation ended with an exception.
+	 */
+	private final boolean failed;
+	/**
+	 * Code of the hierarchy the operation was executed on.
+	 */
+	@Nonnull private final String hierarchyCode;
+	/**
+	 * Name of the method without the layer prefix (for example `createItem`).
+	 */
+	@Nonnull private final String operation;
+	/**
+	 * String arguments of the method in the order of its signature, NULL elements represent NULL arguments.
+	 */
+	@Nonnull private final String[] arguments;
+	/**
+	 * Numeric arguments of the method in the order of its signature.
+	 */
+	@Nonnull private final long[] numbers;
+	/**
+	 * Items passed to the method in the order of its signature, NULL elements represent NULL arguments.
+	 */
+	@Nonnull private final HierarchyItem[] items;
+
+	/**
+	 * Returns string argument at the index.
+	 */
+	@Nullable
+	public String getArgument(int index) {
+		return arguments[index];
+	}
+
+	/**
+	 * Returns item argument at the index.
+	 */
+	@Nullable
+	public HierarchyItem getItem(int index) {
+		return items[index];
+	}
+
+	/**
+	 * Returns name of the operation including the layer prefix.
+	 */
+	@Nonnull
+	public String getQualifiedOperation() {
+		return layer.getPrefix() + operation;
+	}
+
+}
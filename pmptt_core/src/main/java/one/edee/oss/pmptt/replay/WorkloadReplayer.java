@@ -0,0 +1,196 @@
+package one.edee.oss.pmptt.replay;
+
+import lombok.extern.apachecommons.CommonsLog;
+import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Executes workload captured in the log by {@link HierarchyOperationRecorder} and / or
+ * {@link one.edee.oss.pmptt.dao.RecordingHierarchyStorage} against the target storage and measures how long each
+ * operation took (see {@link ReplayReport}). Records are replayed one by one in the order they were written - ie. in
+ * the order the original operations completed - at the {@link ReplaySpeed} requested.
+ *
+ * {@link WorkloadLayer#HIERARCHY Hierarchy operations} are executed on the hierarchy of the same code looked up
+ * in the target storage - the hierarchy must exist and should contain the same items the original one contained when
+ * the recording started. {@link WorkloadLayer#STORAGE Storage calls} are executed with the recorded items. Items that
+ * are updated, removed or passed as parents are looked up in the target storage first and the recorded state is copied
+ * onto them (storages such as {@link one.edee.oss.pmptt.dao.memory.MemoryStorage} rely on the identity of the item
+ * instances) - only the storage call itself is measured. Log should contain only one of the layers - replaying both
+ * would execute the storage calls twice.
+ *
+ * Replayed operations that fail are counted in the report and the replay continues.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@CommonsLog
+public class WorkloadReplayer {
+	private final HierarchyStorage storage;
+	private final Map<String, Hierarchy> hierarchies = new HashMap<>();
+
+	public WorkloadReplayer(@Nonnull HierarchyStorage storage) {
+		this.storage = storage;
+	}
+
+	/**
+	 * Replays all records of the log and returns the timing report.
+	 */
+	@Nonnull
+	public ReplayReport replay(@Nonnull WorkloadLogReader reader, @Nonnull ReplaySpeed speed) {
+		final ReplayReport report = new ReplayReport();
+		final long replayStart = System.nanoTime();
+		long firstRecordStart = -1;
+		WorkloadRecord record;
+		while ((record = reader.read()) != null) {
+			if (firstRecordStart < 0) {
+				firstRecordStart = record.getStartNanos();
+			}
+			if (speed == ReplaySpeed.ORIGINAL) {
+				final long startAt = replayStart + record.getStartNanos() - firstRecordStart;
+				long now;
+				while ((now = System.nanoTime()) < startAt) {
+					LockSupport.parkNanos(startAt - now);
+				}
+			}
+			execute(record, report);
+		}
+		report.finish(System.nanoTime() - replayStart);
+		return report;
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	private void execute(@Nonnull WorkloadRecord record, @Nonnull ReplayReport report) {
+		Runnable operation = null;
+		long operationStart = 0L;
+		try {
+			operation = record.getLayer() == WorkloadLayer.HIERARCHY ? prepareHierarchyOperation(record) : prepareStorageOperation(record);
+			operationStart = System.nanoTime();
+			operation.run();
+			report.record(record, System.nanoTime() - operationStart, false);
+		} catch (RuntimeException ex) {
+			if (log.isDebugEnabled()) {
+				log.debug("Replayed operation " + record.getQualifiedOperation() + " failed: " + ex.getMessage());
+			}
+			report.record(record, operation == null ? 0L : System.nanoTime() - operationStart, true);
+		}
+	}
+
+	@Nonnull
+	private Runnable prepareHierarchyOperation(@Nonnull WorkloadRecord record) {
+		final Hierarchy hierarchy = getHierarchy(record.getHierarchyCode());
+		final String[] args = record.getArguments();
+		switch (record.getOperation() + "/" + args.length) {
+			case "createRootItem/1": return () -> hierarchy.createRootItem(args[0]);
+			case "createRootItem/2": return () -> hierarchy.createRootItem(args[0], args[1]);
+			case "createItem/2": return () -> hierarchy.createItem(args[0], args[1]);
+			case "createItem/3": return () -> hierarchy.createItem(args[0], args[1], args[2]);
+			case "removeItem/1": return () -> hierarchy.removeItem(args[0]);
+			case "moveItemBetweenLevelsBefore/2": return () -> hierarchy.moveItemBetweenLevelsBefore(args[0], args[1]);
+			case "moveItemBetweenLevelsBefore/3": return () -> hierarchy.moveItemBetweenLevelsBefore(args[0], args[1], args[2]);
+			case "moveItemBetweenLevelsAfter/2": return () -> hierarchy.moveItemBetweenLevelsAfter(args[0], args[1]);
+			case "moveItemBetweenLevelsAfter/3": return () -> hierarchy.moveItemBetweenLevelsAfter(args[0], args[1], args[2]);
+			case "moveItemBetweenLevelsFirst/1": return () -> hierarchy.moveItemBetweenLevelsFirst(args[0]);
+			case "moveItemBetweenLevelsFirst/2": return () -> hierarchy.moveItemBetweenLevelsFirst(args[0], args[1]);
+			case "moveItemBetweenLevelsLast/1": return () -> hierarchy.moveItemBetweenLevelsLast(args[0]);
+			case "moveItemBetweenLevelsLast/2": return () -> hierarchy.moveItemBetweenLevelsLast(args[0], args[1]);
+			case "moveItemBefore/2": return () -> hierarchy.moveItemBefore(args[0], args[1]);
+			case "moveItemAfter/2": return () -> hierarchy.moveItemAfter(args[0], args[1]);
+			case "moveItemToFirst/1": return () -> hierarchy.moveItemToFirst(args[0]);
+			case "moveItemToLast/1": return () -> hierarchy.moveItemToLast(args[0]);
+			case "getRootItems/0": return hierarchy::getRootItems;
+			case "getChildItems/1": return () -> hierarchy.getChildItems(args[0]);
+			case "getAllChildItems/1": return () -> hierarchy.getAllChildItems(args[0]);
+			case "getLeafItems/1": return () -> hierarchy.getLeafItems(args[0]);
+			case "getItem/1": return () -> hierarchy.getItem(args[0]);
+			case "getParentItem/1": return () -> hierarchy.getParentItem(args[0]);
+			case "getParentItems/1": return () -> hierarchy.getParentItems(args[0]);
+			case "printTree/2": return () -> hierarchy.printTree(args[0], Integer.parseInt(args[1]));
+			default: throw new IllegalArgumentException(
+				"Unsupported hierarchy operation " + record.getOperation() + " with " + args.length + " arguments!"
+			);
+		}
+	}
+
+	@Nonnull
+	private Runnable prepareStorageOperation(@Nonnull WorkloadRecord record) {
+		final String hierarchyCode = record.getHierarchyCode();
+		final long[] numbers = record.getNumbers();
+		final HierarchyItem[] items = record.getItems();
+		switch (record.getOperation()) {
+			case "createHierarchy":
+				hierarchies.remove(hierarchyCode);
+				// logs recorded before the kind of codes was recorded contain only the dimensions
+				final boolean longCodes = numbers.length > 2 && numbers[2] != 0;
+				return () -> storage.createHierarchy(new Hierarchy(hierarchyCode, (short) numbers[0], (short) numbers[1], longCodes));
+			case "getHierarchy": return () -> storage.getHierarchy(hierarchyCode);
+			case "getExistingHierarchyCodes": return storage::getExistingHierarchyCodes;
+			case "removeHierarchy":
+				hierarchies.remove(hierarchyCode);
+				return () -> storage.removeHierarchy(hierarchyCode);
+			case "createItem": {
+				final HierarchyItem parent = items[1] == null ? null : toTargetItem(items[1]);
+				return () -> storage.createItem(items[0], parent);
+			}
+			case "createItems": return () -> storage.createItems(Arrays.asList(items));
+			case "updateItem": {
+				final HierarchyItem updatedItem = toTargetItem(items[0]);
+				return () -> storage.updateItem(updatedItem);
+			}
+			case "removeItem": {
+				final HierarchyItem removedItem = toTargetItem(items[0]);
+				return () -> storage.removeItem(removedItem);
+			}
+			case "getItem": return () -> storage.getItem(hierarchyCode, record.getArgument(0));
+			case "getParentItem": return () -> storage.getParentItem(items[0]);
+			case "getParentsOfItem": return () -> storage.getParentsOfItem(items[0]);
+			case "getRootItems": return () -> storage.getRootItems(hierarchyCode);
+			case "getChildItems": return () -> storage.getChildItems(items[0]);
+			case "getAllChildrenItems": return () -> storage.getAllChildrenItems(items[0]);
+			case "getLeafItems":
+				return items.length == 0 ? () -> storage.getLeafItems(hierarchyCode) : () -> storage.getLeafItems(items[0]);
+			case "getFirstEmptySection":
+				return items.length == 0 ?
+					() -> storage.getFirstEmptySection(hierarchyCode, numbers[0], (short) numbers[1]) :
+					() -> storage.getFirstEmptySection(hierarchyCode, numbers[0], (short) numbers[1], items[0]);
+			default: throw new IllegalArgumentException("Unsupported storage operation " + record.getOperation() + "!");
+		}
+	}
+
+	@Nonnull
+	private Hierarchy getHierarchy(@Nonnull String code) {
+		final Hierarchy hierarchy = hierarchies.computeIfAbsent(code, storage::getHierarchy);
+		if (hierarchy == null) {
+			throw new IllegalArgumentException("Hierarchy " + code + " doesn't exist in the target storage!");
+		}
+		return hierarchy;
+	}
+
+	/**
+	 * Looks up the item in the target storage and copies the recorded state onto it, returns recorded item when
+	 * the target storage doesn't know it.
+	 */
+	@Nonnull
+	private HierarchyItem toTargetItem(@Nonnull HierarchyItem recordedItem) {
+		final HierarchyItem targetItem = storage.getItem(recordedItem.getHierarchyCode(), recordedItem.getCode());
+		if (targetItem == null) {
+			return recordedItem;
+		}
+		targetItem.setLevel(recordedItem.getLevel());
+		targetItem.setLeftBound(recordedItem.getLeftBound());
+		targetItem.setRightBound(recordedItem.getRightBound());
+		targetItem.setNumberOfChildren(recordedItem.getNumberOfChildren());
+		targetItem.setOrder(recordedItem.getOrder());
+		targetItem.setBucket(recordedItem.getBucket());
+		return targetItem;
+	}
+
+}
@@ -0,0 +1,244 @@
+package one.edee.oss.pmptt.snapshot;
+
+import one.edee.oss.pmptt.dao.memory.MemoryStorage;
+import one.edee.oss.pmptt.model.CompactHierarchyItem;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.LongHierarchyItem;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Reads hierarchies from the binary snapshot written by {@link HierarchySnapshotWriter} directly into
+ * the {@link MemoryStorage}. Items are linked to their parents as they are decoded, no allocation logic is executed,
+ * so loading the snapshot is bound by the speed of the I/O rather than by the CPU. Snapshots of the first format version,
+ * which didn't record the kind of codes, are read as hierarchies with string codes.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class HierarchySnapshotReader implements Closeable {
+	private final CheckedInputStream checkedInput;
+	private final DataInputStream input;
+	private final byte version;
+
+	public HierarchySnapshotReader(@Nonnull Path file) {
+		this(openFile(file));
+	}
+
+	public HierarchySnapshotReader(@Nonnull InputStream inputStream) {
+		this.checkedInput = new CheckedInputStream(new BufferedInputStream(inputStream, 64 * 1024), new CRC32());
+		this.input = new DataInputStream(checkedInput);
+		try {
+			if (input.readInt() != HierarchySnapshotWriter.MAGIC) {
+				throw new IOException("Stream doesn't contain PMPTT hierarchy snapshot!");
+			}
+			this.version = input.readByte();
+			if (version < 1 || version > HierarchySnapshotWriter.VERSION) {
+				throw new IOException("Unsupported hierarchy snapshot version " + version + "!");
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Loads all remaining hierarchies of the snapshot into the storage and returns them.
+	 */
+	@Nonnull
+	public List<Hierarchy> loadAll(@Nonnull MemoryStorage storage) {
+		final List<Hierarchy> result = new ArrayList<>();
+		Hierarchy hierarchy;
+		while ((hierarchy = loadNext(storage)) != null) {
+			result.add(hierarchy);
+		}
+		return result;
+	}
+
+	/**
+	 * Loads next hierarchy of the snapshot into the storage and returns it, returns NULL when there are no more
+	 * hierarchies in the snapshot. Hierarchy is removed from the storage again when its checksum doesn't match.
+	 *
+	 * @throws UncheckedIOException when the snapshot cannot be read or is corrupted
+	 */
+	@Nullable
+	public Hierarchy loadNext(@Nonnull MemoryStorage storage) {
+		try {
+			checkedInput.getChecksum().reset();
+			final int marker = input.read();
+			if (marker < 0) {
+				return null;
+			} else if (marker != HierarchySnapshotWriter.HIERARCHY_MARKER) {
+				throw new IOException("Unexpected byte " + marker + " at the start of the hierarchy - snapshot is corrupted!");
+			}
+			final String code = input.readUTF();
+			final boolean longCodes = version > 1 && input.readBoolean();
+			final Hierarchy hierarchy = new Hierarchy(code, (short) readVarLong(), (short) readVarLong(), longCodes);
+			final long itemCount = readVarLong();
+			try {
+				storage.loadHierarchy(hierarchy, new ItemIterator(hierarchy, itemCount));
+			} catch (UncheckedIOException ex) {
+				throw ex.getCause();
+			}
+			final long computedChecksum = checkedInput.getChecksum().getValue();
+			if ((int) computedChecksum != input.readInt()) {
+				storage.removeHierarchy(code);
+				throw new IOException("Checksum of hierarchy " + code + " doesn't match - snapshot is corrupted!");
+			}
+			return hierarchy;
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			input.close();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	@Nonnull
+	private static InputStream openFile(@Nonnull Path file) {
+		try {
+			return Files.newInputStream(file);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	@Nullable
+	private Short readNullableShort() throws IOException {
+		final long value = readVarLong();
+		return value == 0 ? null : (short) (value - 1);
+	}
+
+	private long readVarLong() throws IOException {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final int b = input.read();
+			if (b < 0) {
+				throw new EOFException("Hierarchy snapshot ends unexpectedly!");
+			}
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IOException("Malformed variable length number - hierarchy snapshot is corrupted!");
+	}
+
+	/**
+	 * Decodes the items of single hierarchy as the storage consumes them.
+	 */
+	private class ItemIterator implements Iterator<HierarchyItem> {
+		private final String hierarchyCode;
+		private final boolean longCodes;
+		private final long[] parentLeftBounds;
+		private final long[] widths;
+		private final long itemCount;
+		private long itemsRead;
+		private byte[] previousCode = new byte[0];
+		private long previousId;
+		private int previousLevel;
+
+		ItemIterator(@Nonnull Hierarchy hierarchy, long itemCount) {
+			this.hierarchyCode = hierarchy.getCode();
+			this.longCodes = hierarchy.isLongCodes();
+			this.parentLeftBounds = new long[hierarchy.getLevels() + 1];
+			this.widths = new long[hierarchy.getLevels() + 1];
+			this.itemCount = itemCount;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return itemsRead < itemCount;
+		}
+
+		@Override
+		public HierarchyItem next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			try {
+				final int level = (int) (previousLevel + unZigZag(readVarLong()));
+				if (level < 1 || level >= widths.length) {
+					throw new IOException("Invalid level " + level + " - hierarchy snapshot is corrupted!");
+				}
+
+				if (longCodes) {
+					previousId += unZigZag(readVarLong());
+				} else {
+					final int sharedPrefix = (int) readVarLong();
+					final int suffixLength = (int) readVarLong();
+					if (sharedPrefix > previousCode.length) {
+						throw new IOException("Invalid code prefix - hierarchy snapshot is corrupted!");
+					}
+					final byte[] code = Arrays.copyOf(previousCode, sharedPrefix + suffixLength);
+					input.readFully(code, sharedPrefix, suffixLength);
+					previousCode = code;
+				}
+
+				final Short bucket = readNullableShort();
+				final Short order = readNullableShort();
+				final Short numberOfChildren = readNullableShort();
+
+				final long leftBound = HierarchySnapshotWriter.expectLeftBound(parentLeftBounds[level - 1], widths[level], bucket) +
+					unZigZag(readVarLong());
+				final long width = widths[level] + unZigZag(readVarLong());
+
+				widths[level] = width;
+				parentLeftBounds[level] = leftBound;
+				previousLevel = level;
+				itemsRead++;
+				if (longCodes) {
+					return new LongHierarchyItem(
+						hierarchyCode, previousId, (short) level,
+						leftBound, leftBound + width - 1,
+						numberOfChildren == null ? 0 : numberOfChildren,
+						order == null ? 0 : order,
+						bucket == null ? 0 : bucket
+					);
+				}
+				return new CompactHierarchyItem(
+					hierarchyCode, new String(previousCode, StandardCharsets.UTF_8), (short) level,
+					leftBound, leftBound + width - 1,
+					numberOfChildren == null ? 0 : numberOfChildren,
+					order == null ? 0 : order,
+					bucket == null ? 0 : bucket
+				);
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,195 @@
+package one.edee.oss.pmptt.snapshot;
+
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.LongHierarchyItem;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes complete hierarchies to the compact binary snapshot that can be loaded into the
+ * {@link one.edee.oss.pmptt.dao.memory.MemoryStorage} by {@link HierarchySnapshotReader} without executing
+ * the allocation logic of the {@link Hierarchy} again. Single snapshot may contain any number of hierarchies.
+ *
+ * Snapshot starts with the magic number and format version. Each hierarchy is written as the marker byte, its code,
+ * flag of {@link Hierarchy#isLongCodes() long codes} and dimensions, count of the items, the items in preorder
+ * (ordered by left bound) and the CRC32 checksum of the hierarchy section.
+ * All numbers are variable length integers and each item is encoded relatively to the items written before it:
+ *
+ * - level as the difference from the level of the previous item
+ * - code as the length of the prefix shared with the code of the previous item and the rest of the code, numeric
+ *   code as the difference from the code of the previous item
+ * - left bound as the difference from the bound the bucket of the item has in its parent
+ * - right bound as the difference from the width of the previous item on the same level
+ *
+ * All items on the same level have the same width in the PMPTT, so both bound differences are usually zero and single
+ * item usually takes less than ten bytes plus the distinct part of its code.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class HierarchySnapshotWriter implements Closeable {
+	static final int MAGIC = 0x504D5053;
+	static final byte VERSION = 2;
+	static final int HIERARCHY_MARKER = 0x48;
+	private final CheckedOutputStream checkedOutput;
+	private final DataOutputStream output;
+
+	public HierarchySnapshotWriter(@Nonnull Path file) {
+		this(openFile(file));
+	}
+
+	public HierarchySnapshotWriter(@Nonnull OutputStream outputStream) {
+		this.checkedOutput = new CheckedOutputStream(new BufferedOutputStream(outputStream, 64 * 1024), new CRC32());
+		this.output = new DataOutputStream(checkedOutput);
+		try {
+			output.writeInt(MAGIC);
+			output.writeByte(VERSION);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Writes the hierarchy with all its items to the snapshot and returns count of the items written.
+	 */
+	public long write(@Nonnull Hierarchy hierarchy) {
+		final List<HierarchyItem> items = new ArrayList<>();
+		for (HierarchyItem rootItem : hierarchy.getRootItems()) {
+			items.add(rootItem);
+			items.addAll(
+				hierarchy.isLongCodes() ?
+					hierarchy.getAllChildItems(LongHierarchyItem.toId(rootItem)) :
+					hierarchy.getAllChildItems(rootItem.getCode())
+			);
+		}
+		// ordering by left bound of the nested intervals is the preorder
+		items.sort(Comparator.comparing(HierarchyItem::getLeftBound));
+		write(hierarchy, items);
+		return items.size();
+	}
+
+	/**
+	 * Writes the hierarchy with passed items to the snapshot. Items must be ordered by their left bounds.
+	 */
+	public void write(@Nonnull Hierarchy hierarchy, @Nonnull List<HierarchyItem> itemsInPreorder) {
+		try {
+			checkedOutput.getChecksum().reset();
+			output.writeByte(HIERARCHY_MARKER);
+			output.writeUTF(hierarchy.getCode());
+			output.writeBoolean(hierarchy.isLongCodes());
+			// dimensions are written as the user passed them to the hierarchy constructor
+			writeVarLong(hierarchy.getLevels() - 1);
+			writeVarLong(hierarchy.getSectionSize() - 1);
+			writeVarLong(itemsInPreorder.size());
+
+			final long[] parentLeftBounds = new long[hierarchy.getLevels() + 1];
+			final long[] widths = new long[hierarchy.getLevels() + 1];
+			byte[] previousCode = new byte[0];
+			long previousId = 0;
+			int previousLevel = 0;
+			for (HierarchyItem item : itemsInPreorder) {
+				final int level = item.getLevel();
+				writeVarLong(zigZag(level - previousLevel));
+
+				if (hierarchy.isLongCodes()) {
+					final long id = LongHierarchyItem.toId(item);
+					writeVarLong(zigZag(id - previousId));
+					previousId = id;
+				} else {
+					final byte[] code = item.getCode().getBytes(StandardCharsets.UTF_8);
+					final int sharedPrefix = sharedPrefixLength(previousCode, code);
+					writeVarLong(sharedPrefix);
+					writeVarLong(code.length - sharedPrefix);
+					output.write(code, sharedPrefix, code.length - sharedPrefix);
+					previousCode = code;
+				}
+
+				writeNullableShort(item.getBucket());
+				writeNullableShort(item.getOrder());
+				writeNullableShort(item.getNumberOfChildren());
+
+				final long expectedLeftBound = expectLeftBound(parentLeftBounds[level - 1], widths[level], item.getBucket());
+				writeVarLong(zigZag(item.getLeftBound() - expectedLeftBound));
+				final long width = item.getRightBound() - item.getLeftBound() + 1;
+				writeVarLong(zigZag(width - widths[level]));
+
+				widths[level] = width;
+				parentLeftBounds[level] = item.getLeftBound();
+				previousLevel = level;
+			}
+			output.writeInt((int) checkedOutput.getChecksum().getValue());
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			output.close();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Returns left bound the item in the bucket would have if its parent sections had the widths seen so far.
+	 */
+	static long expectLeftBound(long parentLeftBound, long width, @Nullable Short bucket) {
+		return parentLeftBound + 1 + (bucket == null ? 0 : (bucket - 1) * width);
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	@Nonnull
+	private static OutputStream openFile(@Nonnull Path file) {
+		try {
+			return Files.newOutputStream(file);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static int sharedPrefixLength(@Nonnull byte[] previous, @Nonnull byte[] current) {
+		final int limit = Math.min(previous.length, current.length);
+		int length = 0;
+		while (length < limit && previous[length] == current[length]) {
+			length++;
+		}
+		return length;
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private void writeNullableShort(@Nullable Short value) throws IOException {
+		writeVarLong(value == null ? 0 : value + 1);
+	}
+
+	private void writeVarLong(long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			output.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		output.writeByte((int) value);
+	}
+
+}
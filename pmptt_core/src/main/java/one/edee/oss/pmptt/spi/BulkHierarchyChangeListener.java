@@ -0,0 +1,24 @@
+package one.edee.oss.pmptt.spi;
+
+import one.edee.oss.pmptt.model.HierarchyChange;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Listener receiving changes of the {@link one.edee.oss.pmptt.model.Hierarchy} in batches. Contrary to
+ * {@link HierarchyChangeListener} this listener is not called synchronously within the writing transaction - changes
+ * are delivered asynchronously after the transaction has been committed (see AsyncHierarchyChangeDispatcher in
+ * the RDBMS module). Exceptions raised by the listener therefore cannot affect the write operation itself.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public interface BulkHierarchyChangeListener {
+
+	/**
+	 * Method is called with batch of changes in the order they were committed.
+	 * @param changes list of committed changes, never empty
+	 */
+	void itemsChanged(@Nonnull List<HierarchyChange> changes);
+
+}
@@ -0,0 +1,196 @@
+package one.edee.oss.pmptt.spi;
+
+import lombok.Data;
+import one.edee.oss.pmptt.model.Bounds;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.util.IntervalIndex;
+import one.edee.oss.pmptt.util.IntervalIndex.Interval;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registry of {@link HierarchyChangeListener} subscriptions used by {@link one.edee.oss.pmptt.dao.HierarchyStorage}
+ * implementations. Listener may be subscribed to:
+ *
+ * - all changes in all hierarchies of the storage
+ * - changes in single hierarchy
+ * - changes of items within subtree (bounds) of single hierarchy
+ *
+ * Subtree subscriptions are kept in {@link IntervalIndex} per hierarchy so that routing the change costs logarithmic
+ * time plus the count of matching listeners regardless of the count of registered subscriptions. Registration is
+ * expected to be rare - it rebuilds immutable snapshot of the indexes which is then read without any locking.
+ *
+ * Subtree subscription is bound to the bounds, not to the item - when the subtree root moves elsewhere
+ * the subscription keeps observing the original section.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class ChangeListenerRegistry {
+	private final List<Subscription> subscriptions = new ArrayList<>();
+	private volatile Snapshot snapshot = new Snapshot(Collections.emptyList());
+
+	/**
+	 * Subscribes listener to all changes in all hierarchies.
+	 */
+	public void register(@Nonnull HierarchyChangeListener listener) {
+		addSubscription(new Subscription(null, null, listener));
+	}
+
+	/**
+	 * Subscribes listener to changes of the items in the hierarchy of passed code.
+	 */
+	public void register(@Nonnull String hierarchyCode, @Nonnull HierarchyChangeListener listener) {
+		addSubscription(new Subscription(hierarchyCode, null, listener));
+	}
+
+	/**
+	 * Subscribes listener to changes of the items whose left bound lies within the passed bounds (inclusive)
+	 * in the hierarchy of passed code. Updated items are matched both by their original and new bounds so that
+	 * listener observes items moved in and out of the subtree.
+	 */
+	public void register(@Nonnull String hierarchyCode, @Nonnull Bounds subtreeBounds, @Nonnull HierarchyChangeListener listener) {
+		addSubscription(new Subscription(hierarchyCode, subtreeBounds, listener));
+	}
+
+	/**
+	 * Removes all subscriptions of the listener.
+	 *
+	 * @return true if any subscription was removed
+	 */
+	public synchronized boolean unregister(@Nonnull HierarchyChangeListener listener) {
+		final boolean removed = subscriptions.removeIf(it -> it.getListener() == listener);
+		if (removed) {
+			snapshot = new Snapshot(subscriptions);
+		}
+		return removed;
+	}
+
+	/**
+	 * Returns true if there is no subscription at all.
+	 */
+	public boolean isEmpty() {
+		return snapshot.isEmpty();
+	}
+
+	/**
+	 * Returns listeners that should be notified about change of the passed item.
+	 */
+	@Nonnull
+	public List<HierarchyChangeListener> getListeners(@Nonnull HierarchyItem item) {
+		return getListeners(item, null);
+	}
+
+	/**
+	 * Returns listeners that should be notified about change of the item that moved from original to updated bounds.
+	 * Each listener is returned only once even if it matches by several subscriptions. Returned listeners are expected
+	 * to be called - their count is reported to {@link OperationStatsCollector}.
+	 */
+	@Nonnull
+	public List<HierarchyChangeListener> getListeners(@Nonnull HierarchyItem updatedItem, @Nullable HierarchyItem originalItem) {
+		final Snapshot currentSnapshot = this.snapshot;
+		if (currentSnapshot.isEmpty()) {
+			return Collections.emptyList();
+		}
+		final List<HierarchyChangeListener> result = new ArrayList<>(currentSnapshot.global);
+		final List<HierarchyChangeListener> hierarchyListeners = currentSnapshot.byHierarchy.get(updatedItem.getHierarchyCode());
+		if (hierarchyListeners != null) {
+			result.addAll(hierarchyListeners);
+		}
+		final IntervalIndex<HierarchyChangeListener> subtreeIndex = currentSnapshot.bySubtree.get(updatedItem.getHierarchyCode());
+		if (subtreeIndex != null) {
+			subtreeIndex.collect(updatedItem.getLeftBound(), result);
+			if (originalItem != null && !originalItem.getLeftBound().equals(updatedItem.getLeftBound())) {
+				subtreeIndex.collect(originalItem.getLeftBound(), result);
+			}
+		}
+		final List<HierarchyChangeListener> listeners = currentSnapshot.unique ? result : distinct(result);
+		OperationStatsCollector.listenersNotified(listeners.size());
+		return listeners;
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	private synchronized void addSubscription(@Nonnull Subscription subscription) {
+		subscriptions.add(subscription);
+		snapshot = new Snapshot(subscriptions);
+	}
+
+	@Nonnull
+	private static List<HierarchyChangeListener> distinct(@Nonnull List<HierarchyChangeListener> listeners) {
+		final Set<HierarchyChangeListener> alreadyPresent = Collections.newSetFromMap(new IdentityHashMap<>());
+		final List<HierarchyChangeListener> result = new ArrayList<>(listeners.size());
+		for (HierarchyChangeListener listener : listeners) {
+			if (alreadyPresent.add(listener)) {
+				result.add(listener);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Single registered subscription.
+	 */
+	@Data
+	private static class Subscription {
+		@Nullable private final String hierarchyCode;
+		@Nullable private final Bounds bounds;
+		@Nonnull private final HierarchyChangeListener listener;
+	}
+
+	/**
+	 * Immutable indexes built from the subscriptions.
+	 */
+	private static class Snapshot {
+		private final List<HierarchyChangeListener> global = new ArrayList<>();
+		private final Map<String, List<HierarchyChangeListener>> byHierarchy = new HashMap<>();
+		private final Map<String, IntervalIndex<HierarchyChangeListener>> bySubtree = new HashMap<>();
+		/**
+		 * True when no listener has more than one subscription and no subtree subscription exists - no listener
+		 * may be matched twice.
+		 */
+		private final boolean unique;
+
+		Snapshot(@Nonnull List<Subscription> subscriptions) {
+			final Map<String, List<Interval<HierarchyChangeListener>>> intervals = new HashMap<>();
+			final Map<HierarchyChangeListener, Boolean> listeners = new IdentityHashMap<>();
+			boolean uniqueListeners = true;
+			for (Subscription subscription : subscriptions) {
+				uniqueListeners &= listeners.put(subscription.getListener(), Boolean.TRUE) == null;
+				if (subscription.getHierarchyCode() == null) {
+					global.add(subscription.getListener());
+				} else if (subscription.getBounds() == null) {
+					byHierarchy.computeIfAbsent(subscription.getHierarchyCode(), code -> new ArrayList<>())
+						.add(subscription.getListener());
+				} else {
+					intervals.computeIfAbsent(subscription.getHierarchyCode(), code -> new ArrayList<>())
+						.add(
+							new Interval<>(
+								subscription.getBounds().getLeft(),
+								subscription.getBounds().getRight(),
+								subscription.getListener()
+							)
+						);
+				}
+			}
+			for (Map.Entry<String, List<Interval<HierarchyChangeListener>>> entry : intervals.entrySet()) {
+				bySubtree.put(entry.getKey(), new IntervalIndex<>(entry.getValue()));
+			}
+			this.unique = uniqueListeners && intervals.isEmpty();
+		}
+
+		boolean isEmpty() {
+			return global.isEmpty() && byHierarchy.isEmpty() && bySubtree.isEmpty();
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+package one.edee.oss.pmptt.spi;
+
+import one.edee.oss.pmptt.model.HierarchyItem;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Instrumentation that forwards all measurements to several other instrumentations in the order they were passed.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class CompositeHierarchyInstrumentation implements HierarchyInstrumentation {
+	private final HierarchyInstrumentation[] delegates;
+
+	public CompositeHierarchyInstrumentation(@Nonnull HierarchyInstrumentation... delegates) {
+		this.delegates = delegates;
+	}
+
+	/**
+	 * Returns instrumentation forwarding to both passed instrumentations, omitting those that are NULL
+	 * or {@link HierarchyInstrumentation#NO_OP}. Returns NULL if there is nothing to forward to.
+	 */
+	@Nullable
+	public static HierarchyInstrumentation combine(@Nullable HierarchyInstrumentation first, @Nullable HierarchyInstrumentation second) {
+		final boolean firstPresent = first != null && first != NO_OP;
+		final boolean secondPresent = second != null && second != NO_OP;
+		if (firstPresent && secondPresent) {
+			return new CompositeHierarchyInstrumentation(first, second);
+		} else if (firstPresent) {
+			return first;
+		} else if (secondPresent) {
+			return second;
+		} else {
+			return null;
+		}
+	}
+
+	@Override
+	public void operationStarted(@Nonnull String hierarchyCode, @Nonnull String operation, @Nullable String itemCode) {
+		for (HierarchyInstrumentation delegate : delegates) {
+			delegate.operationStarted(hierarchyCode, operation, itemCode);
+		}
+	}
+
+	@Override
+	public void operationInvoked(@Nonnull String hierarchyCode, @Nonnull String operation, @Nonnull String[] arguments) {
+		for (HierarchyInstrumentation delegate : delegates) {
+			delegate.operationInvoked(hierarchyCode, operation, arguments);
+		}
+	}
+
+	@Override
+	public boolean isOperationInvocationObserved() {
+		for (HierarchyInstrumentation delegate : delegates) {
+			if (delegate.isOperationInvocationObserved()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void operationCompleted(@Nonnull String hierarchyCode, @Nonnull String operation, long durationNanos, @Nullable Throwable failure) {
+		for (HierarchyInstrumentation delegate : delegates) {
+			delegate.operationCompleted(hierarchyCode, operation, durationNanos, failure);
+		}
+	}
+
+	@Override
+	public void rowsRead(@Nonnull String hierarchyCode, @Nonnull String operation, int rows) {
+		for (HierarchyInstrumentation delegate : delegates) {
+			delegate.rowsRead(hierarchyCode, operation, rows);
+		}
+	}
+
+	@Override
+	public void rowsWritten(@Nonnull String hierarchyCode, @Nonnull String operation, int rows) {
+		for (HierarchyInstrumentation delegate : delegates) {
+			delegate.rowsWritten(hierarchyCode, operation, rows);
+		}
+	}
+
+	@Override
+	public void itemAccessed(@Nonnull String hierarchyCode, @Nonnull String operation, @Nonnull HierarchyItem item) {
+		for (HierarchyInstrumentation delegate : delegates) {
+			delegate.itemAccessed(hierarchyCode, operation, item);
+		}
+	}
+
+	@Override
+	public void transactionRetried(@Nonnull String hierarchyCode, @Nonnull String operation, int attempt, @Nonnull Throwable cause) {
+		for (HierarchyInstrumentation delegate : delegates) {
+			delegate.transactionRetried(hierarchyCode, operation, attempt, cause);
+		}
+	}
+
+}
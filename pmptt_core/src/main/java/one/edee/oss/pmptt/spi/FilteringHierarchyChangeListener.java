@@ -0,0 +1,126 @@
+package one.edee.oss.pmptt.spi;
+
+import lombok.Getter;
+import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.model.Bounds;
+import one.edee.oss.pmptt.model.HierarchyItem;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Listener that passes only changes of single hierarchy (optionally only items within subtree bounds) to the wrapped
+ * listener. Used by the default implementations of the scoped registrations of
+ * {@link one.edee.oss.pmptt.dao.HierarchyStorage} - storages that support the scopes natively route the changes
+ * by {@link ChangeListenerRegistry} instead. Items are matched the same way as in the registry - by their left bound,
+ * updated items both by the original and the new one.
+ *
+ * Wrappers registered by {@link #register(HierarchyStorage, String, Bounds, HierarchyChangeListener)} are remembered
+ * per storage, so that they can be found again by {@link #unregister(HierarchyStorage, HierarchyChangeListener)} even
+ * if the storage itself is not able to remove listeners - such wrapper is detached from the wrapped listener and
+ * stops passing the changes.
+ */
+public class FilteringHierarchyChangeListener implements HierarchyChangeListener {
+	/**
+	 * Wrappers registered to the storages by the default scoped registrations - storages are weakly referenced.
+	 */
+	private static final Map<HierarchyStorage, List<FilteringHierarchyChangeListener>> REGISTRATIONS = new WeakHashMap<>();
+	/**
+	 * Code of the observed hierarchy.
+	 */
+	@Getter @Nonnull private final String hierarchyCode;
+	/**
+	 * Bounds of the observed subtree (inclusive), null when the entire hierarchy is observed.
+	 */
+	@Getter @Nullable private final Bounds subtreeBounds;
+	/**
+	 * Wrapped listener, null when the wrapper has been detached.
+	 */
+	@Getter @Nullable private volatile HierarchyChangeListener delegate;
+
+	public FilteringHierarchyChangeListener(@Nonnull String hierarchyCode, @Nullable Bounds subtreeBounds, @Nonnull HierarchyChangeListener delegate) {
+		this.hierarchyCode = hierarchyCode;
+		this.subtreeBounds = subtreeBounds;
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Registers listener wrapped in {@link FilteringHierarchyChangeListener} to the storage by
+	 * {@link HierarchyStorage#registerChangeListener(HierarchyChangeListener)} and remembers the wrapper so that it
+	 * can be removed later by {@link #unregister(HierarchyStorage, HierarchyChangeListener)}.
+	 */
+	public static void register(@Nonnull HierarchyStorage storage, @Nonnull String hierarchyCode, @Nullable Bounds subtreeBounds, @Nonnull HierarchyChangeListener listener) {
+		final FilteringHierarchyChangeListener wrapper = new FilteringHierarchyChangeListener(hierarchyCode, subtreeBounds, listener);
+		synchronized (REGISTRATIONS) {
+			REGISTRATIONS.computeIfAbsent(storage, it -> new ArrayList<>()).add(wrapper);
+		}
+		storage.registerChangeListener(wrapper);
+	}
+
+	/**
+	 * Detaches all wrappers of the listener registered to the storage by
+	 * {@link #register(HierarchyStorage, String, Bounds, HierarchyChangeListener)}. Detached wrappers stay registered
+	 * in the storage but they no longer reference the listener nor pass it any changes.
+	 *
+	 * @return true if any wrapper of the listener was found
+	 */
+	public static boolean unregister(@Nonnull HierarchyStorage storage, @Nonnull HierarchyChangeListener listener) {
+		boolean found = false;
+		synchronized (REGISTRATIONS) {
+			final List<FilteringHierarchyChangeListener> wrappers = REGISTRATIONS.get(storage);
+			if (wrappers != null) {
+				final Iterator<FilteringHierarchyChangeListener> it = wrappers.iterator();
+				while (it.hasNext()) {
+					final FilteringHierarchyChangeListener wrapper = it.next();
+					if (wrapper.delegate == listener) {
+						wrapper.delegate = null;
+						it.remove();
+						found = true;
+					}
+				}
+				if (wrappers.isEmpty()) {
+					REGISTRATIONS.remove(storage);
+				}
+			}
+		}
+		return found;
+	}
+
+	@Override
+	public void itemCreated(HierarchyItem createdItem) {
+		final HierarchyChangeListener theDelegate = this.delegate;
+		if (theDelegate != null && matches(createdItem)) {
+			theDelegate.itemCreated(createdItem);
+		}
+	}
+
+	@Override
+	public void itemUpdated(HierarchyItem updatedItem, HierarchyItem originalItem) {
+		final HierarchyChangeListener theDelegate = this.delegate;
+		if (theDelegate != null && (matches(updatedItem) || (originalItem != null && matches(originalItem)))) {
+			theDelegate.itemUpdated(updatedItem, originalItem);
+		}
+	}
+
+	@Override
+	public void itemRemoved(HierarchyItem removeItem) {
+		final HierarchyChangeListener theDelegate = this.delegate;
+		if (theDelegate != null && matches(removeItem)) {
+			theDelegate.itemRemoved(removeItem);
+		}
+	}
+
+	private boolean matches(@Nonnull HierarchyItem item) {
+		if (!hierarchyCode.equals(item.getHierarchyCode())) {
+			return false;
+		}
+		return subtreeBounds == null ||
+			(item.getLeftBoundAsLong() >= subtreeBounds.getLeft() && item.getLeftBoundAsLong() <= subtreeBounds.getRight());
+	}
+
+}
@@ -0,0 +1,59 @@
+package one.edee.oss.pmptt.spi;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Emitter of profiling events (such as Java Flight Recorder events) for hierarchy operations and storage calls it
+ * triggers. Unlike {@link HierarchyInstrumentation} configured on the storage the emitter is global - it's discovered
+ * by {@link ServiceLoader} and all hierarchies report to it whenever it {@link #isEnabled() is enabled}.
+ *
+ * The emitter is expected to be enabled only while somebody listens to the events (for example while the flight
+ * recording with PMPTT events is running), so that hierarchies pay nothing for it otherwise.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public interface HierarchyEventEmitter extends HierarchyInstrumentation {
+
+	/**
+	 * Returns emitter discovered by {@link ServiceLoader} if it's currently enabled, NULL otherwise.
+	 */
+	@Nullable
+	static HierarchyEventEmitter getEnabledEmitter() {
+		final HierarchyEventEmitter emitter = Holder.INSTANCE;
+		return emitter != null && emitter.isEnabled() ? emitter : null;
+	}
+
+	/**
+	 * Returns true if the emitter is interested in the events right now.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Lazy holder of the emitter discovered by {@link ServiceLoader}.
+	 */
+	@CommonsLog
+	class Holder {
+		static final HierarchyEventEmitter INSTANCE = load();
+
+		private Holder() {
+		}
+
+		@Nullable
+		private static HierarchyEventEmitter load() {
+			try {
+				final Iterator<HierarchyEventEmitter> it = ServiceLoader.load(HierarchyEventEmitter.class, HierarchyEventEmitter.class.getClassLoader()).iterator();
+				return it.hasNext() ? it.next() : null;
+			} catch (ServiceConfigurationError | LinkageError ex) {
+				// emitter depends on the platform feature that is not available (such as JFR on older JDK 8 builds)
+				log.info("PMPTT event emitter is not available: " + ex.getMessage());
+				return null;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+package one.edee.oss.pmptt.spi;
+
+import one.edee.oss.pmptt.model.HierarchyItem;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Instrumentation interface receives measurements of operations executed by {@link one.edee.oss.pmptt.model.Hierarchy}
+ * and {@link one.edee.oss.pmptt.dao.HierarchyStorage}. It allows to plug PMPTT into any metrics stack without PMPTT
+ * depending on particular metrics library - implement this interface and translate the callbacks to the meters of your
+ * choice, or use {@link InstrumentationRegistry} that keeps the metrics in the JVM memory.
+ *
+ * All measurements are tagged by the code of the hierarchy and the name of the operation. Operation names consist
+ * of the layer prefix and the method name - for example `Hierarchy.moveItemBetweenLevelsFirst` for the public API
+ * or `HierarchyStorage.updateItem` for the storage calls it triggered.
+ *
+ * Methods are called synchronously from the thread executing the operation and must be fast and must not throw
+ * exceptions. Each {@link #operationStarted(String, String, String)} call is paired with
+ * {@link #operationCompleted(String, String, long, Throwable)} call on the same thread, storage operations are nested
+ * in the hierarchy operation that triggered them, rows and items are reported before the storage operation completes. Extending {@link HierarchyInstrumentationAdapter} is recommended if you need only some of the measurements.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public interface HierarchyInstrumentation {
+	/**
+	 * Instrumentation that ignores all measurements - used when no instrumentation is configured.
+	 */
+	HierarchyInstrumentation NO_OP = new HierarchyInstrumentationAdapter();
+	/**
+	 * Hierarchy code used for storage operations that are not related to single hierarchy.
+	 */
+	String ALL_HIERARCHIES = "*";
+
+	/**
+	 * Method is called when operation starts.
+	 * @param hierarchyCode code of the hierarchy the operation is executed on
+	 * @param operation name of the operation
+	 * @param itemCode code of the item the operation targets, NULL if the operation doesn't target single item
+	 */
+	void operationStarted(@Nonnull String hierarchyCode, @Nonnull String operation, @Nullable String itemCode);
+
+	/**
+	 * Method is called right after {@link #operationStarted(String, String, String)} of the public {@link one.edee.oss.pmptt.model.Hierarchy}
+	 * operation with all the arguments the operation was invoked with, so that the operation can be recorded and replayed
+	 * later. Storage operations are not reported by this method. Method is called only when
+	 * {@link #isOperationInvocationObserved()} returns true, so that the arguments are not collected otherwise. Default
+	 * implementation ignores the call.
+	 * @param hierarchyCode code of the hierarchy the operation is executed on
+	 * @param operation name of the operation
+	 * @param arguments arguments of the operation in the order of the method signature, NULL elements represent NULL arguments
+	 */
+	default void operationInvoked(@Nonnull String hierarchyCode, @Nonnull String operation, @Nonnull String[] arguments) {
+		// arguments are not interesting for the most of the instrumentations
+	}
+
+	/**
+	 * Returns true if {@link #operationInvoked(String, String, String[])} should be called. Default implementation
+	 * returns false - instrumentations overriding {@link #operationInvoked(String, String, String[])} need to override
+	 * this method as well.
+	 */
+	default boolean isOperationInvocationObserved() {
+		return false;
+	}
+
+	/**
+	 * Method is called when operation finishes.
+	 * @param hierarchyCode code of the hierarchy the operation was executed on
+	 * @param operation name of the operation
+	 * @param durationNanos duration of the operation in nanoseconds
+	 * @param failure exception the operation failed with, NULL when the operation succeeded
+	 */
+	void operationCompleted(@Nonnull String hierarchyCode, @Nonnull String operation, long durationNanos, @Nullable Throwable failure);
+
+	/**
+	 * Method is called when storage operation reads hierarchy items.
+	 * @param hierarchyCode code of the hierarchy the rows belong to
+	 * @param operation name of the storage operation
+	 * @param rows count of rows (items) read
+	 */
+	void rowsRead(@Nonnull String hierarchyCode, @Nonnull String operation, int rows);
+
+	/**
+	 * Method is called when storage operation writes hierarchy items.
+	 * @param hierarchyCode code of the hierarchy the rows belong to
+	 * @param operation name of the storage operation
+	 * @param rows count of rows (items) created, updated or removed
+	 */
+	void rowsWritten(@Nonnull String hierarchyCode, @Nonnull String operation, int rows);
+
+	/**
+	 * Method is called when storage operation reads or writes single item passed to it as the argument.
+	 * @param hierarchyCode code of the hierarchy the item belongs to
+	 * @param operation name of the storage operation
+	 * @param item the item
+	 */
+	void itemAccessed(@Nonnull String hierarchyCode, @Nonnull String operation, @Nonnull HierarchyItem item);
+
+	/**
+	 * Method is called when the transaction of the operation failed on concurrent modification and is going
+	 * to be retried.
+	 * @param hierarchyCode code of the hierarchy the operation was executed on
+	 * @param operation name of the operation
+	 * @param attempt number of the attempt that failed (starting with 1)
+	 * @param cause exception the attempt failed with
+	 */
+	void transactionRetried(@Nonnull String hierarchyCode, @Nonnull String operation, int attempt, @Nonnull Throwable cause);
+
+}
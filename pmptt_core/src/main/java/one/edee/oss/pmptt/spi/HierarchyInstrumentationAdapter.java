@@ -0,0 +1,50 @@
+package one.edee.oss.pmptt.spi;
+
+import one.edee.oss.pmptt.model.HierarchyItem;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Adapter to the {@link HierarchyInstrumentation} implementing all callbacks with no operation.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class HierarchyInstrumentationAdapter implements HierarchyInstrumentation {
+
+	@Override
+	public void operationStarted(@Nonnull String hierarchyCode, @Nonnull String operation, @Nullable String itemCode) {
+		// do nothing, let's descendants override it
+	}
+
+	@Override
+	public void operationInvoked(@Nonnull String hierarchyCode, @Nonnull String operation, @Nonnull String[] arguments) {
+		// do nothing, let's descendants override it
+	}
+
+	@Override
+	public void operationCompleted(@Nonnull String hierarchyCode, @Nonnull String operation, long durationNanos, @Nullable Throwable failure) {
+		// do nothing, let's descendants override it
+	}
+
+	@Override
+	public void rowsRead(@Nonnull String hierarchyCode, @Nonnull String operation, int rows) {
+		// do nothing, let's descendants override it
+	}
+
+	@Override
+	public void rowsWritten(@Nonnull String hierarchyCode, @Nonnull String operation, int rows) {
+		// do nothing, let's descendants override it
+	}
+
+	@Override
+	public void itemAccessed(@Nonnull String hierarchyCode, @Nonnull String operation, @Nonnull HierarchyItem item) {
+		// do nothing, let's descendants override it
+	}
+
+	@Override
+	public void transactionRetried(@Nonnull String hierarchyCode, @Nonnull String operation, int attempt, @Nonnull Throwable cause) {
+		// do nothing, let's descendants override it
+	}
+
+}
@@ -0,0 +1,107 @@
+package one.edee.oss.pmptt.spi;
+
+import lombok.Data;
+import one.edee.oss.pmptt.model.HierarchyItem;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Simple in-JVM implementation of {@link HierarchyInstrumentation} that aggregates measurements into
+ * {@link OperationMetrics} per hierarchy code and operation. Registry may be read periodically and exported to
+ * the monitoring system of your choice, or just logged.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class InstrumentationRegistry implements HierarchyInstrumentation {
+	private final Map<MetricKey, OperationMetrics> metrics = new ConcurrentHashMap<>();
+
+	@Override
+	public void operationStarted(@Nonnull String hierarchyCode, @Nonnull String operation, @Nullable String itemCode) {
+		// operations are measured on completion
+	}
+
+	@Override
+	public void operationCompleted(@Nonnull String hierarchyCode, @Nonnull String operation, long durationNanos, @Nullable Throwable failure) {
+		getOrCreateMetrics(hierarchyCode, operation).recordCompletion(durationNanos, failure);
+	}
+
+	@Override
+	public void rowsRead(@Nonnull String hierarchyCode, @Nonnull String operation, int rows) {
+		getOrCreateMetrics(hierarchyCode, operation).recordRowsRead(rows);
+	}
+
+	@Override
+	public void rowsWritten(@Nonnull String hierarchyCode, @Nonnull String operation, int rows) {
+		getOrCreateMetrics(hierarchyCode, operation).recordRowsWritten(rows);
+	}
+
+	@Override
+	public void itemAccessed(@Nonnull String hierarchyCode, @Nonnull String operation, @Nonnull HierarchyItem item) {
+		// items are not tracked
+	}
+
+	@Override
+	public void transactionRetried(@Nonnull String hierarchyCode, @Nonnull String operation, int attempt, @Nonnull Throwable cause) {
+		getOrCreateMetrics(hierarchyCode, operation).recordRetry();
+	}
+
+	/**
+	 * Returns metrics of the operation in the hierarchy or NULL if no such operation has been recorded yet.
+	 */
+	@Nullable
+	public OperationMetrics getMetrics(@Nonnull String hierarchyCode, @Nonnull String operation) {
+		return metrics.get(new MetricKey(hierarchyCode, operation));
+	}
+
+	/**
+	 * Returns metrics of all operations recorded in the hierarchy.
+	 */
+	@Nonnull
+	public List<OperationMetrics> getMetrics(@Nonnull String hierarchyCode) {
+		final List<OperationMetrics> result = new ArrayList<>();
+		for (OperationMetrics operationMetrics : metrics.values()) {
+			if (operationMetrics.getHierarchyCode().equals(hierarchyCode)) {
+				result.add(operationMetrics);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns metrics of all recorded operations.
+	 */
+	@Nonnull
+	public Collection<OperationMetrics> getAllMetrics() {
+		return new ArrayList<>(metrics.values());
+	}
+
+	/**
+	 * Forgets all recorded metrics.
+	 */
+	public void reset() {
+		metrics.clear();
+	}
+
+	private OperationMetrics getOrCreateMetrics(@Nonnull String hierarchyCode, @Nonnull String operation) {
+		final MetricKey key = new MetricKey(hierarchyCode, operation);
+		final OperationMetrics existing = metrics.get(key);
+		return existing == null ?
+			metrics.computeIfAbsent(key, it -> new OperationMetrics(hierarchyCode, operation)) : existing;
+	}
+
+	/**
+	 * Identifies metrics of single operation in single hierarchy.
+	 */
+	@Data
+	private static class MetricKey {
+		private final String hierarchyCode;
+		private final String operation;
+	}
+
+}
@@ -0,0 +1,115 @@
+package one.edee.oss.pmptt.spi;
+
+import lombok.Getter;
+import one.edee.oss.pmptt.exception.SectionExhausted;
+import one.edee.oss.pmptt.util.LatencyHistogram;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of single operation in single hierarchy collected by {@link InstrumentationRegistry}. All counters are
+ * updated concurrently without locking - values read while operations are running may not be mutually consistent.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class OperationMetrics {
+	/**
+	 * Code of the hierarchy.
+	 */
+	@Getter private final String hierarchyCode;
+	/**
+	 * Name of the operation.
+	 */
+	@Getter private final String operation;
+	/**
+	 * Latencies of the completed operations (both successful and failed).
+	 */
+	@Getter private final LatencyHistogram latency = new LatencyHistogram();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder sectionExhaustedFailures = new LongAdder();
+	private final LongAdder retries = new LongAdder();
+	private final LongAdder rowsRead = new LongAdder();
+	private final LongAdder rowsWritten = new LongAdder();
+
+	public OperationMetrics(@Nonnull String hierarchyCode, @Nonnull String operation) {
+		this.hierarchyCode = hierarchyCode;
+		this.operation = operation;
+	}
+
+	/**
+	 * Returns count of completed calls.
+	 */
+	public long getCalls() {
+		return latency.getCount();
+	}
+
+	/**
+	 * Returns count of calls that ended with exception.
+	 */
+	public long getFailures() {
+		return failures.sum();
+	}
+
+	/**
+	 * Returns count of calls that ended with {@link SectionExhausted} exception.
+	 */
+	public long getSectionExhaustedFailures() {
+		return sectionExhaustedFailures.sum();
+	}
+
+	/**
+	 * Returns count of transaction retries caused by concurrent modifications.
+	 */
+	public long getRetries() {
+		return retries.sum();
+	}
+
+	/**
+	 * Returns count of rows read.
+	 */
+	public long getRowsRead() {
+		return rowsRead.sum();
+	}
+
+	/**
+	 * Returns count of rows written.
+	 */
+	public long getRowsWritten() {
+		return rowsWritten.sum();
+	}
+
+	void recordCompletion(long durationNanos, @Nullable Throwable failure) {
+		latency.record(durationNanos);
+		if (failure != null) {
+			failures.increment();
+			if (failure instanceof SectionExhausted) {
+				sectionExhaustedFailures.increment();
+			}
+		}
+	}
+
+	void recordRetry() {
+		retries.increment();
+	}
+
+	void recordRowsRead(int rows) {
+		rowsRead.add(rows);
+	}
+
+	void recordRowsWritten(int rows) {
+		rowsWritten.add(rows);
+	}
+
+	@Override
+	public String toString() {
+		return hierarchyCode + " " + operation + ": calls=" + getCalls() +
+			", failures=" + getFailures() + ", sectionExhausted=" + getSectionExhaustedFailures() +
+			", retries=" + getRetries() + ", rowsRead=" + getRowsRead() + ", rowsWritten=" + getRowsWritten() +
+			", mean=" + Math.round(latency.getMeanNanos() / 1000.0) + "us" +
+			", p99=" + latency.getPercentileNanos(99.0) / 1000L + "us" +
+			", max=" + latency.getMaxNanos() / 1000L + "us";
+	}
+
+}
@@ -0,0 +1,125 @@
+package one.edee.oss.pmptt.spi;
+
+import lombok.Data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * Cost report of single {@link one.edee.oss.pmptt.model.Hierarchy} operation collected by
+ * {@link OperationStatsCollector}. Report shows how many storage calls the operation triggered, how many rows they
+ * read and wrote, how many listener callbacks were executed and how the elapsed time splits among storage methods.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@Data
+public class OperationStats {
+	/**
+	 * Code of the hierarchy.
+	 */
+	@Nonnull private final String hierarchyCode;
+	/**
+	 * Name of the operation (for example `Hierarchy.createItem`).
+	 */
+	@Nonnull private final String operation;
+	/**
+	 * Total elapsed time of the operation in nanoseconds.
+	 */
+	private final long elapsedNanos;
+	/**
+	 * True if the operation ended with an exception.
+	 */
+	private final boolean failed;
+	/**
+	 * Count of storage calls that didn't modify data (reads, locks).
+	 */
+	private final int storageReads;
+	/**
+	 * Count of storage calls that modified data.
+	 */
+	private final int storageWrites;
+	/**
+	 * Count of rows (items) read by the storage calls.
+	 */
+	private final long rowsRead;
+	/**
+	 * Count of rows (items) written by the storage calls.
+	 */
+	private final long rowsWritten;
+	/**
+	 * Count of {@link HierarchyChangeListener} callbacks executed.
+	 */
+	private final int listenerEvents;
+	/**
+	 * Statistics of storage calls by storage method name (for example `HierarchyStorage.updateItem`).
+	 */
+	@Nonnull private final Map<String, PhaseStats> phases;
+
+	/**
+	 * Returns total count of storage calls.
+	 */
+	public int getStorageCalls() {
+		return storageReads + storageWrites;
+	}
+
+	/**
+	 * Returns count of calls of the storage method (without `HierarchyStorage.` prefix).
+	 */
+	public int getStorageCalls(@Nonnull String method) {
+		final PhaseStats phase = getPhase(method);
+		return phase == null ? 0 : phase.getCalls();
+	}
+
+	/**
+	 * Returns statistics of the storage method (without `HierarchyStorage.` prefix) or NULL if it hasn't been called.
+	 */
+	@Nullable
+	public PhaseStats getPhase(@Nonnull String method) {
+		return phases.get(method);
+	}
+
+	/**
+	 * Returns time in nanoseconds spent outside the storage calls (computation, locking, listeners ...).
+	 */
+	public long getNonStorageNanos() {
+		long storageNanos = 0;
+		for (PhaseStats phase : phases.values()) {
+			storageNanos += phase.getElapsedNanos();
+		}
+		return Math.max(0L, elapsedNanos - storageNanos);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder(operation)
+			.append(" on ").append(hierarchyCode)
+			.append(failed ? " (failed)" : "")
+			.append(": ").append(elapsedNanos / 1000L).append("us")
+			.append(", reads=").append(storageReads)
+			.append(", writes=").append(storageWrites)
+			.append(", rowsRead=").append(rowsRead)
+			.append(", rowsWritten=").append(rowsWritten)
+			.append(", listenerEvents=").append(listenerEvents);
+		for (Map.Entry<String, PhaseStats> entry : phases.entrySet()) {
+			sb.append("\n\t").append(entry.getKey()).append(": ").append(entry.getValue());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Statistics of single storage method within the operation.
+	 */
+	@Data
+	public static class PhaseStats {
+		private final int calls;
+		private final long rows;
+		private final long elapsedNanos;
+
+		@Override
+		public String toString() {
+			return "calls=" + calls + ", rows=" + rows + ", " + elapsedNanos / 1000L + "us";
+		}
+	}
+
+}
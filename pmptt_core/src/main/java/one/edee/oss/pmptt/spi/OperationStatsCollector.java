@@ -0,0 +1,231 @@
+package one.edee.oss.pmptt.spi;
+
+import one.edee.oss.pmptt.dao.InstrumentedHierarchyStorage;
+import one.edee.oss.pmptt.spi.OperationStats.PhaseStats;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in per-thread collector of {@link OperationStats}. When collection is enabled for the current thread, each
+ * (outermost) {@link one.edee.oss.pmptt.model.Hierarchy} operation executed by the thread records all storage calls
+ * it triggers and the report is available via {@link #getLastOperationStats()} after the operation finishes.
+ *
+ * Alternatively use {@link one.edee.oss.pmptt.model.Hierarchy#executeWithStats(java.util.function.Consumer)}. When
+ * collection is not enabled by any thread there is no thread local lookup at all, otherwise the overhead is a single
+ * thread local lookup per operation.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class OperationStatsCollector {
+	private static final Set<String> WRITE_METHODS = new HashSet<>(
+		Arrays.asList("createHierarchy", "removeHierarchy", "createItem", "createItems", "updateItem", "removeItem")
+	);
+	private static final ThreadLocal<Boolean> ENABLED = new ThreadLocal<>();
+	/**
+	 * Count of threads with enabled collection - allows to skip thread local lookups when nobody collects statistics.
+	 */
+	private static final AtomicInteger ENABLED_THREADS = new AtomicInteger();
+	private static final ThreadLocal<Recording> RECORDING = new ThreadLocal<>();
+	private static final ThreadLocal<OperationStats> LAST_STATS = new ThreadLocal<>();
+	/**
+	 * Instrumentation forwarding storage measurements to the recording of the current thread.
+	 */
+	private static final HierarchyInstrumentation RECORDING_INSTRUMENTATION = new HierarchyInstrumentationAdapter() {
+
+		@Override
+		public void operationCompleted(@Nonnull String hierarchyCode, @Nonnull String operation, long durationNanos, @Nullable Throwable failure) {
+			final Recording recording = RECORDING.get();
+			if (recording != null) {
+				recording.getPhase(operation).record(durationNanos);
+			}
+		}
+
+		@Override
+		public void rowsRead(@Nonnull String hierarchyCode, @Nonnull String operation, int rows) {
+			final Recording recording = RECORDING.get();
+			if (recording != null) {
+				recording.getPhase(operation).rows += rows;
+				recording.rowsRead += rows;
+			}
+		}
+
+		@Override
+		public void rowsWritten(@Nonnull String hierarchyCode, @Nonnull String operation, int rows) {
+			final Recording recording = RECORDING.get();
+			if (recording != null) {
+				recording.getPhase(operation).rows += rows;
+				recording.rowsWritten += rows;
+			}
+		}
+
+	};
+
+	private OperationStatsCollector() {
+	}
+
+	/**
+	 * Enables collection of the statistics for operations executed by the current thread.
+	 */
+	public static void enable() {
+		if (ENABLED.get() == null) {
+			ENABLED.set(Boolean.TRUE);
+			ENABLED_THREADS.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Disables collection of the statistics for the current thread and forgets the last collected statistics.
+	 */
+	public static void disable() {
+		if (ENABLED.get() != null) {
+			ENABLED.remove();
+			ENABLED_THREADS.decrementAndGet();
+		}
+		LAST_STATS.remove();
+	}
+
+	/**
+	 * Returns true if statistics are collected for the current thread.
+	 */
+	public static boolean isEnabled() {
+		return ENABLED_THREADS.get() > 0 && ENABLED.get() != null;
+	}
+
+	/**
+	 * Returns statistics of the last operation finished by the current thread or NULL if there is no such operation.
+	 */
+	@Nullable
+	public static OperationStats getLastOperationStats() {
+		return LAST_STATS.get();
+	}
+
+	/**
+	 * Forgets statistics of the last operation finished by the current thread, collection stays enabled or disabled.
+	 */
+	public static void resetLastOperationStats() {
+		LAST_STATS.remove();
+	}
+
+	/**
+	 * Returns true if an operation is being recorded by the current thread - operations nested in it are recorded
+	 * as its part and produce no statistics of their own.
+	 */
+	public static boolean isRecording() {
+		return ENABLED_THREADS.get() > 0 && RECORDING.get() != null;
+	}
+
+	/**
+	 * Starts recording of the operation if the collection is enabled for the current thread. Method is expected to be
+	 * called only by the {@link one.edee.oss.pmptt.model.Hierarchy}.
+	 *
+	 * @return true if the recording has been started and {@link #finishOperation(long, boolean)} must be called
+	 */
+	public static boolean startOperation(@Nonnull String hierarchyCode, @Nonnull String operation) {
+		if (!isEnabled() || RECORDING.get() != null) {
+			return false;
+		}
+		RECORDING.set(new Recording(hierarchyCode, operation));
+		return true;
+	}
+
+	/**
+	 * Finishes recording of the operation started by {@link #startOperation(String, String)}.
+	 */
+	@Nonnull
+	public static OperationStats finishOperation(long elapsedNanos, boolean failed) {
+		final Recording recording = RECORDING.get();
+		RECORDING.remove();
+		final OperationStats stats = recording.toStats(elapsedNanos, failed);
+		LAST_STATS.set(stats);
+		return stats;
+	}
+
+	/**
+	 * Returns instrumentation recording storage calls of the currently recorded operation, or NULL if no operation
+	 * is being recorded by the current thread.
+	 */
+	@Nullable
+	public static HierarchyInstrumentation getRecordingInstrumentation() {
+		return ENABLED_THREADS.get() == 0 || RECORDING.get() == null ? null : RECORDING_INSTRUMENTATION;
+	}
+
+	/**
+	 * Records execution of listener callbacks for the currently recorded operation.
+	 */
+	public static void listenersNotified(int count) {
+		if (count > 0 && ENABLED_THREADS.get() > 0) {
+			final Recording recording = RECORDING.get();
+			if (recording != null) {
+				recording.listenerEvents += count;
+			}
+		}
+	}
+
+	/**
+	 * Mutable state of the operation being recorded.
+	 */
+	private static class Recording {
+		private final String hierarchyCode;
+		private final String operation;
+		private final Map<String, MutablePhase> phases = new LinkedHashMap<>();
+		private long rowsRead;
+		private long rowsWritten;
+		private int listenerEvents;
+
+		Recording(@Nonnull String hierarchyCode, @Nonnull String operation) {
+			this.hierarchyCode = hierarchyCode;
+			this.operation = operation;
+		}
+
+		@Nonnull
+		MutablePhase getPhase(@Nonnull String storageOperation) {
+			final String method = storageOperation.startsWith(InstrumentedHierarchyStorage.OPERATION_PREFIX) ?
+				storageOperation.substring(InstrumentedHierarchyStorage.OPERATION_PREFIX.length()) : storageOperation;
+			return phases.computeIfAbsent(method, it -> new MutablePhase());
+		}
+
+		@Nonnull
+		OperationStats toStats(long elapsedNanos, boolean failed) {
+			int reads = 0;
+			int writes = 0;
+			final Map<String, PhaseStats> phaseStats = new LinkedHashMap<>(phases.size());
+			for (Map.Entry<String, MutablePhase> entry : phases.entrySet()) {
+				final MutablePhase phase = entry.getValue();
+				if (WRITE_METHODS.contains(entry.getKey())) {
+					writes += phase.calls;
+				} else {
+					reads += phase.calls;
+				}
+				phaseStats.put(entry.getKey(), new PhaseStats(phase.calls, phase.rows, phase.elapsedNanos));
+			}
+			return new OperationStats(
+				hierarchyCode, operation, elapsedNanos, failed,
+				reads, writes, rowsRead, rowsWritten, listenerEvents,
+				Collections.unmodifiableMap(phaseStats)
+			);
+		}
+	}
+
+	/**
+	 * Mutable statistics of single storage method.
+	 */
+	private static class MutablePhase {
+		private int calls;
+		private long rows;
+		private long elapsedNanos;
+
+		void record(long durationNanos) {
+			calls++;
+			elapsedNanos += durationNanos;
+		}
+	}
+
+}
@@ -0,0 +1,37 @@
+package one.edee.oss.pmptt.spi.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Common fields of the PMPTT flight recorder events.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+abstract class AbstractHierarchyEvent extends Event {
+
+	@Label("Hierarchy Code")
+	String hierarchyCode;
+
+	@Label("Item Code")
+	@Description("Code of the item the operation targets")
+	String itemCode;
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Rows Read")
+	long rowsRead;
+
+	@Label("Rows Written")
+	long rowsWritten;
+
+	@Label("Bounds Span")
+	@Description("Width of the bounds interval covering all items the operation accessed")
+	long boundsSpan;
+
+	@Label("Failed")
+	boolean failed;
+
+}
@@ -0,0 +1,147 @@
+package one.edee.oss.pmptt.spi.jfr;
+
+import one.edee.oss.pmptt.dao.InstrumentedHierarchyStorage;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.spi.HierarchyEventEmitter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * {@link HierarchyEventEmitter} translating hierarchy operations to `pmptt.Operation` and storage calls to
+ * `pmptt.StorageCall` Java Flight Recorder events. Emitter is enabled only while the flight recording with any of
+ * these events enabled is running - otherwise hierarchies don't call it at all.
+ *
+ * Events carry hierarchy code, item code, operation name, count of rows read and written and the span of bounds
+ * of the items the operation accessed, so that the slow requests may be correlated with particular tree operations.
+ *
+ * Class is registered via `META-INF/services` and is compiled only when the JDK supports JFR.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class FlightRecorderEventEmitter implements HierarchyEventEmitter {
+	private static final OperationEvent OPERATION_PROBE = new OperationEvent();
+	private static final StorageCallEvent STORAGE_CALL_PROBE = new StorageCallEvent();
+	private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+	@Override
+	public boolean isEnabled() {
+		return OPERATION_PROBE.isEnabled() || STORAGE_CALL_PROBE.isEnabled();
+	}
+
+	@Override
+	public void operationStarted(@Nonnull String hierarchyCode, @Nonnull String operation, @Nullable String itemCode) {
+		final boolean storageCall = operation.startsWith(InstrumentedHierarchyStorage.OPERATION_PREFIX);
+		final AbstractHierarchyEvent event = storageCall ? new StorageCallEvent() : new OperationEvent();
+		if (event.isEnabled()) {
+			event.hierarchyCode = hierarchyCode;
+			event.operation = operation;
+			event.itemCode = itemCode;
+			event.begin();
+		}
+		frames.get().push(new Frame(operation, event));
+	}
+
+	@Override
+	public void itemAccessed(@Nonnull String hierarchyCode, @Nonnull String operation, @Nonnull HierarchyItem item) {
+		final Frame frame = frames.get().peek();
+		if (frame != null) {
+			frame.touch(item.getLeftBound(), item.getRightBound());
+		}
+	}
+
+	@Override
+	public void rowsRead(@Nonnull String hierarchyCode, @Nonnull String operation, int rows) {
+		final Frame frame = frames.get().peek();
+		if (frame != null) {
+			frame.rowsRead += rows;
+		}
+	}
+
+	@Override
+	public void rowsWritten(@Nonnull String hierarchyCode, @Nonnull String operation, int rows) {
+		final Frame frame = frames.get().peek();
+		if (frame != null) {
+			frame.rowsWritten += rows;
+		}
+	}
+
+	@Override
+	public void transactionRetried(@Nonnull String hierarchyCode, @Nonnull String operation, int attempt, @Nonnull Throwable cause) {
+		final Frame frame = frames.get().peek();
+		if (frame != null) {
+			frame.retries++;
+		}
+	}
+
+	@Override
+	public void operationCompleted(@Nonnull String hierarchyCode, @Nonnull String operation, long durationNanos, @Nullable Throwable failure) {
+		final Deque<Frame> stack = frames.get();
+		final Frame frame = stack.peek();
+		if (frame == null || !frame.operation.equals(operation)) {
+			// unpaired completion - emitter has been enabled in the middle of the operation
+			return;
+		}
+		stack.pop();
+		final Frame parent = stack.peek();
+		if (parent != null) {
+			parent.absorb(frame);
+		}
+		final AbstractHierarchyEvent event = frame.event;
+		event.end();
+		if (event.shouldCommit()) {
+			event.rowsRead = frame.rowsRead;
+			event.rowsWritten = frame.rowsWritten;
+			event.boundsSpan = frame.getBoundsSpan();
+			event.failed = failure != null;
+			if (event instanceof OperationEvent) {
+				((OperationEvent) event).storageCalls = frame.storageCalls;
+				((OperationEvent) event).retries = frame.retries;
+			}
+			event.commit();
+		}
+	}
+
+	/**
+	 * Aggregates of single running operation.
+	 */
+	private static class Frame {
+		private final String operation;
+		private final AbstractHierarchyEvent event;
+		private long rowsRead;
+		private long rowsWritten;
+		private int storageCalls;
+		private int retries;
+		private long minLeftBound = Long.MAX_VALUE;
+		private long maxRightBound = Long.MIN_VALUE;
+
+		Frame(@Nonnull String operation, @Nonnull AbstractHierarchyEvent event) {
+			this.operation = operation;
+			this.event = event;
+		}
+
+		void touch(@Nullable Long leftBound, @Nullable Long rightBound) {
+			if (leftBound != null && rightBound != null) {
+				minLeftBound = Math.min(minLeftBound, leftBound);
+				maxRightBound = Math.max(maxRightBound, rightBound);
+			}
+		}
+
+		void absorb(@Nonnull Frame nested) {
+			rowsRead += nested.rowsRead;
+			rowsWritten += nested.rowsWritten;
+			storageCalls++;
+			if (nested.minLeftBound <= nested.maxRightBound) {
+				touch(nested.minLeftBound, nested.maxRightBound);
+			}
+		}
+
+		long getBoundsSpan() {
+			return minLeftBound <= maxRightBound ? maxRightBound - minLeftBound : 0L;
+		}
+
+	}
+
+}
@@ -0,0 +1,29 @@
+package one.edee.oss.pmptt.spi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event covering single public {@link one.edee.oss.pmptt.model.Hierarchy} operation including all
+ * storage calls it triggered.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@Name(OperationEvent.NAME)
+@Label("PMPTT Operation")
+@Category("PMPTT")
+@Description("Public hierarchy operation including all storage calls it triggered")
+class OperationEvent extends AbstractHierarchyEvent {
+	static final String NAME = "pmptt.Operation";
+
+	@Label("Storage Calls")
+	@Description("Count of storage calls the operation triggered")
+	int storageCalls;
+
+	@Label("Retries")
+	@Description("Count of transaction retries on concurrent modification")
+	int retries;
+
+}
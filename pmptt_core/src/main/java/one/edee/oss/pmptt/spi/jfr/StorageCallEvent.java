@@ -0,0 +1,23 @@
+package one.edee.oss.pmptt.spi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering single {@link one.edee.oss.pmptt.dao.HierarchyStorage} call triggered by
+ * the hierarchy operation. Stack traces are not recorded - the enclosing {@link OperationEvent} carries one.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@Name(StorageCallEvent.NAME)
+@Label("PMPTT Storage Call")
+@Category("PMPTT")
+@Description("Storage call triggered by the hierarchy operation")
+@StackTrace(false)
+class StorageCallEvent extends AbstractHierarchyEvent {
+	static final String NAME = "pmptt.StorageCall";
+
+}
@@ -0,0 +1,508 @@
+package one.edee.oss.pmptt.sync;
+
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Synchronizes the hierarchy with the complete target tree (usually exported from another system) without rebuilding
+ * it. Synchronizer reads the current tree, compares it with the target one and computes {@link SynchronizationPlan}
+ * with as few mutations as possible:
+ *
+ * - items missing in the target tree are removed, each removed subtree by single call
+ * - items missing in the hierarchy are created directly at their target position
+ * - items with different parent are moved between levels together with their subtrees
+ * - siblings that keep their parent are reordered only when their relative order differs - the longest subsequence
+ *   of the siblings that are already ordered correctly stays in place and only the rest of them is moved
+ *
+ * Items that keep their parent and position are not touched at all, so the unchanged parts of the tree cause no writes
+ * and no change events. Subtrees that don't contain any retained item are removed before the other steps, so that
+ * they free room in the sections, the rest of the removed items are removed at the end when the retained items have
+ * been moved out of them. Descendants that would exceed the maximal level of the hierarchy after their ancestor is
+ * moved are moved away first - under their target parent when it's possible. Similarly children that leave a parent
+ * whose section is full are moved away before another item is placed under it.
+ *
+ * Steps are executed one by one using the public methods of the {@link Hierarchy} - synchronization of database
+ * hierarchy should be executed in single transaction so that the tree is never observed half synchronized.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class HierarchySynchronizer {
+	private final Hierarchy hierarchy;
+
+	public HierarchySynchronizer(@Nonnull Hierarchy hierarchy) {
+		this.hierarchy = hierarchy;
+	}
+
+	/**
+	 * Computes the plan and executes it.
+	 *
+	 * @param target all items of the target tree, siblings in their target order
+	 * @return executed plan
+	 */
+	@Nonnull
+	public SynchronizationPlan synchronize(@Nonnull List<TargetItem> target) {
+		final SynchronizationPlan plan = plan(target);
+		apply(plan);
+		return plan;
+	}
+
+	/**
+	 * Computes mutations that turn the current hierarchy into the target tree without executing them.
+	 *
+	 * @param target all items of the target tree, siblings in their target order
+	 * @return plan of the mutations
+	 * @throws IllegalArgumentException when the target is not a valid tree or doesn't fit into the dimensions of the hierarchy
+	 */
+	@Nonnull
+	public SynchronizationPlan plan(@Nonnull List<TargetItem> target) {
+		final TargetTree targetTree = new TargetTree(target, hierarchy.getLevels() - 1, hierarchy.getSectionSize() - 1);
+		final TreeModel current = hierarchy.readConsistent(TreeModel::read);
+		final List<String> currentItems = current.getDescendants(null);
+		final Set<String> retained = getItemsWithRetainedSubtree(current, currentItems, targetTree);
+		final List<SynchronizationStep> steps = new ArrayList<>();
+
+		// remove whole subtrees that don't contain any retained item first, so that they free room in the sections
+		for (String code : currentItems) {
+			if (current.contains(code) && !targetTree.contains(code) && !retained.contains(code)) {
+				remove(current, code, steps);
+			}
+		}
+		// place the items level by level - each parent is already at its target position when its children are placed
+		final Deque<String> parents = new ArrayDeque<>();
+		String parent = null;
+		do {
+			final List<String> children = targetTree.getChildren(parent);
+			arrange(current, targetTree, parent, children, steps);
+			parents.addAll(children);
+			parent = parents.poll();
+		} while (parent != null);
+		// remove the rest - all retained items have been already moved out of these subtrees
+		for (String code : currentItems) {
+			if (current.contains(code) && !targetTree.contains(code)) {
+				remove(current, code, steps);
+			}
+		}
+		return new SynchronizationPlan(steps);
+	}
+
+	/**
+	 * Executes steps of the plan one by one.
+	 */
+	public void apply(@Nonnull SynchronizationPlan plan) {
+		for (SynchronizationStep step : plan.getSteps()) {
+			step.getType().apply(hierarchy, step);
+		}
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	/**
+	 * Returns codes of the current items that are part of the target tree or have such item among their descendants.
+	 */
+	@Nonnull
+	private static Set<String> getItemsWithRetainedSubtree(@Nonnull TreeModel current, @Nonnull List<String> currentItems, @Nonnull TargetTree targetTree) {
+		final Set<String> retained = new HashSet<>();
+		// children follow their parents in the preorder, so the reversed one visits children first
+		for (int i = currentItems.size() - 1; i >= 0; i--) {
+			final String code = currentItems.get(i);
+			if (targetTree.contains(code) || retained.contains(code)) {
+				retained.add(code);
+				final String parentCode = current.getParent(code);
+				if (parentCode != null) {
+					retained.add(parentCode);
+				}
+			}
+		}
+		return retained;
+	}
+
+	private static void remove(@Nonnull TreeModel current, @Nonnull String code, @Nonnull List<SynchronizationStep> steps) {
+		steps.add(new SynchronizationStep(SynchronizationStepType.REMOVE, code, current.getParent(code), null, null));
+		current.remove(code);
+	}
+
+	/**
+	 * Places target children of the parent to their target positions.
+	 */
+	private void arrange(@Nonnull TreeModel current, @Nonnull TargetTree targetTree, @Nullable String parent, @Nonnull List<String> children, @Nonnull List<SynchronizationStep> steps) {
+		final Set<String> inPlace = getChildrenInPlace(current, parent, children);
+		String previous = null;
+		for (String code : children) {
+			if (!inPlace.contains(code)) {
+				if (!current.contains(code)) {
+					makeRoomForChild(current, targetTree, parent, steps);
+					final String next = current.getNext(parent, previous);
+					steps.add(new SynchronizationStep(SynchronizationStepType.CREATE, code, parent, previous, next));
+					current.insert(code, parent, previous);
+				} else if (Objects.equals(current.getParent(code), parent)) {
+					if (!code.equals(current.getNext(parent, previous))) {
+						current.detach(code);
+						steps.add(new SynchronizationStep(SynchronizationStepType.MOVE, code, parent, previous, current.getNext(parent, previous)));
+						current.insert(code, parent, previous);
+					}
+				} else {
+					makeRoomForChild(current, targetTree, parent, steps);
+					makeRoomForSubtree(current, targetTree, code, parent == null ? 1 : current.getLevel(parent) + 1, steps);
+					moveBetweenLevels(current, code, parent, previous, steps);
+				}
+			}
+			previous = code;
+		}
+	}
+
+	/**
+	 * Returns the longest set of the children that already are under the parent and whose relative order matches
+	 * the target order - these children don't need to be moved.
+	 */
+	@Nonnull
+	private static Set<String> getChildrenInPlace(@Nonnull TreeModel current, @Nullable String parent, @Nonnull List<String> children) {
+		final List<String> currentChildren = current.getChildren(parent);
+		final Map<String, Integer> currentPositions = new HashMap<>(currentChildren.size() * 2);
+		for (int i = 0; i < currentChildren.size(); i++) {
+			currentPositions.put(currentChildren.get(i), i);
+		}
+		final List<String> codes = new ArrayList<>(children.size());
+		final int[] positions = new int[children.size()];
+		for (String code : children) {
+			final Integer position = currentPositions.get(code);
+			if (position != null) {
+				positions[codes.size()] = position;
+				codes.add(code);
+			}
+		}
+		// longest increasing subsequence of the current positions in the target order
+		final int[] tails = new int[codes.size()];
+		final int[] predecessors = new int[codes.size()];
+		int length = 0;
+		for (int i = 0; i < codes.size(); i++) {
+			int low = 0;
+			int high = length;
+			while (low < high) {
+				final int middle = (low + high) >>> 1;
+				if (positions[tails[middle]] < positions[i]) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			predecessors[i] = low > 0 ? tails[low - 1] : -1;
+			tails[low] = i;
+			if (low == length) {
+				length++;
+			}
+		}
+		final Set<String> result = new HashSet<>(length * 2);
+		for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = predecessors[i]) {
+			result.add(codes.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Moves away one of the children that leave the parent in the target tree when the section of the parent is full.
+	 */
+	private void makeRoomForChild(@Nonnull TreeModel current, @Nonnull TargetTree targetTree, @Nullable String parent, @Nonnull List<SynchronizationStep> steps) {
+		final List<String> siblings = current.getChildren(parent);
+		if (siblings.size() < hierarchy.getSectionSize() - 1) {
+			return;
+		}
+		for (String sibling : siblings) {
+			if (!targetTree.contains(sibling) || !Objects.equals(targetTree.getParent(sibling), parent)) {
+				final String newParent = findNewParent(current, targetTree, sibling, sibling);
+				if (newParent != null || parent != null) {
+					moveBetweenLevels(current, sibling, newParent, current.getLast(newParent), steps);
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Moves away descendants that wouldn't fit into the maximal level of the hierarchy after the item is moved
+	 * to the level - they leave the subtree of the item in the target tree anyway.
+	 */
+	private void makeRoomForSubtree(@Nonnull TreeModel current, @Nonnull TargetTree targetTree, @Nonnull String code, int level, @Nonnull List<SynchronizationStep> steps) {
+		final int maxLevel = hierarchy.getLevels() - 1;
+		final int levelShift = level - current.getLevel(code);
+		if (levelShift <= 0) {
+			return;
+		}
+		for (String descendant : current.getDescendants(code)) {
+			// descendants of the items moved away are not part of the subtree anymore
+			if (current.isDescendant(descendant, code) && current.getLevel(descendant) + levelShift > maxLevel) {
+				final String newParent = findNewParent(current, targetTree, code, descendant);
+				moveBetweenLevels(current, descendant, newParent, current.getLast(newParent), steps);
+			}
+		}
+	}
+
+	/**
+	 * Finds parent the descendant of the moved item may be temporarily moved under - its target parent if it already
+	 * exists and has room for it, the root level, or any other item with room for it (in this order).
+	 */
+	@Nullable
+	private String findNewParent(@Nonnull TreeModel current, @Nonnull TargetTree targetTree, @Nonnull String movedCode, @Nonnull String descendant) {
+		final String targetParent = targetTree.getParent(descendant);
+		if (targetParent != null && current.contains(targetParent) && canAccept(current, targetParent, movedCode, descendant)) {
+			return targetParent;
+		}
+		if (current.getChildren(null).size() < hierarchy.getSectionSize() - 1) {
+			return null;
+		}
+		for (String candidate : current.getDescendants(null)) {
+			if (canAccept(current, candidate, movedCode, descendant)) {
+				return candidate;
+			}
+		}
+		// nothing else fits - the move to the root level fails on exhausted section
+		return null;
+	}
+
+	/**
+	 * Returns true if the subtree of the descendant fits under the candidate parent that is outside the moved subtree
+	 * (the descendant may be the moved item itself).
+	 */
+	private boolean canAccept(@Nonnull TreeModel current, @Nonnull String candidate, @Nonnull String movedCode, @Nonnull String descendant) {
+		return current.getChildren(candidate).size() < hierarchy.getSectionSize() - 1 &&
+			current.getLevel(candidate) + current.getHeight(descendant) <= hierarchy.getLevels() - 1 &&
+			!candidate.equals(movedCode) && !current.isDescendant(candidate, movedCode);
+	}
+
+	private static void moveBetweenLevels(@Nonnull TreeModel current, @Nonnull String code, @Nullable String parent, @Nullable String previous, @Nonnull List<SynchronizationStep> steps) {
+		current.detach(code);
+		steps.add(new SynchronizationStep(SynchronizationStepType.MOVE_BETWEEN_LEVELS, code, parent, previous, current.getNext(parent, previous)));
+		current.insert(code, parent, previous);
+	}
+
+	/**
+	 * Validated target tree.
+	 */
+	private static class TargetTree {
+		private final Map<String, List<String>> children = new HashMap<>();
+		private final Map<String, String> parents = new HashMap<>();
+
+		TargetTree(@Nonnull List<TargetItem> items, int maxLevel, int maxChildren) {
+			for (TargetItem item : items) {
+				Assert.isTrue(!parents.containsKey(item.getCode()), "Item " + item.getCode() + " is present in the target tree more than once!");
+				parents.put(item.getCode(), item.getParentCode());
+				children.computeIfAbsent(item.getParentCode(), parentCode -> new ArrayList<>()).add(item.getCode());
+			}
+			for (TargetItem item : items) {
+				Assert.isTrue(
+					item.getParentCode() == null || parents.containsKey(item.getParentCode()),
+					"Parent " + item.getParentCode() + " of item " + item.getCode() + " is not present in the target tree!"
+				);
+			}
+			for (Map.Entry<String, List<String>> entry : children.entrySet()) {
+				Assert.isTrue(
+					entry.getValue().size() <= maxChildren,
+					(entry.getKey() == null ? "Root level" : "Item " + entry.getKey()) + " of the target tree has more children " +
+						"than the section size " + maxChildren + " of the hierarchy allows!"
+				);
+			}
+			// walk the tree from the root level - items that cannot be reached form a cycle
+			int reachable = 0;
+			List<String> level = getChildren(null);
+			for (int levelNumber = 1; !level.isEmpty(); levelNumber++) {
+				Assert.isTrue(
+					levelNumber <= maxLevel,
+					"Target tree exceeds maximum allowed levels " + maxLevel + " of the hierarchy!"
+				);
+				final List<String> nextLevel = new ArrayList<>();
+				for (String code : level) {
+					nextLevel.addAll(getChildren(code));
+				}
+				reachable += level.size();
+				level = nextLevel;
+			}
+			Assert.isTrue(reachable == parents.size(), "Target tree contains a cycle - some items are not reachable from the root level!");
+		}
+
+		boolean contains(@Nonnull String code) {
+			return parents.containsKey(code);
+		}
+
+		@Nullable
+		String getParent(@Nonnull String code) {
+			return parents.get(code);
+		}
+
+		@Nonnull
+		List<String> getChildren(@Nullable String parentCode) {
+			return children.getOrDefault(parentCode, Collections.emptyList());
+		}
+
+	}
+
+	/**
+	 * Simplified copy of the current tree, that is kept up to date with the planned steps.
+	 */
+	private static class TreeModel {
+		private final Map<String, String> parents = new HashMap<>();
+		private final Map<String, List<String>> children = new HashMap<>();
+
+		/**
+		 * Reads all items of the hierarchy - single query per root item.
+		 */
+		@Nonnull
+		static TreeModel read(@Nonnull Hierarchy hierarchy) {
+			final TreeModel model = new TreeModel();
+			final Map<String, List<HierarchyItem>> childItems = new HashMap<>();
+			final List<HierarchyItem> rootItems = new ArrayList<>(hierarchy.getRootItems());
+			childItems.put(null, rootItems);
+			for (HierarchyItem rootItem : rootItems) {
+				final List<HierarchyItem> descendants = new ArrayList<>(hierarchy.getAllChildItems(rootItem.getCode()));
+				// ordering by left bound is the preorder - the closest preceding item on the upper level is the parent
+				descendants.sort(Comparator.comparing(HierarchyItem::getLeftBound));
+				final Deque<HierarchyItem> path = new ArrayDeque<>();
+				path.push(rootItem);
+				for (HierarchyItem descendant : descendants) {
+					while (path.peek().getLevel() >= descendant.getLevel()) {
+						path.pop();
+					}
+					childItems.computeIfAbsent(path.peek().getCode(), parentCode -> new ArrayList<>()).add(descendant);
+					path.push(descendant);
+				}
+			}
+			for (Map.Entry<String, List<HierarchyItem>> entry : childItems.entrySet()) {
+				// siblings keep their bounds when they're reordered, only the order reflects their position
+				entry.getValue().sort(Comparator.comparing(HierarchyItem::getOrder));
+				final List<String> codes = new ArrayList<>(entry.getValue().size());
+				for (HierarchyItem item : entry.getValue()) {
+					codes.add(item.getCode());
+					model.parents.put(item.getCode(), entry.getKey());
+				}
+				model.children.put(entry.getKey(), codes);
+			}
+			return model;
+		}
+
+		boolean contains(@Nonnull String code) {
+			return parents.containsKey(code);
+		}
+
+		@Nullable
+		String getParent(@Nonnull String code) {
+			return parents.get(code);
+		}
+
+		int getLevel(@Nonnull String code) {
+			int level = 1;
+			for (String parent = parents.get(code); parent != null; parent = parents.get(parent)) {
+				level++;
+			}
+			return level;
+		}
+
+		/**
+		 * Returns number of levels the subtree of the item spans.
+		 */
+		int getHeight(@Nonnull String code) {
+			int height = 1;
+			for (String child : getChildren(code)) {
+				height = Math.max(height, getHeight(child) + 1);
+			}
+			return height;
+		}
+
+		boolean isDescendant(@Nonnull String code, @Nonnull String ancestor) {
+			for (String parent = parents.get(code); parent != null; parent = parents.get(parent)) {
+				if (parent.equals(ancestor)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Nonnull
+		List<String> getChildren(@Nullable String parent) {
+			return children.getOrDefault(parent, Collections.emptyList());
+		}
+
+		/**
+		 * Returns all descendants of the parent (or entire tree) in preorder.
+		 */
+		@Nonnull
+		List<String> getDescendants(@Nullable String parent) {
+			final List<String> result = new ArrayList<>();
+			final Deque<String> stack = new ArrayDeque<>();
+			final List<String> topLevel = getChildren(parent);
+			for (int i = topLevel.size() - 1; i >= 0; i--) {
+				stack.push(topLevel.get(i));
+			}
+			while (!stack.isEmpty()) {
+				final String code = stack.pop();
+				result.add(code);
+				final List<String> itemChildren = getChildren(code);
+				for (int i = itemChildren.size() - 1; i >= 0; i--) {
+					stack.push(itemChildren.get(i));
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Returns sibling following the previous one, or the first child when previous is null.
+		 */
+		@Nullable
+		String getNext(@Nullable String parent, @Nullable String previous) {
+			final List<String> siblings = getChildren(parent);
+			final int index = previous == null ? 0 : siblings.indexOf(previous) + 1;
+			return index < siblings.size() ? siblings.get(index) : null;
+		}
+
+		@Nullable
+		String getLast(@Nullable String parent) {
+			final List<String> siblings = getChildren(parent);
+			return siblings.isEmpty() ? null : siblings.get(siblings.size() - 1);
+		}
+
+		/**
+		 * Places item right after the previous sibling, or as the first child when previous is null.
+		 */
+		void insert(@Nonnull String code, @Nullable String parent, @Nullable String previous) {
+			final List<String> siblings = children.computeIfAbsent(parent, parentCode -> new ArrayList<>());
+			siblings.add(previous == null ? 0 : siblings.indexOf(previous) + 1, code);
+			parents.put(code, parent);
+		}
+
+		/**
+		 * Removes item from the list of its siblings, the item keeps its subtree.
+		 */
+		void detach(@Nonnull String code) {
+			children.get(parents.get(code)).remove(code);
+		}
+
+		/**
+		 * Removes item with its entire subtree.
+		 */
+		void remove(@Nonnull String code) {
+			for (String descendant : getDescendants(code)) {
+				parents.remove(descendant);
+				children.remove(descendant);
+			}
+			detach(code);
+			parents.remove(code);
+			children.remove(code);
+		}
+
+	}
+
+}
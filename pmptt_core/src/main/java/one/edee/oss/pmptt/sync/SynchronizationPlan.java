@@ -0,0 +1,58 @@
+package one.edee.oss.pmptt.sync;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ordered list of mutations computed by {@link HierarchySynchronizer} that turn the current hierarchy into the target
+ * tree. Steps must be executed in the order they are listed.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class SynchronizationPlan {
+	private final List<SynchronizationStep> steps;
+
+	SynchronizationPlan(@Nonnull List<SynchronizationStep> steps) {
+		this.steps = Collections.unmodifiableList(steps);
+	}
+
+	/**
+	 * Returns steps of the plan in the order of execution.
+	 */
+	@Nonnull
+	public List<SynchronizationStep> getSteps() {
+		return steps;
+	}
+
+	/**
+	 * Returns true if the hierarchy already matches the target tree.
+	 */
+	public boolean isEmpty() {
+		return steps.isEmpty();
+	}
+
+	/**
+	 * Returns count of the steps of passed type.
+	 */
+	public int getCount(@Nonnull SynchronizationStepType type) {
+		int count = 0;
+		for (SynchronizationStep step : steps) {
+			if (step.getType() == type) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public String toString() {
+		return "SynchronizationPlan{" +
+			"removed=" + getCount(SynchronizationStepType.REMOVE) +
+			", created=" + getCount(SynchronizationStepType.CREATE) +
+			", moved=" + getCount(SynchronizationStepType.MOVE) +
+			", movedBetweenLevels=" + getCount(SynchronizationStepType.MOVE_BETWEEN_LEVELS) +
+			'}';
+	}
+
+}
@@ -0,0 +1,37 @@
+package one.edee.oss.pmptt.sync;
+
+import lombok.Data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Single mutation of the {@link SynchronizationPlan}. Step describes the position the item ends up at - neighbours
+ * are the siblings of the item at the moment the step is executed, not in the final tree.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@Data
+public class SynchronizationStep {
+	/**
+	 * Type of the mutation.
+	 */
+	@Nonnull private final SynchronizationStepType type;
+	/**
+	 * Code of the created, moved or removed item.
+	 */
+	@Nonnull private final String code;
+	/**
+	 * Code of the parent the item ends up under, null for the root level (or removed item).
+	 */
+	@Nullable private final String parentCode;
+	/**
+	 * Code of the sibling that precedes the item after the step, null when the item becomes first one.
+	 */
+	@Nullable private final String previousCode;
+	/**
+	 * Code of the sibling that follows the item after the step, null when the item becomes last one.
+	 */
+	@Nullable private final String nextCode;
+
+}
@@ -0,0 +1,85 @@
+package one.edee.oss.pmptt.sync;
+
+import one.edee.oss.pmptt.model.Hierarchy;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Type of the {@link SynchronizationStep} - each type is executed by the cheapest {@link Hierarchy} method
+ * that puts the item directly to its position.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public enum SynchronizationStepType {
+
+	/**
+	 * Item with all its descendants is removed.
+	 */
+	REMOVE {
+		@Override
+		void apply(@Nonnull Hierarchy hierarchy, @Nonnull SynchronizationStep step) {
+			hierarchy.removeItem(step.getCode());
+		}
+	},
+	/**
+	 * New item is created directly before its next sibling.
+	 */
+	CREATE {
+		@Override
+		void apply(@Nonnull Hierarchy hierarchy, @Nonnull SynchronizationStep step) {
+			final String parentCode = step.getParentCode();
+			final String nextCode = step.getNextCode();
+			if (parentCode == null) {
+				if (nextCode == null) {
+					hierarchy.createRootItem(step.getCode());
+				} else {
+					hierarchy.createRootItem(step.getCode(), nextCode);
+				}
+			} else if (nextCode == null) {
+				hierarchy.createItem(step.getCode(), parentCode);
+			} else {
+				hierarchy.createItem(step.getCode(), parentCode, nextCode);
+			}
+		}
+	},
+	/**
+	 * Item is moved among its siblings - only the order of the siblings is changed.
+	 */
+	MOVE {
+		@Override
+		void apply(@Nonnull Hierarchy hierarchy, @Nonnull SynchronizationStep step) {
+			if (step.getPreviousCode() == null) {
+				hierarchy.moveItemToFirst(step.getCode());
+			} else {
+				hierarchy.moveItemAfter(step.getCode(), step.getPreviousCode());
+			}
+		}
+	},
+	/**
+	 * Item with all its descendants is moved under another parent.
+	 */
+	MOVE_BETWEEN_LEVELS {
+		@Override
+		void apply(@Nonnull Hierarchy hierarchy, @Nonnull SynchronizationStep step) {
+			final String parentCode = step.getParentCode();
+			final String previousCode = step.getPreviousCode();
+			if (parentCode == null) {
+				if (previousCode == null) {
+					hierarchy.moveItemBetweenLevelsFirst(step.getCode());
+				} else {
+					hierarchy.moveItemBetweenLevelsAfter(step.getCode(), previousCode);
+				}
+			} else if (previousCode == null) {
+				hierarchy.moveItemBetweenLevelsFirst(step.getCode(), parentCode);
+			} else {
+				hierarchy.moveItemBetweenLevelsAfter(step.getCode(), parentCode, previousCode);
+			}
+		}
+	};
+
+	/**
+	 * Executes the step on the hierarchy.
+	 */
+	abstract void apply(@Nonnull Hierarchy hierarchy, @Nonnull SynchronizationStep step);
+
+}
@@ -0,0 +1,25 @@
+package one.edee.oss.pmptt.sync;
+
+import lombok.Data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Single item of the target tree passed to the {@link HierarchySynchronizer}. Order of the siblings is given by
+ * the order of the items in the target list.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@Data
+public class TargetItem {
+	/**
+	 * Code of the item.
+	 */
+	@Nonnull private final String code;
+	/**
+	 * Code of the parent item, null for the items on the root level.
+	 */
+	@Nullable private final String parentCode;
+
+}
@@ -0,0 +1,100 @@
+package one.edee.oss.pmptt.util;
+
+import lombok.Data;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable index of closed intervals (left, right) with attached values, answering which intervals contain given
+ * point. Intervals are sorted by their left bound and form implicit balanced search tree augmented with maximal right
+ * bound of each sub-tree - query visits only branches that may contain matching interval, so that its cost is
+ * logarithmic in the count of intervals plus the count of matches.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class IntervalIndex<T> {
+	private final long[] lefts;
+	private final long[] rights;
+	private final long[] maxRights;
+	private final Object[] values;
+
+	public IntervalIndex(@Nonnull List<Interval<T>> intervals) {
+		final List<Interval<T>> sorted = new ArrayList<>(intervals);
+		sorted.sort(Comparator.comparingLong(Interval::getLeft));
+		this.lefts = new long[sorted.size()];
+		this.rights = new long[sorted.size()];
+		this.maxRights = new long[sorted.size()];
+		this.values = new Object[sorted.size()];
+		for (int i = 0; i < sorted.size(); i++) {
+			final Interval<T> interval = sorted.get(i);
+			Assert.isTrue(interval.getLeft() <= interval.getRight(), "Left bound must not be greater than the right one!");
+			this.lefts[i] = interval.getLeft();
+			this.rights[i] = interval.getRight();
+			this.values[i] = interval.getValue();
+		}
+		computeMaxRights(0, sorted.size());
+	}
+
+	/**
+	 * Returns count of indexed intervals.
+	 */
+	public int size() {
+		return values.length;
+	}
+
+	/**
+	 * Adds values of all intervals containing the point (bounds inclusive) to the passed list.
+	 */
+	public void collect(long point, @Nonnull List<T> result) {
+		collect(0, values.length, point, result);
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	private long computeMaxRights(int from, int to) {
+		if (from >= to) {
+			return Long.MIN_VALUE;
+		}
+		final int middle = (from + to) >>> 1;
+		maxRights[middle] = Math.max(
+			rights[middle],
+			Math.max(computeMaxRights(from, middle), computeMaxRights(middle + 1, to))
+		);
+		return maxRights[middle];
+	}
+
+	@SuppressWarnings("unchecked")
+	private void collect(int from, int to, long point, @Nonnull List<T> result) {
+		if (from >= to) {
+			return;
+		}
+		final int middle = (from + to) >>> 1;
+		if (maxRights[middle] < point) {
+			// no interval in this sub-tree reaches the point
+			return;
+		}
+		collect(from, middle, point, result);
+		if (lefts[middle] <= point) {
+			if (rights[middle] >= point) {
+				result.add((T) values[middle]);
+			}
+			collect(middle + 1, to, point, result);
+		}
+	}
+
+	/**
+	 * Single interval with attached value.
+	 */
+	@Data
+	public static class Interval<T> {
+		private final long left;
+		private final long right;
+		private final T value;
+	}
+
+}
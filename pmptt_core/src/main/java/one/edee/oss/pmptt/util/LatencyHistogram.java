@@ -0,0 +1,129 @@
+package one.edee.oss.pmptt.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds. Recorded values are counted in buckets the same way HDR histograms
+ * do it - each range &lt;2^i, 2^(i+1)) is split into {@link #SUB_BUCKET_COUNT} linear sub-buckets (values lower than
+ * {@link #SUB_BUCKET_COUNT} are counted exactly) - so that recording is cheap and memory footprint constant.
+ * Percentiles are approximate - they return the highest value of the bucket the percentile falls into, which is at most
+ * by 1/{@link #SUB_BUCKET_COUNT} (ie. about 3%) higher than the real value.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class LatencyHistogram {
+	/**
+	 * Number of linear sub-buckets each power of two range is split into.
+	 */
+	public static final int SUB_BUCKET_COUNT = 32;
+	private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKET_COUNT);
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+	/**
+	 * Records single latency.
+	 */
+	public void record(long nanos) {
+		final long value = Math.max(0L, nanos);
+		buckets.incrementAndGet(getBucketIndex(value));
+		count.increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * Returns count of recorded values.
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns sum of all recorded values in nanoseconds.
+	 */
+	public long getTotalNanos() {
+		return sum.sum();
+	}
+
+	/**
+	 * Returns maximal recorded value in nanoseconds.
+	 */
+	public long getMaxNanos() {
+		return max.get();
+	}
+
+	/**
+	 * Returns average of recorded values in nanoseconds.
+	 */
+	public double getMeanNanos() {
+		final long currentCount = count.sum();
+		return currentCount == 0 ? 0.0 : (double) sum.sum() / currentCount;
+	}
+
+	/**
+	 * Returns approximate value (highest value of the bucket) up to which the requested percentage of recorded values lies.
+	 *
+	 * @param percentile requested percentile in range 0 .. 100
+	 */
+	public long getPercentileNanos(double percentile) {
+		Assert.isTrue(percentile >= 0.0 && percentile <= 100.0, "Percentile must be within 0 and 100!");
+		final long[] counts = getBucketCounts();
+		long total = 0;
+		for (long bucketCount : counts) {
+			total += bucketCount;
+		}
+		if (total == 0) {
+			return 0L;
+		}
+		final long threshold = Math.max(1L, (long) Math.ceil(total * percentile / 100.0));
+		long cumulative = 0;
+		for (int i = 0; i < counts.length; i++) {
+			cumulative += counts[i];
+			if (cumulative >= threshold) {
+				final long upperBound = getBucketUpperBound(i);
+				return upperBound == Long.MAX_VALUE ? getMaxNanos() : Math.min(upperBound - 1, getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+
+	/**
+	 * Returns counts of the values in the individual buckets - see {@link #getBucketUpperBound(int)}.
+	 */
+	public long[] getBucketCounts() {
+		final long[] result = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			result[i] = buckets.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns exclusive upper bound in nanoseconds of the bucket with passed index.
+	 */
+	public static long getBucketUpperBound(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index + 1;
+		} else if (index >= BUCKET_COUNT - 1) {
+			return Long.MAX_VALUE;
+		}
+		final int shift = index / SUB_BUCKET_COUNT - 1;
+		final long subBucket = SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT;
+		return (subBucket + 1) << shift;
+	}
+
+	private static int getBucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		// position of the highest bit determines the range, following bits the sub-bucket within it
+		final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+	}
+
+}
@@ -0,0 +1,201 @@
+package one.edee.oss.pmptt.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Hash map with primitive long keys. Keys and values are stored in two parallel arrays with linear probing, so that
+ * neither the keys are boxed nor an entry object is allocated for each mapping. Null values are not supported - empty
+ * slot is recognized by null value. Map is not thread safe.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class LongObjectHashMap<V> implements Iterable<V> {
+	private static final int MIN_CAPACITY = 16;
+	private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+	private long[] keys;
+	private Object[] values;
+	private int size;
+
+	public LongObjectHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	public LongObjectHashMap(int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	/**
+	 * Returns count of the mappings.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true if map contains no mapping.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns value mapped to the key or NULL.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		final int index = indexOf(key);
+		return index < 0 ? null : (V) values[index];
+	}
+
+	/**
+	 * Returns true if there is a value mapped to the key.
+	 */
+	public boolean containsKey(long key) {
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * Maps the value to the key and returns previously mapped value or NULL.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V put(long key, @Nonnull V value) {
+		Assert.notNull(value, "Null values are not supported!");
+		final int mask = values.length - 1;
+		int index = slot(key, mask);
+		while (values[index] != null) {
+			if (keys[index] == key) {
+				final V previous = (V) values[index];
+				values[index] = value;
+				return previous;
+			}
+			index = (index + 1) & mask;
+		}
+		keys[index] = key;
+		values[index] = value;
+		if (++size > values.length / 2) {
+			rehash(values.length * 2);
+		}
+		return null;
+	}
+
+	/**
+	 * Removes mapping of the key and returns removed value or NULL.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		final int index = indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		final V previous = (V) values[index];
+		size--;
+		// shift following entries of the probe sequence back so that no tombstone is needed
+		final int mask = values.length - 1;
+		int gap = index;
+		int next = (gap + 1) & mask;
+		while (values[next] != null) {
+			final int home = slot(keys[next], mask);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				values[gap] = values[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		values[gap] = null;
+		return previous;
+	}
+
+	/**
+	 * Iterates over values in no particular order. Map must not be modified during the iteration.
+	 */
+	@Nonnull
+	@Override
+	public Iterator<V> iterator() {
+		return new Iterator<V>() {
+			private int index = advance(0);
+
+			@Override
+			public boolean hasNext() {
+				return index < values.length;
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public V next() {
+				if (index >= values.length) {
+					throw new NoSuchElementException();
+				}
+				final V value = (V) values[index];
+				index = advance(index + 1);
+				return value;
+			}
+
+			private int advance(int from) {
+				int i = from;
+				while (i < values.length && values[i] == null) {
+					i++;
+				}
+				return i;
+			}
+		};
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	private int indexOf(long key) {
+		final int mask = values.length - 1;
+		int index = slot(key, mask);
+		while (values[index] != null) {
+			if (keys[index] == key) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void rehash(int capacity) {
+		final long[] oldKeys = keys;
+		final Object[] oldValues = values;
+		allocate(capacity);
+		final int mask = capacity - 1;
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null) {
+				int index = slot(oldKeys[i], mask);
+				while (values[index] != null) {
+					index = (index + 1) & mask;
+				}
+				keys[index] = oldKeys[i];
+				values[index] = oldValues[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		this.keys = new long[capacity];
+		this.values = new Object[capacity];
+	}
+
+	private static int slot(long key, int mask) {
+		final long hash = key * GOLDEN_RATIO;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private static int capacityFor(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+}
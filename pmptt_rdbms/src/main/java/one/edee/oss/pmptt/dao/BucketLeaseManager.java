@@ -0,0 +1,242 @@
+package one.edee.oss.pmptt.dao;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.apachecommons.CommonsLog;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.util.Assert;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Lease manager allows application node to reserve a block of free buckets under particular parent item (or on the
+ * root level of the hierarchy) in advance. Sections in PMPTT are deterministic - once the bucket number is known
+ * the bounds of the new item can be computed without looking into the database. Nodes inserting into the same "hot"
+ * parent therefore don't need to search for the first empty section on each insert and don't compete for the same
+ * bucket - each of them allocates buckets from its own lease.
+ *
+ * Leases are stored in table T_MPTT_BUCKET_LEASE and are acquired in separate (REQUIRES_NEW) transaction so that
+ * they are visible to other nodes immediately. Each lease expires after {@link #getLeaseDurationMillis()}, expired
+ * leases of all owners are reclaimed when the next block under the same parent is leased. Buckets that have been
+ * consumed by created items don't need to be released - they are recognized as occupied by the items themselves.
+ *
+ * When no bucket can be leased (all free buckets are leased by other nodes, or the section is exhausted) manager
+ * returns NULL and the storage falls back to the regular empty section lookup. Unique constraint on item bounds
+ * protects the tree even if such lookup collides with the lease of other node.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@CommonsLog
+public class BucketLeaseManager {
+	/**
+	 * Parent code used for leases on the root level of the hierarchy.
+	 */
+	public static final String ROOT_PARENT_CODE = "#root";
+	/**
+	 * Default number of buckets leased at once.
+	 */
+	public static final short DEFAULT_LEASE_SIZE = 8;
+	/**
+	 * Default lease duration - 5 minutes.
+	 */
+	public static final long DEFAULT_LEASE_DURATION_MILLIS = 5L * 60L * 1000L;
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+	private final TransactionTemplate requiresNewTxTemplate;
+	/**
+	 * Buckets leased by this node that haven't been consumed yet.
+	 */
+	private final Map<LeaseKey, Lease> leases = new ConcurrentHashMap<>();
+	/**
+	 * Unique identification of the owner (application node) of the leases.
+	 */
+	@Getter private final String owner;
+	/**
+	 * Number of buckets leased at once.
+	 */
+	@Getter private final short leaseSize;
+	/**
+	 * Time in milliseconds after which the lease expires and may be reclaimed by other nodes.
+	 */
+	@Getter private final long leaseDurationMillis;
+
+	public BucketLeaseManager(@Nonnull DataSource dataSource, @Nonnull PlatformTransactionManager transactionManager) {
+		this(dataSource, transactionManager, UUID.randomUUID().toString(), DEFAULT_LEASE_SIZE, DEFAULT_LEASE_DURATION_MILLIS);
+	}
+
+	public BucketLeaseManager(@Nonnull DataSource dataSource, @Nonnull PlatformTransactionManager transactionManager, @Nonnull String owner, short leaseSize, long leaseDurationMillis) {
+		Assert.isTrue(leaseSize > 0, "Lease size must be positive!");
+		Assert.isTrue(leaseDurationMillis > 0, "Lease duration must be positive!");
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+		this.requiresNewTxTemplate = new TransactionTemplate(transactionManager);
+		this.requiresNewTxTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.owner = owner;
+		this.leaseSize = leaseSize;
+		this.leaseDurationMillis = leaseDurationMillis;
+	}
+
+	/**
+	 * Returns free bucket under the parent from the lease of this node. When there is no bucket left in the lease new
+	 * block of buckets is leased.
+	 *
+	 * @param hierarchyCode code of the hierarchy
+	 * @param parent parent item, NULL for the root level
+	 * @param maxCount maximal number of items in the section (buckets 1 .. maxCount - 1 are available)
+	 * @param occupiedItems supplier of items currently present in the section, called only when new lease is needed
+	 * @return bucket number or NULL if no bucket could be leased
+	 */
+	@Nullable
+	public Short acquireBucket(@Nonnull String hierarchyCode, @Nullable HierarchyItem parent, short maxCount, @Nonnull Supplier<Collection<HierarchyItem>> occupiedItems) {
+		final LeaseKey key = new LeaseKey(hierarchyCode, parent == null ? ROOT_PARENT_CODE : parent.getCode());
+		final Lease existingLease = leases.get(key);
+		final Short leasedBucket = existingLease == null ? null : existingLease.poll();
+		if (leasedBucket != null) {
+			return leasedBucket;
+		}
+
+		final Set<Short> occupiedBuckets = new HashSet<>();
+		for (HierarchyItem item : occupiedItems.get()) {
+			occupiedBuckets.add(item.getBucket());
+		}
+		final Lease newLease = lease(key, maxCount, occupiedBuckets);
+		if (newLease == null) {
+			leases.remove(key);
+			return null;
+		}
+		leases.put(key, newLease);
+		return newLease.poll();
+	}
+
+	/**
+	 * Releases all leases of this node - should be called when node is shutting down so that other nodes may use
+	 * the buckets before the leases expire.
+	 */
+	public void releaseLeases() {
+		leases.clear();
+		requiresNewTxTemplate.execute(transactionStatus ->
+			namedParameterJdbcTemplate.update(
+				"delete from T_MPTT_BUCKET_LEASE where leaseOwner = :owner",
+				Collections.singletonMap("owner", owner)
+			)
+		);
+	}
+
+	/**
+	 * Removes all leases (of all owners) in the hierarchy.
+	 */
+	public void removeLeases(@Nonnull String hierarchyCode) {
+		leases.keySet().removeIf(key -> key.getHierarchyCode().equals(hierarchyCode));
+		namedParameterJdbcTemplate.update(
+			"delete from T_MPTT_BUCKET_LEASE where hierarchyCode = :hierarchyCode",
+			Collections.singletonMap("hierarchyCode", hierarchyCode)
+		);
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	@Nullable
+	private Lease lease(@Nonnull LeaseKey key, short maxCount, @Nonnull Set<Short> occupiedBuckets) {
+		return requiresNewTxTemplate.execute(transactionStatus -> {
+			final long now = System.currentTimeMillis();
+			final Map<String, Object> params = new HashMap<>();
+			params.put("hierarchyCode", key.getHierarchyCode());
+			params.put("parentCode", key.getParentCode());
+			params.put("owner", owner);
+			params.put("now", now);
+			params.put("expiresAt", now + leaseDurationMillis);
+
+			// reclaim expired leases of all owners
+			namedParameterJdbcTemplate.update(
+				"delete from T_MPTT_BUCKET_LEASE " +
+					"where hierarchyCode = :hierarchyCode and parentCode = :parentCode and expiresAt < :now",
+				params
+			);
+
+			final Set<Short> unavailableBuckets = new HashSet<>(occupiedBuckets);
+			unavailableBuckets.addAll(
+				namedParameterJdbcTemplate.queryForList(
+					"select bucket from T_MPTT_BUCKET_LEASE " +
+						"where hierarchyCode = :hierarchyCode and parentCode = :parentCode",
+					params,
+					Short.class
+				)
+			);
+
+			final List<Short> leasedBuckets = new ArrayList<>(leaseSize);
+			for (short bucket = 1; bucket < maxCount && leasedBuckets.size() < leaseSize; bucket++) {
+				if (!unavailableBuckets.contains(bucket)) {
+					params.put("bucket", bucket);
+					try {
+						namedParameterJdbcTemplate.update(
+							"insert into T_MPTT_BUCKET_LEASE (hierarchyCode, parentCode, bucket, leaseOwner, expiresAt) " +
+								"values (:hierarchyCode, :parentCode, :bucket, :owner, :expiresAt)",
+							params
+						);
+						leasedBuckets.add(bucket);
+					} catch (DuplicateKeyException ex) {
+						// bucket has been leased by other node in the meantime
+						log.debug("Bucket " + bucket + " under " + key.getParentCode() + " has been leased by other node.");
+					}
+				}
+			}
+
+			if (leasedBuckets.isEmpty()) {
+				return null;
+			} else {
+				// consider lease valid a little shorter than it really is so that we never use already reclaimed bucket
+				return new Lease(new ArrayDeque<>(leasedBuckets), now + leaseDurationMillis - leaseDurationMillis / 10);
+			}
+		});
+	}
+
+	/**
+	 * Identifies section (children of the parent item) the buckets are leased in.
+	 */
+	@Data
+	private static class LeaseKey {
+		private final String hierarchyCode;
+		private final String parentCode;
+	}
+
+	/**
+	 * Buckets leased by this node in particular section.
+	 */
+	@RequiredArgsConstructor
+	private static class Lease {
+		private final Deque<Short> buckets;
+		private final long validUntil;
+
+		@Nullable
+		synchronized Short poll() {
+			if (System.currentTimeMillis() > validUntil) {
+				buckets.clear();
+				return null;
+			}
+			return buckets.poll();
+		}
+	}
+
+}
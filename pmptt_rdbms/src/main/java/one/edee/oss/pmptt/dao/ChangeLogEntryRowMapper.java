@@ -0,0 +1,40 @@
+package one.edee.oss.pmptt.dao;
+
+import one.edee.oss.pmptt.model.Bounds;
+import one.edee.oss.pmptt.model.ChangeLogEntry;
+import one.edee.oss.pmptt.model.HierarchyChangeType;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class ChangeLogEntryRowMapper implements RowMapper<ChangeLogEntry> {
+
+	@Override
+	public ChangeLogEntry mapRow(ResultSet resultSet, int i) throws SQLException {
+		return new ChangeLogEntry(
+				resultSet.getLong("id"),
+				resultSet.getString("hierarchyCode"),
+				resultSet.getString("code"),
+				HierarchyChangeType.valueOf(resultSet.getString("operation")),
+				getBounds(resultSet, "oldLeftBound", "oldRightBound"),
+				getBounds(resultSet, "newLeftBound", "newRightBound"),
+				resultSet.getLong("changedAt")
+		);
+	}
+
+	private static Bounds getBounds(ResultSet resultSet, String leftBoundColumn, String rightBoundColumn) throws SQLException {
+		final long leftBound = resultSet.getLong(leftBoundColumn);
+		if (resultSet.wasNull()) {
+			return null;
+		}
+		return new Bounds(leftBound, resultSet.getLong(rightBoundColumn));
+	}
+
+}
@@ -0,0 +1,58 @@
+package one.edee.oss.pmptt.dao;
+
+import lombok.Data;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Describes how {@link one.edee.oss.pmptt.model.DbHierarchy} protects its write operations against concurrent writers
+ * running on other threads or other application nodes.
+ *
+ * When locking is enabled, each write operation locks rows representing parent scopes it modifies (row of the parent
+ * item, or the hierarchy row for root level changes) before it reads anything else. Writers targeting disjoint
+ * subtrees proceed in parallel, writers targeting the same parent wait for each other. Operations failing on deadlock,
+ * lock wait timeout or unique constraint violation are retried with exponential backoff.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@Data
+public class ConcurrencyStrategy {
+	/**
+	 * Default strategy - locks parent scopes and retries up to five times with backoff starting at 10ms.
+	 */
+	public static final ConcurrencyStrategy DEFAULT = new ConcurrencyStrategy(true, 5, 10L, 500L);
+	/**
+	 * Strategy that neither locks nor retries - use only if there is always single writer.
+	 */
+	public static final ConcurrencyStrategy NONE = new ConcurrencyStrategy(false, 1, 0L, 0L);
+
+	/**
+	 * True if parent scopes should be locked by SELECT ... FOR UPDATE before the operation is executed.
+	 */
+	private final boolean lockingEnabled;
+	/**
+	 * Maximal number of attempts (including the first one) to execute the operation.
+	 */
+	private final int maxAttempts;
+	/**
+	 * Backoff in milliseconds before the second attempt, each next attempt doubles it.
+	 */
+	private final long initialBackoffMillis;
+	/**
+	 * Upper limit for the backoff in milliseconds.
+	 */
+	private final long maxBackoffMillis;
+
+	/**
+	 * Computes randomized backoff before next attempt so that colliding writers don't retry in lockstep.
+	 *
+	 * @param attempt number of failed attempt (starting with 1)
+	 * @return number of milliseconds to wait
+	 */
+	public long getBackoffMillis(int attempt) {
+		final long exponential = initialBackoffMillis << Math.min(attempt - 1, 30);
+		final long backoff = Math.min(maxBackoffMillis, exponential < 0 ? maxBackoffMillis : exponential);
+		return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+	}
+
+}
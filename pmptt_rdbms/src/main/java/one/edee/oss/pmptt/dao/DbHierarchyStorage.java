@@ -1,9 +1,23 @@
 package one.edee.oss.pmptt.dao;
 
+import one.edee.oss.pmptt.model.ChangeLogEntry;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.util.Assert;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
 /**
- * Extends {@link HierarchyStorage} adding method to access used transaction manager.
+ * Extends {@link HierarchyStorage} adding method to access used transaction manager, methods allowing to lock
+ * parts of the hierarchy for concurrent writers and methods for reading the change log. All methods except
+ * {@link #getTransactionManager()} have default implementations, so that storages written before they were introduced
+ * keep working - such storages neither lock nor record the change log.
  *
  * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2020
  */
@@ -15,4 +29,155 @@ public interface DbHierarchyStorage extends HierarchyStorage {
 	 */
 	PlatformTransactionManager getTransactionManager();
 
+	/**
+	 * Returns strategy used for protecting write operations against concurrent writers. Default implementation returns
+	 * {@link ConcurrencyStrategy#NONE}.
+	 * @return
+	 */
+	@Nonnull
+	default ConcurrencyStrategy getConcurrencyStrategy() {
+		return ConcurrencyStrategy.NONE;
+	}
+
+	/**
+	 * Locks the row of the hierarchy. Exclusive lock is used for changes on the root level of the hierarchy, shared
+	 * lock is used for changes in nested levels so that they don't collide with the root level changes (platforms
+	 * whose foreign key checks don't lock referenced rows may implement shared lock as no-op).
+	 *
+	 * Method must be called inside active transaction - lock is released when transaction ends.
+	 *
+	 * Default implementation doesn't lock anything.
+	 *
+	 * @param hierarchyCode code of the hierarchy
+	 * @param exclusive true if exclusive lock should be acquired
+	 */
+	default void lockHierarchy(@Nonnull String hierarchyCode, boolean exclusive) {
+		// no locking by default
+	}
+
+	/**
+	 * Locks rows of the items with passed codes (SELECT ... FOR UPDATE). Rows are always locked in the order of their
+	 * codes so that concurrent writers locking the same rows cannot deadlock.
+	 *
+	 * Method must be called inside active transaction - locks are released when transaction ends.
+	 *
+	 * Default implementation doesn't lock anything.
+	 *
+	 * @param hierarchyCode code of the hierarchy
+	 * @param codes codes of the items to lock
+	 */
+	default void lockItems(@Nonnull String hierarchyCode, @Nonnull Collection<String> codes) {
+		// no locking by default
+	}
+
+	/**
+	 * Locks rows of the item and all items in its subtree (SELECT ... FOR UPDATE) in the order of their left bounds.
+	 *
+	 * Method must be called inside active transaction - locks are released when transaction ends.
+	 *
+	 * Default implementation doesn't lock anything.
+	 *
+	 * @param item root of the locked subtree
+	 */
+	default void lockSubtree(@Nonnull HierarchyItem item) {
+		// no locking by default
+	}
+
+	/**
+	 * Streams all items of the hierarchy ordered by their left bounds (ie. in preorder) to the consumer by single query.
+	 * Rows are handed to the consumer as they are fetched, so that large hierarchies can be loaded without
+	 * materializing the whole result set first.
+	 *
+	 * Default implementation reads each root item subtree by {@link #getAllChildrenItems(HierarchyItem)} and sorts it
+	 * by left bounds - it materializes one root subtree at a time.
+	 *
+	 * @param hierarchyCode code of the hierarchy
+	 * @param consumer consumer of the items
+	 */
+	default void forEachItem(@Nonnull String hierarchyCode, @Nonnull Consumer<HierarchyItem> consumer) {
+		final Comparator<HierarchyItem> preorder = Comparator.comparingLong(HierarchyItem::getLeftBoundAsLong);
+		final List<HierarchyItem> rootItems = new ArrayList<>(getRootItems(hierarchyCode));
+		rootItems.sort(preorder);
+		for (HierarchyItem rootItem : rootItems) {
+			consumer.accept(rootItem);
+			final List<HierarchyItem> subtree = new ArrayList<>(getAllChildrenItems(rootItem));
+			subtree.sort(preorder);
+			subtree.forEach(consumer);
+		}
+	}
+
+	/**
+	 * Returns true if each change of the hierarchy items is recorded to the change log table T_MPTT_CHANGE_LOG.
+	 * Default implementation doesn't support the change log and returns false.
+	 * @return
+	 */
+	default boolean isChangeLogEnabled() {
+		return false;
+	}
+
+	/**
+	 * Enables or disables recording changes of the hierarchy items to the change log table T_MPTT_CHANGE_LOG. Change
+	 * log records are written in the same transaction as the changes themselves.
+	 *
+	 * Default implementation doesn't support the change log and fails when it's being enabled.
+	 *
+	 * @param changeLogEnabled true if changes should be recorded
+	 */
+	default void setChangeLogEnabled(boolean changeLogEnabled) {
+		Assert.isTrue(!changeLogEnabled, "Storage " + getClass().getName() + " doesn't support the change log!");
+	}
+
+	/**
+	 * Returns batch of changes (of all hierarchies) recorded after passed sequence number ordered by sequence number.
+	 *
+	 * Sequence numbers are assigned when the change is written, not when the transaction commits - a change with lower
+	 * sequence number may therefore become visible after a change with higher one. Consumers that cannot tolerate
+	 * missing such change should re-read recent window of sequence numbers and de-duplicate changes they have already
+	 * processed.
+	 *
+	 * Default implementation returns empty list.
+	 *
+	 * @param sequence sequence number of the last processed change, zero to read from the start
+	 * @param limit maximal number of returned changes
+	 * @return changes ordered by sequence number
+	 */
+	@Nonnull
+	default List<ChangeLogEntry> getChangesAfter(long sequence, int limit) {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Returns batch of changes of single hierarchy recorded after passed sequence number ordered by sequence number.
+	 * See {@link #getChangesAfter(long, int)} for the details. Default implementation returns empty list.
+	 *
+	 * @param hierarchyCode code of the hierarchy
+	 * @param sequence sequence number of the last processed change, zero to read from the start
+	 * @param limit maximal number of returned changes
+	 * @return changes ordered by sequence number
+	 */
+	@Nonnull
+	default List<ChangeLogEntry> getChangesAfter(@Nonnull String hierarchyCode, long sequence, int limit) {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Returns sequence number of the last change recorded in the change log, zero when the change log is empty.
+	 * Default implementation returns zero.
+	 * @return
+	 */
+	default long getLastChangeSequence() {
+		return 0L;
+	}
+
+	/**
+	 * Removes all changes with sequence number lower or equal to the passed one - should be called once all consumers
+	 * processed them. Default implementation removes nothing.
+	 *
+	 * @param sequence sequence number of the last change to remove
+	 * @return number of removed changes
+	 */
+	default int pruneChangesUpTo(long sequence) {
+		return 0;
+	}
+
 }
@@ -0,0 +1,396 @@
+package one.edee.oss.pmptt.dao;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.apachecommons.CommonsLog;
+import one.edee.oss.pmptt.util.Assert;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Executor applies write operations submitted by many threads in shared transactions, so that the cost of the commit
+ * (fsync of the database log) is paid once per batch instead of once per operation. Single worker thread takes all
+ * operations waiting in the queue (up to {@link #getMaxBatchSize()}), executes them one by one in single transaction
+ * and completes the future of each operation once the transaction is committed.
+ *
+ * Failing operation doesn't fail the others - the transaction is rolled back, the future of the failed operation is
+ * completed exceptionally and the rest of the batch is executed again without it. Concurrency failures (deadlocks,
+ * lock timeouts, unique constraint violations) cannot be attributed to single operation - the batch is retried
+ * according to {@link ConcurrencyStrategy} of the storage and when the attempts are exhausted each operation is
+ * executed in its own transaction.
+ *
+ * Operations must join the transaction opened by the executor - {@link one.edee.oss.pmptt.model.DbHierarchy} does so
+ * and when the executor is set to it, it routes its write operations through the executor automatically. Executor
+ * should be closed when application shuts down - pending operations are executed before the worker stops. When
+ * the worker thread terminates for any other reason (interruption, unexpected error) the executor stops accepting
+ * operations and the futures of all operations that were not executed are completed exceptionally.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@CommonsLog
+public class GroupCommitExecutor implements AutoCloseable {
+	/**
+	 * Default maximal number of operations executed in single transaction.
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+	private final TransactionTemplate txTemplate;
+	private final ConcurrencyStrategy concurrencyStrategy;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Deque<Mutation<?>> queue = new ArrayDeque<>();
+	private final AtomicLong committedBatches = new AtomicLong();
+	private final AtomicLong committedMutations = new AtomicLong();
+	private final Thread worker;
+	private boolean running = true;
+	/**
+	 * Maximal number of operations executed in single transaction.
+	 */
+	@Getter private final int maxBatchSize;
+	/**
+	 * Time in milliseconds the worker waits for more operations before it starts the transaction, zero means that
+	 * only operations that queued up during the previous commit are grouped together.
+	 */
+	@Getter private final long maxDelayMillis;
+
+	public GroupCommitExecutor(@Nonnull DbHierarchyStorage storage) {
+		this(storage, DEFAULT_MAX_BATCH_SIZE, 0L);
+	}
+
+	public GroupCommitExecutor(@Nonnull DbHierarchyStorage storage, int maxBatchSize, long maxDelayMillis) {
+		Assert.isTrue(maxBatchSize > 0, "Max batch size must be positive!");
+		Assert.isTrue(maxDelayMillis >= 0, "Max delay must not be negative!");
+		this.txTemplate = new TransactionTemplate(storage.getTransactionManager());
+		this.concurrencyStrategy = storage.getConcurrencyStrategy();
+		this.maxBatchSize = maxBatchSize;
+		this.maxDelayMillis = maxDelayMillis;
+		this.worker = new Thread(this::executeMutations, "PMPTT-group-commit");
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+
+	/**
+	 * Queues write operation and returns future completed when the transaction the operation was executed in
+	 * is committed.
+	 *
+	 * @param mutation write operation joining the current transaction
+	 * @return future with the result of the operation
+	 * @throws IllegalArgumentException when the executor has been already closed
+	 */
+	@Nonnull
+	public <T> CompletableFuture<T> submit(@Nonnull Supplier<T> mutation) {
+		final Mutation<T> queuedMutation = new Mutation<>(mutation, new CompletableFuture<>());
+		lock.lock();
+		try {
+			Assert.isTrue(running, "Group commit executor has been already closed!");
+			queue.add(queuedMutation);
+			notEmpty.signal();
+		} finally {
+			lock.unlock();
+		}
+		return queuedMutation.future;
+	}
+
+	/**
+	 * Queues write operation and waits until the transaction the operation was executed in is committed.
+	 *
+	 * @param mutation write operation joining the current transaction
+	 * @return result of the operation
+	 */
+	public <T> T execute(@Nonnull Supplier<T> mutation) {
+		try {
+			return submit(mutation).join();
+		} catch (CompletionException ex) {
+			final Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw ex;
+		}
+	}
+
+	/**
+	 * Returns true if the executor accepts new operations - false after it was closed or its worker thread terminated.
+	 */
+	public boolean isRunning() {
+		lock.lock();
+		try {
+			return running;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns true if the current thread is the worker thread of this executor.
+	 */
+	public boolean isWorkerThread() {
+		return Thread.currentThread() == worker;
+	}
+
+	/**
+	 * Returns count of operations waiting in the queue.
+	 */
+	public int getPendingCount() {
+		lock.lock();
+		try {
+			return queue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns count of committed transactions.
+	 */
+	public long getCommittedBatches() {
+		return committedBatches.get();
+	}
+
+	/**
+	 * Returns count of operations in committed transactions.
+	 */
+	public long getCommittedMutations() {
+		return committedMutations.get();
+	}
+
+	/**
+	 * Stops accepting new operations, executes pending ones and stops the worker thread. When the calling thread is
+	 * interrupted while waiting for the worker, the interrupt flag is restored and the worker finishes in background.
+	 */
+	@Override
+	public void close() {
+		lock.lock();
+		try {
+			running = false;
+			notEmpty.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			worker.join(TimeUnit.SECONDS.toMillis(30));
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	private void executeMutations() {
+		// batch being committed - never null so that its operations can be failed when the worker terminates
+		List<Mutation<?>> inFlight = Collections.emptyList();
+		Throwable failure = null;
+		try {
+			List<Mutation<?>> batch;
+			while ((batch = takeBatch()) != null) {
+				inFlight = batch;
+				commit(batch);
+				inFlight = Collections.emptyList();
+			}
+		} catch (Throwable ex) {
+			failure = ex;
+			log.error("Group commit worker terminated unexpectedly: " + ex.getMessage(), ex);
+		} finally {
+			terminate(inFlight, failure);
+		}
+	}
+
+	/**
+	 * Waits for the operations and takes the next batch from the queue, returns null when the worker should stop.
+	 */
+	@Nullable
+	private List<Mutation<?>> takeBatch() {
+		lock.lock();
+		try {
+			while (running && queue.isEmpty()) {
+				notEmpty.await();
+			}
+			if (queue.isEmpty()) {
+				return null;
+			}
+			if (maxDelayMillis > 0) {
+				// let other writers join the batch
+				long remainingNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+				while (running && queue.size() < maxBatchSize && remainingNanos > 0) {
+					remainingNanos = notEmpty.awaitNanos(remainingNanos);
+				}
+			}
+			final List<Mutation<?>> batch = new ArrayList<>(Math.min(queue.size(), maxBatchSize));
+			while (!queue.isEmpty() && batch.size() < maxBatchSize) {
+				batch.add(queue.poll());
+			}
+			return batch;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Stops accepting new operations once the worker ends and fails all operations that will never be executed -
+	 * the ones left in the queue and the ones of the batch that was in flight when the worker failed.
+	 */
+	private void terminate(@Nonnull List<Mutation<?>> inFlight, @Nullable Throwable failure) {
+		final List<Mutation<?>> abandoned;
+		lock.lock();
+		try {
+			running = false;
+			abandoned = new ArrayList<>(queue);
+			queue.clear();
+		} finally {
+			lock.unlock();
+		}
+		final Throwable reason = failure == null ?
+			new IllegalStateException("Group commit executor has been stopped before the operation was executed!") : failure;
+		// futures of already executed operations are completed - failing them has no effect
+		inFlight.forEach(mutation -> mutation.fail(reason));
+		abandoned.forEach(mutation -> mutation.fail(reason));
+		if (!abandoned.isEmpty()) {
+			log.warn("Group commit worker stopped, " + abandoned.size() + " pending operations were failed.");
+		}
+	}
+
+	/**
+	 * Executes operations in single transaction and completes their futures.
+	 */
+	private void commit(@Nonnull List<Mutation<?>> batch) {
+		final List<Mutation<?>> pending = new ArrayList<>(batch);
+		int attempt = 1;
+		while (!pending.isEmpty()) {
+			try {
+				final List<Object> results = txTemplate.execute(transactionStatus -> {
+					final List<Object> executionResults = new ArrayList<>(pending.size());
+					for (Mutation<?> mutation : pending) {
+						executionResults.add(mutation.execute());
+					}
+					return executionResults;
+				});
+				committedBatches.incrementAndGet();
+				committedMutations.addAndGet(pending.size());
+				for (int i = 0; i < pending.size(); i++) {
+					pending.get(i).complete(results.get(i));
+				}
+				return;
+			} catch (MutationFailure ex) {
+				// transaction was rolled back - the rest of the batch is executed again without the failed operation
+				ex.getMutation().fail(ex.getCause());
+				pending.remove(ex.getMutation());
+			} catch (ConcurrencyFailureException | DuplicateKeyException ex) {
+				if (attempt >= concurrencyStrategy.getMaxAttempts()) {
+					isolate(pending, ex);
+					return;
+				} else if (!backoff(attempt++, ex)) {
+					// worker was interrupted while waiting for the retry - the batch is given up
+					pending.forEach(mutation -> mutation.fail(ex));
+					return;
+				}
+			} catch (RuntimeException | Error ex) {
+				// commit itself failed - the cause cannot be attributed to any operation
+				isolate(pending, ex);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Executes each operation of the failed batch in its own transaction, single operation is failed right away.
+	 */
+	private void isolate(@Nonnull List<Mutation<?>> pending, @Nonnull Throwable failure) {
+		if (pending.size() == 1) {
+			pending.get(0).fail(failure);
+		} else {
+			log.debug("Batch of " + pending.size() + " operations failed (" + failure.getMessage() + "), executing them one by one.");
+			for (Mutation<?> mutation : pending) {
+				commit(Collections.singletonList(mutation));
+			}
+		}
+	}
+
+	/**
+	 * Waits before the next attempt to commit the batch, returns false when the worker was interrupted meanwhile.
+	 */
+	private boolean backoff(int attempt, @Nonnull DataAccessException ex) {
+		final long backoffMillis = concurrencyStrategy.getBackoffMillis(attempt);
+		if (log.isDebugEnabled()) {
+			log.debug(
+				"Attempt " + attempt + " to commit batch failed on concurrent modification " +
+					"(" + ex.getMessage() + "), retrying in " + backoffMillis + "ms."
+			);
+		}
+		try {
+			Thread.sleep(backoffMillis);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Queued operation with the future of its caller.
+	 */
+	@RequiredArgsConstructor
+	private static class Mutation<T> {
+		private final Supplier<T> logic;
+		private final CompletableFuture<T> future;
+
+		/**
+		 * Executes the operation - failures that are not caused by concurrent writers are attributed to it.
+		 */
+		T execute() {
+			try {
+				return logic.get();
+			} catch (ConcurrencyFailureException | DuplicateKeyException ex) {
+				throw ex;
+			} catch (RuntimeException | Error ex) {
+				throw new MutationFailure(this, ex);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		void complete(Object result) {
+			future.complete((T) result);
+		}
+
+		void fail(@Nonnull Throwable failure) {
+			future.completeExceptionally(failure);
+		}
+	}
+
+	/**
+	 * Carries failure of single operation out of the transaction.
+	 */
+	private static class MutationFailure extends RuntimeException {
+		private static final long serialVersionUID = -2755412431093582846L;
+		@Getter private final transient Mutation<?> mutation;
+
+		MutationFailure(@Nonnull Mutation<?> mutation, @Nonnull Throwable cause) {
+			super(cause.getMessage(), cause);
+			this.mutation = mutation;
+		}
+	}
+
+}
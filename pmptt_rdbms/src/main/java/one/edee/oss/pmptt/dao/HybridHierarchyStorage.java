@@ -0,0 +1,738 @@
+package one.edee.oss.pmptt.dao;
+
+import lombok.Getter;
+import lombok.extern.apachecommons.CommonsLog;
+import one.edee.oss.pmptt.dao.memory.MemoryStorage;
+import one.edee.oss.pmptt.model.Bounds;
+import one.edee.oss.pmptt.model.ChangeLogEntry;
+import one.edee.oss.pmptt.model.CompactHierarchyItem;
+import one.edee.oss.pmptt.model.DbHierarchy;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyChangeType;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.LongHierarchyItem;
+import one.edee.oss.pmptt.model.SectionWithBucket;
+import one.edee.oss.pmptt.spi.HierarchyChangeListener;
+import one.edee.oss.pmptt.spi.HierarchyInstrumentation;
+import one.edee.oss.pmptt.util.Assert;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Hybrid storage keeps in-memory copy of the hierarchies stored in the relational database and serves all reads from
+ * it, while the writes go through to the database. It decorates any {@link DbHierarchyStorage} with the change log
+ * enabled:
+ *
+ * - hierarchy is loaded lazily on the first read by single streaming query (see {@link DbHierarchyStorage#forEachItem(String, Consumer)})
+ *   into the internal {@link MemoryStorage}
+ * - reads outside of transaction are served from memory, reads within active transaction go to the database so that
+ *   the writing logic sees its own uncommitted changes and the rows it locked
+ * - writes are executed by the database storage in the writer transaction, memory copy is updated only after
+ *   the transaction commits (changes of rolled back transactions never reach the memory)
+ * - changes committed by other processes are detected by {@link #refresh()} which polls the change log and re-reads
+ *   the current state of the changed items - refresh is called periodically by the background thread when refresh
+ *   interval is set, or may be called by the application (for example from the message listener)
+ *
+ * Reads see the state as of the last refresh, which makes the storage suitable for read mostly hierarchies shared by
+ * the cluster of application nodes. Change log sequences are assigned when the change is written, not when it
+ * commits - gaps in the sequence are therefore remembered and re-polled for {@link #GAP_TIMEOUT_MILLIS}, so that
+ * the changes of the long running transactions are not skipped. When the applied change touches more than
+ * {@link #RELOAD_THRESHOLD} items (for example move of the large subtree), or applying it fails, the memory copy of
+ * the hierarchy is dropped and lazily reloaded by the next read.
+ *
+ * Storage should be closed when application shuts down so that the refresh thread stops.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@CommonsLog
+public class HybridHierarchyStorage implements DbHierarchyStorage, AutoCloseable {
+	/**
+	 * Count of the change log records read in single poll.
+	 */
+	public static final int CHANGE_LOG_BATCH_SIZE = 1_000;
+	/**
+	 * Count of the changed items up to which the changes are applied incrementally - larger changes reload
+	 * the hierarchy.
+	 */
+	public static final int RELOAD_THRESHOLD = 10_000;
+	/**
+	 * Time for which the missing change log sequences are expected to appear (transaction that wrote them may still
+	 * commit).
+	 */
+	public static final long GAP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+	/**
+	 * Maximal count of the missing sequences remembered for single jump in the sequence.
+	 */
+	private static final int MAX_GAP_SIZE = 1_000;
+	private static final Comparator<HierarchyItem> BY_LEVEL = Comparator.comparing(HierarchyItem::getLevel);
+	private final DbHierarchyStorage delegate;
+	private final MemoryStorage memory = new MemoryStorage();
+	private final ReadWriteLock memoryLock = new ReentrantReadWriteLock();
+	private final TransactionTemplate readOnlyTxTemplate;
+	private final Object loadMonitor = new Object();
+	private final Object sequenceMonitor = new Object();
+	/**
+	 * Missing change log sequences lower than {@link #lastSequence} and the time they were noticed.
+	 */
+	private final TreeMap<Long, Long> gaps = new TreeMap<>();
+	/**
+	 * Items written by this storage, that should be re-read by the next refresh (see {@link #applyWrites(Map)}).
+	 */
+	private final Map<String, Set<String>> pendingRechecks = new HashMap<>();
+	private final Thread refresher;
+	private long lastSequence = -1L;
+	private volatile boolean running = true;
+	/**
+	 * Interval in milliseconds in which the refresh thread polls the change log, zero when the refresh is up to
+	 * the application.
+	 */
+	@Getter private final long refreshIntervalMillis;
+
+	public HybridHierarchyStorage(@Nonnull DbHierarchyStorage delegate) {
+		this(delegate, 0L);
+	}
+
+	public HybridHierarchyStorage(@Nonnull DbHierarchyStorage delegate, long refreshIntervalMillis) {
+		Assert.isTrue(delegate.isChangeLogEnabled(), "Hybrid storage requires change log to be enabled on the database storage!");
+		Assert.isTrue(refreshIntervalMillis >= 0, "Refresh interval must not be negative!");
+		this.delegate = delegate;
+		this.refreshIntervalMillis = refreshIntervalMillis;
+		this.readOnlyTxTemplate = new TransactionTemplate(delegate.getTransactionManager());
+		this.readOnlyTxTemplate.setReadOnly(true);
+		if (refreshIntervalMillis > 0) {
+			this.refresher = new Thread(this::refreshPeriodically, "PMPTT-hybrid-refresh");
+			this.refresher.setDaemon(true);
+			this.refresher.start();
+		} else {
+			this.refresher = null;
+		}
+	}
+
+	/**
+	 * Returns true if the hierarchy is currently held in memory.
+	 */
+	public boolean isLoaded(@Nonnull String hierarchyCode) {
+		return memory.getHierarchy(hierarchyCode) != null;
+	}
+
+	/**
+	 * Polls the change log and applies the changes committed since the last refresh to the loaded hierarchies.
+	 */
+	public void refresh() {
+		final Map<String, Set<String>> affectedItems = new HashMap<>();
+		final Set<String> removedHierarchies = new HashSet<>();
+		synchronized (pendingRechecks) {
+			affectedItems.putAll(pendingRechecks);
+			pendingRechecks.clear();
+		}
+		final Map<String, Map<String, HierarchyItem>> states = readOnlyTxTemplate.execute(status -> {
+			synchronized (sequenceMonitor) {
+				if (lastSequence >= 0) {
+					pollChangeLog(affectedItems, removedHierarchies);
+				}
+			}
+			final Map<String, Map<String, HierarchyItem>> result = new HashMap<>();
+			for (Entry<String, Set<String>> entry : affectedItems.entrySet()) {
+				if (isLoaded(entry.getKey()) && !removedHierarchies.contains(entry.getKey())) {
+					final Map<String, HierarchyItem> hierarchyStates = new HashMap<>(entry.getValue().size());
+					for (String code : entry.getValue()) {
+						final HierarchyItem item = delegate.getItem(entry.getKey(), code);
+						hierarchyStates.put(code, item == null ? null : copy(item));
+					}
+					result.put(entry.getKey(), hierarchyStates);
+				}
+			}
+			return result;
+		});
+		for (String removedHierarchy : removedHierarchies) {
+			unload(removedHierarchy);
+		}
+		for (Entry<String, Map<String, HierarchyItem>> entry : states.entrySet()) {
+			apply(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Stops the refresh thread. When the calling thread is interrupted while waiting for the refresh thread,
+	 * the interrupt flag is restored.
+	 */
+	@Override
+	public void close() {
+		this.running = false;
+		if (refresher != null) {
+			refresher.interrupt();
+			try {
+				refresher.join(TimeUnit.SECONDS.toMillis(30));
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public PlatformTransactionManager getTransactionManager() {
+		return delegate.getTransactionManager();
+	}
+
+	@Nonnull
+	@Override
+	public ConcurrencyStrategy getConcurrencyStrategy() {
+		return delegate.getConcurrencyStrategy();
+	}
+
+	@Override
+	public void lockHierarchy(@Nonnull String hierarchyCode, boolean exclusive) {
+		delegate.lockHierarchy(hierarchyCode, exclusive);
+	}
+
+	@Override
+	public void lockItems(@Nonnull String hierarchyCode, @Nonnull Collection<String> codes) {
+		delegate.lockItems(hierarchyCode, codes);
+	}
+
+	@Override
+	public void lockSubtree(@Nonnull HierarchyItem item) {
+		delegate.lockSubtree(item);
+	}
+
+	@Override
+	public void forEachItem(@Nonnull String hierarchyCode, @Nonnull Consumer<HierarchyItem> consumer) {
+		delegate.forEachItem(hierarchyCode, consumer);
+	}
+
+	@Override
+	public boolean isChangeLogEnabled() {
+		return delegate.isChangeLogEnabled();
+	}
+
+	@Override
+	public void setChangeLogEnabled(boolean changeLogEnabled) {
+		Assert.isTrue(changeLogEnabled, "Hybrid storage requires change log to be enabled on the database storage!");
+		delegate.setChangeLogEnabled(true);
+	}
+
+	@Nonnull
+	@Override
+	public List<ChangeLogEntry> getChangesAfter(long sequence, int limit) {
+		return delegate.getChangesAfter(sequence, limit);
+	}
+
+	@Nonnull
+	@Override
+	public List<ChangeLogEntry> getChangesAfter(@Nonnull String hierarchyCode, long sequence, int limit) {
+		return delegate.getChangesAfter(hierarchyCode, sequence, limit);
+	}
+
+	@Override
+	public long getLastChangeSequence() {
+		return delegate.getLastChangeSequence();
+	}
+
+	@Override
+	public int pruneChangesUpTo(long sequence) {
+		return delegate.pruneChangesUpTo(sequence);
+	}
+
+	@Override
+	public void registerChangeListener(HierarchyChangeListener listener) {
+		delegate.registerChangeListener(listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull HierarchyChangeListener listener) {
+		delegate.registerChangeListener(hierarchyCode, listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull Bounds subtreeBounds, @Nonnull HierarchyChangeListener listener) {
+		delegate.registerChangeListener(hierarchyCode, subtreeBounds, listener);
+	}
+
+	@Override
+	public boolean unregisterChangeListener(@Nonnull HierarchyChangeListener listener) {
+		return delegate.unregisterChangeListener(listener);
+	}
+
+	@Nonnull
+	@Override
+	public HierarchyInstrumentation getInstrumentation() {
+		return delegate.getInstrumentation();
+	}
+
+	@Override
+	public void createHierarchy(Hierarchy hierarchy) {
+		delegate.createHierarchy(hierarchy);
+		hierarchy.setStorage(this);
+	}
+
+	@Nullable
+	@Override
+	public Hierarchy getHierarchy(String code) {
+		final Hierarchy loadedHierarchy = memory.getHierarchy(code);
+		if (loadedHierarchy != null) {
+			return new DbHierarchy(code, (short) (loadedHierarchy.getLevels() - 1), (short) (loadedHierarchy.getSectionSize() - 1), loadedHierarchy.isLongCodes(), this);
+		}
+		final Hierarchy hierarchy = delegate.getHierarchy(code);
+		if (hierarchy != null) {
+			hierarchy.setStorage(this);
+		}
+		return hierarchy;
+	}
+
+	@Override
+	public Collection<String> getExistingHierarchyCodes() {
+		return delegate.getExistingHierarchyCodes();
+	}
+
+	@Override
+	public boolean removeHierarchy(String code) {
+		final boolean removed = delegate.removeHierarchy(code);
+		unload(code);
+		return removed;
+	}
+
+	@Override
+	public void createItem(HierarchyItem newItem, HierarchyItem parent) {
+		delegate.createItem(newItem, parent);
+		recordWrite(newItem.getHierarchyCode(), newItem.getCode(), newItem);
+	}
+
+	@Override
+	public void createItems(@Nonnull Collection<HierarchyItem> newItems) {
+		delegate.createItems(newItems);
+		for (HierarchyItem newItem : newItems) {
+			recordWrite(newItem.getHierarchyCode(), newItem.getCode(), newItem);
+		}
+	}
+
+	@Override
+	public void updateItem(HierarchyItem updatedItem) {
+		delegate.updateItem(updatedItem);
+		recordWrite(updatedItem.getHierarchyCode(), updatedItem.getCode(), updatedItem);
+	}
+
+	@Override
+	public void removeItem(HierarchyItem removedItem) {
+		delegate.removeItem(removedItem);
+		recordWrite(removedItem.getHierarchyCode(), removedItem.getCode(), null);
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getItem(String hierarchyCode, String code) {
+		return read(
+			hierarchyCode, null,
+			() -> copy(memory.getItem(hierarchyCode, code)),
+			() -> delegate.getItem(hierarchyCode, code)
+		);
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getParentItem(HierarchyItem pivot) {
+		return read(
+			pivot.getHierarchyCode(), pivot,
+			() -> copy(memory.getParentItem(pivot)),
+			() -> delegate.getParentItem(pivot)
+		);
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getParentsOfItem(HierarchyItem pivot) {
+		return read(
+			pivot.getHierarchyCode(), pivot,
+			() -> copy(memory.getParentsOfItem(pivot)),
+			() -> delegate.getParentsOfItem(pivot)
+		);
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getRootItems(String hierarchyCode) {
+		return read(
+			hierarchyCode, null,
+			() -> copy(memory.getRootItems(hierarchyCode)),
+			() -> delegate.getRootItems(hierarchyCode)
+		);
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getChildItems(HierarchyItem parent) {
+		return read(
+			parent.getHierarchyCode(), parent,
+			() -> copy(memory.getChildItems(parent)),
+			() -> delegate.getChildItems(parent)
+		);
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getAllChildrenItems(HierarchyItem parent) {
+		return read(
+			parent.getHierarchyCode(), parent,
+			() -> copy(memory.getAllChildrenItems(parent)),
+			() -> delegate.getAllChildrenItems(parent)
+		);
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getLeafItems(HierarchyItem parent) {
+		return read(
+			parent.getHierarchyCode(), parent,
+			() -> copy(memory.getLeafItems(parent)),
+			() -> delegate.getLeafItems(parent)
+		);
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getLeafItems(String hierarchyCode) {
+		return read(
+			hierarchyCode, null,
+			() -> copy(memory.getLeafItems(hierarchyCode)),
+			() -> delegate.getLeafItems(hierarchyCode)
+		);
+	}
+
+	@Nullable
+	@Override
+	public SectionWithBucket getFirstEmptySection(String hierarchyCode, long sectionSize, short maxCount) {
+		return read(
+			hierarchyCode, null,
+			() -> memory.getFirstEmptySection(hierarchyCode, sectionSize, maxCount),
+			() -> delegate.getFirstEmptySection(hierarchyCode, sectionSize, maxCount)
+		);
+	}
+
+	@Nullable
+	@Override
+	public SectionWithBucket getFirstEmptySection(String hierarchyCode, long sectionSize, short maxCount, HierarchyItem parent) {
+		return read(
+			hierarchyCode, parent,
+			() -> memory.getFirstEmptySection(hierarchyCode, sectionSize, maxCount, parent),
+			() -> delegate.getFirstEmptySection(hierarchyCode, sectionSize, maxCount, parent)
+		);
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	/**
+	 * Serves the read from memory when there is no transaction active and the hierarchy (and the pivot item, if any)
+	 * is present in memory, otherwise the read goes to the database.
+	 */
+	private <T> T read(@Nonnull String hierarchyCode, @Nullable HierarchyItem pivot, @Nonnull Supplier<T> fromMemory, @Nonnull Supplier<T> fromDatabase) {
+		if (TransactionSynchronizationManager.isActualTransactionActive() || !ensureLoaded(hierarchyCode)) {
+			return fromDatabase.get();
+		}
+		memoryLock.readLock().lock();
+		try {
+			// hierarchy may have been dropped in the meantime, stale pivot may be unknown to the memory copy
+			if (isLoaded(hierarchyCode) && (pivot == null || memory.getItem(hierarchyCode, pivot.getCode()) != null)) {
+				return fromMemory.get();
+			}
+		} finally {
+			memoryLock.readLock().unlock();
+		}
+		return fromDatabase.get();
+	}
+
+	/**
+	 * Loads the hierarchy into memory unless it's already there. Returns false when the hierarchy doesn't exist.
+	 */
+	private boolean ensureLoaded(@Nonnull String hierarchyCode) {
+		if (isLoaded(hierarchyCode)) {
+			return true;
+		}
+		synchronized (loadMonitor) {
+			if (isLoaded(hierarchyCode)) {
+				return true;
+			}
+			final Boolean loaded = readOnlyTxTemplate.execute(status -> {
+				final Hierarchy hierarchy = delegate.getHierarchy(hierarchyCode);
+				if (hierarchy == null) {
+					return false;
+				}
+				// sequence is read first - changes committed while the items are read will be applied once more
+				final long sequence = delegate.getLastChangeSequence();
+				final List<ChangeLogEntry> recentChanges = sequence > 0 ?
+					delegate.getChangesAfter(Math.max(0L, sequence - MAX_GAP_SIZE), MAX_GAP_SIZE) : Collections.emptyList();
+				final List<HierarchyItem> items = new ArrayList<>();
+				delegate.forEachItem(hierarchyCode, item -> items.add(copy(item)));
+
+				memoryLock.writeLock().lock();
+				try {
+					memory.loadHierarchy(
+						new Hierarchy(hierarchyCode, (short) (hierarchy.getLevels() - 1), (short) (hierarchy.getSectionSize() - 1), hierarchy.isLongCodes()),
+						items.iterator()
+					);
+				} finally {
+					memoryLock.writeLock().unlock();
+				}
+				synchronized (sequenceMonitor) {
+					if (lastSequence < 0) {
+						// changes not visible yet may belong to the transactions that haven't committed
+						lastSequence = Math.max(0L, sequence - MAX_GAP_SIZE);
+						noticeGaps(recentChanges, sequence);
+						lastSequence = sequence;
+					}
+				}
+				log.debug("Hierarchy " + hierarchyCode + " with " + items.size() + " items loaded into memory.");
+				return true;
+			});
+			return Boolean.TRUE.equals(loaded);
+		}
+	}
+
+	/**
+	 * Reads all new change log records and records missing sequences that are expected to appear later.
+	 */
+	private void pollChangeLog(@Nonnull Map<String, Set<String>> affectedItems, @Nonnull Set<String> removedHierarchies) {
+		long from = gaps.isEmpty() ? lastSequence : Math.min(gaps.firstKey() - 1, lastSequence);
+		List<ChangeLogEntry> changes;
+		do {
+			changes = delegate.getChangesAfter(from, CHANGE_LOG_BATCH_SIZE);
+			for (ChangeLogEntry change : changes) {
+				final boolean unseen;
+				if (change.getSequence() > lastSequence) {
+					noticeGaps(Collections.singletonList(change), change.getSequence());
+					unseen = true;
+				} else {
+					unseen = gaps.remove(change.getSequence()) != null;
+				}
+				if (unseen && isLoaded(change.getHierarchyCode())) {
+					if (change.getType() == HierarchyChangeType.HIERARCHY_REMOVED) {
+						removedHierarchies.add(change.getHierarchyCode());
+					} else {
+						affectedItems.computeIfAbsent(change.getHierarchyCode(), code -> new HashSet<>()).add(change.getCode());
+					}
+				}
+				from = change.getSequence();
+			}
+		} while (changes.size() == CHANGE_LOG_BATCH_SIZE);
+
+		final long now = System.currentTimeMillis();
+		gaps.values().removeIf(noticed -> now - noticed > GAP_TIMEOUT_MILLIS);
+	}
+
+	/**
+	 * Remembers sequences missing between {@link #lastSequence} and each of passed changes (ordered by sequence)
+	 * and moves {@link #lastSequence} to the passed upper bound.
+	 */
+	private void noticeGaps(@Nonnull List<ChangeLogEntry> changes, long upTo) {
+		final long now = System.currentTimeMillis();
+		for (ChangeLogEntry change : changes) {
+			if (change.getSequence() > lastSequence && change.getSequence() <= upTo) {
+				for (long missing = Math.max(lastSequence + 1, change.getSequence() - MAX_GAP_SIZE); missing < change.getSequence(); missing++) {
+					gaps.put(missing, now);
+				}
+				lastSequence = change.getSequence();
+			}
+		}
+		lastSequence = Math.max(lastSequence, upTo);
+	}
+
+	/**
+	 * Records the item written by the current transaction - memory is updated when the transaction commits.
+	 */
+	private void recordWrite(@Nonnull String hierarchyCode, @Nonnull String code, @Nullable HierarchyItem item) {
+		// writes are recorded even if the hierarchy is not loaded yet - it may get loaded before the commit
+		final Map<String, Map<String, HierarchyItem>> writes;
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionBuffer buffer = (TransactionBuffer) TransactionSynchronizationManager.getResource(this);
+			if (buffer == null) {
+				buffer = new TransactionBuffer();
+				TransactionSynchronizationManager.bindResource(this, buffer);
+				TransactionSynchronizationManager.registerSynchronization(buffer);
+			}
+			writes = buffer.writes;
+		} else {
+			writes = new HashMap<>();
+		}
+		writes.computeIfAbsent(hierarchyCode, hc -> new LinkedHashMap<>()).put(code, item == null ? null : copy(item));
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			applyWrites(writes);
+		}
+	}
+
+	/**
+	 * Applies committed writes of this storage to memory. Written items are also scheduled for the recheck by
+	 * the next refresh - concurrent writer in other process might have changed them between our commit and this
+	 * moment.
+	 */
+	private void applyWrites(@Nonnull Map<String, Map<String, HierarchyItem>> writes) {
+		for (Entry<String, Map<String, HierarchyItem>> entry : writes.entrySet()) {
+			apply(entry.getKey(), entry.getValue());
+			synchronized (pendingRechecks) {
+				pendingRechecks.computeIfAbsent(entry.getKey(), code -> new HashSet<>()).addAll(entry.getValue().keySet());
+			}
+		}
+	}
+
+	/**
+	 * Brings the items of the loaded hierarchy to passed state (NULL value stands for removed item). Removed items
+	 * are dropped first (deepest first), then all changed items receive their new state and finally are linked to
+	 * their new parents level by level - parent is always in its final place when its children are linked.
+	 */
+	private void apply(@Nonnull String hierarchyCode, @Nonnull Map<String, HierarchyItem> states) {
+		if (states.size() > RELOAD_THRESHOLD) {
+			unload(hierarchyCode);
+			return;
+		}
+		memoryLock.writeLock().lock();
+		try {
+			if (!isLoaded(hierarchyCode)) {
+				return;
+			}
+			final List<HierarchyItem> removedItems = new ArrayList<>();
+			final List<HierarchyItem> changedItems = new ArrayList<>(states.size());
+			final Map<Short, List<HierarchyItem>> newItemsByLevel = new TreeMap<>();
+			for (Entry<String, HierarchyItem> entry : states.entrySet()) {
+				final HierarchyItem existingItem = memory.getItem(hierarchyCode, entry.getKey());
+				final HierarchyItem state = entry.getValue();
+				if (state == null) {
+					if (existingItem != null) {
+						removedItems.add(existingItem);
+					}
+				} else if (existingItem == null) {
+					newItemsByLevel.computeIfAbsent(state.getLevel(), level -> new ArrayList<>()).add(state);
+				} else {
+					changedItems.add(existingItem);
+				}
+			}
+			removedItems.sort(BY_LEVEL.reversed());
+			for (HierarchyItem removedItem : removedItems) {
+				memory.removeItem(removedItem);
+			}
+			for (HierarchyItem changedItem : changedItems) {
+				copyState(states.get(changedItem.getCode()), changedItem);
+			}
+			changedItems.sort(BY_LEVEL);
+			final Iterator<HierarchyItem> changedIt = changedItems.iterator();
+			HierarchyItem nextChanged = changedIt.hasNext() ? changedIt.next() : null;
+			for (Entry<Short, List<HierarchyItem>> newItems : newItemsByLevel.entrySet()) {
+				while (nextChanged != null && nextChanged.getLevel() <= newItems.getKey()) {
+					memory.updateItem(nextChanged);
+					nextChanged = changedIt.hasNext() ? changedIt.next() : null;
+				}
+				memory.createItems(newItems.getValue());
+			}
+			while (nextChanged != null) {
+				memory.updateItem(nextChanged);
+				nextChanged = changedIt.hasNext() ? changedIt.next() : null;
+			}
+		} catch (RuntimeException ex) {
+			log.warn("Failed to apply changes to the memory copy of hierarchy " + hierarchyCode + ", it will be reloaded.", ex);
+			memory.removeHierarchy(hierarchyCode);
+		} finally {
+			memoryLock.writeLock().unlock();
+		}
+	}
+
+	private void unload(@Nonnull String hierarchyCode) {
+		memoryLock.writeLock().lock();
+		try {
+			memory.removeHierarchy(hierarchyCode);
+		} finally {
+			memoryLock.writeLock().unlock();
+		}
+	}
+
+	private void refreshPeriodically() {
+		while (running) {
+			try {
+				TimeUnit.MILLISECONDS.sleep(refreshIntervalMillis);
+				refresh();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException ex) {
+				log.error("Failed to refresh hierarchies from the change log.", ex);
+			}
+		}
+	}
+
+	@Nullable
+	private static HierarchyItem copy(@Nullable HierarchyItem item) {
+		if (item == null) {
+			return null;
+		} else if (item instanceof LongHierarchyItem) {
+			return new LongHierarchyItem(
+				item.getHierarchyCode(), ((LongHierarchyItem) item).getId(), item.getLevelAsShort(), item.getLeftBoundAsLong(), item.getRightBoundAsLong(),
+				item.getNumberOfChildrenAsShort(), item.getOrderAsShort(), item.getBucketAsShort()
+			);
+		}
+		return new CompactHierarchyItem(
+			item.getHierarchyCode(), item.getCode(), item.getLevelAsShort(), item.getLeftBoundAsLong(), item.getRightBoundAsLong(),
+			item.getNumberOfChildrenAsShort(), item.getOrderAsShort(), item.getBucketAsShort()
+		);
+	}
+
+	@Nonnull
+	private static List<HierarchyItem> copy(@Nonnull List<HierarchyItem> items) {
+		return items.stream().map(HybridHierarchyStorage::copy).collect(Collectors.toList());
+	}
+
+	private static void copyState(@Nonnull HierarchyItem source, @Nonnull HierarchyItem target) {
+		target.setLevel(source.getLevel());
+		target.setLeftBound(source.getLeftBound());
+		target.setRightBound(source.getRightBound());
+		target.setNumberOfChildren(source.getNumberOfChildren());
+		target.setOrder(source.getOrder());
+		target.setBucket(source.getBucket());
+	}
+
+	/**
+	 * Items written by the current transaction waiting for its completion.
+	 */
+	private class TransactionBuffer implements TransactionSynchronization {
+		private final Map<String, Map<String, HierarchyItem>> writes = new LinkedHashMap<>();
+
+		@Override
+		public void suspend() {
+			TransactionSynchronizationManager.unbindResource(HybridHierarchyStorage.this);
+		}
+
+		@Override
+		public void resume() {
+			TransactionSynchronizationManager.bindResource(HybridHierarchyStorage.this, this);
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(HybridHierarchyStorage.this);
+			if (status == STATUS_COMMITTED) {
+				applyWrites(writes);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,613 @@
+package one.edee.oss.pmptt.dao;
+
+import lombok.RequiredArgsConstructor;
+import one.edee.oss.pmptt.model.Bounds;
+import one.edee.oss.pmptt.model.ChangeLogEntry;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.SectionWithBucket;
+import one.edee.oss.pmptt.model.TrackedHierarchyItem;
+import one.edee.oss.pmptt.spi.HierarchyChangeListener;
+import one.edee.oss.pmptt.spi.HierarchyInstrumentation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Decorator of the {@link DbHierarchyStorage} that keeps items read or written by the current transaction and serves
+ * repeated lookups of the same item by its code ({@link #getItem(String, String)}) or by its bounds
+ * ({@link #getParentItem(HierarchyItem)}) without another round trip to the database. Single hierarchy operation
+ * typically looks up the same parents over and over - moving a subtree between levels used to read the parent
+ * of each moved descendant although all of them had been loaded by the previous query.
+ *
+ * Cache is bound to the Spring transaction synchronization and discarded when the transaction completes - outside
+ * the transaction all calls are passed to the delegate. Queries returning lists always reach the database and replace
+ * cached items with the fetched ones. Rows read before they were locked may have been changed by other writers
+ * meanwhile, so that locking methods evict the affected items. All writes within the transaction must go through
+ * the decorator - rows changed directly through the delegate are not visible to the cache.
+ *
+ * Items are returned to all callers within the transaction as the same instances - they must be treated as read-only.
+ * {@link one.edee.oss.pmptt.model.DbHierarchy} wraps its storage by this decorator only when it's enabled
+ * by {@link one.edee.oss.pmptt.model.DbHierarchy#setIdentityMapEnabled(boolean)}.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class IdentityMapDbHierarchyStorage implements DbHierarchyStorage {
+	private final DbHierarchyStorage delegate;
+	private final CacheKey cacheKey;
+
+	/**
+	 * @param delegate decorated storage the cached rows belong to
+	 */
+	public IdentityMapDbHierarchyStorage(@Nonnull DbHierarchyStorage delegate) {
+		this(delegate, new CacheKey(delegate));
+	}
+
+	private IdentityMapDbHierarchyStorage(@Nonnull DbHierarchyStorage delegate, @Nonnull CacheKey cacheKey) {
+		this.delegate = delegate;
+		this.cacheKey = cacheKey;
+	}
+
+	/**
+	 * Returns decorator of another delegate (typically the instrumented variant of the same storage) sharing the cache
+	 * of this decorator within the transaction.
+	 */
+	@Nonnull
+	public IdentityMapDbHierarchyStorage withDelegate(@Nonnull DbHierarchyStorage delegate) {
+		return new IdentityMapDbHierarchyStorage(delegate, cacheKey);
+	}
+
+	@Override
+	public PlatformTransactionManager getTransactionManager() {
+		return delegate.getTransactionManager();
+	}
+
+	@Nonnull
+	@Override
+	public ConcurrencyStrategy getConcurrencyStrategy() {
+		return delegate.getConcurrencyStrategy();
+	}
+
+	@Nonnull
+	@Override
+	public HierarchyInstrumentation getInstrumentation() {
+		return delegate.getInstrumentation();
+	}
+
+	@Override
+	public void registerChangeListener(HierarchyChangeListener listener) {
+		delegate.registerChangeListener(listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull HierarchyChangeListener listener) {
+		delegate.registerChangeListener(hierarchyCode, listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull Bounds subtreeBounds, @Nonnull HierarchyChangeListener listener) {
+		delegate.registerChangeListener(hierarchyCode, subtreeBounds, listener);
+	}
+
+	@Override
+	public boolean unregisterChangeListener(@Nonnull HierarchyChangeListener listener) {
+		return delegate.unregisterChangeListener(listener);
+	}
+
+	@Override
+	public void createHierarchy(Hierarchy hierarchy) {
+		delegate.createHierarchy(hierarchy);
+	}
+
+	@Nullable
+	@Override
+	public Hierarchy getHierarchy(String code) {
+		return delegate.getHierarchy(code);
+	}
+
+	@Override
+	public Collection<String> getExistingHierarchyCodes() {
+		return delegate.getExistingHierarchyCodes();
+	}
+
+	@Override
+	public boolean removeHierarchy(String code) {
+		final boolean removed = delegate.removeHierarchy(code);
+		final TransactionCache cache = getCache();
+		if (cache != null) {
+			cache.hierarchies.remove(code);
+		}
+		return removed;
+	}
+
+	@Override
+	public void createItem(HierarchyItem newItem, HierarchyItem parent) {
+		delegate.createItem(newItem, parent);
+		cachePersisted(newItem);
+	}
+
+	@Override
+	public void createItems(@Nonnull Collection<HierarchyItem> newItems) {
+		delegate.createItems(newItems);
+		for (HierarchyItem newItem : newItems) {
+			cachePersisted(newItem);
+		}
+	}
+
+	@Override
+	public void updateItem(HierarchyItem updatedItem) {
+		delegate.updateItem(updatedItem);
+		cachePersisted(updatedItem);
+	}
+
+	@Override
+	public void removeItem(HierarchyItem removedItem) {
+		delegate.removeItem(removedItem);
+		final HierarchyItems items = getItems(removedItem.getHierarchyCode());
+		if (items != null) {
+			items.remove(removedItem.getCode());
+		}
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getItem(String hierarchyCode, String code) {
+		final HierarchyItems items = getItems(hierarchyCode);
+		if (items == null) {
+			return delegate.getItem(hierarchyCode, code);
+		}
+		final HierarchyItem cachedItem = items.get(code);
+		if (cachedItem != null) {
+			return cachedItem;
+		}
+		return cache(items, delegate.getItem(hierarchyCode, code));
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getParentItem(HierarchyItem pivot) {
+		if (pivot.getLevelAsShort() <= 1) {
+			// root items have no parent
+			return null;
+		}
+		final HierarchyItems items = getItems(pivot.getHierarchyCode());
+		if (items == null) {
+			return delegate.getParentItem(pivot);
+		}
+		final HierarchyItem cachedParent = items.getParent(pivot);
+		if (cachedParent != null) {
+			return cachedParent;
+		}
+		return cache(items, delegate.getParentItem(pivot));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getParentsOfItem(HierarchyItem pivot) {
+		return cache(pivot.getHierarchyCode(), delegate.getParentsOfItem(pivot));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getRootItems(String hierarchyCode) {
+		return cache(hierarchyCode, delegate.getRootItems(hierarchyCode));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getChildItems(HierarchyItem parent) {
+		return cache(parent.getHierarchyCode(), delegate.getChildItems(parent));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getAllChildrenItems(HierarchyItem parent) {
+		return cache(parent.getHierarchyCode(), delegate.getAllChildrenItems(parent));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getLeafItems(HierarchyItem parent) {
+		return cache(parent.getHierarchyCode(), delegate.getLeafItems(parent));
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getLeafItems(String hierarchyCode) {
+		return cache(hierarchyCode, delegate.getLeafItems(hierarchyCode));
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getParentItem(@Nonnull String hierarchyCode, @Nonnull String code) {
+		final HierarchyItem pivot = getCachedItem(hierarchyCode, code);
+		if (pivot != null) {
+			return getParentItem(pivot);
+		}
+		final HierarchyItems items = getItems(hierarchyCode);
+		final HierarchyItem parent = delegate.getParentItem(hierarchyCode, code);
+		return items == null ? parent : cache(items, parent);
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getParentsOfItem(@Nonnull String hierarchyCode, @Nonnull String code) {
+		final HierarchyItem pivot = getCachedItem(hierarchyCode, code);
+		return pivot == null ?
+			cacheIfFound(hierarchyCode, delegate.getParentsOfItem(hierarchyCode, code)) : getParentsOfItem(pivot);
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getChildItems(@Nonnull String hierarchyCode, @Nonnull String parentCode) {
+		final HierarchyItem parent = getCachedItem(hierarchyCode, parentCode);
+		return parent == null ?
+			cacheIfFound(hierarchyCode, delegate.getChildItems(hierarchyCode, parentCode)) : getChildItems(parent);
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getAllChildrenItems(@Nonnull String hierarchyCode, @Nonnull String parentCode) {
+		final HierarchyItem parent = getCachedItem(hierarchyCode, parentCode);
+		return parent == null ?
+			cacheIfFound(hierarchyCode, delegate.getAllChildrenItems(hierarchyCode, parentCode)) : getAllChildrenItems(parent);
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getLeafItems(@Nonnull String hierarchyCode, @Nonnull String parentCode) {
+		final HierarchyItem parent = getCachedItem(hierarchyCode, parentCode);
+		return parent == null ?
+			cacheIfFound(hierarchyCode, delegate.getLeafItems(hierarchyCode, parentCode)) : getLeafItems(parent);
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getItem(@Nonnull String hierarchyCode, long code) {
+		final HierarchyItems items = getItems(hierarchyCode);
+		if (items == null) {
+			return delegate.getItem(hierarchyCode, code);
+		}
+		final HierarchyItem cachedItem = items.get(Long.toString(code));
+		if (cachedItem != null) {
+			return cachedItem;
+		}
+		return cache(items, delegate.getItem(hierarchyCode, code));
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getParentItem(@Nonnull String hierarchyCode, long code) {
+		final HierarchyItem pivot = getCachedItem(hierarchyCode, code);
+		if (pivot != null) {
+			return getParentItem(pivot);
+		}
+		final HierarchyItems items = getItems(hierarchyCode);
+		final HierarchyItem parent = delegate.getParentItem(hierarchyCode, code);
+		return items == null ? parent : cache(items, parent);
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getParentsOfItem(@Nonnull String hierarchyCode, long code) {
+		final HierarchyItem pivot = getCachedItem(hierarchyCode, code);
+		return pivot == null ?
+			cacheIfFound(hierarchyCode, delegate.getParentsOfItem(hierarchyCode, code)) : getParentsOfItem(pivot);
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getChildItems(@Nonnull String hierarchyCode, long parentCode) {
+		final HierarchyItem parent = getCachedItem(hierarchyCode, parentCode);
+		return parent == null ?
+			cacheIfFound(hierarchyCode, delegate.getChildItems(hierarchyCode, parentCode)) : getChildItems(parent);
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getAllChildrenItems(@Nonnull String hierarchyCode, long parentCode) {
+		final HierarchyItem parent = getCachedItem(hierarchyCode, parentCode);
+		return parent == null ?
+			cacheIfFound(hierarchyCode, delegate.getAllChildrenItems(hierarchyCode, parentCode)) : getAllChildrenItems(parent);
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getLeafItems(@Nonnull String hierarchyCode, long parentCode) {
+		final HierarchyItem parent = getCachedItem(hierarchyCode, parentCode);
+		return parent == null ?
+			cacheIfFound(hierarchyCode, delegate.getLeafItems(hierarchyCode, parentCode)) : getLeafItems(parent);
+	}
+
+	@Nullable
+	@Override
+	public SectionWithBucket getFirstEmptySection(String hierarchyCode, long sectionSize, short maxCount) {
+		return delegate.getFirstEmptySection(hierarchyCode, sectionSize, maxCount);
+	}
+
+	@Nullable
+	@Override
+	public SectionWithBucket getFirstEmptySection(String hierarchyCode, long sectionSize, short maxCount, HierarchyItem parent) {
+		return delegate.getFirstEmptySection(hierarchyCode, sectionSize, maxCount, parent);
+	}
+
+	@Override
+	public void lockHierarchy(@Nonnull String hierarchyCode, boolean exclusive) {
+		delegate.lockHierarchy(hierarchyCode, exclusive);
+		final TransactionCache cache = getCache();
+		if (cache != null) {
+			cache.hierarchies.remove(hierarchyCode);
+		}
+	}
+
+	@Override
+	public void lockItems(@Nonnull String hierarchyCode, @Nonnull Collection<String> codes) {
+		delegate.lockItems(hierarchyCode, codes);
+		final HierarchyItems items = getItems(hierarchyCode);
+		if (items != null) {
+			for (String code : codes) {
+				items.remove(code);
+			}
+		}
+	}
+
+	@Override
+	public void lockSubtree(@Nonnull HierarchyItem item) {
+		delegate.lockSubtree(item);
+		final HierarchyItems items = getItems(item.getHierarchyCode());
+		if (items != null) {
+			items.removeSubtree(item.getLeftBoundAsLong(), item.getRightBoundAsLong());
+		}
+	}
+
+	@Override
+	public void forEachItem(@Nonnull String hierarchyCode, @Nonnull Consumer<HierarchyItem> consumer) {
+		delegate.forEachItem(hierarchyCode, consumer);
+	}
+
+	@Override
+	public boolean isChangeLogEnabled() {
+		return delegate.isChangeLogEnabled();
+	}
+
+	@Override
+	public void setChangeLogEnabled(boolean changeLogEnabled) {
+		delegate.setChangeLogEnabled(changeLogEnabled);
+	}
+
+	@Nonnull
+	@Override
+	public List<ChangeLogEntry> getChangesAfter(long sequence, int limit) {
+		return delegate.getChangesAfter(sequence, limit);
+	}
+
+	@Nonnull
+	@Override
+	public List<ChangeLogEntry> getChangesAfter(@Nonnull String hierarchyCode, long sequence, int limit) {
+		return delegate.getChangesAfter(hierarchyCode, sequence, limit);
+	}
+
+	@Override
+	public long getLastChangeSequence() {
+		return delegate.getLastChangeSequence();
+	}
+
+	@Override
+	public int pruneChangesUpTo(long sequence) {
+		return delegate.pruneChangesUpTo(sequence);
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	/**
+	 * Returns cache of the current transaction - creates it on the first access, returns NULL outside the transaction.
+	 */
+	@Nullable
+	private TransactionCache getCache() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive() || !TransactionSynchronizationManager.isActualTransactionActive()) {
+			return null;
+		}
+		TransactionCache cache = (TransactionCache) TransactionSynchronizationManager.getResource(cacheKey);
+		if (cache == null) {
+			cache = new TransactionCache();
+			TransactionSynchronizationManager.bindResource(cacheKey, cache);
+			TransactionSynchronizationManager.registerSynchronization(cache);
+		}
+		return cache;
+	}
+
+	@Nullable
+	private HierarchyItems getItems(@Nonnull String hierarchyCode) {
+		final TransactionCache cache = getCache();
+		return cache == null ? null : cache.hierarchies.computeIfAbsent(hierarchyCode, hc -> new HierarchyItems());
+	}
+
+	@Nullable
+	private HierarchyItem getCachedItem(@Nonnull String hierarchyCode, @Nonnull String code) {
+		final HierarchyItems items = getItems(hierarchyCode);
+		return items == null ? null : items.get(code);
+	}
+
+	/**
+	 * Cached items are indexed by the {@link String} form of the code - it's materialized only within the transaction.
+	 */
+	@Nullable
+	private HierarchyItem getCachedItem(@Nonnull String hierarchyCode, long code) {
+		final HierarchyItems items = getItems(hierarchyCode);
+		return items == null ? null : items.get(Long.toString(code));
+	}
+
+	@Nullable
+	private List<HierarchyItem> cacheIfFound(@Nonnull String hierarchyCode, @Nullable List<HierarchyItem> fetchedItems) {
+		return fetchedItems == null ? null : cache(hierarchyCode, fetchedItems);
+	}
+
+	@Nullable
+	private static HierarchyItem cache(@Nonnull HierarchyItems items, @Nullable HierarchyItem item) {
+		if (item != null) {
+			items.put(item);
+		}
+		return item;
+	}
+
+	@Nonnull
+	private List<HierarchyItem> cache(@Nonnull String hierarchyCode, @Nonnull List<HierarchyItem> fetchedItems) {
+		if (!fetchedItems.isEmpty()) {
+			final HierarchyItems items = getItems(hierarchyCode);
+			if (items != null) {
+				for (HierarchyItem item : fetchedItems) {
+					items.put(item);
+				}
+			}
+		}
+		return fetchedItems;
+	}
+
+	/**
+	 * Caches item that has been just written - its state matches the database row now, so that its tracked original
+	 * state is reset in order to report only the changes made after it is served from the cache again.
+	 */
+	private void cachePersisted(@Nonnull HierarchyItem item) {
+		final HierarchyItems items = getItems(item.getHierarchyCode());
+		if (items != null) {
+			if (item instanceof TrackedHierarchyItem) {
+				((TrackedHierarchyItem) item).resetOriginal(item);
+			}
+			items.put(item);
+		}
+	}
+
+	/**
+	 * Key of the cache in the transaction resources - shared by all decorators of the same storage.
+	 */
+	@RequiredArgsConstructor
+	private static class CacheKey {
+		private final DbHierarchyStorage owner;
+
+		@Override
+		public boolean equals(Object o) {
+			return this == o || o instanceof CacheKey && owner == ((CacheKey) o).owner;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(owner);
+		}
+	}
+
+	/**
+	 * Items of the hierarchy known to the current transaction indexed by code and by level and left bound.
+	 */
+	private static class HierarchyItems {
+		private final Map<String, CachedItem> byCode = new HashMap<>();
+		private final Map<Short, NavigableMap<Long, HierarchyItem>> byLevel = new HashMap<>();
+
+		@Nullable
+		HierarchyItem get(@Nonnull String code) {
+			final CachedItem cachedItem = byCode.get(code);
+			return cachedItem == null ? null : cachedItem.item;
+		}
+
+		/**
+		 * Returns cached item on the previous level whose bounds enclose the pivot - the nearest item to the left
+		 * is the only candidate, entries left behind by items that have been changed since are ignored.
+		 */
+		@Nullable
+		HierarchyItem getParent(@Nonnull HierarchyItem pivot) {
+			final short parentLevel = (short) (pivot.getLevelAsShort() - 1);
+			final NavigableMap<Long, HierarchyItem> levelItems = byLevel.get(parentLevel);
+			if (levelItems == null) {
+				return null;
+			}
+			final Entry<Long, HierarchyItem> candidate = levelItems.floorEntry(pivot.getLeftBoundAsLong());
+			if (candidate == null) {
+				return null;
+			}
+			final HierarchyItem parent = candidate.getValue();
+			final CachedItem cachedParent = byCode.get(parent.getCode());
+			if (cachedParent == null || cachedParent.item != parent ||
+				parent.getLevelAsShort() != parentLevel ||
+				parent.getLeftBoundAsLong() > pivot.getLeftBoundAsLong() ||
+				parent.getRightBoundAsLong() < pivot.getRightBoundAsLong()) {
+				return null;
+			}
+			return parent;
+		}
+
+		void put(@Nonnull HierarchyItem item) {
+			final CachedItem cachedItem = new CachedItem(item, item.getLevelAsShort(), item.getLeftBoundAsLong());
+			unindex(byCode.put(item.getCode(), cachedItem));
+			byLevel.computeIfAbsent(cachedItem.level, level -> new TreeMap<>()).put(cachedItem.leftBound, item);
+		}
+
+		void remove(@Nonnull String code) {
+			unindex(byCode.remove(code));
+		}
+
+		void removeSubtree(long leftBound, long rightBound) {
+			byCode.values().removeIf(cachedItem -> {
+				final boolean inSubtree = cachedItem.item.getLeftBoundAsLong() >= leftBound &&
+					cachedItem.item.getRightBoundAsLong() <= rightBound;
+				if (inSubtree) {
+					unindex(cachedItem);
+				}
+				return inSubtree;
+			});
+		}
+
+		private void unindex(@Nullable CachedItem cachedItem) {
+			if (cachedItem != null) {
+				final NavigableMap<Long, HierarchyItem> levelItems = byLevel.get(cachedItem.level);
+				if (levelItems != null && levelItems.get(cachedItem.leftBound) == cachedItem.item) {
+					levelItems.remove(cachedItem.leftBound);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Cached item with the position it has been indexed at.
+	 */
+	@RequiredArgsConstructor
+	private static class CachedItem {
+		private final HierarchyItem item;
+		private final short level;
+		private final long leftBound;
+	}
+
+	/**
+	 * Items of the current transaction discarded on its completion.
+	 */
+	private class TransactionCache implements TransactionSynchronization {
+		private final Map<String, HierarchyItems> hierarchies = new HashMap<>();
+
+		@Override
+		public void suspend() {
+			TransactionSynchronizationManager.unbindResource(cacheKey);
+		}
+
+		@Override
+		public void resume() {
+			TransactionSynchronizationManager.bindResource(cacheKey, this);
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(cacheKey);
+		}
+	}
+
+}
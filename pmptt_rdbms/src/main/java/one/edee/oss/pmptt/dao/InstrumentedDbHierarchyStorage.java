@@ -0,0 +1,108 @@
+package one.edee.oss.pmptt.dao;
+
+import one.edee.oss.pmptt.model.ChangeLogEntry;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.spi.HierarchyInstrumentation;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Decorator of the {@link DbHierarchyStorage} reporting measurements to the {@link HierarchyInstrumentation} -
+ * see {@link InstrumentedHierarchyStorage}. Locking and change log methods are reported as well, so that the time
+ * spent waiting for locks is visible.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class InstrumentedDbHierarchyStorage extends InstrumentedHierarchyStorage implements DbHierarchyStorage {
+	private final DbHierarchyStorage delegate;
+
+	public InstrumentedDbHierarchyStorage(@Nonnull DbHierarchyStorage delegate, @Nonnull HierarchyInstrumentation instrumentation) {
+		super(delegate, instrumentation);
+		this.delegate = delegate;
+	}
+
+	@Override
+	public PlatformTransactionManager getTransactionManager() {
+		return delegate.getTransactionManager();
+	}
+
+	@Nonnull
+	@Override
+	public ConcurrencyStrategy getConcurrencyStrategy() {
+		return delegate.getConcurrencyStrategy();
+	}
+
+	@Override
+	public void lockHierarchy(@Nonnull String hierarchyCode, boolean exclusive) {
+		measure(hierarchyCode, "lockHierarchy", () -> {
+			delegate.lockHierarchy(hierarchyCode, exclusive);
+			return null;
+		});
+	}
+
+	@Override
+	public void lockItems(@Nonnull String hierarchyCode, @Nonnull Collection<String> codes) {
+		measure(hierarchyCode, "lockItems", () -> {
+			delegate.lockItems(hierarchyCode, codes);
+			return null;
+		});
+	}
+
+	@Override
+	public void lockSubtree(@Nonnull HierarchyItem item) {
+		measure(item.getHierarchyCode(), "lockSubtree", item, () -> {
+			delegate.lockSubtree(item);
+			return null;
+		});
+	}
+
+	@Override
+	public boolean isChangeLogEnabled() {
+		return delegate.isChangeLogEnabled();
+	}
+
+	@Override
+	public void setChangeLogEnabled(boolean changeLogEnabled) {
+		delegate.setChangeLogEnabled(changeLogEnabled);
+	}
+
+	@Nonnull
+	@Override
+	public List<ChangeLogEntry> getChangesAfter(long sequence, int limit) {
+		return measure(HierarchyInstrumentation.ALL_HIERARCHIES, "getChangesAfter", () -> delegate.getChangesAfter(sequence, limit));
+	}
+
+	@Nonnull
+	@Override
+	public List<ChangeLogEntry> getChangesAfter(@Nonnull String hierarchyCode, long sequence, int limit) {
+		return measure(hierarchyCode, "getChangesAfter", () -> delegate.getChangesAfter(hierarchyCode, sequence, limit));
+	}
+
+	@Override
+	public void forEachItem(@Nonnull String hierarchyCode, @Nonnull Consumer<HierarchyItem> consumer) {
+		measure(hierarchyCode, "forEachItem", () -> {
+			final int[] count = new int[1];
+			delegate.forEachItem(hierarchyCode, item -> {
+				count[0]++;
+				consumer.accept(item);
+			});
+			getInstrumentation().rowsRead(hierarchyCode, OPERATION_PREFIX + "forEachItem", count[0]);
+			return null;
+		});
+	}
+
+	@Override
+	public long getLastChangeSequence() {
+		return measure(HierarchyInstrumentation.ALL_HIERARCHIES, "getLastChangeSequence", delegate::getLastChangeSequence);
+	}
+
+	@Override
+	public int pruneChangesUpTo(long sequence) {
+		return measure(HierarchyInstrumentation.ALL_HIERARCHIES, "pruneChangesUpTo", () -> delegate.pruneChangesUpTo(sequence));
+	}
+
+}
@@ -0,0 +1,118 @@
+package one.edee.oss.pmptt.dao;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.LongHierarchyItem;
+import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Table holding items of the hierarchy. Hierarchies with {@link one.edee.oss.pmptt.model.Hierarchy#isLongCodes() long codes}
+ * keep their items in separate table with BIGINT code column, so that the codes are neither stored nor compared
+ * as strings. Both tables share the same structure otherwise.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@RequiredArgsConstructor
+public enum ItemTable {
+
+	STRING_CODES("T_MPTT_ITEM") {
+		@Nullable
+		@Override
+		public Object codeValue(@Nullable String code) {
+			return code;
+		}
+
+		@Nonnull
+		@Override
+		public Object codeValue(long code) {
+			return Long.toString(code);
+		}
+
+		@Nullable
+		@Override
+		public Object codeValue(@Nonnull HierarchyItem item) {
+			return item.getCode();
+		}
+
+		@Nonnull
+		@Override
+		public SqlParameterSource parameters(@Nonnull HierarchyItem item) {
+			return new BeanPropertySqlParameterSource(item);
+		}
+	},
+
+	LONG_CODES("T_MPTT_LONG_ITEM") {
+		@Nullable
+		@Override
+		public Object codeValue(@Nullable String code) {
+			return LongHierarchyItem.parseId(code);
+		}
+
+		@Nonnull
+		@Override
+		public Object codeValue(long code) {
+			return code;
+		}
+
+		@Nullable
+		@Override
+		public Object codeValue(@Nonnull HierarchyItem item) {
+			return LongHierarchyItem.toId(item);
+		}
+
+		@Nonnull
+		@Override
+		public SqlParameterSource parameters(@Nonnull HierarchyItem item) {
+			return new BeanPropertySqlParameterSource(item) {
+				@Override
+				public Object getValue(String paramName) throws IllegalArgumentException {
+					return "code".equals(paramName) ? LongHierarchyItem.toId(item) : super.getValue(paramName);
+				}
+			};
+		}
+	};
+
+	/**
+	 * Name of the table.
+	 */
+	@Getter private final String name;
+
+	/**
+	 * Returns value of the code column for passed code - NULL when the code cannot be stored in this table, so that
+	 * no row matches it.
+	 */
+	@Nullable
+	public abstract Object codeValue(@Nullable String code);
+
+	/**
+	 * Returns value of the code column for passed numeric code - the number is bound as is to the BIGINT column.
+	 */
+	@Nonnull
+	public abstract Object codeValue(long code);
+
+	/**
+	 * Returns value of the code column for passed item.
+	 */
+	@Nullable
+	public abstract Object codeValue(@Nonnull HierarchyItem item);
+
+	/**
+	 * Returns parameters for statements binding item properties by name with code converted to the column type.
+	 */
+	@Nonnull
+	public abstract SqlParameterSource parameters(@Nonnull HierarchyItem item);
+
+	/**
+	 * Returns table for the hierarchy with passed kind of codes.
+	 */
+	@Nonnull
+	public static ItemTable forCodes(boolean longCodes) {
+		return longCodes ? LONG_CODES : STRING_CODES;
+	}
+
+}
@@ -0,0 +1,57 @@
+package one.edee.oss.pmptt.dao;
+
+import lombok.Getter;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Router decides which {@link NamedParameterJdbcTemplate} should be used for executing read-only query. Queries executed
+ * inside an active transaction always target primary data source so that they see changes made by the transaction
+ * itself (ie. reads inside {@link one.edee.oss.pmptt.model.DbHierarchy} write operations stay consistent). Queries
+ * executed outside a transaction are spread among read-only replicas in round-robin fashion. When no replica is
+ * configured primary data source is used for all queries.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class ReadReplicaRouter {
+	/**
+	 * Template targeting primary (read-write) data source.
+	 */
+	@Getter private final NamedParameterJdbcTemplate primary;
+	/**
+	 * Templates targeting read-only replicas.
+	 */
+	private final NamedParameterJdbcTemplate[] replicas;
+	/**
+	 * Round-robin counter used to pick up next replica.
+	 */
+	private final AtomicInteger counter = new AtomicInteger();
+
+	public ReadReplicaRouter(@Nonnull NamedParameterJdbcTemplate primary, @Nonnull Collection<DataSource> replicas) {
+		this.primary = primary;
+		this.replicas = replicas
+			.stream()
+			.map(NamedParameterJdbcTemplate::new)
+			.toArray(NamedParameterJdbcTemplate[]::new);
+	}
+
+	/**
+	 * Returns template that should be used for executing read-only query.
+	 */
+	@Nonnull
+	public NamedParameterJdbcTemplate getTemplate() {
+		if (replicas.length == 0 || TransactionSynchronizationManager.isActualTransactionActive()) {
+			return primary;
+		} else if (replicas.length == 1) {
+			return replicas[0];
+		} else {
+			return replicas[Math.floorMod(counter.getAndIncrement(), replicas.length)];
+		}
+	}
+
+}
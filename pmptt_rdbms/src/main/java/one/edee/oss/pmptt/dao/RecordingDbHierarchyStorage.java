@@ -0,0 +1,91 @@
+package one.edee.oss.pmptt.dao;
+
+import one.edee.oss.pmptt.model.ChangeLogEntry;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.replay.WorkloadLogWriter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Decorator of the {@link DbHierarchyStorage} recording storage calls to the {@link WorkloadLogWriter} - see
+ * {@link RecordingHierarchyStorage}. Locking and change log methods are delegated but not recorded - locks make sense
+ * only within the transaction of the original operation, which is not part of the replayed workload.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class RecordingDbHierarchyStorage extends RecordingHierarchyStorage implements DbHierarchyStorage {
+	private final DbHierarchyStorage delegate;
+
+	public RecordingDbHierarchyStorage(@Nonnull DbHierarchyStorage delegate, @Nonnull WorkloadLogWriter writer) {
+		super(delegate, writer);
+		this.delegate = delegate;
+	}
+
+	@Override
+	public PlatformTransactionManager getTransactionManager() {
+		return delegate.getTransactionManager();
+	}
+
+	@Nonnull
+	@Override
+	public ConcurrencyStrategy getConcurrencyStrategy() {
+		return delegate.getConcurrencyStrategy();
+	}
+
+	@Override
+	public void lockHierarchy(@Nonnull String hierarchyCode, boolean exclusive) {
+		delegate.lockHierarchy(hierarchyCode, exclusive);
+	}
+
+	@Override
+	public void lockItems(@Nonnull String hierarchyCode, @Nonnull Collection<String> codes) {
+		delegate.lockItems(hierarchyCode, codes);
+	}
+
+	@Override
+	public void lockSubtree(@Nonnull HierarchyItem item) {
+		delegate.lockSubtree(item);
+	}
+
+	@Override
+	public boolean isChangeLogEnabled() {
+		return delegate.isChangeLogEnabled();
+	}
+
+	@Override
+	public void setChangeLogEnabled(boolean changeLogEnabled) {
+		delegate.setChangeLogEnabled(changeLogEnabled);
+	}
+
+	@Nonnull
+	@Override
+	public List<ChangeLogEntry> getChangesAfter(long sequence, int limit) {
+		return delegate.getChangesAfter(sequence, limit);
+	}
+
+	@Nonnull
+	@Override
+	public List<ChangeLogEntry> getChangesAfter(@Nonnull String hierarchyCode, long sequence, int limit) {
+		return delegate.getChangesAfter(hierarchyCode, sequence, limit);
+	}
+
+	@Override
+	public void forEachItem(@Nonnull String hierarchyCode, @Nonnull Consumer<HierarchyItem> consumer) {
+		delegate.forEachItem(hierarchyCode, consumer);
+	}
+
+	@Override
+	public long getLastChangeSequence() {
+		return delegate.getLastChangeSequence();
+	}
+
+	@Override
+	public int pruneChangesUpTo(long sequence) {
+		return delegate.pruneChangesUpTo(sequence);
+	}
+
+}
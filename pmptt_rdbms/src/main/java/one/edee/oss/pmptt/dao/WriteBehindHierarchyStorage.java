@@ -0,0 +1,696 @@
+package one.edee.oss.pmptt.dao;
+
+import lombok.Getter;
+import lombok.extern.apachecommons.CommonsLog;
+import one.edee.oss.pmptt.dao.memory.MemoryStorage;
+import one.edee.oss.pmptt.model.Bounds;
+import one.edee.oss.pmptt.model.CompactHierarchyItem;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.LongHierarchyItem;
+import one.edee.oss.pmptt.model.SectionWithBucket;
+import one.edee.oss.pmptt.model.TrackedHierarchyItem;
+import one.edee.oss.pmptt.spi.HierarchyChangeListener;
+import one.edee.oss.pmptt.spi.HierarchyInstrumentation;
+import one.edee.oss.pmptt.spi.HierarchyInstrumentationAdapter;
+import one.edee.oss.pmptt.util.Assert;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind storage makes the in-memory copy of the hierarchies the source of truth and persists the changes to
+ * the {@link DbHierarchyStorage} asynchronously. It's meant for write heavy workloads (imports, editorial tools) where
+ * the per-item SQL of {@link one.edee.oss.pmptt.model.DbHierarchy} is the bottleneck:
+ *
+ * - hierarchy is loaded lazily from the database on the first access (see {@link DbHierarchyStorage#forEachItem(String, java.util.function.Consumer)})
+ * - all reads and writes are served by the internal {@link MemoryStorage}, written items are marked dirty and
+ *   repeated writes of the same item are coalesced into single pending change
+ * - background flusher persists pending changes every flush interval or as soon as their count reaches the limit,
+ *   all of them in single database transaction
+ * - {@link #flush()} persists pending changes synchronously, {@link #awaitDurable(long)} waits until all changes
+ *   written so far are persisted
+ *
+ * Pending changes are handed over to the flusher only between the {@link Hierarchy} operations (storage observes
+ * their boundaries through its {@link #getInstrumentation() instrumentation}), so that each flush moves the database
+ * from one consistent state of the tree to another. After the crash the storage therefore recovers simply by loading
+ * the hierarchy from the database again - changes written after the last successful flush are lost. Failed flush is
+ * retried by the next one, changes of the failed flush are merged with the changes written in the meantime.
+ *
+ * Creation and removal of the entire hierarchy is written to the database immediately. Storage is not thread safe
+ * for the same reasons {@link MemoryStorage} is not - concurrent writers must be serialized by the application.
+ * Items of the flushed changes appear in the database change log and database change listeners as regular
+ * updates, listeners registered on this storage are notified immediately by the memory storage.
+ *
+ * Storage should be closed when application shuts down - pending changes are flushed before the flusher stops.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@CommonsLog
+public class WriteBehindHierarchyStorage implements HierarchyStorage, AutoCloseable {
+	/**
+	 * Default interval in which the pending changes are flushed.
+	 */
+	public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1_000L;
+	/**
+	 * Default count of the pending changes that triggers the flush before the interval elapses.
+	 */
+	public static final int DEFAULT_MAX_PENDING_CHANGES = 10_000;
+	private static final Comparator<HierarchyItem> BY_LEVEL = Comparator.comparing(HierarchyItem::getLevel);
+	private final DbHierarchyStorage delegate;
+	private final MemoryStorage memory = new MemoryStorage();
+	private final TransactionTemplate txTemplate;
+	private final HierarchyInstrumentation operationBoundaries = new OperationBoundaries();
+	/**
+	 * Shared by the running {@link Hierarchy} operations, exclusively held when pending changes are handed over.
+	 */
+	private final ReentrantReadWriteLock operationLock = new ReentrantReadWriteLock();
+	/**
+	 * Guards pending changes and the counters.
+	 */
+	private final ReentrantLock stateLock = new ReentrantLock();
+	private final Condition flushNeeded = stateLock.newCondition();
+	private final Condition flushed = stateLock.newCondition();
+	/**
+	 * Serializes the flushes and the hierarchy creation / removal.
+	 */
+	private final Object flushMonitor = new Object();
+	private final Object loadMonitor = new Object();
+	private final Thread flusher;
+	private Map<String, Map<String, PendingChange>> pendingChanges = new HashMap<>();
+	/**
+	 * Changes being flushed right now, NULL when no flush is running.
+	 */
+	private Map<String, Map<String, PendingChange>> flushedChanges;
+	private long writeCount;
+	private long durableWriteCount;
+	private volatile boolean running = true;
+	/**
+	 * Interval in milliseconds in which the pending changes are flushed.
+	 */
+	@Getter private final long flushIntervalMillis;
+	/**
+	 * Count of the pending changes that triggers the flush before the interval elapses.
+	 */
+	@Getter private final int maxPendingChanges;
+	/**
+	 * Count of the items with changes waiting for the flush.
+	 */
+	@Getter private int pendingCount;
+
+	public WriteBehindHierarchyStorage(@Nonnull DbHierarchyStorage delegate) {
+		this(delegate, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_PENDING_CHANGES);
+	}
+
+	public WriteBehindHierarchyStorage(@Nonnull DbHierarchyStorage delegate, long flushIntervalMillis, int maxPendingChanges) {
+		Assert.isTrue(flushIntervalMillis > 0, "Flush interval must be positive!");
+		Assert.isTrue(maxPendingChanges > 0, "Max pending changes must be positive!");
+		this.delegate = delegate;
+		this.flushIntervalMillis = flushIntervalMillis;
+		this.maxPendingChanges = maxPendingChanges;
+		this.txTemplate = new TransactionTemplate(delegate.getTransactionManager());
+		this.flusher = new Thread(this::flushPeriodically, "PMPTT-write-behind-flusher");
+		this.flusher.setDaemon(true);
+		this.flusher.start();
+	}
+
+	/**
+	 * Persists all pending changes in single transaction. Exception of the failed flush is propagated, the changes
+	 * stay pending and will be retried.
+	 */
+	public void flush() {
+		synchronized (flushMonitor) {
+			final Map<String, Map<String, PendingChange>> changes;
+			final long upToWrite;
+			operationLock.writeLock().lock();
+			stateLock.lock();
+			try {
+				changes = pendingChanges;
+				upToWrite = writeCount;
+				pendingChanges = new HashMap<>();
+				pendingCount = 0;
+				flushedChanges = changes;
+			} finally {
+				stateLock.unlock();
+				operationLock.writeLock().unlock();
+			}
+			try {
+				if (!changes.isEmpty()) {
+					txTemplate.execute(status -> {
+						for (Entry<String, Map<String, PendingChange>> entry : changes.entrySet()) {
+							persist(entry.getValue().values());
+						}
+						return null;
+					});
+				}
+				committed(changes, upToWrite);
+			} catch (RuntimeException ex) {
+				failed(changes);
+				throw ex;
+			}
+		}
+	}
+
+	/**
+	 * Waits until all the changes written before this call are persisted to the database.
+	 *
+	 * @return false when the timeout elapsed before the changes were persisted
+	 */
+	public boolean awaitDurable(long timeoutMillis) throws InterruptedException {
+		long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		stateLock.lock();
+		try {
+			final long targetWrite = writeCount;
+			flushNeeded.signalAll();
+			while (durableWriteCount < targetWrite) {
+				if (remainingNanos <= 0) {
+					return false;
+				}
+				remainingNanos = flushed.awaitNanos(remainingNanos);
+			}
+			return true;
+		} finally {
+			stateLock.unlock();
+		}
+	}
+
+	/**
+	 * Stops the flusher and flushes pending changes. When the calling thread is interrupted while waiting for
+	 * the flusher, the interrupt flag is restored and pending changes are flushed anyway.
+	 */
+	@Override
+	public void close() {
+		stateLock.lock();
+		try {
+			running = false;
+			flushNeeded.signalAll();
+		} finally {
+			stateLock.unlock();
+		}
+		try {
+			flusher.join(TimeUnit.SECONDS.toMillis(30));
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
+	}
+
+	@Override
+	public void registerChangeListener(HierarchyChangeListener listener) {
+		memory.registerChangeListener(listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull HierarchyChangeListener listener) {
+		memory.registerChangeListener(hierarchyCode, listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull Bounds subtreeBounds, @Nonnull HierarchyChangeListener listener) {
+		memory.registerChangeListener(hierarchyCode, subtreeBounds, listener);
+	}
+
+	@Override
+	public boolean unregisterChangeListener(@Nonnull HierarchyChangeListener listener) {
+		return memory.unregisterChangeListener(listener);
+	}
+
+	@Nonnull
+	@Override
+	public HierarchyInstrumentation getInstrumentation() {
+		return operationBoundaries;
+	}
+
+	@Override
+	public void createHierarchy(Hierarchy hierarchy) {
+		synchronized (flushMonitor) {
+			delegate.createHierarchy(hierarchy);
+			memory.createHierarchy(hierarchy);
+			hierarchy.setStorage(this);
+		}
+	}
+
+	@Nullable
+	@Override
+	public Hierarchy getHierarchy(String code) {
+		return ensureLoaded(code) ? memory.getHierarchy(code) : null;
+	}
+
+	@Override
+	public Collection<String> getExistingHierarchyCodes() {
+		return delegate.getExistingHierarchyCodes();
+	}
+
+	@Override
+	public boolean removeHierarchy(String code) {
+		synchronized (flushMonitor) {
+			operationLock.writeLock().lock();
+			stateLock.lock();
+			try {
+				final Map<String, PendingChange> droppedChanges = pendingChanges.remove(code);
+				if (droppedChanges != null) {
+					pendingCount -= droppedChanges.size();
+				}
+				memory.removeHierarchy(code);
+			} finally {
+				stateLock.unlock();
+				operationLock.writeLock().unlock();
+			}
+			return delegate.removeHierarchy(code);
+		}
+	}
+
+	@Override
+	public void createItem(HierarchyItem newItem, HierarchyItem parent) {
+		ensureLoaded(newItem.getHierarchyCode());
+		memory.createItem(newItem, parent);
+		recordChange(newItem.getHierarchyCode(), newItem.getCode(), null, newItem);
+	}
+
+	@Override
+	public void createItems(@Nonnull Collection<HierarchyItem> newItems) {
+		for (HierarchyItem newItem : newItems) {
+			ensureLoaded(newItem.getHierarchyCode());
+		}
+		memory.createItems(newItems);
+		for (HierarchyItem newItem : newItems) {
+			recordChange(newItem.getHierarchyCode(), newItem.getCode(), null, newItem);
+		}
+	}
+
+	@Override
+	public void updateItem(HierarchyItem updatedItem) {
+		ensureLoaded(updatedItem.getHierarchyCode());
+		memory.updateItem(updatedItem);
+		recordChange(updatedItem.getHierarchyCode(), updatedItem.getCode(), getOriginal(updatedItem), updatedItem);
+	}
+
+	@Override
+	public void removeItem(HierarchyItem removedItem) {
+		ensureLoaded(removedItem.getHierarchyCode());
+		memory.removeItem(removedItem);
+		recordChange(removedItem.getHierarchyCode(), removedItem.getCode(), getOriginal(removedItem), null);
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getItem(String hierarchyCode, String code) {
+		ensureLoaded(hierarchyCode);
+		return memory.getItem(hierarchyCode, code);
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getParentItem(HierarchyItem pivot) {
+		ensureLoaded(pivot.getHierarchyCode());
+		return memory.getParentItem(pivot);
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getParentsOfItem(HierarchyItem pivot) {
+		ensureLoaded(pivot.getHierarchyCode());
+		return memory.getParentsOfItem(pivot);
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getRootItems(String hierarchyCode) {
+		ensureLoaded(hierarchyCode);
+		return memory.getRootItems(hierarchyCode);
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getChildItems(HierarchyItem parent) {
+		ensureLoaded(parent.getHierarchyCode());
+		return memory.getChildItems(parent);
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getAllChildrenItems(HierarchyItem parent) {
+		ensureLoaded(parent.getHierarchyCode());
+		return memory.getAllChildrenItems(parent);
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getLeafItems(HierarchyItem parent) {
+		ensureLoaded(parent.getHierarchyCode());
+		return memory.getLeafItems(parent);
+	}
+
+	@Nonnull
+	@Override
+	public List<HierarchyItem> getLeafItems(String hierarchyCode) {
+		ensureLoaded(hierarchyCode);
+		return memory.getLeafItems(hierarchyCode);
+	}
+
+	@Nullable
+	@Override
+	public SectionWithBucket getFirstEmptySection(String hierarchyCode, long sectionSize, short maxCount) {
+		ensureLoaded(hierarchyCode);
+		return memory.getFirstEmptySection(hierarchyCode, sectionSize, maxCount);
+	}
+
+	@Nullable
+	@Override
+	public SectionWithBucket getFirstEmptySection(String hierarchyCode, long sectionSize, short maxCount, HierarchyItem parent) {
+		ensureLoaded(hierarchyCode);
+		return memory.getFirstEmptySection(hierarchyCode, sectionSize, maxCount, parent);
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	/**
+	 * Loads the hierarchy from the database unless it's already in memory. Returns false when the hierarchy doesn't
+	 * exist.
+	 */
+	private boolean ensureLoaded(@Nonnull String hierarchyCode) {
+		if (memory.getHierarchy(hierarchyCode) != null) {
+			return true;
+		}
+		synchronized (loadMonitor) {
+			if (memory.getHierarchy(hierarchyCode) != null) {
+				return true;
+			}
+			final Hierarchy storedHierarchy = delegate.getHierarchy(hierarchyCode);
+			if (storedHierarchy == null) {
+				return false;
+			}
+			final List<HierarchyItem> items = new ArrayList<>();
+			delegate.forEachItem(
+				hierarchyCode,
+				item -> items.add(copy(item))
+			);
+			final Hierarchy hierarchy = new Hierarchy(hierarchyCode, (short) (storedHierarchy.getLevels() - 1), (short) (storedHierarchy.getSectionSize() - 1), storedHierarchy.isLongCodes());
+			memory.loadHierarchy(hierarchy, items.iterator());
+			hierarchy.setStorage(this);
+			log.debug("Hierarchy " + hierarchyCode + " with " + items.size() + " items loaded from the database.");
+			return true;
+		}
+	}
+
+	/**
+	 * Returns the state of the item as of the last successful flush - see {@link #committed(Map, long)}.
+	 */
+	@Nonnull
+	private static HierarchyItem getOriginal(@Nonnull HierarchyItem item) {
+		Assert.isTrue(item instanceof TrackedHierarchyItem, "Hierarchy item is not of type TrackedHierarchyItem!");
+		return copy(((TrackedHierarchyItem) item).getOriginal());
+	}
+
+	/**
+	 * Coalesces the change of the item with its pending change.
+	 *
+	 * @param persisted state of the item in the database unless the item has been written since the last flush
+	 * @param current state of the item after the change, NULL when the item was removed
+	 */
+	private void recordChange(@Nonnull String hierarchyCode, @Nonnull String code, @Nullable HierarchyItem persisted, @Nullable HierarchyItem current) {
+		stateLock.lock();
+		try {
+			final Map<String, PendingChange> hierarchyChanges = pendingChanges.computeIfAbsent(hierarchyCode, hc -> new LinkedHashMap<>());
+			PendingChange change = hierarchyChanges.get(code);
+			if (change == null) {
+				// when the item is being flushed right now, the database will contain the flushed state
+				final PendingChange flushedChange = flushedChanges == null ? null : flushedChanges.getOrDefault(hierarchyCode, Collections.emptyMap()).get(code);
+				change = new PendingChange(flushedChange == null ? persisted : flushedChange.getCurrent());
+				hierarchyChanges.put(code, change);
+				pendingCount++;
+			}
+			change.current = current == null ? null : copy(current);
+			if (change.isVoid()) {
+				hierarchyChanges.remove(code);
+				pendingCount--;
+			}
+			writeCount++;
+			if (pendingCount >= maxPendingChanges) {
+				flushNeeded.signalAll();
+			}
+		} finally {
+			stateLock.unlock();
+		}
+	}
+
+	/**
+	 * Writes pending changes of single hierarchy to the database. Removals go first, then updates and insertions
+	 * of new items last, so that the unique bounds of the items never collide. Updates are ordered so that the item
+	 * moves to its new bounds only after the item that occupied them moved away - when the items swap their places,
+	 * one of them is removed and inserted again.
+	 */
+	private void persist(@Nonnull Collection<PendingChange> changes) {
+		final List<HierarchyItem> insertedItems = new ArrayList<>();
+		final Deque<PendingChange> ready = new ArrayDeque<>();
+		final Map<Bounds, PendingChange> occupants = new HashMap<>();
+		final Map<Bounds, PendingChange> waiting = new LinkedHashMap<>();
+		for (PendingChange change : changes) {
+			if (change.getPersisted() == null) {
+				insertedItems.add(change.getCurrent());
+			} else if (change.getCurrent() == null) {
+				delegate.removeItem(change.getPersisted());
+			} else if (!change.isMoved()) {
+				if (!change.isUnchanged()) {
+					ready.add(change);
+				}
+			} else {
+				occupants.put(change.getPersistedBounds(), change);
+			}
+		}
+		for (PendingChange change : occupants.values()) {
+			if (occupants.containsKey(change.getCurrentBounds())) {
+				waiting.put(change.getCurrentBounds(), change);
+			} else {
+				ready.add(change);
+			}
+		}
+		while (!ready.isEmpty() || !waiting.isEmpty()) {
+			if (ready.isEmpty()) {
+				// all remaining updates wait in cycles - break one of them by reinserting the blocking item
+				final Iterator<Entry<Bounds, PendingChange>> it = waiting.entrySet().iterator();
+				final Entry<Bounds, PendingChange> blocked = it.next();
+				it.remove();
+				final PendingChange blocking = occupants.remove(blocked.getKey());
+				waiting.remove(blocking.getCurrentBounds());
+				delegate.removeItem(blocking.getPersisted());
+				insertedItems.add(blocking.getCurrent());
+				ready.add(blocked.getValue());
+			}
+			final PendingChange change = ready.poll();
+			delegate.updateItem(change.toUpdatedItem());
+			if (change.isMoved() && occupants.remove(change.getPersistedBounds()) != null) {
+				final PendingChange unblocked = waiting.remove(change.getPersistedBounds());
+				if (unblocked != null) {
+					ready.add(unblocked);
+				}
+			}
+		}
+		if (!insertedItems.isEmpty()) {
+			insertedItems.sort(BY_LEVEL);
+			delegate.createItems(insertedItems);
+		}
+	}
+
+	/**
+	 * Marks the flushed changes durable and makes their state the original state of the live items, so that
+	 * the following changes are compared against the database state.
+	 */
+	private void committed(@Nonnull Map<String, Map<String, PendingChange>> changes, long upToWrite) {
+		operationLock.writeLock().lock();
+		stateLock.lock();
+		try {
+			for (Entry<String, Map<String, PendingChange>> entry : changes.entrySet()) {
+				if (memory.getHierarchy(entry.getKey()) == null) {
+					continue;
+				}
+				for (PendingChange change : entry.getValue().values()) {
+					final HierarchyItem current = change.getCurrent();
+					final HierarchyItem liveItem = current == null ? null : memory.getItem(entry.getKey(), current.getCode());
+					if (liveItem instanceof TrackedHierarchyItem) {
+						((TrackedHierarchyItem) liveItem).resetOriginal(current);
+					}
+				}
+			}
+			flushedChanges = null;
+			durableWriteCount = Math.max(durableWriteCount, upToWrite);
+			flushed.signalAll();
+		} finally {
+			stateLock.unlock();
+			operationLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the changes of the failed flush back to the pending ones - database still holds the state before
+	 * the flush.
+	 */
+	private void failed(@Nonnull Map<String, Map<String, PendingChange>> changes) {
+		stateLock.lock();
+		try {
+			for (Entry<String, Map<String, PendingChange>> entry : changes.entrySet()) {
+				if (memory.getHierarchy(entry.getKey()) == null) {
+					continue;
+				}
+				final Map<String, PendingChange> hierarchyChanges = pendingChanges.computeIfAbsent(entry.getKey(), hc -> new LinkedHashMap<>());
+				for (Entry<String, PendingChange> failedChange : entry.getValue().entrySet()) {
+					final PendingChange newerChange = hierarchyChanges.get(failedChange.getKey());
+					if (newerChange == null) {
+						hierarchyChanges.put(failedChange.getKey(), failedChange.getValue());
+						pendingCount++;
+					} else {
+						newerChange.persisted = failedChange.getValue().getPersisted();
+						if (newerChange.isVoid()) {
+							hierarchyChanges.remove(failedChange.getKey());
+							pendingCount--;
+						}
+					}
+				}
+			}
+			flushedChanges = null;
+		} finally {
+			stateLock.unlock();
+		}
+	}
+
+	private void flushPeriodically() {
+		while (running) {
+			stateLock.lock();
+			try {
+				if (running && pendingCount < maxPendingChanges) {
+					flushNeeded.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				stateLock.unlock();
+			}
+			try {
+				flush();
+			} catch (RuntimeException ex) {
+				log.error("Failed to flush pending hierarchy changes, flush will be retried.", ex);
+			}
+		}
+	}
+
+	@Nonnull
+	private static HierarchyItem copy(@Nonnull HierarchyItem item) {
+		if (item instanceof LongHierarchyItem) {
+			return new LongHierarchyItem(
+				item.getHierarchyCode(), ((LongHierarchyItem) item).getId(), item.getLevelAsShort(), item.getLeftBoundAsLong(), item.getRightBoundAsLong(),
+				item.getNumberOfChildrenAsShort(), item.getOrderAsShort(), item.getBucketAsShort()
+			);
+		}
+		return new CompactHierarchyItem(
+			item.getHierarchyCode(), item.getCode(), item.getLevelAsShort(), item.getLeftBoundAsLong(), item.getRightBoundAsLong(),
+			item.getNumberOfChildrenAsShort(), item.getOrderAsShort(), item.getBucketAsShort()
+		);
+	}
+
+	private static void copyState(@Nonnull HierarchyItem source, @Nonnull HierarchyItem target) {
+		target.setLevel(source.getLevel());
+		target.setLeftBound(source.getLeftBound());
+		target.setRightBound(source.getRightBound());
+		target.setNumberOfChildren(source.getNumberOfChildren());
+		target.setOrder(source.getOrder());
+		target.setBucket(source.getBucket());
+	}
+
+	/**
+	 * Change of single item waiting for the flush.
+	 */
+	private static class PendingChange {
+		/**
+		 * State of the item in the database, NULL when the item is not there.
+		 */
+		@Getter private HierarchyItem persisted;
+		/**
+		 * State of the item in memory, NULL when the item was removed.
+		 */
+		@Getter private HierarchyItem current;
+
+		PendingChange(@Nullable HierarchyItem persisted) {
+			this.persisted = persisted;
+		}
+
+		/**
+		 * Returns true if the item was created and removed again.
+		 */
+		boolean isVoid() {
+			return persisted == null && current == null;
+		}
+
+		boolean isMoved() {
+			return !getPersistedBounds().equals(getCurrentBounds());
+		}
+
+		boolean isUnchanged() {
+			return !isMoved() &&
+				Objects.equals(persisted.getLevel(), current.getLevel()) &&
+				Objects.equals(persisted.getNumberOfChildren(), current.getNumberOfChildren()) &&
+				Objects.equals(persisted.getOrder(), current.getOrder()) &&
+				Objects.equals(persisted.getBucket(), current.getBucket());
+		}
+
+		Bounds getPersistedBounds() {
+			return new Bounds(persisted.getLeftBound(), persisted.getRightBound());
+		}
+
+		Bounds getCurrentBounds() {
+			return new Bounds(current.getLeftBound(), current.getRightBound());
+		}
+
+		/**
+		 * Returns item with the current state remembering the persisted one as its original.
+		 */
+		HierarchyItem toUpdatedItem() {
+			final HierarchyItem updatedItem = copy(persisted);
+			copyState(current, updatedItem);
+			return updatedItem;
+		}
+
+	}
+
+	/**
+	 * Holds the shared operation lock for the duration of each {@link Hierarchy} operation.
+	 */
+	private class OperationBoundaries extends HierarchyInstrumentationAdapter {
+
+		@Override
+		public void operationStarted(@Nonnull String hierarchyCode, @Nonnull String operation, @Nullable String itemCode) {
+			if (operation.startsWith(Hierarchy.OPERATION_PREFIX)) {
+				operationLock.readLock().lock();
+			}
+		}
+
+		@Override
+		public void operationCompleted(@Nonnull String hierarchyCode, @Nonnull String operation, long durationNanos, @Nullable Throwable failure) {
+			if (operation.startsWith(Hierarchy.OPERATION_PREFIX)) {
+				operationLock.readLock().unlock();
+			}
+		}
+
+	}
+
+}
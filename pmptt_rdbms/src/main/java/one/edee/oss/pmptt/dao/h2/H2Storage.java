@@ -0,0 +1,69 @@
+package one.edee.oss.pmptt.dao.h2;
+
+import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.dao.mysql.MySqlStorage;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * H2 implementation of {@link HierarchyStorage} targeted at single-node deployments and fast local tests. H2 may run
+ * either in file mode (<code>jdbc:h2:file:...</code>) providing durable persistence, or in in-memory mode
+ * (<code>jdbc:h2:mem:...</code>). Both variants run inside the JVM and avoid network round trips to a separate database
+ * server.
+ *
+ * Queries are shared with {@link MySqlStorage} - only the parts of the SQL dialect that differ in H2 are overridden,
+ * so H2 doesn't need to run in MySQL compatibility mode.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class H2Storage extends MySqlStorage {
+	/**
+	 * Number of rows fetched in single round trip by {@link #forEachItem(String, Consumer)}.
+	 */
+	private static final int STREAMING_FETCH_SIZE = 1000;
+
+	public H2Storage(DataSource dataSource, PlatformTransactionManager transactionManager) {
+		super(dataSource, transactionManager);
+	}
+
+	/**
+	 * Creates storage that executes queries outside transactions against read-only replica instead of primary data source.
+	 */
+	public H2Storage(DataSource dataSource, DataSource readOnlyDataSource, PlatformTransactionManager transactionManager) {
+		super(dataSource, readOnlyDataSource, transactionManager);
+	}
+
+	/**
+	 * Creates storage that spreads queries outside transactions among the pool of read-only replicas.
+	 */
+	public H2Storage(DataSource dataSource, List<DataSource> readOnlyDataSources, PlatformTransactionManager transactionManager) {
+		super(dataSource, readOnlyDataSources, transactionManager);
+	}
+
+	@Override
+	protected String quoteIdentifier(String identifier) {
+		return "\"" + identifier + "\"";
+	}
+
+	@Override
+	protected String limit(String rowCount) {
+		return "fetch first " + rowCount + " rows only";
+	}
+
+	@Nullable
+	@Override
+	protected String getSharedLockClause() {
+		// H2 foreign key checks don't lock referenced rows - shared lock is not necessary
+		return null;
+	}
+
+	@Override
+	protected int getStreamingFetchSize() {
+		return STREAMING_FETCH_SIZE;
+	}
+
+}
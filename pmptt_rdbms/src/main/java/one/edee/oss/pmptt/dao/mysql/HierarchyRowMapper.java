@@ -24,6 +24,7 @@ class HierarchyRowMapper implements RowMapper<DbHierarchy> {
 				resultSet.getString("code"),
 				((short)(resultSet.getShort("levels") - 1)),
 				((short)(resultSet.getShort("sectionSize") - 1)),
+				resultSet.getBoolean("longCodes"),
 				dbHierarchyStorage
 		);
 	}
@@ -1,12 +1,22 @@
 package one.edee.oss.pmptt.dao.mysql;
 
 import lombok.Getter;
+import lombok.Setter;
+import one.edee.oss.pmptt.dao.BucketLeaseManager;
+import one.edee.oss.pmptt.dao.ChangeLogEntryRowMapper;
+import one.edee.oss.pmptt.dao.ConcurrencyStrategy;
 import one.edee.oss.pmptt.dao.DbHierarchyStorage;
 import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.dao.ItemTable;
+import one.edee.oss.pmptt.dao.ReadReplicaRouter;
 import one.edee.oss.pmptt.model.*;
+import one.edee.oss.pmptt.spi.ChangeListenerRegistry;
 import one.edee.oss.pmptt.spi.HierarchyChangeListener;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -16,6 +26,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.sql.DataSource;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -24,18 +36,66 @@ import java.util.stream.Collectors;
  * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2019
  */
 public class MySqlStorage implements DbHierarchyStorage {
-	private final List<HierarchyChangeListener> changeListeners = new LinkedList<>();
+	/**
+	 * Maximal number of rows inserted by single statement in {@link #createItems(Collection)}.
+	 */
+	private static final int BULK_INSERT_CHUNK_SIZE = 500;
+	private final ChangeListenerRegistry changeListeners = new ChangeListenerRegistry();
+	/**
+	 * Tables holding items of the known hierarchies indexed by hierarchy code.
+	 */
+	private final Map<String, ItemTable> itemTables = new ConcurrentHashMap<>();
 	@Getter private final PlatformTransactionManager transactionManager;
 	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+	private final ReadReplicaRouter readReplicaRouter;
+	@Getter @Setter @Nonnull private ConcurrencyStrategy concurrencyStrategy = ConcurrencyStrategy.DEFAULT;
+	/**
+	 * Optional manager of pre-reserved buckets - when set, new sections are allocated from leased buckets first.
+	 */
+	@Getter @Setter @Nullable private BucketLeaseManager bucketLeaseManager;
+	/**
+	 * When true, each change of the items is recorded to T_MPTT_CHANGE_LOG in the same transaction.
+	 */
+	@Getter @Setter private boolean changeLogEnabled;
 
 	public MySqlStorage(DataSource dataSource, PlatformTransactionManager transactionManager) {
+		this(dataSource, Collections.emptyList(), transactionManager);
+	}
+
+	/**
+	 * Creates storage that executes queries outside transactions against read-only replica instead of primary data source.
+	 */
+	public MySqlStorage(DataSource dataSource, DataSource readOnlyDataSource, PlatformTransactionManager transactionManager) {
+		this(dataSource, Collections.singletonList(readOnlyDataSource), transactionManager);
+	}
+
+	/**
+	 * Creates storage that spreads queries outside transactions among the pool of read-only replicas.
+	 */
+	public MySqlStorage(DataSource dataSource, List<DataSource> readOnlyDataSources, PlatformTransactionManager transactionManager) {
 		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+		this.readReplicaRouter = new ReadReplicaRouter(namedParameterJdbcTemplate, readOnlyDataSources);
 		this.transactionManager = transactionManager;
 	}
 
 	@Override
 	public void registerChangeListener(HierarchyChangeListener listener) {
-		this.changeListeners.add(listener);
+		this.changeListeners.register(listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull HierarchyChangeListener listener) {
+		this.changeListeners.register(hierarchyCode, listener);
+	}
+
+	@Override
+	public void registerChangeListener(@Nonnull String hierarchyCode, @Nonnull Bounds subtreeBounds, @Nonnull HierarchyChangeListener listener) {
+		this.changeListeners.register(hierarchyCode, subtreeBounds, listener);
+	}
+
+	@Override
+	public boolean unregisterChangeListener(@Nonnull HierarchyChangeListener listener) {
+		return this.changeListeners.unregister(listener);
 	}
 
 	@Override
@@ -44,11 +104,12 @@ public class MySqlStorage implements DbHierarchyStorage {
 		txTemplate.execute(transactionStatus -> {
 			namedParameterJdbcTemplate
 				.update(
-					"insert into T_MPTT_HIERARCHY (code, levels, sectionSize) values (:code, :levels, :sectionSize)",
+					"insert into T_MPTT_HIERARCHY (code, levels, sectionSize, longCodes) values (:code, :levels, :sectionSize, :longCodes)",
 					new BeanPropertySqlParameterSource(hierarchy)
 				);
 			return null;
 		});
+		itemTables.put(hierarchy.getCode(), ItemTable.forCodes(hierarchy.isLongCodes()));
 		hierarchy.setStorage(this);
 	}
 
@@ -80,97 +141,165 @@ public class MySqlStorage implements DbHierarchyStorage {
 
 	@Override
 	public boolean removeHierarchy(String code) {
-		return namedParameterJdbcTemplate
+		if (bucketLeaseManager != null) {
+			bucketLeaseManager.removeLeases(code);
+		}
+		itemTables.remove(code);
+		final boolean removed = namedParameterJdbcTemplate
 			.update(
 				"delete from T_MPTT_HIERARCHY where code = :code",
 				Collections.singletonMap("code", code)
 			) > 0;
+		if (removed && changeLogEnabled) {
+			logChanges(Collections.singletonList(toChange(HierarchyChangeType.HIERARCHY_REMOVED, code, null, null, null)));
+		}
+		return removed;
 	}
 
 	@Override
 	public void createItem(HierarchyItem newItem, HierarchyItem parent) {
+		final ItemTable itemTable = itemTable(newItem.getHierarchyCode());
 		namedParameterJdbcTemplate
 			.update(
-				"insert into T_MPTT_ITEM (code, hierarchyCode, level, leftBound, rightBound, numberOfChildren, `order`, bucket, hierarchy_id) " +
+				"insert into " + itemTable.getName() + " (code, hierarchyCode, level, leftBound, rightBound, numberOfChildren, " + quoteIdentifier("order") + ", bucket, hierarchy_id) " +
 					"values (:code, :hierarchyCode, :level, :leftBound, :rightBound, :numberOfChildren, :order, :bucket, " +
 					"(select id from T_MPTT_HIERARCHY where code = :hierarchyCode))",
-				new BeanPropertySqlParameterSource(newItem)
+				itemTable.parameters(newItem)
 			);
-		for (HierarchyChangeListener changeListener : changeListeners) {
+		if (changeLogEnabled) {
+			logChanges(Collections.singletonList(toChange(HierarchyChangeType.CREATED, newItem.getHierarchyCode(), newItem.getCode(), null, newItem)));
+		}
+		for (HierarchyChangeListener changeListener : changeListeners.getListeners(newItem)) {
 			changeListener.itemCreated(newItem);
 		}
 	}
 
+	@Override
+	public void createItems(@Nonnull Collection<HierarchyItem> newItems) {
+		final Map<String, Integer> hierarchyIds = new HashMap<>();
+		final List<HierarchyItem> items = new ArrayList<>(newItems);
+		// items of each table are inserted by separate statements
+		final Map<ItemTable, List<HierarchyItem>> itemsByTable = new EnumMap<>(ItemTable.class);
+		for (HierarchyItem item : items) {
+			itemsByTable.computeIfAbsent(itemTable(item.getHierarchyCode()), table -> new ArrayList<>()).add(item);
+		}
+		for (Map.Entry<ItemTable, List<HierarchyItem>> entry : itemsByTable.entrySet()) {
+			final ItemTable itemTable = entry.getKey();
+			final List<HierarchyItem> tableItems = entry.getValue();
+			for (int i = 0; i < tableItems.size(); i += BULK_INSERT_CHUNK_SIZE) {
+				final List<HierarchyItem> chunk = tableItems.subList(i, Math.min(tableItems.size(), i + BULK_INSERT_CHUNK_SIZE));
+				final StringBuilder sql = new StringBuilder(
+					"insert into " + itemTable.getName() + " (code, hierarchyCode, level, leftBound, rightBound, numberOfChildren, " + quoteIdentifier("order") + ", bucket, hierarchy_id) values "
+				);
+				final List<Object> args = new ArrayList<>(chunk.size() * 9);
+				for (HierarchyItem item : chunk) {
+					sql.append(args.isEmpty() ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?, ?, ?)");
+					args.add(itemTable.codeValue(item));
+					args.add(item.getHierarchyCode());
+					args.add(item.getLevel());
+					args.add(item.getLeftBound());
+					args.add(item.getRightBound());
+					args.add(item.getNumberOfChildren());
+					args.add(item.getOrder());
+					args.add(item.getBucket());
+					args.add(hierarchyIds.computeIfAbsent(item.getHierarchyCode(), this::getHierarchyId));
+				}
+				namedParameterJdbcTemplate.getJdbcOperations().update(sql.toString(), args.toArray());
+			}
+		}
+		if (changeLogEnabled) {
+			logChanges(
+				items.stream()
+					.map(it -> toChange(HierarchyChangeType.CREATED, it.getHierarchyCode(), it.getCode(), null, it))
+					.collect(Collectors.toList())
+			);
+		}
+		for (HierarchyItem newItem : items) {
+			for (HierarchyChangeListener changeListener : changeListeners.getListeners(newItem)) {
+				changeListener.itemCreated(newItem);
+			}
+		}
+	}
+
 	@Override
 	public void updateItem(HierarchyItem updatedItem) {
+		final ItemTable itemTable = itemTable(updatedItem.getHierarchyCode());
 		final int affectedRows = namedParameterJdbcTemplate
 			.update(
-				"update T_MPTT_ITEM " +
+				"update " + itemTable.getName() + " " +
 					"set numberOfChildren = :numberOfChildren, " +
-					"    `leftBound` = :leftBound, " +
-					"    `rightBound` = :rightBound, " +
-					"    `level` = :level, " +
-					"    `order` = :order, " +
-					"    `bucket` = :bucket " +
+					"    leftBound = :leftBound, " +
+					"    rightBound = :rightBound, " +
+					"    level = :level, " +
+					"    " + quoteIdentifier("order") + " = :order, " +
+					"    bucket = :bucket " +
 					"where code = :code and hierarchyCode = :hierarchyCode",
-				new BeanPropertySqlParameterSource(updatedItem)
+				itemTable.parameters(updatedItem)
 			);
 		Assert.isTrue(affectedRows == 1, "Removed unexpected count of rows: " + affectedRows + "!");
-		for (HierarchyChangeListener changeListener : changeListeners) {
-			Assert.isTrue(updatedItem instanceof HierarchyItemWithHistory);
-			final HierarchyItemWithHistory hiwh = (HierarchyItemWithHistory) updatedItem;
-			changeListener.itemUpdated(hiwh.getDelegate(), hiwh.getOriginal());
+		if (changeLogEnabled) {
+			final HierarchyItem originalItem = updatedItem instanceof TrackedHierarchyItem ?
+				((TrackedHierarchyItem) updatedItem).getOriginal() : null;
+			logChanges(Collections.singletonList(toChange(HierarchyChangeType.UPDATED, updatedItem.getHierarchyCode(), updatedItem.getCode(), originalItem, updatedItem)));
+		}
+		if (!changeListeners.isEmpty()) {
+			Assert.isTrue(updatedItem instanceof TrackedHierarchyItem);
+			final HierarchyItem originalItem = ((TrackedHierarchyItem) updatedItem).getOriginal();
+			for (HierarchyChangeListener changeListener : changeListeners.getListeners(updatedItem, originalItem)) {
+				changeListener.itemUpdated(updatedItem, originalItem);
+			}
 		}
 	}
 
 	@Override
 	public void removeItem(HierarchyItem removedItem) {
+		final ItemTable itemTable = itemTable(removedItem.getHierarchyCode());
 		final int affectedRows = namedParameterJdbcTemplate
 			.update(
-				"delete from T_MPTT_ITEM " +
+				"delete from " + itemTable.getName() + " " +
 					"where code = :code and hierarchyCode = :hierarchyCode",
-				new BeanPropertySqlParameterSource(removedItem)
+				itemTable.parameters(removedItem)
 			);
 		Assert.isTrue(affectedRows == 1, "Removed unexpected count of rows: " + affectedRows + "!");
-		for (HierarchyChangeListener changeListener : changeListeners) {
+		if (changeLogEnabled) {
+			logChanges(Collections.singletonList(toChange(HierarchyChangeType.REMOVED, removedItem.getHierarchyCode(), removedItem.getCode(), removedItem, null)));
+		}
+		for (HierarchyChangeListener changeListener : changeListeners.getListeners(removedItem)) {
 			changeListener.itemRemoved(removedItem);
 		}
 	}
 
 	@Override
 	public HierarchyItem getItem(String hierarchyCode, String code) {
-		try {
-			final HashMap<String, Object> params = new HashMap<>();
-			params.put("code", code);
-			params.put("hierarchyCode", hierarchyCode);
-			return namedParameterJdbcTemplate
-				.queryForObject(
-					"select * from T_MPTT_ITEM where code = :code and hierarchyCode = :hierarchyCode",
-					params,
-					new HierarchyItemRowMapper()
-				);
-		} catch (EmptyResultDataAccessException ex) {
-			return null;
-		}
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return getItem(itemTable, hierarchyCode, itemTable.codeValue(code));
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getItem(@Nonnull String hierarchyCode, long code) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return getItem(itemTable, hierarchyCode, itemTable.codeValue(code));
 	}
 
 	@Override
 	public HierarchyItem getParentItem(HierarchyItem pivot) {
+		final ItemTable itemTable = itemTable(pivot.getHierarchyCode());
 		try {
 			final HashMap<String, Object> params = new HashMap<>();
 			params.put("hierarchyCode", pivot.getHierarchyCode());
 			params.put("level", (short) (pivot.getLevel() - 1));
 			params.put("leftBound", pivot.getLeftBound());
 			params.put("rightBound", pivot.getRightBound());
-			return namedParameterJdbcTemplate
+			return readReplicaRouter.getTemplate()
 				.queryForObject(
-					"select * from T_MPTT_ITEM " +
+					"select * from " + itemTable.getName() + " " +
 						"where hierarchyCode = :hierarchyCode " +
 						"  and level = :level " +
 						"  and leftBound <= :leftBound " +
 						"  and rightBound >= :rightBound ",
 					params,
-					new HierarchyItemRowMapper()
+					new HierarchyItemRowMapper(itemTable)
 				);
 		} catch (EmptyResultDataAccessException ex) {
 			return null;
@@ -180,110 +309,207 @@ public class MySqlStorage implements DbHierarchyStorage {
 	@Nonnull
 	@Override
 	public List<HierarchyItem> getParentsOfItem(HierarchyItem pivot) {
-		return namedParameterJdbcTemplate
+		final ItemTable itemTable = itemTable(pivot.getHierarchyCode());
+		return readReplicaRouter.getTemplate()
 			.query(
-				"select * from T_MPTT_ITEM " +
+				"select * from " + itemTable.getName() + " " +
 					"where hierarchyCode = :hierarchyCode " +
 					"  and level < :level " +
 					"  and leftBound <= :leftBound " +
 					"  and rightBound >= :rightBound " +
 					"order by level asc",
-				new BeanPropertySqlParameterSource(pivot),
-				new HierarchyItemRowMapper()
+				itemTable.parameters(pivot),
+				new HierarchyItemRowMapper(itemTable)
 			);
 	}
 
 	@Nonnull
 	@Override
 	public List<HierarchyItem> getRootItems(String hierarchyCode) {
-		return namedParameterJdbcTemplate
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return readReplicaRouter.getTemplate()
 			.query(
-				"select * from T_MPTT_ITEM " +
+				"select * from " + itemTable.getName() + " " +
 					"where hierarchyCode = :hierarchyCode " +
 					"  and level = 1 " +
-					"order by `order` asc",
+					"order by " + quoteIdentifier("order") + " asc",
 				Collections.singletonMap("hierarchyCode", hierarchyCode),
-				new HierarchyItemRowMapper()
+				new HierarchyItemRowMapper(itemTable)
 			);
 	}
 
 	@Nonnull
 	@Override
 	public List<HierarchyItem> getChildItems(HierarchyItem parent) {
+		final ItemTable itemTable = itemTable(parent.getHierarchyCode());
 		final HashMap<String, Object> params = new HashMap<>();
 		params.put("hierarchyCode", parent.getHierarchyCode());
 		params.put("level", (short) (parent.getLevel() + 1));
 		params.put("leftBound", parent.getLeftBound());
 		params.put("rightBound", parent.getRightBound());
-		return namedParameterJdbcTemplate
+		return readReplicaRouter.getTemplate()
 			.query(
-				"select * from T_MPTT_ITEM " +
+				"select * from " + itemTable.getName() + " " +
 					"where hierarchyCode = :hierarchyCode " +
 					"  and level = :level " +
 					"  and leftBound >= :leftBound " +
 					"  and rightBound <= :rightBound " +
-					"order by `order` asc",
+					"order by " + quoteIdentifier("order") + " asc",
 				params,
-				new HierarchyItemRowMapper()
+				new HierarchyItemRowMapper(itemTable)
 			);
 	}
 
 	@Nonnull
 	@Override
 	public List<HierarchyItem> getAllChildrenItems(HierarchyItem parent) {
-		return namedParameterJdbcTemplate
+		final ItemTable itemTable = itemTable(parent.getHierarchyCode());
+		return readReplicaRouter.getTemplate()
 			.query(
-				"select * from T_MPTT_ITEM " +
+				"select * from " + itemTable.getName() + " " +
 					"where hierarchyCode = :hierarchyCode " +
 					"  and level > :level " +
 					"  and leftBound >= :leftBound " +
 					"  and rightBound <= :rightBound " +
-					"order by level asc, `order` asc",
-				new BeanPropertySqlParameterSource(parent),
-				new HierarchyItemRowMapper()
+					"order by level asc, " + quoteIdentifier("order") + " asc",
+				itemTable.parameters(parent),
+				new HierarchyItemRowMapper(itemTable)
+			);
+	}
+
+	@Override
+	public void forEachItem(@Nonnull String hierarchyCode, @Nonnull Consumer<HierarchyItem> consumer) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		final JdbcTemplate jdbcTemplate = new JdbcTemplate(readReplicaRouter.getTemplate().getJdbcTemplate().getDataSource());
+		jdbcTemplate.setFetchSize(getStreamingFetchSize());
+		final HierarchyItemRowMapper rowMapper = new HierarchyItemRowMapper(itemTable);
+		new NamedParameterJdbcTemplate(jdbcTemplate)
+			.query(
+				"select * from " + itemTable.getName() + " where hierarchyCode = :hierarchyCode order by leftBound asc",
+				Collections.singletonMap("hierarchyCode", hierarchyCode),
+				(RowCallbackHandler) resultSet -> consumer.accept(rowMapper.mapRow(resultSet, resultSet.getRow()))
 			);
 	}
 
 	@Nonnull
 	@Override
 	public List<HierarchyItem> getLeafItems(HierarchyItem parent) {
-		return namedParameterJdbcTemplate
+		final ItemTable itemTable = itemTable(parent.getHierarchyCode());
+		return readReplicaRouter.getTemplate()
 			.query(
-				"select * from T_MPTT_ITEM " +
+				"select * from " + itemTable.getName() + " " +
 					"where hierarchyCode = :hierarchyCode " +
 					"  and level > :level " +
 					"  and leftBound >= :leftBound " +
 					"  and rightBound <= :rightBound " +
 					"  and numberOfChildren = 0 " +
-					"order by level asc, `order` asc",
-				new BeanPropertySqlParameterSource(parent),
-				new HierarchyItemRowMapper()
+					"order by level asc, " + quoteIdentifier("order") + " asc",
+				itemTable.parameters(parent),
+				new HierarchyItemRowMapper(itemTable)
 			);
 	}
 
 	@Nonnull
 	@Override
 	public List<HierarchyItem> getLeafItems(String hierarchyCode) {
-		return namedParameterJdbcTemplate
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return readReplicaRouter.getTemplate()
 			.query(
-				"select * from T_MPTT_ITEM " +
+				"select * from " + itemTable.getName() + " " +
 					"where hierarchyCode = :hierarchyCode " +
 					"  and numberOfChildren = 0 " +
 					"order by leftBound asc, rightBound asc",
 				Collections.singletonMap("hierarchyCode", hierarchyCode),
-				new HierarchyItemRowMapper()
+				new HierarchyItemRowMapper(itemTable)
 			);
 	}
 
+	@Nullable
+	@Override
+	public HierarchyItem getParentItem(@Nonnull String hierarchyCode, @Nonnull String code) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return getParentItem(itemTable, hierarchyCode, itemTable.codeValue(code));
+	}
+
+	@Nullable
+	@Override
+	public HierarchyItem getParentItem(@Nonnull String hierarchyCode, long code) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return getParentItem(itemTable, hierarchyCode, itemTable.codeValue(code));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getParentsOfItem(@Nonnull String hierarchyCode, @Nonnull String code) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return getParentsOfItem(itemTable, hierarchyCode, itemTable.codeValue(code));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getParentsOfItem(@Nonnull String hierarchyCode, long code) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return getParentsOfItem(itemTable, hierarchyCode, itemTable.codeValue(code));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getChildItems(@Nonnull String hierarchyCode, @Nonnull String parentCode) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return getChildItems(itemTable, hierarchyCode, itemTable.codeValue(parentCode));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getChildItems(@Nonnull String hierarchyCode, long parentCode) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return getChildItems(itemTable, hierarchyCode, itemTable.codeValue(parentCode));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getAllChildrenItems(@Nonnull String hierarchyCode, @Nonnull String parentCode) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return getAllChildrenItems(itemTable, hierarchyCode, itemTable.codeValue(parentCode));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getAllChildrenItems(@Nonnull String hierarchyCode, long parentCode) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return getAllChildrenItems(itemTable, hierarchyCode, itemTable.codeValue(parentCode));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getLeafItems(@Nonnull String hierarchyCode, @Nonnull String parentCode) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return getLeafItems(itemTable, hierarchyCode, itemTable.codeValue(parentCode));
+	}
+
+	@Nullable
+	@Override
+	public List<HierarchyItem> getLeafItems(@Nonnull String hierarchyCode, long parentCode) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		return getLeafItems(itemTable, hierarchyCode, itemTable.codeValue(parentCode));
+	}
+
 	@Nullable
 	@Override
 	public SectionWithBucket getFirstEmptySection(String hierarchyCode, long sectionSize, short maxCount) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		if (bucketLeaseManager != null) {
+			final Short bucket = bucketLeaseManager.acquireBucket(hierarchyCode, null, maxCount, () -> getRootItems(hierarchyCode));
+			if (bucket != null) {
+				return new SectionWithBucket((bucket - 1) * sectionSize + 1, bucket * sectionSize, bucket);
+			}
+		}
 		final HashMap<String, Object> params = new HashMap<>();
 		params.put("hierarchyCode", hierarchyCode);
 		params.put("sectionSize", sectionSize);
 
 		final Short childrenCount = namedParameterJdbcTemplate.queryForObject(
-			"select count(0) from T_MPTT_ITEM where hierarchyCode = :hierarchyCode and level = 1",
+			"select count(0) from " + itemTable.getName() + " where hierarchyCode = :hierarchyCode and level = 1",
 			params,
 			Short.class
 		);
@@ -297,14 +523,14 @@ public class MySqlStorage implements DbHierarchyStorage {
 				return namedParameterJdbcTemplate
 					.queryForObject(
 						"select t1.leftBound - :sectionSize as leftBound, t1.leftBound - 1 as rightBound, t1.bucket - 1 as bucket " +
-							"from T_MPTT_ITEM t1 " +
-							"left join T_MPTT_ITEM t2 on t2.leftBound = t1.leftBound - :sectionSize and t2.hierarchyCode = t1.hierarchyCode and t2.level = 1 " +
+							"from " + itemTable.getName() + " t1 " +
+							"left join " + itemTable.getName() + " t2 on t2.leftBound = t1.leftBound - :sectionSize and t2.hierarchyCode = t1.hierarchyCode and t2.level = 1 " +
 							"where t1.hierarchyCode = :hierarchyCode " +
 							"  and t1.level = 1 " +
 							"  and t1.leftBound - :sectionSize > 0 " +
 							"  and t2.leftBound is null " +
 							" order by t1.leftBound asc " +
-							"limit 1",
+							limit("1"),
 						params,
 						new SectionRowMapper()
 					);
@@ -321,6 +547,17 @@ public class MySqlStorage implements DbHierarchyStorage {
 	@Nullable
 	@Override
 	public SectionWithBucket getFirstEmptySection(String hierarchyCode, long sectionSize, short maxCount, HierarchyItem parent) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		if (bucketLeaseManager != null) {
+			final Short bucket = bucketLeaseManager.acquireBucket(hierarchyCode, parent, maxCount, () -> getChildItems(parent));
+			if (bucket != null) {
+				return new SectionWithBucket(
+					parent.getLeftBound() + (bucket - 1) * sectionSize + 1,
+					parent.getLeftBound() + bucket * sectionSize,
+					bucket
+				);
+			}
+		}
 		final HashMap<String, Object> params = new HashMap<>();
 		params.put("hierarchyCode", hierarchyCode);
 		params.put("sectionSize", sectionSize);
@@ -331,7 +568,7 @@ public class MySqlStorage implements DbHierarchyStorage {
 
 		final Short childrenCount = namedParameterJdbcTemplate.queryForObject(
 			"select count(0) " +
-				"from T_MPTT_ITEM " +
+				"from " + itemTable.getName() + " " +
 				"where hierarchyCode = :hierarchyCode " +
 				"  and level = :level " +
 				"  and leftBound >= :parentLeftBound" +
@@ -349,15 +586,15 @@ public class MySqlStorage implements DbHierarchyStorage {
 				return namedParameterJdbcTemplate
 					.queryForObject(
 						"select t1.leftBound - :sectionSize as leftBound, t1.leftBound - 1 as rightBound, t1.bucket - 1 as bucket " +
-							"from T_MPTT_ITEM t1 " +
-							"left join T_MPTT_ITEM t2 on t2.leftBound = t1.leftBound - :sectionSize and t2.hierarchyCode = t1.hierarchyCode and t2.level = :level " +
+							"from " + itemTable.getName() + " t1 " +
+							"left join " + itemTable.getName() + " t2 on t2.leftBound = t1.leftBound - :sectionSize and t2.hierarchyCode = t1.hierarchyCode and t2.level = :level " +
 							"where t1.hierarchyCode = :hierarchyCode " +
 							"  and t1.level = :level " +
 							"  and t1.leftBound - :sectionSize > :parentLeftBound " +
 							"  and t1.rightBound < :parentRightBound " +
 							"  and t2.leftBound is null " +
 							" order by t1.leftBound asc " +
-							"limit 1",
+							limit("1"),
 						params,
 						new SectionRowMapper()
 					);
@@ -371,4 +608,313 @@ public class MySqlStorage implements DbHierarchyStorage {
 		}
 	}
 
+	@Nonnull
+	@Override
+	public List<ChangeLogEntry> getChangesAfter(long sequence, int limit) {
+		final HashMap<String, Object> params = new HashMap<>();
+		params.put("sequence", sequence);
+		params.put("limit", limit);
+		return namedParameterJdbcTemplate
+			.query(
+				"select * from T_MPTT_CHANGE_LOG " +
+					"where id > :sequence " +
+					"order by id asc " +
+					limit(":limit"),
+				params,
+				new ChangeLogEntryRowMapper()
+			);
+	}
+
+	@Nonnull
+	@Override
+	public List<ChangeLogEntry> getChangesAfter(@Nonnull String hierarchyCode, long sequence, int limit) {
+		final HashMap<String, Object> params = new HashMap<>();
+		params.put("hierarchyCode", hierarchyCode);
+		params.put("sequence", sequence);
+		params.put("limit", limit);
+		return namedParameterJdbcTemplate
+			.query(
+				"select * from T_MPTT_CHANGE_LOG " +
+					"where hierarchyCode = :hierarchyCode and id > :sequence " +
+					"order by id asc " +
+					limit(":limit"),
+				params,
+				new ChangeLogEntryRowMapper()
+			);
+	}
+
+	@Override
+	public long getLastChangeSequence() {
+		final Long sequence = namedParameterJdbcTemplate
+			.queryForObject(
+				"select max(id) from T_MPTT_CHANGE_LOG",
+				Collections.emptyMap(),
+				Long.class
+			);
+		return sequence == null ? 0L : sequence;
+	}
+
+	@Override
+	public int pruneChangesUpTo(long sequence) {
+		return namedParameterJdbcTemplate
+			.update(
+				"delete from T_MPTT_CHANGE_LOG where id <= :sequence",
+				Collections.singletonMap("sequence", sequence)
+			);
+	}
+
+	@Override
+	public void lockHierarchy(@Nonnull String hierarchyCode, boolean exclusive) {
+		final String lockClause = exclusive ? "for update" : getSharedLockClause();
+		if (lockClause != null) {
+			namedParameterJdbcTemplate
+				.queryForList(
+					"select id from T_MPTT_HIERARCHY where code = :code " + lockClause,
+					Collections.singletonMap("code", hierarchyCode),
+					Long.class
+				);
+		}
+	}
+
+	@Override
+	public void lockItems(@Nonnull String hierarchyCode, @Nonnull Collection<String> codes) {
+		final ItemTable itemTable = itemTable(hierarchyCode);
+		if (!codes.isEmpty()) {
+			final HashMap<String, Object> params = new HashMap<>();
+			params.put("hierarchyCode", hierarchyCode);
+			params.put("codes", codes.stream().map(itemTable::codeValue).collect(Collectors.toList()));
+			namedParameterJdbcTemplate
+				.queryForList(
+					"select id from " + itemTable.getName() + " " +
+						"where hierarchyCode = :hierarchyCode " +
+						"  and code in (:codes) " +
+						"order by code asc " +
+						"for update",
+					params,
+					Long.class
+				);
+		}
+	}
+
+	@Override
+	public void lockSubtree(@Nonnull HierarchyItem item) {
+		final ItemTable itemTable = itemTable(item.getHierarchyCode());
+		namedParameterJdbcTemplate
+			.queryForList(
+				"select id from " + itemTable.getName() + " " +
+					"where hierarchyCode = :hierarchyCode " +
+					"  and leftBound >= :leftBound " +
+					"  and rightBound <= :rightBound " +
+					"order by leftBound asc " +
+					"for update",
+				itemTable.parameters(item),
+				Long.class
+			);
+	}
+
+	/**
+	 * Returns identifier quoted so that it may be used as a column name even if it's a reserved word of the database.
+	 */
+	protected String quoteIdentifier(String identifier) {
+		return "`" + identifier + "`";
+	}
+
+	/**
+	 * Returns clause limiting the number of returned rows, passed row count may be a literal or a named parameter.
+	 */
+	protected String limit(String rowCount) {
+		return "limit " + rowCount;
+	}
+
+	/**
+	 * Returns clause acquiring shared lock on the selected rows or NULL if the database doesn't need the shared lock
+	 * to keep the referenced row untouched.
+	 */
+	@Nullable
+	protected String getSharedLockClause() {
+		return "lock in share mode";
+	}
+
+	/**
+	 * Returns fetch size used by {@link #forEachItem(String, Consumer)} - MySQL driver streams the rows one by one
+	 * instead of reading entire result set only for {@link Integer#MIN_VALUE}.
+	 */
+	protected int getStreamingFetchSize() {
+		return Integer.MIN_VALUE;
+	}
+
+	@Nullable
+	private HierarchyItem getItem(ItemTable itemTable, String hierarchyCode, Object code) {
+		try {
+			final HashMap<String, Object> params = new HashMap<>();
+			params.put("code", code);
+			params.put("hierarchyCode", hierarchyCode);
+			return readReplicaRouter.getTemplate()
+				.queryForObject(
+					"select * from " + itemTable.getName() + " where code = :code and hierarchyCode = :hierarchyCode",
+					params,
+					new HierarchyItemRowMapper(itemTable)
+				);
+		} catch (EmptyResultDataAccessException ex) {
+			return null;
+		}
+	}
+
+	@Nullable
+	private HierarchyItem getParentItem(ItemTable itemTable, String hierarchyCode, Object code) {
+		try {
+			final HashMap<String, Object> params = new HashMap<>();
+			params.put("hierarchyCode", hierarchyCode);
+			params.put("code", code);
+			return readReplicaRouter.getTemplate()
+				.queryForObject(
+					"select i.* from " + itemTable.getName() + " p " +
+						"join " + itemTable.getName() + " i on i.hierarchyCode = p.hierarchyCode " +
+						"  and i.level = p.level - 1 " +
+						"  and i.leftBound <= p.leftBound " +
+						"  and i.rightBound >= p.rightBound " +
+						"where p.hierarchyCode = :hierarchyCode " +
+						"  and p.code = :code",
+					params,
+					new HierarchyItemRowMapper(itemTable)
+				);
+		} catch (EmptyResultDataAccessException ex) {
+			return null;
+		}
+	}
+
+	@Nullable
+	private List<HierarchyItem> getParentsOfItem(ItemTable itemTable, String hierarchyCode, Object code) {
+		return queryWithPivot(
+			itemTable, hierarchyCode, code, false,
+			"select i.* from " + itemTable.getName() + " p " +
+				"join " + itemTable.getName() + " i on i.hierarchyCode = p.hierarchyCode " +
+				"  and i.level <= p.level " +
+				"  and i.leftBound <= p.leftBound " +
+				"  and i.rightBound >= p.rightBound " +
+				"where p.hierarchyCode = :hierarchyCode " +
+				"  and p.code = :code " +
+				"order by i.level asc"
+		);
+	}
+
+	@Nullable
+	private List<HierarchyItem> getChildItems(ItemTable itemTable, String hierarchyCode, Object parentCode) {
+		return queryWithPivot(
+			itemTable, hierarchyCode, parentCode, true,
+			"select i.* from " + itemTable.getName() + " p " +
+				"join " + itemTable.getName() + " i on i.hierarchyCode = p.hierarchyCode " +
+				"  and i.leftBound >= p.leftBound " +
+				"  and i.rightBound <= p.rightBound " +
+				"  and (i.level = p.level or i.level = p.level + 1) " +
+				"where p.hierarchyCode = :hierarchyCode " +
+				"  and p.code = :code " +
+				"order by i.level asc, i." + quoteIdentifier("order") + " asc"
+		);
+	}
+
+	@Nullable
+	private List<HierarchyItem> getAllChildrenItems(ItemTable itemTable, String hierarchyCode, Object parentCode) {
+		return queryWithPivot(
+			itemTable, hierarchyCode, parentCode, true,
+			"select i.* from " + itemTable.getName() + " p " +
+				"join " + itemTable.getName() + " i on i.hierarchyCode = p.hierarchyCode " +
+				"  and i.leftBound >= p.leftBound " +
+				"  and i.rightBound <= p.rightBound " +
+				"  and i.level >= p.level " +
+				"where p.hierarchyCode = :hierarchyCode " +
+				"  and p.code = :code " +
+				"order by i.level asc, i." + quoteIdentifier("order") + " asc"
+		);
+	}
+
+	@Nullable
+	private List<HierarchyItem> getLeafItems(ItemTable itemTable, String hierarchyCode, Object parentCode) {
+		return queryWithPivot(
+			itemTable, hierarchyCode, parentCode, true,
+			"select i.* from " + itemTable.getName() + " p " +
+				"join " + itemTable.getName() + " i on i.hierarchyCode = p.hierarchyCode " +
+				"  and i.leftBound >= p.leftBound " +
+				"  and i.rightBound <= p.rightBound " +
+				"  and i.level >= p.level " +
+				"  and (i.level = p.level or i.numberOfChildren = 0) " +
+				"where p.hierarchyCode = :hierarchyCode " +
+				"  and p.code = :code " +
+				"order by i.level asc, i." + quoteIdentifier("order") + " asc"
+		);
+	}
+
+	/**
+	 * Executes query returning items related to the pivot item together with the pivot item itself - the pivot is
+	 * resolved by its code within the same query and removed from the result.
+	 *
+	 * @param pivotFirst true if the pivot is the first row of the result, false if it's the last one
+	 * @return related items, NULL if the pivot item doesn't exist
+	 */
+	@Nullable
+	private List<HierarchyItem> queryWithPivot(ItemTable itemTable, String hierarchyCode, Object code, boolean pivotFirst, String sql) {
+		final HashMap<String, Object> params = new HashMap<>();
+		params.put("hierarchyCode", hierarchyCode);
+		params.put("code", code);
+		final List<HierarchyItem> items = readReplicaRouter.getTemplate()
+			.query(sql, params, new HierarchyItemRowMapper(itemTable));
+		if (items.isEmpty()) {
+			return null;
+		}
+		return new ArrayList<>(pivotFirst ? items.subList(1, items.size()) : items.subList(0, items.size() - 1));
+	}
+
+	/**
+	 * Returns table holding items of the hierarchy. Kind of codes of the hierarchy is read only once and then cached,
+	 * table for string codes is returned for unknown hierarchy.
+	 */
+	private ItemTable itemTable(String hierarchyCode) {
+		final ItemTable cachedTable = itemTables.get(hierarchyCode);
+		if (cachedTable != null) {
+			return cachedTable;
+		}
+		final List<Boolean> longCodes = namedParameterJdbcTemplate
+			.queryForList(
+				"select longCodes from T_MPTT_HIERARCHY where code = :code",
+				Collections.singletonMap("code", hierarchyCode),
+				Boolean.class
+			);
+		if (longCodes.isEmpty()) {
+			return ItemTable.STRING_CODES;
+		}
+		final ItemTable itemTable = ItemTable.forCodes(longCodes.get(0));
+		itemTables.put(hierarchyCode, itemTable);
+		return itemTable;
+	}
+
+	private Integer getHierarchyId(String hierarchyCode) {
+		return namedParameterJdbcTemplate.queryForObject(
+			"select id from T_MPTT_HIERARCHY where code = :code",
+			Collections.singletonMap("code", hierarchyCode),
+			Integer.class
+		);
+	}
+
+	private void logChanges(List<MapSqlParameterSource> changes) {
+		if (!changes.isEmpty()) {
+			namedParameterJdbcTemplate.batchUpdate(
+				"insert into T_MPTT_CHANGE_LOG (hierarchyCode, code, operation, oldLeftBound, oldRightBound, newLeftBound, newRightBound, changedAt) " +
+				"values (:hierarchyCode, :code, :operation, :oldLeftBound, :oldRightBound, :newLeftBound, :newRightBound, :changedAt)",
+				changes.toArray(new MapSqlParameterSource[0])
+			);
+		}
+	}
+
+	private static MapSqlParameterSource toChange(HierarchyChangeType type, String hierarchyCode, String code, HierarchyItem oldItem, HierarchyItem newItem) {
+		return new MapSqlParameterSource()
+			.addValue("hierarchyCode", hierarchyCode)
+			.addValue("code", code)
+			.addValue("operation", type.name())
+			.addValue("oldLeftBound", oldItem == null ? null : oldItem.getLeftBound())
+			.addValue("oldRightBound", oldItem == null ? null : oldItem.getRightBound())
+			.addValue("newLeftBound", newItem == null ? null : newItem.getLeftBound())
+			.addValue("newRightBound", newItem == null ? null : newItem.getRightBound())
+			.addValue("changedAt", System.currentTimeMillis());
+	}
+
 }
@@ -1,7 +1,10 @@
 package one.edee.oss.pmptt.dao.oracle;
 
+import lombok.RequiredArgsConstructor;
+import one.edee.oss.pmptt.dao.ItemTable;
+import one.edee.oss.pmptt.model.CompactHierarchyItem;
 import one.edee.oss.pmptt.model.HierarchyItem;
-import one.edee.oss.pmptt.model.HierarchyItemWithHistory;
+import one.edee.oss.pmptt.model.LongHierarchyItem;
 import org.springframework.jdbc.core.RowMapper;
 
 import java.sql.ResultSet;
@@ -13,11 +16,25 @@ import java.sql.SQLException;
  *
  * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2019
  */
+@RequiredArgsConstructor
 class HierarchyItemRowMapper implements RowMapper<HierarchyItem> {
+	private final ItemTable itemTable;
 
 	@Override
 	public HierarchyItem mapRow(ResultSet resultSet, int i) throws SQLException {
-		return new HierarchyItemWithHistory(
+		if (itemTable == ItemTable.LONG_CODES) {
+			return new LongHierarchyItem(
+					resultSet.getString("hierarchyCode"),
+					resultSet.getLong("code"),
+					resultSet.getShort("level"),
+					resultSet.getLong("leftBound"),
+					resultSet.getLong("rightBound"),
+					resultSet.getShort("numberOfChildren"),
+					resultSet.getShort("order"),
+					resultSet.getShort("bucket")
+			);
+		}
+		return new CompactHierarchyItem(
 				resultSet.getString("hierarchyCode"),
 				resultSet.getString("code"),
 				resultSet.getShort("level"),
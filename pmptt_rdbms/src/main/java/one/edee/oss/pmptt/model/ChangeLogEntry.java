@@ -0,0 +1,47 @@
+package one.edee.oss.pmptt.model;
+
+import lombok.Data;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+
+/**
+ * Single record of the change log table T_MPTT_CHANGE_LOG. Records are written in the same transaction as the change
+ * of the hierarchy item itself, so the change log contains only committed changes and no change is ever lost.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@Data
+public class ChangeLogEntry implements Serializable {
+	private static final long serialVersionUID = -2404378829016339458L;
+	/**
+	 * Monotonic sequence number of the change - consumers remember the last processed one and poll for the changes
+	 * after it.
+	 */
+	private final long sequence;
+	/**
+	 * Code of the hierarchy the change relates to.
+	 */
+	private final String hierarchyCode;
+	/**
+	 * Code of the item the change relates to, NULL for {@link HierarchyChangeType#HIERARCHY_REMOVED}.
+	 */
+	@Nullable private final String code;
+	/**
+	 * Type of the change.
+	 */
+	private final HierarchyChangeType type;
+	/**
+	 * Bounds of the item before the change, NULL for created items.
+	 */
+	@Nullable private final Bounds oldBounds;
+	/**
+	 * Bounds of the item after the change, NULL for removed items.
+	 */
+	@Nullable private final Bounds newBounds;
+	/**
+	 * Time of the change in milliseconds since epoch.
+	 */
+	private final long changedAt;
+
+}
@@ -1,22 +1,77 @@
 package one.edee.oss.pmptt.model;
 
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.apachecommons.CommonsLog;
+import one.edee.oss.pmptt.dao.ConcurrencyStrategy;
 import one.edee.oss.pmptt.dao.DbHierarchyStorage;
+import one.edee.oss.pmptt.dao.GroupCommitExecutor;
 import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.dao.IdentityMapDbHierarchyStorage;
+import one.edee.oss.pmptt.dao.InstrumentedDbHierarchyStorage;
 import one.edee.oss.pmptt.exception.MaxLevelExceeded;
 import one.edee.oss.pmptt.exception.PivotHierarchyNodeNotFound;
 import one.edee.oss.pmptt.exception.SectionExhausted;
 import one.edee.oss.pmptt.util.Assert;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
 /**
  * This implementation stores the hierarchy into the relational database.
  *
+ * Each write operation is executed in transaction and protected against concurrent writers according to
+ * {@link ConcurrencyStrategy} of the storage. Write operation first locks parent scopes it is going to modify - the row
+ * of the parent item, or the row of the hierarchy when root level is modified. Hierarchy row is always locked first,
+ * item rows follow ordered by their codes and the subtree of the moved / removed item is locked last. This order is
+ * the same for all writers so that writers modifying the same parents queue instead of failing and writers in disjoint
+ * subtrees proceed in parallel.
+ *
+ * When {@link #setIdentityMapEnabled(boolean) enabled}, items read or written by the operation are kept until its
+ * transaction completes, so that repeated lookups of the same item don't reach the database - see
+ * {@link IdentityMapDbHierarchyStorage}.
+ *
+ * When {@link GroupCommitExecutor} is set, write operations that are not part of the outer transaction are handed over
+ * to it and executed together with operations of other threads in shared transaction.
+ *
  * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2020
  */
+@CommonsLog
 public class DbHierarchy extends Hierarchy {
 	private TransactionTemplate txTemplate;
+	private TransactionTemplate readOnlyTxTemplate;
+	/**
+	 * Executor grouping write operations of concurrent threads into shared transactions, NULL when each operation
+	 * commits its own transaction.
+	 */
+	@Getter @Setter @Nullable private GroupCommitExecutor groupCommitExecutor;
+	/**
+	 * Decorator of the storage keeping items read or written by the current transaction, created once the storage
+	 * is set.
+	 */
+	private IdentityMapDbHierarchyStorage identityMapStorage;
+	/**
+	 * True if items read or written by the operation are kept for the rest of its transaction and served again without
+	 * querying the database, see {@link IdentityMapDbHierarchyStorage}. Disabled by default - within the outer
+	 * transaction the hierarchy returns the same cached item instances to all callers, so that the items must not be
+	 * modified by the caller and rows changed directly through the storage are not visible to the hierarchy.
+	 */
+	@Getter @Setter private boolean identityMapEnabled;
 
 	public DbHierarchy(String code, short levels, short sectionSize) {
 		super(code, levels, sectionSize);
@@ -27,139 +82,350 @@ public class DbHierarchy extends Hierarchy {
 		setStorage(storage);
 	}
 
+	public DbHierarchy(String code, short levels, short sectionSize, boolean longCodes) {
+		super(code, levels, sectionSize, longCodes);
+	}
+
+	public DbHierarchy(String code, short levels, short sectionSize, boolean longCodes, DbHierarchyStorage storage) {
+		super(code, levels, sectionSize, longCodes);
+		setStorage(storage);
+	}
+
 	@Override
 	public void setStorage(HierarchyStorage storage) {
 		super.setStorage(storage);
 		Assert.isTrue(storage instanceof DbHierarchyStorage, "Storage is expected to be of type DbHierarchyStorage.");
 		this.txTemplate = new TransactionTemplate(((DbHierarchyStorage)storage).getTransactionManager());
+		this.readOnlyTxTemplate = new TransactionTemplate(((DbHierarchyStorage)storage).getTransactionManager());
+		this.readOnlyTxTemplate.setReadOnly(true);
+		this.identityMapStorage = new IdentityMapDbHierarchyStorage((DbHierarchyStorage) storage);
 	}
 
 	@Nonnull
 	@Override
 	public HierarchyItem createRootItem(@Nonnull String externalId) throws SectionExhausted {
-		return txTemplate.execute(transactionStatus -> super.createRootItem(externalId));
+		return instrument("createRootItem", externalId, () -> executeUnderParent(null, () -> super.createRootItem(externalId)));
 	}
 
 	@Nonnull
 	@Override
 	public HierarchyItem createRootItem(@Nonnull String externalId, String before) throws PivotHierarchyNodeNotFound, SectionExhausted {
-		return txTemplate.execute(transactionStatus -> super.createRootItem(externalId, before));
+		return instrument("createRootItem", externalId, before, () -> executeUnderParent(null, () -> super.createRootItem(externalId, before)));
 	}
 
 	@Nonnull
 	@Override
 	public HierarchyItem createItem(@Nonnull String externalId, @Nonnull String withParent) throws PivotHierarchyNodeNotFound, SectionExhausted, MaxLevelExceeded {
-		return txTemplate.execute(transactionStatus -> super.createItem(externalId, withParent));
+		return instrument("createItem", externalId, withParent, () -> executeUnderParent(withParent, () -> super.createItem(externalId, withParent)));
 	}
 
 	@Nonnull
 	@Override
 	public HierarchyItem createItem(@Nonnull String externalId, @Nonnull String withParent, String before) throws PivotHierarchyNodeNotFound, SectionExhausted, MaxLevelExceeded {
-		return txTemplate.execute(transactionStatus -> super.createItem(externalId, withParent, before));
+		return instrument("createItem", externalId, withParent, before, () -> executeUnderParent(withParent, () -> super.createItem(externalId, withParent, before)));
 	}
 
 	@Override
 	public void removeItem(@Nonnull String externalId) throws PivotHierarchyNodeNotFound {
-		txTemplate.execute(transactionStatus -> {
+		instrument("removeItem", externalId, () -> executeOnItem(externalId, Collections.emptySet(), true, () -> {
 			super.removeItem(externalId);
 			return null;
-		});
+		}));
 	}
-	
+
 	@Override
 	public void moveItemBetweenLevelsBefore(@Nonnull String externalId, @Nonnull String withParent, @Nonnull String before) {
-		txTemplate.execute(transactionStatus -> {
+		instrument("moveItemBetweenLevelsBefore", externalId, withParent, before, () -> executeOnItem(externalId, Collections.singleton(withParent), true, () -> {
 			super.moveItemBetweenLevelsBefore(externalId, withParent, before);
 			return null;
-		});
+		}));
 	}
-	
+
 	@Override
 	public void moveItemBetweenLevelsBefore(@Nonnull String externalId, @Nonnull String before) {
-		txTemplate.execute(transactionStatus -> {
+		instrument("moveItemBetweenLevelsBefore", externalId, before, () -> executeOnItem(externalId, Collections.singleton(null), true, () -> {
 			super.moveItemBetweenLevelsBefore(externalId, before);
 			return null;
-		});
+		}));
 	}
 
 	@Override
 	public void moveItemBetweenLevelsAfter(@Nonnull String externalId, @Nonnull String withParent, @Nonnull String after) {
-		txTemplate.execute(transactionStatus -> {
+		instrument("moveItemBetweenLevelsAfter", externalId, withParent, after, () -> executeOnItem(externalId, Collections.singleton(withParent), true, () -> {
 			super.moveItemBetweenLevelsAfter(externalId, withParent, after);
 			return null;
-		});
+		}));
 	}
 
 	@Override
 	public void moveItemBetweenLevelsAfter(@Nonnull String externalId, @Nonnull String after) {
-		txTemplate.execute(transactionStatus -> {
+		instrument("moveItemBetweenLevelsAfter", externalId, after, () -> executeOnItem(externalId, Collections.singleton(null), true, () -> {
 			super.moveItemBetweenLevelsAfter(externalId, after);
 			return null;
-		});
+		}));
 	}
 
 	@Override
 	public void moveItemBetweenLevelsFirst(@Nonnull String externalId) {
-		txTemplate.execute(transactionStatus -> {
+		instrument("moveItemBetweenLevelsFirst", externalId, () -> executeOnItem(externalId, Collections.singleton(null), true, () -> {
 			super.moveItemBetweenLevelsFirst(externalId);
 			return null;
-		});
+		}));
 	}
 
 	@Override
 	public void moveItemBetweenLevelsFirst(@Nonnull String externalId, @Nonnull String withParent) {
-		txTemplate.execute(transactionStatus -> {
+		instrument("moveItemBetweenLevelsFirst", externalId, withParent, () -> executeOnItem(externalId, Collections.singleton(withParent), true, () -> {
 			super.moveItemBetweenLevelsFirst(externalId, withParent);
 			return null;
-		});
+		}));
 	}
-	
+
 	@Override
 	public void moveItemBetweenLevelsLast(@Nonnull String externalId, @Nonnull String withParent) {
-		txTemplate.execute(transactionStatus -> {
+		instrument("moveItemBetweenLevelsLast", externalId, withParent, () -> executeOnItem(externalId, Collections.singleton(withParent), true, () -> {
 			super.moveItemBetweenLevelsLast(externalId, withParent);
 			return null;
-		});
+		}));
 	}
-	
+
 	@Override
 	public void moveItemBetweenLevelsLast(@Nonnull String externalId) {
-		txTemplate.execute(transactionStatus -> {
+		instrument("moveItemBetweenLevelsLast", externalId, () -> executeOnItem(externalId, Collections.singleton(null), true, () -> {
 			super.moveItemBetweenLevelsLast(externalId);
 			return null;
-		});
+		}));
 	}
 
 	@Override
 	public void moveItemBefore(@Nonnull String externalId, @Nonnull String before) throws PivotHierarchyNodeNotFound {
-		txTemplate.execute(transactionStatus -> {
+		instrument("moveItemBefore", externalId, before, () -> executeOnItem(externalId, Collections.emptySet(), false, () -> {
 			super.moveItemBefore(externalId, before);
 			return null;
-		});
+		}));
 	}
-	
+
 	@Override
 	public void moveItemAfter(@Nonnull String externalId, @Nonnull String after) throws PivotHierarchyNodeNotFound {
-		txTemplate.execute(transactionStatus -> {
+		instrument("moveItemAfter", externalId, after, () -> executeOnItem(externalId, Collections.emptySet(), false, () -> {
 			super.moveItemAfter(externalId, after);
 			return null;
-		});
+		}));
 	}
-	
+
 	@Override
 	public void moveItemToFirst(@Nonnull String externalId) throws PivotHierarchyNodeNotFound {
-		txTemplate.execute(transactionStatus -> {
+		instrument("moveItemToFirst", externalId, () -> executeOnItem(externalId, Collections.emptySet(), false, () -> {
 			super.moveItemToFirst(externalId);
 			return null;
-		});
+		}));
 	}
-	
+
 	@Override
 	public void moveItemToLast(@Nonnull String externalId) throws PivotHierarchyNodeNotFound {
-		txTemplate.execute(transactionStatus -> {
+		instrument("moveItemToLast", externalId, () -> executeOnItem(externalId, Collections.emptySet(), false, () -> {
 			super.moveItemToLast(externalId);
 			return null;
-		});
+		}));
+	}
+
+	/**
+	 * Executes the reads in read-only transaction unless they participate in the outer transaction already.
+	 */
+	@Override
+	protected <T> T executeReadOnly(@Nonnull Supplier<T> logic) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return logic.get();
+		}
+		return readOnlyTxTemplate.execute(transactionStatus -> logic.get());
+	}
+
+	@Nonnull
+	@Override
+	protected HierarchyStorage storage() {
+		final DbHierarchyStorage storage = (DbHierarchyStorage) getStorage();
+		final DbHierarchyStorage decoratedStorage = decorate(storage, InstrumentedDbHierarchyStorage::new);
+		if (!identityMapEnabled) {
+			return decoratedStorage;
+		}
+		// instrumented calls share the cache of the identity map built for the storage
+		return decoratedStorage == storage ? identityMapStorage : identityMapStorage.withDelegate(decoratedStorage);
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	private DbHierarchyStorage getDbStorage() {
+		return (DbHierarchyStorage) storage();
+	}
+
+	/**
+	 * Executes write operation that modifies children of single parent known in advance.
+	 *
+	 * @param parentCode code of the parent item, NULL for the root level
+	 * @param logic write operation
+	 */
+	private <T> T executeUnderParent(@Nullable String parentCode, @Nonnull Supplier<T> logic) {
+		return groupCommit(() -> executeWithRetry(() -> txTemplate.execute(transactionStatus -> {
+			if (getDbStorage().getConcurrencyStrategy().isLockingEnabled()) {
+				lockParents(Collections.singleton(parentCode));
+			}
+			return logic.get();
+		})));
+	}
+
+	/**
+	 * Executes write operation that modifies existing item. Current parent of the item needs to be looked up before
+	 * any lock is acquired - the lookup is verified again once all locks are held, and when the item was moved by
+	 * another writer in the meantime the operation is retried.
+	 *
+	 * @param externalId code of the modified item
+	 * @param targetParentCodes codes of other parents that will be modified by the operation (NULL for the root level)
+	 * @param lockSubtree true if entire subtree of the item will be modified by the operation
+	 * @param logic write operation
+	 */
+	private <T> T executeOnItem(@Nonnull String externalId, @Nonnull Collection<String> targetParentCodes, boolean lockSubtree, @Nonnull Supplier<T> logic) {
+		return groupCommit(() -> executeOnLockedItem(externalId, targetParentCodes, lockSubtree, logic));
+	}
+
+	/**
+	 * Executes write operation that modifies existing item, see {@link #executeOnItem(String, Collection, boolean, Supplier)}.
+	 */
+	private <T> T executeOnLockedItem(@Nonnull String externalId, @Nonnull Collection<String> targetParentCodes, boolean lockSubtree, @Nonnull Supplier<T> logic) {
+		if (!getDbStorage().getConcurrencyStrategy().isLockingEnabled()) {
+			return executeWithRetry(() -> txTemplate.execute(transactionStatus -> logic.get()));
+		}
+		return executeWithRetry(
+			() -> {
+				final ItemPosition expectedPosition = TransactionSynchronizationManager.isActualTransactionActive() ?
+					getItemPosition(externalId) : txTemplate.execute(transactionStatus -> getItemPosition(externalId));
+				return txTemplate.execute(transactionStatus -> {
+					if (expectedPosition != null) {
+						final Set<String> parentCodes = new HashSet<>(targetParentCodes);
+						parentCodes.add(expectedPosition.getParentCode());
+						lockParents(parentCodes);
+
+						final ItemPosition currentPosition = getItemPosition(externalId);
+						if (!expectedPosition.equals(currentPosition)) {
+							throw new OptimisticLockingFailureException(
+								"Item " + externalId + " has been moved by another writer in the meantime."
+							);
+						}
+						if (lockSubtree) {
+							getDbStorage().lockSubtree(currentPosition.getItem());
+						}
+					}
+					return logic.get();
+				});
+			}
+		);
+	}
+
+	/**
+	 * Hands the write operation over to the {@link GroupCommitExecutor} and waits until the shared transaction
+	 * is committed. Operation is executed directly when there is no running executor, when it participates in the outer
+	 * transaction or when it's already executed by the executor.
+	 */
+	private <T> T groupCommit(@Nonnull Supplier<T> operation) {
+		final GroupCommitExecutor executor = this.groupCommitExecutor;
+		if (executor == null || !executor.isRunning() || executor.isWorkerThread() ||
+			TransactionSynchronizationManager.isActualTransactionActive()) {
+			return operation.get();
+		}
+		final String currentOperation = getCurrentOperation();
+		return executor.execute(() -> executeAsPartOf(currentOperation, operation));
+	}
+
+	/**
+	 * Locks parent scopes - hierarchy row first and then rows of the parent items ordered by their codes.
+	 *
+	 * @param parentCodes codes of the parent items, NULL represents the root level
+	 */
+	private void lockParents(@Nonnull Set<String> parentCodes) {
+		final DbHierarchyStorage storage = getDbStorage();
+		storage.lockHierarchy(getCode(), parentCodes.contains(null));
+		final Set<String> itemCodes = new TreeSet<>();
+		for (String parentCode : parentCodes) {
+			if (parentCode != null) {
+				itemCodes.add(parentCode);
+			}
+		}
+		storage.lockItems(getCode(), itemCodes);
+	}
+
+	@Nullable
+	private ItemPosition getItemPosition(@Nonnull String externalId) {
+		final DbHierarchyStorage storage = getDbStorage();
+		final HierarchyItem item = storage.getItem(getCode(), externalId);
+		if (item == null) {
+			return null;
+		}
+		final HierarchyItem parent = storage.getParentItem(item);
+		return new ItemPosition(item, parent == null ? null : parent.getCode());
+	}
+
+	/**
+	 * Executes logic (that opens its own transaction). Logic that fails on deadlock, lock timeout or unique constraint
+	 * violation is retried with backoff unless it participates in the outer transaction that is out of our control.
+	 */
+	private <T> T executeWithRetry(@Nonnull Supplier<T> logic) {
+		final ConcurrencyStrategy strategy = getDbStorage().getConcurrencyStrategy();
+		final boolean retryable = !TransactionSynchronizationManager.isActualTransactionActive();
+		int attempt = 1;
+		while (true) {
+			try {
+				return logic.get();
+			} catch (ConcurrencyFailureException | DuplicateKeyException ex) {
+				if (!retryable || attempt >= strategy.getMaxAttempts()) {
+					throw ex;
+				}
+				final String operation = getCurrentOperation();
+				getInstrumentation().transactionRetried(getCode(), operation == null ? OPERATION_PREFIX + "unknown" : operation, attempt, ex);
+				backoff(strategy, attempt, ex);
+				attempt++;
+			}
+		}
+	}
+
+	private void backoff(@Nonnull ConcurrencyStrategy strategy, int attempt, @Nonnull DataAccessException ex) {
+		final long backoffMillis = strategy.getBackoffMillis(attempt);
+		if (log.isDebugEnabled()) {
+			log.debug(
+				"Attempt " + attempt + " to modify hierarchy " + getCode() + " failed on concurrent modification " +
+					"(" + ex.getMessage() + "), retrying in " + backoffMillis + "ms."
+			);
+		}
+		try {
+			Thread.sleep(backoffMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Position of the item in the tree as observed before locks were acquired.
+	 */
+	@RequiredArgsConstructor
+	private static class ItemPosition {
+		@Getter private final HierarchyItem item;
+		@Getter private final String parentCode;
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			final ItemPosition that = (ItemPosition) o;
+			return Objects.equals(parentCode, that.parentCode) &&
+				Objects.equals(item.getLeftBound(), that.item.getLeftBound()) &&
+				Objects.equals(item.getRightBound(), that.item.getRightBound());
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(new Object[] {parentCode, item.getLeftBound(), item.getRightBound()});
+		}
 	}
 
 }
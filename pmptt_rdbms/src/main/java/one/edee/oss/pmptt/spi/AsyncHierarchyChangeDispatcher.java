@@ -0,0 +1,379 @@
+package one.edee.oss.pmptt.spi;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.extern.apachecommons.CommonsLog;
+import one.edee.oss.pmptt.model.HierarchyChange;
+import one.edee.oss.pmptt.model.HierarchyChangeType;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.util.Assert;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dispatcher decouples delivery of hierarchy changes from the writing transaction. It is registered as regular
+ * {@link HierarchyChangeListener} on the {@link one.edee.oss.pmptt.dao.HierarchyStorage} and:
+ *
+ * - buffers changes per transaction (changes of the rolled back transaction are discarded)
+ * - after commit hands the changes to the bounded queue
+ * - single worker thread drains the queue and delivers changes in batches to {@link BulkHierarchyChangeListener}
+ *
+ * When there is no transaction synchronization active (for example with memory storage) changes are queued
+ * immediately. When the queue is full the behaviour is driven by {@link Backpressure} strategy. Dispatcher should be
+ * closed when application shuts down - pending changes are delivered before the worker stops.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@CommonsLog
+public class AsyncHierarchyChangeDispatcher implements HierarchyChangeListener, AutoCloseable {
+	/**
+	 * Default maximal number of changes waiting for delivery.
+	 */
+	public static final int DEFAULT_CAPACITY = 10_000;
+	/**
+	 * Default maximal number of changes delivered in single {@link BulkHierarchyChangeListener#itemsChanged(List)} call.
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+	private final BulkHierarchyChangeListener listener;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private final Deque<PendingChange> queue = new ArrayDeque<>();
+	/**
+	 * Index of queued changes by item - used only by {@link Backpressure#COALESCE} strategy.
+	 */
+	private final Map<ChangeKey, PendingChange> queuedByItem = new HashMap<>();
+	private final Thread worker;
+	private boolean running = true;
+	private long droppedCount;
+	/**
+	 * Maximal number of changes waiting for delivery.
+	 */
+	@Getter private final int capacity;
+	/**
+	 * Maximal number of changes delivered in single batch.
+	 */
+	@Getter private final int maxBatchSize;
+	/**
+	 * Strategy applied when the queue is full.
+	 */
+	@Getter private final Backpressure backpressure;
+
+	public AsyncHierarchyChangeDispatcher(@Nonnull BulkHierarchyChangeListener listener) {
+		this(listener, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH_SIZE, Backpressure.BLOCK);
+	}
+
+	public AsyncHierarchyChangeDispatcher(@Nonnull BulkHierarchyChangeListener listener, int capacity, int maxBatchSize, @Nonnull Backpressure backpressure) {
+		Assert.isTrue(capacity > 0, "Capacity must be positive!");
+		Assert.isTrue(maxBatchSize > 0, "Max batch size must be positive!");
+		this.listener = listener;
+		this.capacity = capacity;
+		this.maxBatchSize = maxBatchSize;
+		this.backpressure = backpressure;
+		this.worker = new Thread(this::deliverChanges, "PMPTT-change-dispatcher");
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+
+	@Override
+	public void itemCreated(HierarchyItem createdItem) {
+		dispatch(HierarchyChange.snapshot(HierarchyChangeType.CREATED, createdItem, null));
+	}
+
+	@Override
+	public void itemUpdated(HierarchyItem updatedItem, HierarchyItem originalItem) {
+		dispatch(HierarchyChange.snapshot(HierarchyChangeType.UPDATED, updatedItem, originalItem));
+	}
+
+	@Override
+	public void itemRemoved(HierarchyItem removeItem) {
+		dispatch(HierarchyChange.snapshot(HierarchyChangeType.REMOVED, removeItem, null));
+	}
+
+	/**
+	 * Returns count of changes that were not delivered because the queue was full ({@link Backpressure#DROP}) or
+	 * dispatcher has been already closed (or its worker thread stopped).
+	 */
+	public long getDroppedCount() {
+		lock.lock();
+		try {
+			return droppedCount;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns count of changes waiting for delivery.
+	 */
+	public int getPendingCount() {
+		lock.lock();
+		try {
+			return queue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Stops accepting new changes, delivers pending ones and stops the worker thread. When the calling thread is
+	 * interrupted while waiting for the worker, the interrupt flag is restored and the worker finishes in background.
+	 */
+	@Override
+	public void close() {
+		lock.lock();
+		try {
+			running = false;
+			notEmpty.signalAll();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			worker.join(TimeUnit.SECONDS.toMillis(30));
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	private void dispatch(@Nonnull HierarchyChange change) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionBuffer buffer = (TransactionBuffer) TransactionSynchronizationManager.getResource(this);
+			if (buffer == null) {
+				buffer = new TransactionBuffer();
+				TransactionSynchronizationManager.bindResource(this, buffer);
+				TransactionSynchronizationManager.registerSynchronization(buffer);
+			}
+			buffer.changes.add(change);
+		} else {
+			enqueue(Collections.singletonList(change));
+		}
+	}
+
+	private void enqueue(@Nonnull List<HierarchyChange> changes) {
+		lock.lock();
+		try {
+			for (int i = 0; i < changes.size(); i++) {
+				final HierarchyChange change = changes.get(i);
+				final ChangeKey key = new ChangeKey(change.getHierarchyCode(), change.getCode());
+				if (backpressure == Backpressure.COALESCE && coalesce(key, change)) {
+					continue;
+				}
+				while (running && queue.size() >= capacity && backpressure != Backpressure.DROP) {
+					try {
+						notFull.await();
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						droppedCount += changes.size() - i;
+						log.warn("Interrupted while waiting for free space in the queue, " + (changes.size() - i) + " changes dropped.");
+						return;
+					}
+				}
+				if (!running || queue.size() >= capacity) {
+					droppedCount++;
+					log.debug("Change of item " + change.getCode() + " dropped.");
+					continue;
+				}
+				final PendingChange pendingChange = new PendingChange(key, change);
+				queue.add(pendingChange);
+				if (backpressure == Backpressure.COALESCE) {
+					queuedByItem.put(key, pendingChange);
+				}
+				notEmpty.signal();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Merges the change with the change of the same item still waiting in the queue.
+	 * @return true if the change was merged and should not be queued
+	 */
+	private boolean coalesce(@Nonnull ChangeKey key, @Nonnull HierarchyChange change) {
+		final PendingChange pendingChange = queuedByItem.get(key);
+		if (pendingChange == null) {
+			return false;
+		}
+		final HierarchyChange merged = merge(pendingChange.change, change);
+		if (merged == null) {
+			queue.remove(pendingChange);
+			queuedByItem.remove(key);
+			notFull.signalAll();
+		} else {
+			pendingChange.change = merged;
+		}
+		return true;
+	}
+
+	/**
+	 * Merges two consecutive changes of the same item into the one or returns NULL if they cancel each other out.
+	 */
+	@Nullable
+	private static HierarchyChange merge(@Nonnull HierarchyChange previous, @Nonnull HierarchyChange next) {
+		switch (previous.getType()) {
+			case CREATED:
+				if (next.getType() == HierarchyChangeType.REMOVED) {
+					return null;
+				}
+				return new HierarchyChange(HierarchyChangeType.CREATED, next.getItem(), null);
+			case UPDATED:
+				if (next.getType() == HierarchyChangeType.REMOVED) {
+					return next;
+				}
+				return new HierarchyChange(HierarchyChangeType.UPDATED, next.getItem(), previous.getOriginalItem());
+			case REMOVED:
+				if (next.getType() == HierarchyChangeType.CREATED) {
+					return new HierarchyChange(HierarchyChangeType.UPDATED, next.getItem(), previous.getItem());
+				}
+				return next;
+			default:
+				return next;
+		}
+	}
+
+	private void deliverChanges() {
+		try {
+			while (true) {
+				final List<HierarchyChange> batch;
+				lock.lock();
+				try {
+					while (running && queue.isEmpty()) {
+						notEmpty.await();
+					}
+					if (queue.isEmpty()) {
+						return;
+					}
+					batch = new ArrayList<>(Math.min(queue.size(), maxBatchSize));
+					while (!queue.isEmpty() && batch.size() < maxBatchSize) {
+						final PendingChange pendingChange = queue.poll();
+						queuedByItem.remove(pendingChange.key);
+						batch.add(pendingChange.change);
+					}
+					notFull.signalAll();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					return;
+				} finally {
+					lock.unlock();
+				}
+
+				try {
+					listener.itemsChanged(batch);
+				} catch (Throwable ex) {
+					// errors of the listener must not kill the worker - committing threads would wait for it forever
+					log.error("Listener failed to process " + batch.size() + " hierarchy changes.", ex);
+				}
+			}
+		} finally {
+			stopAcceptingChanges();
+		}
+	}
+
+	/**
+	 * Called when the worker terminates - changes that can no longer be delivered are dropped and threads waiting
+	 * for free space in the queue are released.
+	 */
+	private void stopAcceptingChanges() {
+		lock.lock();
+		try {
+			running = false;
+			if (!queue.isEmpty()) {
+				droppedCount += queue.size();
+				log.warn("Change dispatcher worker stopped, " + queue.size() + " undelivered hierarchy changes dropped.");
+				queue.clear();
+				queuedByItem.clear();
+			}
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Strategy applied when changes are produced faster than the listener is able to consume them.
+	 */
+	public enum Backpressure {
+
+		/**
+		 * Committing thread waits until there is free space in the queue.
+		 */
+		BLOCK,
+		/**
+		 * Changes that don't fit into the queue are dropped (and counted in {@link #getDroppedCount()}).
+		 */
+		DROP,
+		/**
+		 * Change of the item that has not been delivered yet is merged with the new change of the same item, so that
+		 * the listener receives only the latest state. When the queue is full of distinct items committing thread waits
+		 * as with {@link #BLOCK}.
+		 */
+		COALESCE
+
+	}
+
+	/**
+	 * Identifies item the change relates to.
+	 */
+	@Data
+	private static class ChangeKey {
+		private final String hierarchyCode;
+		private final String code;
+	}
+
+	/**
+	 * Queue entry - change may be replaced by the merged one while it waits in the queue.
+	 */
+	@AllArgsConstructor
+	private static class PendingChange {
+		private final ChangeKey key;
+		private HierarchyChange change;
+	}
+
+	/**
+	 * Changes of the current transaction waiting for its completion.
+	 */
+	private class TransactionBuffer implements TransactionSynchronization {
+		private final List<HierarchyChange> changes = new ArrayList<>();
+
+		@Override
+		public void suspend() {
+			TransactionSynchronizationManager.unbindResource(AsyncHierarchyChangeDispatcher.this);
+		}
+
+		@Override
+		public void resume() {
+			TransactionSynchronizationManager.bindResource(AsyncHierarchyChangeDispatcher.this, this);
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(AsyncHierarchyChangeDispatcher.this);
+			if (status == STATUS_COMMITTED) {
+				enqueue(changes);
+			} else {
+				log.debug("Transaction rolled back, " + changes.size() + " hierarchy changes discarded.");
+			}
+		}
+	}
+
+}
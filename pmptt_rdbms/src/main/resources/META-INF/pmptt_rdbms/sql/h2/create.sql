@@ -0,0 +1,89 @@
+create table T_MPTT_HIERARCHY
+(
+	id int generated by default as identity primary key,
+	code varchar(255) not null,
+	levels smallint not null,
+	sectionSize smallint not null,
+	longCodes boolean default false not null
+);
+
+alter table T_MPTT_HIERARCHY
+	add constraint UQ_MPTT_HIERARCHY_CODE unique (code);
+
+create table T_MPTT_ITEM
+(
+    id int generated by default as identity primary key,
+    code varchar(255) not null,
+    hierarchyCode varchar(255) not null,
+    hierarchy_id int not null,
+    level smallint not null,
+    leftBound bigint not null,
+    rightBound bigint not null,
+    numberOfChildren smallint not null,
+    "order" smallint not null,
+    bucket smallint not null,
+    constraint FK_MPTT_ITEM_HIERARCHY_CODE
+        foreign key (hierarchyCode) references T_MPTT_HIERARCHY (code)
+            on update cascade on delete cascade,
+    constraint FK_MPTT_ITEM_HIERARCHY_ID
+        foreign key (hierarchy_id) references T_MPTT_HIERARCHY (id)
+            on update cascade on delete cascade
+);
+
+create unique index UQ_MPTT_ITEM_SANITY
+    on T_MPTT_ITEM (hierarchyCode, leftBound, rightBound);
+
+create unique index UQ_MPTT_ITEM_COMPOSITE_KEY
+    on T_MPTT_ITEM (hierarchyCode, code);
+
+create table T_MPTT_LONG_ITEM
+(
+    id int generated by default as identity primary key,
+    code bigint not null,
+    hierarchyCode varchar(255) not null,
+    hierarchy_id int not null,
+    level smallint not null,
+    leftBound bigint not null,
+    rightBound bigint not null,
+    numberOfChildren smallint not null,
+    "order" smallint not null,
+    bucket smallint not null,
+    constraint FK_MPTT_LONG_ITEM_HIERARCHY_CODE
+        foreign key (hierarchyCode) references T_MPTT_HIERARCHY (code)
+            on update cascade on delete cascade,
+    constraint FK_MPTT_LONG_ITEM_HIERARCHY_ID
+        foreign key (hierarchy_id) references T_MPTT_HIERARCHY (id)
+            on update cascade on delete cascade
+);
+
+create unique index UQ_MPTT_LONG_ITEM_SANITY
+    on T_MPTT_LONG_ITEM (hierarchyCode, leftBound, rightBound);
+
+create unique index UQ_MPTT_LONG_ITEM_COMPOSITE_KEY
+    on T_MPTT_LONG_ITEM (hierarchyCode, code);
+
+create table T_MPTT_BUCKET_LEASE
+(
+    hierarchyCode varchar(255) not null,
+    parentCode varchar(255) not null,
+    bucket smallint not null,
+    leaseOwner varchar(255) not null,
+    expiresAt bigint not null,
+    constraint PK_MPTT_BUCKET_LEASE primary key (hierarchyCode, parentCode, bucket)
+);
+
+create table T_MPTT_CHANGE_LOG
+(
+    id bigint generated by default as identity primary key,
+    hierarchyCode varchar(255) not null,
+    code varchar(255) null,
+    operation varchar(32) not null,
+    oldLeftBound bigint null,
+    oldRightBound bigint null,
+    newLeftBound bigint null,
+    newRightBound bigint null,
+    changedAt bigint not null
+);
+
+create index IX_MPTT_CHANGE_LOG_HIERARCHY
+    on T_MPTT_CHANGE_LOG (hierarchyCode, id);
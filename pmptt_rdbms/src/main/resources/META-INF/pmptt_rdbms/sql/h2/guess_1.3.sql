@@ -0,0 +1 @@
+select id from T_MPTT_HIERARCHY;
\ No newline at end of file
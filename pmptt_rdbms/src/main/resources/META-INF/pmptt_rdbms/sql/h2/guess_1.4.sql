@@ -0,0 +1 @@
+select bucket from T_MPTT_BUCKET_LEASE;
@@ -0,0 +1,11 @@
+-- Patch 1.4: Add table for pre-reserved bucket leases
+
+create table T_MPTT_BUCKET_LEASE
+(
+    hierarchyCode varchar(255) not null,
+    parentCode varchar(255) not null,
+    bucket smallint not null,
+    leaseOwner varchar(255) not null,
+    expiresAt bigint not null,
+    constraint PK_MPTT_BUCKET_LEASE primary key (hierarchyCode, parentCode, bucket)
+);
@@ -0,0 +1,30 @@
+-- Patch 1.6: Add item table with numeric codes for long-keyed hierarchies
+
+alter table T_MPTT_HIERARCHY
+	add longCodes boolean default false not null;
+
+create table T_MPTT_LONG_ITEM
+(
+    id int generated by default as identity primary key,
+    code bigint not null,
+    hierarchyCode varchar(255) not null,
+    hierarchy_id int not null,
+    level smallint not null,
+    leftBound bigint not null,
+    rightBound bigint not null,
+    numberOfChildren smallint not null,
+    "order" smallint not null,
+    bucket smallint not null,
+    constraint FK_MPTT_LONG_ITEM_HIERARCHY_CODE
+        foreign key (hierarchyCode) references T_MPTT_HIERARCHY (code)
+            on update cascade on delete cascade,
+    constraint FK_MPTT_LONG_ITEM_HIERARCHY_ID
+        foreign key (hierarchy_id) references T_MPTT_HIERARCHY (id)
+            on update cascade on delete cascade
+);
+
+create unique index UQ_MPTT_LONG_ITEM_SANITY
+    on T_MPTT_LONG_ITEM (hierarchyCode, leftBound, rightBound);
+
+create unique index UQ_MPTT_LONG_ITEM_COMPOSITE_KEY
+    on T_MPTT_LONG_ITEM (hierarchyCode, code);
@@ -0,0 +1,17 @@
+-- Patch 1.5: Add change log table for incremental consumers
+
+create table T_MPTT_CHANGE_LOG
+(
+    id bigint not null auto_increment primary key,
+    hierarchyCode varchar(255) not null,
+    code varchar(255) null,
+    operation varchar(32) not null,
+    oldLeftBound bigint null,
+    oldRightBound bigint null,
+    newLeftBound bigint null,
+    newRightBound bigint null,
+    changedAt bigint not null
+);
+
+create index IX_MPTT_CHANGE_LOG_HIERARCHY
+    on T_MPTT_CHANGE_LOG (hierarchyCode, id);
@@ -8,6 +8,7 @@ create table T_MPTT_HIERARCHY
 	"code" varchar2(255) not null,
     "levels" smallint not null,
     "sectionSize" smallint not null,
+    "longCodes" number(1) default 0 not null,
     constraint PK_MPTT_HIERARCHY_ID primary key ("id")
 );
 
@@ -40,3 +41,59 @@ create unique index UQ_MPTT_ITEM_SANITY
 
 create unique index UQ_MPTT_ITEM_COMPOSITE_KEY
     on T_MPTT_ITEM ("hierarchyCode", "code");
+
+create table T_MPTT_LONG_ITEM
+(
+    "id" number(10) not null,
+    "code" number(19) not null,
+    "hierarchyCode" varchar2(255) not null,
+    "hierarchy_id" number(10) not null,
+    "level" smallint not null,
+    "leftBound" number(19) not null,
+    "rightBound" number(19) not null,
+    "numberOfChildren" smallint not null,
+    "order" smallint not null,
+    "bucket" smallint not null,
+    constraint PK_MPTT_LONG_ITEM_ID primary key ("id"),
+    constraint FK_MPTT_LONG_ITEM_HIER_CODE
+        foreign key ("hierarchyCode") references T_MPTT_HIERARCHY ("code")
+            on delete cascade,
+    constraint FK_MPTT_LONG_ITEM_HIER_ID
+        foreign key ("hierarchy_id") references T_MPTT_HIERARCHY ("id")
+            on delete cascade
+);
+
+create unique index UQ_MPTT_LONG_ITEM_SANITY
+    on T_MPTT_LONG_ITEM ("hierarchyCode", "leftBound", "rightBound");
+
+create unique index UQ_MPTT_LONG_ITEM_COMP_KEY
+    on T_MPTT_LONG_ITEM ("hierarchyCode", "code");
+
+create table T_MPTT_BUCKET_LEASE
+(
+    hierarchyCode varchar2(255) not null,
+    parentCode varchar2(255) not null,
+    bucket smallint not null,
+    leaseOwner varchar2(255) not null,
+    expiresAt number(19) not null,
+    constraint PK_MPTT_BUCKET_LEASE primary key (hierarchyCode, parentCode, bucket)
+);
+
+CREATE SEQUENCE SEQ_MPTT_CHANGE_LOG_ID START WITH 1 INCREMENT BY 1;
+
+create table T_MPTT_CHANGE_LOG
+(
+    "id" number(19) not null,
+    "hierarchyCode" varchar2(255) not null,
+    "code" varchar2(255) null,
+    "operation" varchar2(32) not null,
+    "oldLeftBound" number(19) null,
+    "oldRightBound" number(19) null,
+    "newLeftBound" number(19) null,
+    "newRightBound" number(19) null,
+    "changedAt" number(19) not null,
+    constraint PK_MPTT_CHANGE_LOG_ID primary key ("id")
+);
+
+create index IX_MPTT_CHANGE_LOG_HIERARCHY
+    on T_MPTT_CHANGE_LOG ("hierarchyCode", "id");
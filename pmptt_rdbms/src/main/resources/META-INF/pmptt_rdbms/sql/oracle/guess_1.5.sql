@@ -0,0 +1 @@
+select "id" from T_MPTT_CHANGE_LOG;
@@ -0,0 +1,11 @@
+-- Patch 1.4: Add table for pre-reserved bucket leases
+
+create table T_MPTT_BUCKET_LEASE
+(
+    hierarchyCode varchar2(255) not null,
+    parentCode varchar2(255) not null,
+    bucket smallint not null,
+    leaseOwner varchar2(255) not null,
+    expiresAt number(19) not null,
+    constraint PK_MPTT_BUCKET_LEASE primary key (hierarchyCode, parentCode, bucket)
+);
@@ -0,0 +1,20 @@
+-- Patch 1.5: Add change log table for incremental consumers
+
+CREATE SEQUENCE SEQ_MPTT_CHANGE_LOG_ID START WITH 1 INCREMENT BY 1;
+
+create table T_MPTT_CHANGE_LOG
+(
+    "id" number(19) not null,
+    "hierarchyCode" varchar2(255) not null,
+    "code" varchar2(255) null,
+    "operation" varchar2(32) not null,
+    "oldLeftBound" number(19) null,
+    "oldRightBound" number(19) null,
+    "newLeftBound" number(19) null,
+    "newRightBound" number(19) null,
+    "changedAt" number(19) not null,
+    constraint PK_MPTT_CHANGE_LOG_ID primary key ("id")
+);
+
+create index IX_MPTT_CHANGE_LOG_HIERARCHY
+    on T_MPTT_CHANGE_LOG ("hierarchyCode", "id");
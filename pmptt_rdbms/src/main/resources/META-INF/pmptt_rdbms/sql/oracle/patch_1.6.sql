@@ -0,0 +1,31 @@
+-- Patch 1.6: Add item table with numeric codes for long-keyed hierarchies
+
+alter table T_MPTT_HIERARCHY
+	add "longCodes" number(1) default 0 not null;
+
+create table T_MPTT_LONG_ITEM
+(
+    "id" number(10) not null,
+    "code" number(19) not null,
+    "hierarchyCode" varchar2(255) not null,
+    "hierarchy_id" number(10) not null,
+    "level" smallint not null,
+    "leftBound" number(19) not null,
+    "rightBound" number(19) not null,
+    "numberOfChildren" smallint not null,
+    "order" smallint not null,
+    "bucket" smallint not null,
+    constraint PK_MPTT_LONG_ITEM_ID primary key ("id"),
+    constraint FK_MPTT_LONG_ITEM_HIER_CODE
+        foreign key ("hierarchyCode") references T_MPTT_HIERARCHY ("code")
+            on delete cascade,
+    constraint FK_MPTT_LONG_ITEM_HIER_ID
+        foreign key ("hierarchy_id") references T_MPTT_HIERARCHY ("id")
+            on delete cascade
+);
+
+create unique index UQ_MPTT_LONG_ITEM_SANITY
+    on T_MPTT_LONG_ITEM ("hierarchyCode", "leftBound", "rightBound");
+
+create unique index UQ_MPTT_LONG_ITEM_COMP_KEY
+    on T_MPTT_LONG_ITEM ("hierarchyCode", "code");
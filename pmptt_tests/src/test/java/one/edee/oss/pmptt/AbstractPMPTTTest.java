@@ -4,13 +4,18 @@ import one.edee.oss.pmptt.dao.HierarchyStorage;
 import one.edee.oss.pmptt.dao.memory.MemoryStorage;
 import one.edee.oss.pmptt.model.Hierarchy;
 import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.spi.HierarchyChangeListener;
+import one.edee.oss.pmptt.spi.HierarchyChangeListenerAdapter;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -80,4 +85,42 @@ public abstract class AbstractPMPTTTest {
 			tested.getOrCreateHierarchy("test", (short) 5, (short) 20);
 		});
 	}
+
+	@Test
+	public void shouldNotifyOnlySubscribedListeners() {
+		final Hierarchy test = tested.getOrCreateHierarchy("test", (short) 4, (short) 9);
+		final Hierarchy other = tested.getOrCreateHierarchy("other", (short) 4, (short) 9);
+		final HierarchyItem observedRoot = test.createRootItem("a");
+		test.createRootItem("b");
+
+		final List<String> hierarchyChanges = new ArrayList<>();
+		final List<String> subtreeChanges = new ArrayList<>();
+		final HierarchyChangeListener hierarchyListener = new HierarchyChangeListenerAdapter() {
+			@Override
+			public void itemCreated(HierarchyItem createdItem) {
+				hierarchyChanges.add(createdItem.getCode());
+			}
+		};
+		final HierarchyChangeListener subtreeListener = new HierarchyChangeListenerAdapter() {
+			@Override
+			public void itemCreated(HierarchyItem createdItem) {
+				subtreeChanges.add(createdItem.getCode());
+			}
+		};
+		tested.registerChangeListener("other", hierarchyListener);
+		tested.registerChangeListener(observedRoot, subtreeListener);
+		try {
+			test.createItem("a1", "a");
+			test.createItem("a11", "a1");
+			test.createItem("b1", "b");
+			other.createRootItem("c");
+
+			assertEquals(Collections.singletonList("c"), hierarchyChanges);
+			assertEquals(Arrays.asList("a1", "a11"), subtreeChanges);
+		} finally {
+			assertTrue(tested.unregisterChangeListener(hierarchyListener));
+			assertTrue(tested.unregisterChangeListener(subtreeListener));
+		}
+	}
+
 }
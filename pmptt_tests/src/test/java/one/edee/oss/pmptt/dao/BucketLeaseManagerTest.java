@@ -0,0 +1,114 @@
+package one.edee.oss.pmptt.dao;
+
+import one.edee.oss.pmptt.dao.h2.H2Storage;
+import one.edee.oss.pmptt.model.DbHierarchy;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.spring.DatabaseLayerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(
+		classes = {DatabaseLayerConfig.class}
+)
+@ActiveProfiles("H2")
+public class BucketLeaseManagerTest {
+	@Autowired private DataSource dataSource;
+	@Autowired private PlatformTransactionManager transactionManager;
+	@Autowired private HierarchyStorage hierarchyStorage;
+	private Hierarchy hierarchy;
+
+	@BeforeEach
+	public void setUp() {
+		hierarchy = new DbHierarchy("leased", (short)4, (short)9);
+		hierarchyStorage.createHierarchy(hierarchy);
+		hierarchy.createRootItem("parent");
+	}
+
+	@AfterEach
+	public void tearDown() {
+		((H2Storage) hierarchyStorage).setBucketLeaseManager(null);
+		hierarchyStorage.removeHierarchy("leased");
+		new JdbcTemplate(dataSource).update("delete from T_MPTT_BUCKET_LEASE");
+	}
+
+	@Test
+	public void shouldCreateItemsFromLeasedBuckets() {
+		final BucketLeaseManager leaseManager = new BucketLeaseManager(dataSource, transactionManager, "nodeA", (short)3, 60_000L);
+		((H2Storage) hierarchyStorage).setBucketLeaseManager(leaseManager);
+
+		for (int i = 0; i < 5; i++) {
+			hierarchy.createItem("child-" + i, "parent");
+		}
+
+		final List<HierarchyItem> children = hierarchy.getChildItems("parent");
+		assertEquals(5, children.size());
+		final Set<Short> buckets = new HashSet<>();
+		for (HierarchyItem child : children) {
+			assertTrue(buckets.add(child.getBucket()));
+		}
+		assertEquals(
+			6,
+			new JdbcTemplate(dataSource).queryForObject(
+				"select count(*) from T_MPTT_BUCKET_LEASE where leaseOwner = 'nodeA' and parentCode = 'parent'", Integer.class
+			)
+		);
+	}
+
+	@Test
+	public void shouldNotAcquireBucketLeasedByOtherNode() {
+		final BucketLeaseManager nodeA = new BucketLeaseManager(dataSource, transactionManager, "nodeA", (short)3, 60_000L);
+		final BucketLeaseManager nodeB = new BucketLeaseManager(dataSource, transactionManager, "nodeB", (short)3, 60_000L);
+		final HierarchyItem parent = hierarchy.getItem("parent");
+
+		assertEquals(Short.valueOf((short)1), nodeA.acquireBucket("leased", parent, (short)10, () -> hierarchy.getChildItems("parent")));
+		assertEquals(Short.valueOf((short)4), nodeB.acquireBucket("leased", parent, (short)10, () -> hierarchy.getChildItems("parent")));
+		assertEquals(Short.valueOf((short)2), nodeA.acquireBucket("leased", parent, (short)10, () -> hierarchy.getChildItems("parent")));
+	}
+
+	@Test
+	public void shouldReclaimExpiredLeases() throws InterruptedException {
+		final BucketLeaseManager nodeA = new BucketLeaseManager(dataSource, transactionManager, "nodeA", (short)3, 200L);
+		final BucketLeaseManager nodeB = new BucketLeaseManager(dataSource, transactionManager, "nodeB", (short)3, 60_000L);
+		final HierarchyItem parent = hierarchy.getItem("parent");
+
+		assertEquals(Short.valueOf((short)1), nodeA.acquireBucket("leased", parent, (short)10, () -> hierarchy.getChildItems("parent")));
+		Thread.sleep(300L);
+		assertEquals(Short.valueOf((short)1), nodeB.acquireBucket("leased", parent, (short)10, () -> hierarchy.getChildItems("parent")));
+	}
+
+	@Test
+	public void shouldReturnNullWhenAllBucketsAreLeased() {
+		final BucketLeaseManager nodeA = new BucketLeaseManager(dataSource, transactionManager, "nodeA", (short)9, 60_000L);
+		final BucketLeaseManager nodeB = new BucketLeaseManager(dataSource, transactionManager, "nodeB", (short)3, 60_000L);
+		final HierarchyItem parent = hierarchy.getItem("parent");
+
+		assertEquals(Short.valueOf((short)1), nodeA.acquireBucket("leased", parent, (short)10, () -> hierarchy.getChildItems("parent")));
+		assertNull(nodeB.acquireBucket("leased", parent, (short)10, () -> hierarchy.getChildItems("parent")));
+	}
+
+}
@@ -0,0 +1,117 @@
+package one.edee.oss.pmptt.dao;
+
+import one.edee.oss.pmptt.model.Bounds;
+import one.edee.oss.pmptt.model.ChangeLogEntry;
+import one.edee.oss.pmptt.model.DbHierarchy;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyChangeType;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.spring.DatabaseLayerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(
+		classes = {DatabaseLayerConfig.class}
+)
+@ActiveProfiles("H2")
+public class H2ChangeLogTest {
+	@Autowired private DataSource dataSource;
+	@Autowired private PlatformTransactionManager transactionManager;
+	@Autowired private DbHierarchyStorage hierarchyStorage;
+	private Hierarchy hierarchy;
+
+	@BeforeEach
+	public void setUp() {
+		hierarchy = new DbHierarchy("logged", (short)4, (short)9);
+		hierarchyStorage.createHierarchy(hierarchy);
+		hierarchyStorage.setChangeLogEnabled(true);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		hierarchyStorage.setChangeLogEnabled(false);
+		hierarchyStorage.removeHierarchy("logged");
+		new JdbcTemplate(dataSource).update("delete from T_MPTT_CHANGE_LOG");
+	}
+
+	@Test
+	public void shouldRecordChanges() {
+		final HierarchyItem parent = hierarchy.createRootItem("parent");
+		final HierarchyItem child = hierarchy.createItem("child", "parent");
+		hierarchy.removeItem("child");
+
+		final List<ChangeLogEntry> changes = hierarchyStorage.getChangesAfter("logged", 0L, 100);
+		assertEquals(5, changes.size());
+		assertChange(changes.get(0), HierarchyChangeType.CREATED, "parent");
+		assertNull(changes.get(0).getOldBounds());
+		assertEquals(new Bounds(parent.getLeftBound(), parent.getRightBound()), changes.get(0).getNewBounds());
+		assertChange(changes.get(1), HierarchyChangeType.CREATED, "child");
+		assertChange(changes.get(2), HierarchyChangeType.UPDATED, "parent");
+		assertChange(changes.get(3), HierarchyChangeType.UPDATED, "parent");
+		assertChange(changes.get(4), HierarchyChangeType.REMOVED, "child");
+		assertEquals(new Bounds(child.getLeftBound(), child.getRightBound()), changes.get(4).getOldBounds());
+		assertNull(changes.get(4).getNewBounds());
+
+		for (int i = 1; i < changes.size(); i++) {
+			assertTrue(changes.get(i - 1).getSequence() < changes.get(i).getSequence());
+		}
+	}
+
+	@Test
+	public void shouldPollChangesInBatches() {
+		for (int i = 0; i < 5; i++) {
+			hierarchy.createRootItem("item-" + i);
+		}
+
+		final List<ChangeLogEntry> firstBatch = hierarchyStorage.getChangesAfter("logged", 0L, 3);
+		assertEquals(3, firstBatch.size());
+		final List<ChangeLogEntry> secondBatch = hierarchyStorage.getChangesAfter("logged", firstBatch.get(2).getSequence(), 3);
+		assertEquals(2, secondBatch.size());
+		assertChange(secondBatch.get(0), HierarchyChangeType.CREATED, "item-3");
+		assertChange(secondBatch.get(1), HierarchyChangeType.CREATED, "item-4");
+
+		assertEquals(3, hierarchyStorage.pruneChangesUpTo(firstBatch.get(2).getSequence()));
+		assertEquals(2, hierarchyStorage.getChangesAfter(0L, 100).size());
+	}
+
+	@Test
+	public void shouldNotRecordRolledBackChanges() {
+		new TransactionTemplate(transactionManager).execute(status -> {
+			hierarchy.createRootItem("rolledBack");
+			status.setRollbackOnly();
+			return null;
+		});
+
+		assertTrue(hierarchyStorage.getChangesAfter("logged", 0L, 100).isEmpty());
+	}
+
+	private static void assertChange(ChangeLogEntry change, HierarchyChangeType type, String code) {
+		assertEquals(type, change.getType());
+		assertEquals(code, change.getCode());
+		assertEquals("logged", change.getHierarchyCode());
+	}
+
+}
@@ -0,0 +1,175 @@
+package one.edee.oss.pmptt.dao;
+
+import one.edee.oss.pmptt.exception.PivotHierarchyNodeNotFound;
+import one.edee.oss.pmptt.model.DbHierarchy;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.spring.DatabaseLayerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(
+		classes = {DatabaseLayerConfig.class}
+)
+@ActiveProfiles("H2")
+public class H2HybridStorageTest {
+	@Autowired private DataSource dataSource;
+	@Autowired private PlatformTransactionManager transactionManager;
+	@Autowired private DbHierarchyStorage hierarchyStorage;
+	private HybridHierarchyStorage hybridStorage;
+	private Hierarchy databaseHierarchy;
+	private Hierarchy hybridHierarchy;
+
+	@BeforeEach
+	public void setUp() {
+		hierarchyStorage.setChangeLogEnabled(true);
+		databaseHierarchy = new DbHierarchy("hybrid", (short)4, (short)9);
+		hierarchyStorage.createHierarchy(databaseHierarchy);
+		for (int i = 0; i < 3; i++) {
+			databaseHierarchy.createRootItem("root-" + i);
+			for (int j = 0; j < 3; j++) {
+				databaseHierarchy.createItem("item-" + i + "-" + j, "root-" + i);
+			}
+		}
+		hybridStorage = new HybridHierarchyStorage(hierarchyStorage);
+		hybridHierarchy = hybridStorage.getHierarchy("hybrid");
+	}
+
+	@AfterEach
+	public void tearDown() {
+		hybridStorage.close();
+		hierarchyStorage.setChangeLogEnabled(false);
+		hierarchyStorage.removeHierarchy("hybrid");
+		new JdbcTemplate(dataSource).update("delete from T_MPTT_CHANGE_LOG");
+	}
+
+	@Test
+	public void shouldServeReadsFromMemory() {
+		assertFalse(hybridStorage.isLoaded("hybrid"));
+		assertSameTree();
+		assertTrue(hybridStorage.isLoaded("hybrid"));
+
+		// rows deleted behind the back of the storage are still visible in memory
+		new JdbcTemplate(dataSource).update("delete from T_MPTT_ITEM where hierarchyCode = 'hybrid' and code like 'item-%'");
+		assertEquals(3, hybridHierarchy.getChildItems("root-1").size());
+		assertEquals("root-1", hybridHierarchy.getParentItems("item-1-2").get(0).getCode());
+		assertEquals(9, hybridHierarchy.getLeafItems(null).size());
+	}
+
+	@Test
+	public void shouldApplyOwnWritesAfterCommit() {
+		assertSameTree();
+
+		hybridHierarchy.createItem("new", "root-0");
+		hybridHierarchy.moveItemBetweenLevelsLast("item-1-0", "root-2");
+		hybridHierarchy.moveItemBefore("root-2", "root-0");
+		hybridHierarchy.removeItem("item-0-1");
+
+		assertTrue(hybridStorage.isLoaded("hybrid"));
+		assertEquals("root-0", hybridHierarchy.getParentItem("new").getCode());
+		assertEquals("root-2", hybridHierarchy.getParentItem("item-1-0").getCode());
+		assertEquals("root-2", hybridHierarchy.getRootItems().get(0).getCode());
+		assertThrows(PivotHierarchyNodeNotFound.class, () -> hybridHierarchy.getItem("item-0-1"));
+		assertSameTree();
+	}
+
+	@Test
+	public void shouldDiscardWritesOfRolledBackTransaction() {
+		assertSameTree();
+
+		new TransactionTemplate(transactionManager).execute(status -> {
+			hybridHierarchy.createItem("rolledBack", "root-0");
+			hybridHierarchy.moveItemToFirst("root-2");
+			// reads within transaction see uncommitted changes
+			assertEquals("root-2", hybridHierarchy.getRootItems().get(0).getCode());
+			status.setRollbackOnly();
+			return null;
+		});
+
+		assertThrows(PivotHierarchyNodeNotFound.class, () -> hybridHierarchy.getItem("rolledBack"));
+		assertEquals("root-0", hybridHierarchy.getRootItems().get(0).getCode());
+		assertSameTree();
+	}
+
+	@Test
+	public void shouldPickUpChangesOfOtherProcesses() {
+		assertSameTree();
+
+		// hierarchy backed directly by the database storage simulates another application node
+		databaseHierarchy.createItem("foreign", "item-0-0");
+		databaseHierarchy.moveItemBetweenLevelsFirst("item-2-2", "item-1-1");
+		databaseHierarchy.moveItemToLast("root-0");
+		databaseHierarchy.removeItem("item-1-0");
+		databaseHierarchy.createRootItem("foreign-root");
+
+		assertThrows(PivotHierarchyNodeNotFound.class, () -> hybridHierarchy.getItem("foreign"));
+		assertEquals("root-1", hybridHierarchy.getParentItem("item-1-0").getCode());
+
+		hybridStorage.refresh();
+
+		assertEquals("item-0-0", hybridHierarchy.getParentItem("foreign").getCode());
+		assertEquals("item-1-1", hybridHierarchy.getParentItem("item-2-2").getCode());
+		assertSameTree();
+
+		// nothing new in the change log
+		hybridStorage.refresh();
+		assertSameTree();
+	}
+
+	@Test
+	public void shouldReloadRemovedHierarchy() {
+		assertSameTree();
+
+		hierarchyStorage.removeHierarchy("hybrid");
+		final Hierarchy recreated = new DbHierarchy("hybrid", (short)4, (short)9);
+		hierarchyStorage.createHierarchy(recreated);
+		recreated.createRootItem("recreated");
+
+		hybridStorage.refresh();
+		assertFalse(hybridStorage.isLoaded("hybrid"));
+		databaseHierarchy = recreated;
+		assertSameTree();
+	}
+
+	private void assertSameTree() {
+		assertEquals(describe(databaseHierarchy), describe(hybridHierarchy));
+	}
+
+	private static List<String> describe(Hierarchy hierarchy) {
+		final List<HierarchyItem> items = new ArrayList<>();
+		for (HierarchyItem rootItem : hierarchy.getRootItems()) {
+			items.add(rootItem);
+			items.addAll(hierarchy.getAllChildItems(rootItem.getCode()));
+		}
+		return items.stream()
+				.map(it -> it.getCode() + ":" + it.getLevel() + ":" + it.getLeftBound() + "-" + it.getRightBound() + ":" + it.getNumberOfChildren() + ":" + it.getOrder())
+				.collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,173 @@
+package one.edee.oss.pmptt.dao;
+
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.HierarchyItemBase;
+import one.edee.oss.pmptt.spring.DatabaseLayerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(
+		classes = {DatabaseLayerConfig.class}
+)
+@ActiveProfiles("H2")
+public class H2WriteBehindStorageTest {
+	private static final String HIERARCHY_CODE = "writeBehind";
+	@Autowired private DbHierarchyStorage hierarchyStorage;
+	private WriteBehindHierarchyStorage writeBehindStorage;
+	private Hierarchy hierarchy;
+
+	@BeforeEach
+	public void setUp() {
+		// long interval so that the flushes are driven by the test
+		writeBehindStorage = new WriteBehindHierarchyStorage(hierarchyStorage, 60_000L, 100_000);
+		hierarchy = new Hierarchy(HIERARCHY_CODE, (short)4, (short)9);
+		writeBehindStorage.createHierarchy(hierarchy);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		writeBehindStorage.close();
+		hierarchyStorage.removeHierarchy(HIERARCHY_CODE);
+	}
+
+	@Test
+	public void shouldFlushCoalescedChanges() {
+		createTree();
+		assertTrue(writeBehindStorage.getPendingCount() > 0);
+		assertTrue(hierarchyStorage.getRootItems(HIERARCHY_CODE).isEmpty());
+
+		writeBehindStorage.flush();
+		assertEquals(0, writeBehindStorage.getPendingCount());
+		assertSameTree();
+
+		hierarchy.createItem("temporary", "root-0");
+		hierarchy.removeItem("temporary");
+		hierarchy.createItem("item-0-3", "root-0");
+		hierarchy.removeItem("item-1-2");
+		writeBehindStorage.flush();
+		assertSameTree();
+	}
+
+	@Test
+	public void shouldFlushMovedItems() {
+		createTree();
+		writeBehindStorage.flush();
+
+		hierarchy.moveItemToFirst("root-2");
+		hierarchy.moveItemBefore("item-0-2", "item-0-0");
+		hierarchy.moveItemBetweenLevelsLast("item-1-0", "root-2");
+		hierarchy.moveItemBetweenLevelsFirst("root-1", "item-2-1");
+		writeBehindStorage.flush();
+		assertSameTree();
+
+		hierarchy.moveItemBetweenLevelsLast("item-1-0", "root-0");
+		hierarchy.moveItemToLast("item-0-2");
+		writeBehindStorage.flush();
+		assertSameTree();
+	}
+
+	@Test
+	public void shouldFlushItemsSwappingTheirBounds() {
+		createTree();
+		writeBehindStorage.flush();
+
+		// bounds rotate among three leaves - none of them can be updated first without breaking unique bounds
+		final HierarchyItem first = writeBehindStorage.getItem(HIERARCHY_CODE, "item-0-0");
+		final HierarchyItem second = writeBehindStorage.getItem(HIERARCHY_CODE, "item-0-1");
+		final HierarchyItem third = writeBehindStorage.getItem(HIERARCHY_CODE, "item-0-2");
+		final HierarchyItem firstPlace = new HierarchyItemBase(HIERARCHY_CODE, "place", first.getLevel(), first.getLeftBound(), first.getRightBound(), first.getBucket());
+		moveToPlaceOf(first, second);
+		moveToPlaceOf(second, third);
+		moveToPlaceOf(third, firstPlace);
+		writeBehindStorage.updateItem(first);
+		writeBehindStorage.updateItem(second);
+		writeBehindStorage.updateItem(third);
+
+		writeBehindStorage.flush();
+		assertSameTree();
+	}
+
+	@Test
+	public void shouldAwaitDurableChanges() throws InterruptedException {
+		writeBehindStorage.close();
+		writeBehindStorage = new WriteBehindHierarchyStorage(hierarchyStorage, 50L, 100_000);
+		hierarchy = writeBehindStorage.getHierarchy(HIERARCHY_CODE);
+
+		createTree();
+		assertTrue(writeBehindStorage.awaitDurable(10_000L));
+		assertEquals(0, writeBehindStorage.getPendingCount());
+		assertSameTree();
+	}
+
+	@Test
+	public void shouldRecoverLastFlushedStateFromDatabase() throws InterruptedException {
+		createTree();
+		writeBehindStorage.flush();
+		final List<String> flushedTree = describe(hierarchy);
+		hierarchy.moveItemToFirst("root-2");
+		hierarchy.createItem("lost", "root-0");
+
+		// storage of the process that crashed is abandoned, new one loads the hierarchy from the database
+		final WriteBehindHierarchyStorage crashedStorage = writeBehindStorage;
+		writeBehindStorage = new WriteBehindHierarchyStorage(hierarchyStorage, 60_000L, 100_000);
+		final Hierarchy recoveredHierarchy = writeBehindStorage.getHierarchy(HIERARCHY_CODE);
+		assertEquals(flushedTree, describe(recoveredHierarchy));
+		assertNotEquals(flushedTree, describe(hierarchy));
+
+		crashedStorage.removeHierarchy(HIERARCHY_CODE);
+		crashedStorage.close();
+	}
+
+	private void createTree() {
+		for (int i = 0; i < 3; i++) {
+			hierarchy.createRootItem("root-" + i);
+			for (int j = 0; j < 3; j++) {
+				hierarchy.createItem("item-" + i + "-" + j, "root-" + i);
+			}
+		}
+	}
+
+	private static void moveToPlaceOf(HierarchyItem target, HierarchyItem source) {
+		target.setLeftBound(source.getLeftBound());
+		target.setRightBound(source.getRightBound());
+		target.setBucket(source.getBucket());
+	}
+
+	private void assertSameTree() {
+		assertEquals(describe(hierarchy), describe(hierarchyStorage.getHierarchy(HIERARCHY_CODE)));
+	}
+
+	private static List<String> describe(Hierarchy hierarchy) {
+		final List<HierarchyItem> items = new ArrayList<>();
+		for (HierarchyItem rootItem : hierarchy.getRootItems()) {
+			items.add(rootItem);
+			items.addAll(hierarchy.getAllChildItems(rootItem.getCode()));
+		}
+		return items.stream()
+				.map(it -> it.getCode() + ":" + it.getLevel() + ":" + it.getLeftBound() + "-" + it.getRightBound() + ":" + it.getNumberOfChildren() + ":" + it.getOrder())
+				.collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,55 @@
+package one.edee.oss.pmptt.dao;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class ReadReplicaRouterTest {
+	private final DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1");
+	private final DataSource replicaA = new DriverManagerDataSource("jdbc:h2:mem:replicaA;DB_CLOSE_DELAY=-1");
+	private final DataSource replicaB = new DriverManagerDataSource("jdbc:h2:mem:replicaB;DB_CLOSE_DELAY=-1");
+
+	@Test
+	public void shouldUsePrimaryWhenNoReplicaIsConfigured() {
+		final ReadReplicaRouter tested = new ReadReplicaRouter(new NamedParameterJdbcTemplate(primary), Collections.emptyList());
+		assertSame(primary, getDataSource(tested.getTemplate()));
+	}
+
+	@Test
+	public void shouldUseReplicasOutsideTransaction() {
+		final ReadReplicaRouter tested = new ReadReplicaRouter(new NamedParameterJdbcTemplate(primary), Arrays.asList(replicaA, replicaB));
+		assertSame(replicaA, getDataSource(tested.getTemplate()));
+		assertSame(replicaB, getDataSource(tested.getTemplate()));
+		assertSame(replicaA, getDataSource(tested.getTemplate()));
+	}
+
+	@Test
+	public void shouldUsePrimaryInsideTransaction() {
+		final ReadReplicaRouter tested = new ReadReplicaRouter(new NamedParameterJdbcTemplate(primary), Collections.singletonList(replicaA));
+		new TransactionTemplate(new DataSourceTransactionManager(primary))
+			.execute(status -> {
+				assertSame(primary, getDataSource(tested.getTemplate()));
+				return null;
+			});
+		assertSame(replicaA, getDataSource(tested.getTemplate()));
+	}
+
+	private static DataSource getDataSource(NamedParameterJdbcTemplate template) {
+		return template.getJdbcTemplate().getDataSource();
+	}
+
+}
@@ -4,8 +4,14 @@ import lombok.Getter;
 import one.edee.oss.pmptt.dao.HierarchyStorage;
 import one.edee.oss.pmptt.dao.memory.MemoryStorage;
 import one.edee.oss.pmptt.exception.NumericTypeExceeded;
+import one.edee.oss.pmptt.exception.PivotHierarchyNodeNotFound;
 import one.edee.oss.pmptt.exception.SectionExhausted;
 import one.edee.oss.pmptt.spi.HierarchyChangeListener;
+import one.edee.oss.pmptt.spi.OperationStats;
+import one.edee.oss.pmptt.spi.OperationStatsCollector;
+import one.edee.oss.pmptt.sync.HierarchySynchronizer;
+import one.edee.oss.pmptt.sync.SynchronizationPlan;
+import one.edee.oss.pmptt.sync.SynchronizationStepType;
 import one.edee.oss.pmptt.util.StructureLoader;
 import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Assertions;
@@ -25,10 +31,13 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
+import static one.edee.oss.pmptt.util.StorageCallBudget.budget;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * No extra information provided - see (selfexplanatory) method signatures.
@@ -633,6 +642,185 @@ public abstract class AbstractHierarchyTest {
 		);
 	}
 
+	@Test
+	public void shouldCreateItemsInBulk() {
+		StructureLoader.loadHierarchy(TREE_5_4, tested);
+
+		final Hierarchy bulk = tested instanceof DbHierarchy ?
+			new DbHierarchy("bulk", (short)4, (short)9) : new Hierarchy("bulk", (short)4, (short)9);
+		hierarchyStorage.createHierarchy(bulk);
+
+		final List<HierarchyItem> items = new LinkedList<>();
+		for (HierarchyItem rootItem : tested.getRootItems()) {
+			items.add(copyTo(bulk, rootItem));
+			for (HierarchyItem child : tested.getAllChildItems(rootItem.getCode())) {
+				items.add(copyTo(bulk, child));
+			}
+		}
+		puppetListener.clear();
+		hierarchyStorage.createItems(items);
+
+		assertEquals(items.size(), puppetListener.getCreated().size());
+		assertEquals(tested.printTree(null, 3), bulk.printTree(null, 3));
+		assertEquals(
+			StructureLoader.storeHierarchyAndPrintWithBounds(tested),
+			StructureLoader.storeHierarchyAndPrintWithBounds(bulk)
+		);
+	}
+
+	@Test
+	public void shouldCreateItemWithinStorageCallBudget() {
+		StructureLoader.loadHierarchy(TREE_5_2, tested);
+
+		final OperationStats stats = budget()
+			.reads(6).writes(2).rowsWritten(2)
+			.calls("getAllChildrenItems", 0)
+			.assertWithin(tested, it -> it.createItem("Skříně", "Ložnice"));
+
+		assertEquals("Hierarchy.createItem", stats.getOperation());
+		assertEquals(1, stats.getStorageCalls("createItem"));
+		assertTrue(stats.getListenerEvents() >= stats.getStorageWrites());
+	}
+
+	@Test
+	public void shouldMoveItemWithinStorageCallBudget() {
+		StructureLoader.loadHierarchy(TREE_5_2, tested);
+
+		final OperationStats stats = budget()
+			.reads(9).writes(5).rowsWritten(5)
+			.calls("getRootItems", 1)
+			.assertWithin(tested, it -> it.moveItemToLast("Jídelna"));
+
+		assertEquals("Hierarchy.moveItemToLast", stats.getOperation());
+		assertTrue(stats.getListenerEvents() >= stats.getStorageWrites());
+	}
+
+	@Test
+	public void shouldMoveItemBetweenLevelsWithinStorageCallBudget() {
+		StructureLoader.loadHierarchy(TREE_5_4, tested);
+
+		final OperationStats stats = budget()
+			.reads(19).writes(6).rowsWritten(6)
+			.calls("getAllChildrenItems", 1)
+			.assertWithin(tested, it -> it.moveItemBetweenLevelsBefore("Čalouněné postele", "Ložnice", "Postele"));
+
+		assertTrue(stats.getListenerEvents() >= stats.getStorageWrites());
+	}
+
+	@Test
+	public void shouldRemoveItemWithinStorageCallBudget() {
+		StructureLoader.loadHierarchy(TREE_5_2, tested);
+
+		final OperationStats stats = budget()
+			.reads(11).writes(5).rowsWritten(5)
+			.calls("getAllChildrenItems", 1)
+			.assertWithin(tested, it -> it.removeItem("Ložnice"));
+
+		assertEquals(3, stats.getStorageCalls("removeItem"));
+		assertTrue(stats.getListenerEvents() >= stats.getStorageWrites());
+	}
+
+	@Test
+	public void shouldProvideLastOperationStatsOnlyWhenEnabled() {
+		StructureLoader.loadHierarchy(TREE_5_2, tested);
+		assertNull(OperationStatsCollector.getLastOperationStats());
+
+		OperationStatsCollector.enable();
+		try {
+			tested.getChildItems("Ložnice");
+			final OperationStats stats = OperationStatsCollector.getLastOperationStats();
+			assertNotNull(stats);
+			assertEquals("Hierarchy.getChildItems", stats.getOperation());
+			assertEquals(0, stats.getStorageWrites());
+			assertEquals(2, stats.getRowsRead() - stats.getStorageCalls("getItem"));
+		} finally {
+			OperationStatsCollector.disable();
+		}
+		assertNull(OperationStatsCollector.getLastOperationStats());
+	}
+
+	@Test
+	public void shouldManageHierarchyWithLongCodes() {
+		final Hierarchy numeric = tested instanceof DbHierarchy ?
+			new DbHierarchy("numeric", (short) 4, (short) 9, true) : new Hierarchy("numeric", (short) 4, (short) 9, true);
+		hierarchyStorage.createHierarchy(numeric);
+		assertTrue(hierarchyStorage.getHierarchy("numeric").isLongCodes());
+
+		numeric.createRootItem(9_000_000_000L);
+		numeric.createRootItem(2L);
+		numeric.createItem(9_000_000_001L, 9_000_000_000L);
+		final HierarchyItem deepItem = numeric.createItem(-5L, 9_000_000_001L);
+		assertTrue(deepItem instanceof LongHierarchyItem);
+		assertTrue(numeric.getItem(-5L) instanceof LongHierarchyItem);
+		assertParents(numeric.getParentItems(-5L), "9000000000", "9000000001");
+		assertEquals("9000000001", numeric.getParentItem(-5L).getCode());
+
+		numeric.moveItemBetweenLevelsLast(9_000_000_001L, 2L);
+		assertItems(numeric.getChildItems(2L), "9000000001");
+		assertItems(numeric.getAllChildItems(2L), "9000000001", "-5");
+		assertItems(numeric.getLeafItems(9_000_000_000L));
+
+		numeric.removeItem(9_000_000_001L);
+		assertItems(numeric.getRootItems(), "9000000000", "2");
+		assertThrows(IllegalArgumentException.class, () -> numeric.createRootItem("not-a-number"));
+		assertThrows(PivotHierarchyNodeNotFound.class, () -> numeric.getItem("not-a-number"));
+	}
+
+	@Test
+	public void shouldSynchronizeWithTargetTree() {
+		StructureLoader.loadHierarchy(TREE_5_4, tested);
+		final HierarchySynchronizer synchronizer = new HierarchySynchronizer(tested);
+
+		puppetListener.clear();
+
+		assertTrue(synchronizer.synchronize(StructureLoader.describeTargetTree(tested)).isEmpty());
+		assertItemsTouched();
+
+		final String target =
+			"Předsíň\n" +
+			"    Věšáky\n" +
+			"    Botníky\n" +
+			"Jídelna\n" +
+			"    Barové židle\n" +
+			"    Stoly\n" +
+			"        Barové stoly\n" +
+			"        Dřevěné stoly\n" +
+			"        Jidelní sestavy\n" +
+			"    Židle\n" +
+			"        Dřevěné židle\n" +
+			"        Kovové židle\n" +
+			"Ložnice\n" +
+			"    Komody\n" +
+			"    Noční stolky\n" +
+			"    Čalouněné postele\n" +
+			"        Rozměr 140x200 cm\n" +
+			"        Rozměr 160x200 cm\n" +
+			"    Postele\n" +
+			"        Dřevěné postele\n" +
+			"        Kovové postele\n" +
+			"    Šatní skříně\n" +
+			"Obývací pokoj\n" +
+			"    Komody a regály\n" +
+			"        Komody obývákové\n" +
+			"        Regály\n" +
+			"    Konferenční stoly\n" +
+			"        Dřevěné\n" +
+			"        Skleněné\n";
+		final SynchronizationPlan plan = synchronizer.synchronize(StructureLoader.readTargetTree(target));
+
+		assertEquals(target, StructureLoader.storeHierarchy(tested));
+		assertEquals(4, plan.getSteps().size());
+		assertEquals(1, plan.getCount(SynchronizationStepType.REMOVE));
+		assertEquals(1, plan.getCount(SynchronizationStepType.CREATE));
+		assertEquals(1, plan.getCount(SynchronizationStepType.MOVE));
+		assertEquals(1, plan.getCount(SynchronizationStepType.MOVE_BETWEEN_LEVELS));
+		for (String untouched : Arrays.asList("Barové židle", "Stoly", "Židle", "Dřevěné stoly", "Komody a regály", "Regály", "Věšáky", "Komody")) {
+			assertFalse(puppetListener.getTouched().contains(untouched), untouched + " should not be touched!");
+		}
+
+		assertTrue(synchronizer.plan(StructureLoader.readTargetTree(target)).isEmpty());
+	}
+
 	private void assertParents(List<HierarchyItem> parentItems, String... parentCodes) {
 		assertEquals(parentCodes.length, parentItems.size());
 		for (int i = 0; i < parentCodes.length; i++) {
@@ -675,6 +863,15 @@ public abstract class AbstractHierarchyTest {
 		}
 	}
 
+	private static HierarchyItem copyTo(Hierarchy hierarchy, HierarchyItem item) {
+		final HierarchyItemBase copy = new HierarchyItemBase(
+			hierarchy.getCode(), item.getCode(), item.getLevel(), item.getLeftBound(), item.getRightBound(), item.getBucket()
+		);
+		copy.setNumberOfChildren(item.getNumberOfChildren());
+		copy.setOrder(item.getOrder());
+		return copy;
+	}
+
 	private void assertItem(HierarchyItem item, Integer level, Integer order, Integer numberOfChildren) {
 		Assertions.assertEquals(Short.valueOf(level.shortValue()), item.getLevel(), "Level doesn't match!");
 		Assertions.assertEquals(Short.valueOf(order.shortValue()), item.getOrder(), "Order doesn't match!");
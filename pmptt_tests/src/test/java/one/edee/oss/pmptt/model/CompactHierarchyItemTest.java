@@ -0,0 +1,64 @@
+package one.edee.oss.pmptt.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class CompactHierarchyItemTest {
+
+	@Test
+	public void shouldKeepOriginalValuesOfChangedFields() {
+		final CompactHierarchyItem item = new CompactHierarchyItem("tree", "a", (short) 2, 4_000_000_000L, 4_000_000_099L, (short) 3, (short) 1, (short) 7);
+		assertFalse(item.isChanged());
+
+		item.setLeftBound(5_000_000_000L);
+		item.setLeftBound(6_000_000_000L);
+		item.setOrder((short) 2);
+		item.setBucket((short) 7);
+		assertTrue(item.isChanged());
+
+		final HierarchyItem original = item.getOriginal();
+		assertEquals(4_000_000_000L, original.getLeftBoundAsLong());
+		assertEquals(4_000_000_099L, original.getRightBoundAsLong());
+		assertEquals(1, original.getOrderAsShort());
+		assertEquals(7, original.getBucketAsShort());
+		assertEquals(3, original.getNumberOfChildrenAsShort());
+		assertEquals(6_000_000_000L, item.getLeftBoundAsLong());
+		assertEquals(Short.valueOf((short) 2), item.getOrder());
+	}
+
+	@Test
+	public void shouldResetOriginalToPassedState() {
+		final CompactHierarchyItem item = new CompactHierarchyItem("tree", "a", (short) 1, 1L, 100L, (short) 1);
+		item.setLevel((short) 2);
+		item.setRightBound(50L);
+
+		item.resetOriginal(new HierarchyItemBase("tree", "a", (short) 2, 1L, 100L, (short) 1));
+		assertTrue(item.isChanged());
+		assertEquals(2, item.getOriginal().getLevelAsShort());
+		assertEquals(100L, item.getOriginal().getRightBoundAsLong());
+
+		item.resetOriginal(item);
+		assertFalse(item.isChanged());
+		assertEquals(50L, item.getOriginal().getRightBoundAsLong());
+	}
+
+	@Test
+	public void shouldBeEqualToOtherItemImplementations() {
+		final CompactHierarchyItem item = new CompactHierarchyItem("tree", "a", (short) 1, 1L, 100L, (short) 1);
+		final HierarchyItemBase base = new HierarchyItemBase("tree", "a", (short) 3, 7L, 8L, (short) 2);
+		assertEquals(item, base);
+		assertEquals(base, item);
+		assertEquals(base.hashCode(), item.hashCode());
+		assertEquals(0, base.getOrderAsShort());
+	}
+
+}
@@ -0,0 +1,127 @@
+package one.edee.oss.pmptt.model;
+
+import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.spring.DatabaseLayerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test verifies that concurrent writers (each running in its own transaction) don't corrupt the tree.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(
+		classes = {DatabaseLayerConfig.class}
+)
+@ActiveProfiles("H2")
+public class H2ConcurrentWritersTest {
+	private static final int WRITERS = 3;
+	private static final int ITEMS_PER_WRITER = 3;
+	@Autowired private HierarchyStorage hierarchyStorage;
+	private Hierarchy tested;
+
+	@BeforeEach
+	public void setUp() {
+		tested = new DbHierarchy("concurrent", (short)4, (short)9);
+		hierarchyStorage.createHierarchy(tested);
+		tested.createRootItem("parent");
+	}
+
+	@AfterEach
+	public void tearDown() {
+		hierarchyStorage.removeHierarchy("concurrent");
+	}
+
+	@Test
+	public void shouldCreateChildrenOfSameParentConcurrently() throws Exception {
+		runConcurrently((writer, item) -> tested.createItem("child-" + writer + "-" + item, "parent"));
+
+		final List<HierarchyItem> children = tested.getChildItems("parent");
+		assertEquals(WRITERS * ITEMS_PER_WRITER, children.size());
+		assertDisjointBounds(children);
+	}
+
+	@Test
+	public void shouldMoveItemsConcurrently() throws Exception {
+		for (int writer = 0; writer < WRITERS; writer++) {
+			for (int item = 0; item < ITEMS_PER_WRITER; item++) {
+				tested.createItem("child-" + writer + "-" + item, "parent");
+			}
+		}
+
+		runConcurrently((writer, item) -> tested.moveItemToFirst("child-" + writer + "-" + item));
+
+		final List<HierarchyItem> children = tested.getChildItems("parent");
+		assertEquals(WRITERS * ITEMS_PER_WRITER, children.size());
+		final Set<Short> orders = new HashSet<>();
+		for (HierarchyItem child : children) {
+			assertTrue(orders.add(child.getOrder()), "Order " + child.getOrder() + " is duplicated!");
+		}
+	}
+
+	private void runConcurrently(WriterLogic logic) throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+		try {
+			final CountDownLatch start = new CountDownLatch(1);
+			final List<Future<?>> futures = new ArrayList<>(WRITERS);
+			for (int i = 0; i < WRITERS; i++) {
+				final int writer = i;
+				futures.add(
+					executor.submit(() -> {
+						start.await();
+						for (int item = 0; item < ITEMS_PER_WRITER; item++) {
+							logic.execute(writer, item);
+						}
+						return null;
+					})
+				);
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void assertDisjointBounds(List<HierarchyItem> items) {
+		for (int i = 0; i < items.size(); i++) {
+			for (int j = i + 1; j < items.size(); j++) {
+				final HierarchyItem a = items.get(i);
+				final HierarchyItem b = items.get(j);
+				assertTrue(
+					a.getRightBound() < b.getLeftBound() || b.getRightBound() < a.getLeftBound(),
+					"Items " + a.getCode() + " and " + b.getCode() + " overlap!"
+				);
+			}
+		}
+	}
+
+	private interface WriterLogic {
+
+		void execute(int writer, int item);
+
+	}
+
+}
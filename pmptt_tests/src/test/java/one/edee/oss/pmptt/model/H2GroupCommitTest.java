@@ -0,0 +1,139 @@
+package one.edee.oss.pmptt.model;
+
+import one.edee.oss.pmptt.dao.DbHierarchyStorage;
+import one.edee.oss.pmptt.dao.GroupCommitExecutor;
+import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.exception.PivotHierarchyNodeNotFound;
+import one.edee.oss.pmptt.spring.DatabaseLayerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test verifies that write operations of concurrent threads grouped by {@link GroupCommitExecutor} are all applied
+ * and that failure of one operation doesn't fail the others in the same batch.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(
+		classes = {DatabaseLayerConfig.class}
+)
+@ActiveProfiles("H2")
+public class H2GroupCommitTest {
+	private static final int WRITERS = 4;
+	private static final int ITEMS_PER_WRITER = 5;
+	@Autowired private HierarchyStorage hierarchyStorage;
+	private DbHierarchy tested;
+	private GroupCommitExecutor groupCommitExecutor;
+
+	@BeforeEach
+	public void setUp() {
+		tested = new DbHierarchy("groupCommit", (short)4, (short)55);
+		hierarchyStorage.createHierarchy(tested);
+		tested.createRootItem("parent");
+		groupCommitExecutor = new GroupCommitExecutor((DbHierarchyStorage) hierarchyStorage, 50, 20L);
+		tested.setGroupCommitExecutor(groupCommitExecutor);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		groupCommitExecutor.close();
+		hierarchyStorage.removeHierarchy("groupCommit");
+	}
+
+	@Test
+	public void shouldCreateChildrenOfConcurrentWritersInSharedTransactions() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+		try {
+			final CountDownLatch start = new CountDownLatch(1);
+			final List<Future<?>> futures = new ArrayList<>(WRITERS);
+			for (int i = 0; i < WRITERS; i++) {
+				final int writer = i;
+				futures.add(
+					executor.submit(() -> {
+						start.await();
+						for (int item = 0; item < ITEMS_PER_WRITER; item++) {
+							assertNotNull(tested.createItem("child-" + writer + "-" + item, "parent"));
+						}
+						return null;
+					})
+				);
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(WRITERS * ITEMS_PER_WRITER, tested.getChildItems("parent").size());
+		assertEquals(WRITERS * ITEMS_PER_WRITER, groupCommitExecutor.getCommittedMutations());
+		assertTrue(groupCommitExecutor.getCommittedBatches() < WRITERS * ITEMS_PER_WRITER);
+	}
+
+	@Test
+	public void shouldIsolateFailingOperationInBatch() throws Exception {
+		final CompletableFuture<HierarchyItem> first = groupCommitExecutor.submit(() -> tested.createItem("first", "parent"));
+		final CompletableFuture<HierarchyItem> failing = groupCommitExecutor.submit(() -> tested.createItem("failing", "nonExisting"));
+		final CompletableFuture<HierarchyItem> second = groupCommitExecutor.submit(() -> tested.createItem("second", "parent"));
+
+		assertEquals("first", first.get(30, TimeUnit.SECONDS).getCode());
+		assertEquals("second", second.get(30, TimeUnit.SECONDS).getCode());
+		final ExecutionException ex = assertThrows(ExecutionException.class, () -> failing.get(30, TimeUnit.SECONDS));
+		assertTrue(ex.getCause() instanceof PivotHierarchyNodeNotFound);
+
+		assertEquals(2, tested.getChildItems("parent").size());
+		assertEquals(1, groupCommitExecutor.getCommittedBatches());
+		assertEquals(2, groupCommitExecutor.getCommittedMutations());
+	}
+
+	@Test
+	public void shouldFailPendingOperationsWhenWorkerTerminates() throws Exception {
+		final CountDownLatch executing = new CountDownLatch(1);
+		final CountDownLatch proceed = new CountDownLatch(1);
+		final CompletableFuture<String> interrupting = groupCommitExecutor.submit(() -> {
+			executing.countDown();
+			try {
+				proceed.await(30, TimeUnit.SECONDS);
+			} catch (InterruptedException ex) {
+				// ignored - the thread is interrupted anyway
+			}
+			// worker will be interrupted while it waits for the next batch
+			Thread.currentThread().interrupt();
+			return "interrupting";
+		});
+		assertTrue(executing.await(30, TimeUnit.SECONDS));
+		final CompletableFuture<HierarchyItem> pending = groupCommitExecutor.submit(() -> tested.createItem("pending", "parent"));
+		proceed.countDown();
+
+		assertEquals("interrupting", interrupting.get(30, TimeUnit.SECONDS));
+		final ExecutionException ex = assertThrows(ExecutionException.class, () -> pending.get(30, TimeUnit.SECONDS));
+		assertTrue(ex.getCause() instanceof IllegalStateException);
+		assertFalse(groupCommitExecutor.isRunning());
+		assertThrows(IllegalArgumentException.class, () -> groupCommitExecutor.submit(() -> "rejected"));
+	}
+
+}
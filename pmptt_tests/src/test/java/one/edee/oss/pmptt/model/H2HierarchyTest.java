@@ -0,0 +1,125 @@
+package one.edee.oss.pmptt.model;
+
+import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.exception.PivotHierarchyNodeNotFound;
+import one.edee.oss.pmptt.spi.OperationStats;
+import one.edee.oss.pmptt.spring.DatabaseLayerConfig;
+import one.edee.oss.pmptt.util.StructureLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(
+		classes = {DatabaseLayerConfig.class}
+)
+@ActiveProfiles("H2")
+public class H2HierarchyTest extends AbstractHierarchyTest {
+	private static final ClassPathResource TREE_5_4 = new ClassPathResource("META-INF/lib_pmptt/data/structure-5-4.txt");
+	@Autowired private HierarchyStorage storage;
+
+	@Test
+	public void shouldServeRepeatedLookupsWithinTransactionFromIdentityMap() {
+		final DbHierarchy cached = new DbHierarchy("cached", (short)4, (short)9);
+		final DbHierarchy uncached = new DbHierarchy("uncached", (short)4, (short)9);
+		cached.setIdentityMapEnabled(true);
+		storage.createHierarchy(cached);
+		storage.createHierarchy(uncached);
+		StructureLoader.loadHierarchy(TREE_5_4, cached);
+		StructureLoader.loadHierarchy(TREE_5_4, uncached);
+
+		final OperationStats cachedStats = cached.executeWithStats(it -> it.moveItemBetweenLevelsBefore("Čalouněné postele", "Ložnice", "Postele"));
+		final OperationStats uncachedStats = uncached.executeWithStats(it -> it.moveItemBetweenLevelsBefore("Čalouněné postele", "Ložnice", "Postele"));
+
+		assertTrue(
+			cachedStats.getStorageReads() < uncachedStats.getStorageReads(),
+			() -> "Identity map didn't save any read:\n" + cachedStats + "\n" + uncachedStats
+		);
+		assertTrue(cachedStats.getStorageCalls("getItem") < uncachedStats.getStorageCalls("getItem"));
+		assertTrue(cachedStats.getStorageCalls("getParentItem") < uncachedStats.getStorageCalls("getParentItem"));
+		assertEquals(uncachedStats.getStorageWrites(), cachedStats.getStorageWrites());
+		assertEquals(uncached.printTree(null, 3), cached.printTree(null, 3));
+	}
+
+	@Test
+	public void shouldReadRelativesOfItemByCodeInSingleQuery() {
+		final DbHierarchy composite = new DbHierarchy("composite", (short)4, (short)9);
+		storage.createHierarchy(composite);
+		StructureLoader.loadHierarchy(TREE_5_4, composite);
+
+		for (String code : new String[] {"Ložnice", "Postele", "Čalouněné postele", "Rozměr 140x200 cm"}) {
+			final HierarchyItem pivot = storage.getItem("composite", code);
+			assertEquals(storage.getChildItems(pivot), storage.getChildItems("composite", code));
+			assertEquals(storage.getAllChildrenItems(pivot), storage.getAllChildrenItems("composite", code));
+			assertEquals(storage.getLeafItems(pivot), storage.getLeafItems("composite", code));
+			assertEquals(storage.getParentsOfItem(pivot), storage.getParentsOfItem("composite", code));
+			assertEquals(storage.getParentItem(pivot), storage.getParentItem("composite", code));
+		}
+		assertNull(storage.getParentItem("composite", "Ložnice"));
+		assertNull(storage.getParentItem("composite", "nonExisting"));
+		assertNull(storage.getChildItems("composite", "nonExisting"));
+		assertNull(storage.getParentsOfItem("composite", "nonExisting"));
+
+		assertEquals(1, composite.executeWithStats(it -> it.getChildItems("Postele")).getStorageReads());
+		assertEquals(1, composite.executeWithStats(it -> it.getAllChildItems("Postele")).getStorageReads());
+		assertEquals(1, composite.executeWithStats(it -> it.getLeafItems("Postele")).getStorageReads());
+		assertEquals(1, composite.executeWithStats(it -> it.getParentItems("Rozměr 140x200 cm")).getStorageReads());
+		assertEquals(1, composite.executeWithStats(it -> it.getParentItem("Rozměr 140x200 cm")).getStorageReads());
+		assertEquals("Čalouněné postele", composite.getParentItem("Rozměr 140x200 cm").getCode());
+		assertNull(composite.getParentItem("Ložnice"));
+		assertThrows(PivotHierarchyNodeNotFound.class, () -> composite.getParentItem("nonExisting"));
+		assertThrows(PivotHierarchyNodeNotFound.class, () -> composite.getChildItems("nonExisting"));
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void shouldExecuteReadsInSingleReadOnlyTransaction() {
+		final DbHierarchy consistent = new DbHierarchy("consistent", (short)4, (short)9);
+		storage.createHierarchy(consistent);
+		try {
+			StructureLoader.loadHierarchy(TREE_5_4, consistent);
+			assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+
+			final int itemCount = consistent.readConsistent(it -> {
+				assertTrue(TransactionSynchronizationManager.isActualTransactionActive());
+				assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+				final List<HierarchyItem> breadcrumb = it.getParentItems("Čalouněné postele");
+				final List<HierarchyItem> children = it.getChildItems("Čalouněné postele");
+				final List<HierarchyItem> leaves = it.getLeafItems("Ložnice");
+				assertEquals(2, breadcrumb.size());
+				assertEquals(2, children.size());
+				assertEquals(6, leaves.size());
+				return breadcrumb.size() + children.size() + leaves.size();
+			});
+
+			assertEquals(10, itemCount);
+			assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+		} finally {
+			// test runs outside the transaction - hierarchy created by the set up needs to be removed as well
+			storage.removeHierarchy("test");
+			storage.removeHierarchy("consistent");
+		}
+	}
+
+}
@@ -0,0 +1,157 @@
+package one.edee.oss.pmptt.replay;
+
+import one.edee.oss.pmptt.PMPTT;
+import one.edee.oss.pmptt.dao.InstrumentedHierarchyStorage;
+import one.edee.oss.pmptt.dao.RecordingHierarchyStorage;
+import one.edee.oss.pmptt.dao.memory.MemoryStorage;
+import one.edee.oss.pmptt.exception.PivotHierarchyNodeNotFound;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.HierarchyItemWithHistory;
+import one.edee.oss.pmptt.util.StructureLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class WorkloadReplayTest {
+
+	@Test
+	public void shouldWriteAndReadRecords() {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (WorkloadLogWriter writer = new WorkloadLogWriter(bytes)) {
+			final long start = System.nanoTime();
+			writer.write(
+				WorkloadLayer.STORAGE, start, 1500L, false, "tree", "createItem",
+				new String[] {null, "a"}, new long[] {-5L, Long.MAX_VALUE},
+				new HierarchyItem[] {
+					new HierarchyItemWithHistory("tree", "a", (short) 2, 4_000_000_000L, 4_000_000_099L, (short) 0, (short) 3, (short) 7),
+					null
+				}
+			);
+			writer.write(WorkloadLayer.HIERARCHY, start - 100L, 20L, true, "tree", "removeItem", new String[] {"a"}, new long[0], new HierarchyItem[0]);
+			assertEquals(2, writer.getRecordCount());
+		}
+
+		try (WorkloadLogReader reader = new WorkloadLogReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+			final WorkloadRecord first = reader.read();
+			assertNotNull(first);
+			assertEquals(WorkloadLayer.STORAGE, first.getLayer());
+			assertEquals("HierarchyStorage.createItem", first.getQualifiedOperation());
+			assertEquals(1500L, first.getDurationNanos());
+			assertFalse(first.isFailed());
+			assertArrayEquals(new String[] {null, "a"}, first.getArguments());
+			assertArrayEquals(new long[] {-5L, Long.MAX_VALUE}, first.getNumbers());
+			final HierarchyItem item = first.getItem(0);
+			assertNotNull(item);
+			assertEquals("a", item.getCode());
+			assertEquals(4_000_000_099L, item.getRightBound().longValue());
+			assertEquals(7, item.getBucket().intValue());
+			assertNull(first.getItem(1));
+
+			final WorkloadRecord second = reader.read();
+			assertNotNull(second);
+			assertEquals("Hierarchy.removeItem", second.getQualifiedOperation());
+			assertTrue(second.isFailed());
+			assertEquals(first.getStartNanos() - 100L, second.getStartNanos());
+			assertNull(reader.read());
+		}
+	}
+
+	@Test
+	public void shouldReplayHierarchyOperations() {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final MemoryStorage recordedStorage = new MemoryStorage();
+		final Hierarchy recorded;
+		try (WorkloadLogWriter writer = new WorkloadLogWriter(bytes)) {
+			final PMPTT pmptt = new PMPTT(new InstrumentedHierarchyStorage(recordedStorage, new HierarchyOperationRecorder(writer)));
+			recorded = pmptt.getOrCreateHierarchy("tree", (short) 3, (short) 3);
+			executeWorkload(recorded);
+		}
+		final MemoryStorage targetStorage = new MemoryStorage();
+		final Hierarchy target = new PMPTT(targetStorage).getOrCreateHierarchy("tree", (short) 3, (short) 3);
+
+		final ReplayReport report = new WorkloadReplayer(targetStorage)
+			.replay(new WorkloadLogReader(new ByteArrayInputStream(bytes.toByteArray())), ReplaySpeed.MAXIMUM);
+
+		assertEquals(13, report.getRecordCount());
+		assertEquals(1, report.getErrorCount());
+		assertEquals(0, report.getOutcomeMismatchCount());
+		assertEquals(4, report.getOperations().get("Hierarchy.createItem").getCount());
+		assertEquals(StructureLoader.storeHierarchyAndPrintWithBounds(recorded), StructureLoader.storeHierarchyAndPrintWithBounds(target));
+	}
+
+	@Test
+	public void shouldReplayStorageCalls() {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final Hierarchy recorded;
+		try (WorkloadLogWriter writer = new WorkloadLogWriter(bytes)) {
+			final PMPTT pmptt = new PMPTT(new RecordingHierarchyStorage(new MemoryStorage(), writer));
+			recorded = pmptt.getOrCreateHierarchy("tree", (short) 3, (short) 3);
+			executeWorkload(recorded);
+		}
+		final MemoryStorage targetStorage = new MemoryStorage();
+
+		final ReplayReport report = new WorkloadReplayer(targetStorage)
+			.replay(new WorkloadLogReader(new ByteArrayInputStream(bytes.toByteArray())), ReplaySpeed.MAXIMUM);
+
+		assertEquals(0, report.getOutcomeMismatchCount());
+		assertEquals(1, report.getOperations().get("HierarchyStorage.createHierarchy").getCount());
+		assertTrue(report.getOperations().get("HierarchyStorage.updateItem").getCount() > 0);
+		final Hierarchy target = targetStorage.getHierarchy("tree");
+		assertNotNull(target);
+		assertEquals(StructureLoader.storeHierarchyAndPrintWithBounds(recorded), StructureLoader.storeHierarchyAndPrintWithBounds(target));
+	}
+
+	@Test
+	public void shouldKeepOriginalPace() throws InterruptedException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (WorkloadLogWriter writer = new WorkloadLogWriter(bytes)) {
+			final PMPTT pmptt = new PMPTT(new InstrumentedHierarchyStorage(new MemoryStorage(), new HierarchyOperationRecorder(writer)));
+			final Hierarchy recorded = pmptt.getOrCreateHierarchy("tree", (short) 3, (short) 3);
+			recorded.createRootItem("a");
+			TimeUnit.MILLISECONDS.sleep(200);
+			recorded.createRootItem("b");
+		}
+		final MemoryStorage targetStorage = new MemoryStorage();
+		new PMPTT(targetStorage).getOrCreateHierarchy("tree", (short) 3, (short) 3);
+
+		final ReplayReport report = new WorkloadReplayer(targetStorage)
+			.replay(new WorkloadLogReader(new ByteArrayInputStream(bytes.toByteArray())), ReplaySpeed.ORIGINAL);
+
+		assertEquals(2, report.getRecordCount());
+		assertTrue(report.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(200), "Replay took only " + report.getElapsedNanos() + "ns.");
+	}
+
+	private static void executeWorkload(Hierarchy hierarchy) {
+		hierarchy.createRootItem("a");
+		hierarchy.createRootItem("b");
+		hierarchy.createItem("a1", "a");
+		hierarchy.createItem("a2", "a");
+		hierarchy.createItem("a3", "a", "a1");
+		hierarchy.createItem("b1", "b");
+		hierarchy.moveItemBefore("a2", "a3");
+		hierarchy.moveItemBetweenLevelsLast("a1", "b");
+		hierarchy.moveItemBetweenLevelsFirst("b");
+		hierarchy.removeItem("a3");
+		hierarchy.getChildItems("b");
+		hierarchy.getParentItems("b1");
+		assertThrows(PivotHierarchyNodeNotFound.class, () -> hierarchy.removeItem("missing"));
+	}
+
+}
@@ -0,0 +1,160 @@
+package one.edee.oss.pmptt.snapshot;
+
+import one.edee.oss.pmptt.PMPTT;
+import one.edee.oss.pmptt.dao.memory.MemoryStorage;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.LongHierarchyItem;
+import one.edee.oss.pmptt.util.StructureLoader;
+import one.edee.oss.pmptt.util.TreeGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class HierarchySnapshotTest {
+
+	@Test
+	public void shouldLoadSnapshotIntoMemoryStorage() {
+		final Hierarchy original = new PMPTT(new MemoryStorage()).getOrCreateHierarchy("category", (short) 4, (short) 5);
+		original.createRootItem("electronics");
+		original.createRootItem("clothing");
+		original.createItem("phones", "electronics");
+		original.createItem("laptops", "electronics");
+		original.createItem("tablets", "electronics", "phones");
+		original.createItem("shoes", "clothing");
+		original.createItem("sneakers", "shoes");
+		original.createItem("boots", "shoes");
+		original.createItem("žabky", "shoes");
+		original.moveItemBetweenLevelsLast("tablets", "clothing");
+		original.removeItem("laptops");
+		original.moveItemToFirst("boots");
+
+		final MemoryStorage storage = new MemoryStorage();
+		final Hierarchy loaded;
+		try (HierarchySnapshotReader reader = new HierarchySnapshotReader(new ByteArrayInputStream(writeSnapshot(original)))) {
+			loaded = reader.loadNext(storage);
+			assertNull(reader.loadNext(storage));
+		}
+
+		assertEquals(original.getLevels(), loaded.getLevels());
+		assertEquals(original.getSectionSize(), loaded.getSectionSize());
+		assertEquals(StructureLoader.storeHierarchyAndPrintWithBounds(original), StructureLoader.storeHierarchyAndPrintWithBounds(loaded));
+		assertEquals(describeItems(original), describeItems(loaded));
+
+		// loaded hierarchy is fully operational
+		loaded.createItem("laptops", "electronics");
+		loaded.moveItemBetweenLevelsFirst("sneakers", "electronics");
+		loaded.removeItem("shoes");
+		assertEquals("electronics\n    sneakers\n    phones\n    laptops\nclothing\n    tablets\n", StructureLoader.storeHierarchy(loaded));
+	}
+
+	@Test
+	public void shouldLoadSnapshotOfHierarchyWithLongCodes() {
+		final Hierarchy original = new PMPTT(new MemoryStorage()).getOrCreateHierarchy("category", (short) 4, (short) 5, true);
+		original.createRootItem(1000L);
+		original.createRootItem(2000L);
+		original.createItem(1001L, 1000L);
+		original.createItem(1002L, 1000L);
+		original.createItem(2001L, 2000L);
+		original.createItem(2002L, 2001L);
+		original.moveItemBetweenLevelsLast(1002L, 2000L);
+
+		final MemoryStorage storage = new MemoryStorage();
+		final Hierarchy loaded;
+		try (HierarchySnapshotReader reader = new HierarchySnapshotReader(new ByteArrayInputStream(writeSnapshot(original)))) {
+			loaded = reader.loadNext(storage);
+			assertNull(reader.loadNext(storage));
+		}
+
+		assertTrue(loaded.isLongCodes());
+		assertEquals(describeItems(original), describeItems(loaded));
+		assertEquals(original.getItem(2002L), loaded.getItem(2002L));
+		assertEquals(2001L, LongHierarchyItem.toId(loaded.getParentItem(2002L)));
+	}
+
+	@Test
+	public void shouldWriteLargeHierarchiesCompactly() {
+		final MemoryStorage originalStorage = new MemoryStorage();
+		final PMPTT pmptt = new PMPTT(originalStorage);
+		final Hierarchy first = pmptt.getOrCreateHierarchy("first", (short) 5, (short) 20);
+		final long count = TreeGenerator.tree(first).nodes(20_000).fanOut(TreeGenerator.FanOut.ZIPF).seed(7).generate(first, originalStorage);
+		final Hierarchy second = pmptt.getOrCreateHierarchy("second", (short) 3, (short) 10);
+		TreeGenerator.tree(second).nodes(500).generate(second, originalStorage);
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (HierarchySnapshotWriter writer = new HierarchySnapshotWriter(bytes)) {
+			assertEquals(count, writer.write(first));
+			writer.write(second);
+		}
+		// codes `node-<sequence>` differ mostly in the last few characters, bounds are predicted exactly
+		assertTrue(bytes.size() < (count + 500) * 10, "Snapshot takes " + bytes.size() + " bytes.");
+
+		final MemoryStorage storage = new MemoryStorage();
+		final List<Hierarchy> loaded;
+		try (HierarchySnapshotReader reader = new HierarchySnapshotReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+			loaded = reader.loadAll(storage);
+		}
+		assertEquals(2, loaded.size());
+		assertEquals(describeItems(first), describeItems(storage.getHierarchy("first")));
+		assertEquals(describeItems(second), describeItems(storage.getHierarchy("second")));
+	}
+
+	@Test
+	public void shouldRejectCorruptedSnapshot() {
+		final Hierarchy original = new PMPTT(new MemoryStorage()).getOrCreateHierarchy("category", (short) 3, (short) 3);
+		original.createRootItem("a");
+		original.createItem("a1", "a");
+		original.createItem("a2", "a");
+		final byte[] snapshot = writeSnapshot(original);
+		// change the last character of the `a2` code
+		snapshot[snapshot.length - 10] ^= 0x01;
+
+		final MemoryStorage storage = new MemoryStorage();
+		try (HierarchySnapshotReader reader = new HierarchySnapshotReader(new ByteArrayInputStream(snapshot))) {
+			assertThrows(UncheckedIOException.class, () -> reader.loadNext(storage));
+		}
+		assertNull(storage.getHierarchy("category"));
+	}
+
+	private static byte[] writeSnapshot(Hierarchy hierarchy) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (HierarchySnapshotWriter writer = new HierarchySnapshotWriter(bytes)) {
+			writer.write(hierarchy);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static List<String> describeItems(Hierarchy hierarchy) {
+		final List<HierarchyItem> items = new ArrayList<>();
+		for (HierarchyItem rootItem : hierarchy.getRootItems()) {
+			items.add(rootItem);
+			items.addAll(hierarchy.getAllChildItems(rootItem.getCode()));
+		}
+		items.sort(Comparator.comparing(HierarchyItem::getLeftBound));
+		final List<String> result = new ArrayList<>(items.size());
+		for (HierarchyItem item : items) {
+			result.add(
+				item.getCode() + " " + item.getLevel() + " " + item.getLeftBound() + "-" + item.getRightBound() +
+					" bucket " + item.getBucket() + " order " + item.getOrder() + " children " + item.getNumberOfChildren()
+			);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,156 @@
+package one.edee.oss.pmptt.spi;
+
+import one.edee.oss.pmptt.model.HierarchyChange;
+import one.edee.oss.pmptt.model.HierarchyChangeType;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.HierarchyItemBase;
+import one.edee.oss.pmptt.spi.AsyncHierarchyChangeDispatcher.Backpressure;
+import one.edee.oss.pmptt.spring.DatabaseLayerConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(
+		classes = {DatabaseLayerConfig.class}
+)
+@ActiveProfiles("H2")
+public class AsyncHierarchyChangeDispatcherTest {
+	@Autowired private PlatformTransactionManager transactionManager;
+
+	@Test
+	public void shouldDeliverChangesAfterCommitAndDiscardRolledBackOnes() throws Exception {
+		final CollectingListener listener = new CollectingListener(null);
+		try (AsyncHierarchyChangeDispatcher dispatcher = new AsyncHierarchyChangeDispatcher(listener)) {
+			final TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+			txTemplate.execute(status -> {
+				dispatcher.itemCreated(item("a", 1L, 10L));
+				dispatcher.itemCreated(item("b", 11L, 20L));
+				assertEquals(0, dispatcher.getPendingCount());
+				return null;
+			});
+			txTemplate.execute(status -> {
+				dispatcher.itemCreated(item("c", 21L, 30L));
+				status.setRollbackOnly();
+				return null;
+			});
+		}
+
+		assertEquals(2, listener.changes.size());
+		assertEquals("a", listener.changes.get(0).getCode());
+		assertEquals("b", listener.changes.get(1).getCode());
+	}
+
+	@Test
+	public void shouldDeliverImmediatelyWithoutTransaction() throws Exception {
+		final CollectingListener listener = new CollectingListener(null);
+		try (AsyncHierarchyChangeDispatcher dispatcher = new AsyncHierarchyChangeDispatcher(listener)) {
+			final HierarchyItem item = item("a", 1L, 10L);
+			dispatcher.itemUpdated(item, item("a", 11L, 20L));
+			// snapshot must not be affected by later modifications of the item
+			((HierarchyItemBase) item).setLeftBound(5L);
+		}
+
+		assertEquals(1, listener.changes.size());
+		final HierarchyChange change = listener.changes.get(0);
+		assertEquals(HierarchyChangeType.UPDATED, change.getType());
+		assertEquals(Long.valueOf(1L), change.getItem().getLeftBound());
+		assertEquals(Long.valueOf(11L), change.getOriginalItem().getLeftBound());
+	}
+
+	@Test
+	public void shouldDropChangesWhenQueueIsFull() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final CollectingListener listener = new CollectingListener(release);
+		try (AsyncHierarchyChangeDispatcher dispatcher = new AsyncHierarchyChangeDispatcher(listener, 2, 10, Backpressure.DROP)) {
+			dispatcher.itemCreated(item("a", 1L, 10L));
+			assertTrue(listener.delivering.await(5, TimeUnit.SECONDS));
+			for (int i = 0; i < 4; i++) {
+				dispatcher.itemCreated(item("item-" + i, 1L, 10L));
+			}
+			assertEquals(2, dispatcher.getPendingCount());
+			assertEquals(2L, dispatcher.getDroppedCount());
+			release.countDown();
+		}
+
+		assertEquals(3, listener.changes.size());
+	}
+
+	@Test
+	public void shouldCoalesceChangesOfSameItem() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final CollectingListener listener = new CollectingListener(release);
+		try (AsyncHierarchyChangeDispatcher dispatcher = new AsyncHierarchyChangeDispatcher(listener, 10, 10, Backpressure.COALESCE)) {
+			dispatcher.itemCreated(item("blocker", 1L, 10L));
+			assertTrue(listener.delivering.await(5, TimeUnit.SECONDS));
+
+			dispatcher.itemCreated(item("a", 1L, 10L));
+			dispatcher.itemUpdated(item("a", 11L, 20L), item("a", 1L, 10L));
+			dispatcher.itemCreated(item("b", 21L, 30L));
+			dispatcher.itemRemoved(item("b", 21L, 30L));
+			dispatcher.itemUpdated(item("c", 31L, 40L), item("c", 41L, 50L));
+			dispatcher.itemUpdated(item("c", 51L, 60L), item("c", 31L, 40L));
+			assertEquals(2, dispatcher.getPendingCount());
+			release.countDown();
+		}
+
+		assertEquals(3, listener.changes.size());
+		final HierarchyChange a = listener.changes.get(1);
+		assertEquals(HierarchyChangeType.CREATED, a.getType());
+		assertEquals(Long.valueOf(11L), a.getItem().getLeftBound());
+		assertNull(a.getOriginalItem());
+		final HierarchyChange c = listener.changes.get(2);
+		assertEquals(HierarchyChangeType.UPDATED, c.getType());
+		assertEquals(Long.valueOf(51L), c.getItem().getLeftBound());
+		assertEquals(Long.valueOf(41L), c.getOriginalItem().getLeftBound());
+	}
+
+	private static HierarchyItem item(String code, Long leftBound, Long rightBound) {
+		return new HierarchyItemBase("dispatched", code, (short)1, leftBound, rightBound, (short)0, (short)1, (short)1);
+	}
+
+	private static class CollectingListener implements BulkHierarchyChangeListener {
+		private final List<HierarchyChange> changes = Collections.synchronizedList(new ArrayList<>());
+		private final CountDownLatch delivering = new CountDownLatch(1);
+		private final CountDownLatch release;
+
+		CollectingListener(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void itemsChanged(List<HierarchyChange> changes) {
+			this.changes.addAll(changes);
+			delivering.countDown();
+			if (release != null) {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+}
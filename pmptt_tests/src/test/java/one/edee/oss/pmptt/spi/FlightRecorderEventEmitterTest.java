@@ -0,0 +1,104 @@
+package one.edee.oss.pmptt.spi;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import one.edee.oss.pmptt.PMPTT;
+import one.edee.oss.pmptt.dao.memory.MemoryStorage;
+import one.edee.oss.pmptt.model.Hierarchy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class FlightRecorderEventEmitterTest {
+	private Hierarchy tested;
+
+	@BeforeEach
+	public void setUp() {
+		final PMPTT pmptt = new PMPTT(new MemoryStorage());
+		tested = pmptt.getOrCreateHierarchy("recorded", (short) 3, (short) 5);
+		tested.createRootItem("a");
+		tested.createRootItem("b");
+	}
+
+	@Test
+	public void shouldBeDisabledWithoutRecording() {
+		assertNull(HierarchyEventEmitter.getEnabledEmitter());
+	}
+
+	@Test
+	public void shouldEmitOperationAndStorageCallEvents() throws IOException {
+		final List<RecordedEvent> events;
+		try (final Recording recording = new Recording()) {
+			recording.enable("pmptt.Operation");
+			recording.enable("pmptt.StorageCall");
+			recording.start();
+			assertNotNull(HierarchyEventEmitter.getEnabledEmitter());
+
+			tested.createItem("a1", "a");
+			tested.moveItemToLast("a");
+
+			recording.stop();
+			final Path file = Files.createTempFile("pmptt", ".jfr");
+			try {
+				recording.dump(file);
+				events = RecordingFile.readAllEvents(file);
+			} finally {
+				Files.delete(file);
+			}
+		}
+
+		final List<RecordedEvent> operations = filter(events, "pmptt.Operation");
+		assertEquals(2, operations.size());
+
+		final RecordedEvent createItem = operations.get(0);
+		assertEquals("recorded", createItem.getString("hierarchyCode"));
+		assertEquals("Hierarchy.createItem", createItem.getString("operation"));
+		assertEquals("a1", createItem.getString("itemCode"));
+		assertEquals(2L, createItem.getLong("rowsWritten"));
+		assertTrue(createItem.getInt("storageCalls") > 0);
+		assertTrue(createItem.getLong("boundsSpan") > 0);
+		assertFalse(createItem.getBoolean("failed"));
+
+		final RecordedEvent moveItem = operations.get(1);
+		assertEquals("Hierarchy.moveItemToLast", moveItem.getString("operation"));
+		assertEquals("a", moveItem.getString("itemCode"));
+
+		final List<RecordedEvent> storageCalls = filter(events, "pmptt.StorageCall");
+		assertEquals(
+			createItem.getInt("storageCalls") + moveItem.getInt("storageCalls"),
+			storageCalls.size()
+		);
+		assertTrue(
+			storageCalls.stream().anyMatch(
+				it -> "HierarchyStorage.createItem".equals(it.getString("operation")) && "a1".equals(it.getString("itemCode"))
+			)
+		);
+		assertNull(HierarchyEventEmitter.getEnabledEmitter());
+	}
+
+	private static List<RecordedEvent> filter(List<RecordedEvent> events, String name) {
+		return events.stream()
+			.filter(it -> name.equals(it.getEventType().getName()))
+			.sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+			.collect(Collectors.toList());
+	}
+
+}
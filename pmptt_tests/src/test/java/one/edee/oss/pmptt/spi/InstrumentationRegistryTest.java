@@ -0,0 +1,82 @@
+package one.edee.oss.pmptt.spi;
+
+import one.edee.oss.pmptt.PMPTT;
+import one.edee.oss.pmptt.dao.InstrumentedHierarchyStorage;
+import one.edee.oss.pmptt.dao.memory.MemoryStorage;
+import one.edee.oss.pmptt.exception.SectionExhausted;
+import one.edee.oss.pmptt.model.Hierarchy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class InstrumentationRegistryTest {
+	private InstrumentationRegistry registry;
+	private Hierarchy tested;
+
+	@BeforeEach
+	public void setUp() {
+		registry = new InstrumentationRegistry();
+		final PMPTT pmptt = new PMPTT(new InstrumentedHierarchyStorage(new MemoryStorage(), registry));
+		tested = pmptt.getOrCreateHierarchy("measured", (short) 3, (short) 2);
+	}
+
+	@Test
+	public void shouldRecordHierarchyAndStorageOperations() {
+		tested.createRootItem("a");
+		tested.createItem("a1", "a");
+		tested.createItem("a2", "a");
+		tested.getChildItems("a");
+
+		final OperationMetrics createItem = registry.getMetrics("measured", "Hierarchy.createItem");
+		assertNotNull(createItem);
+		assertEquals(2, createItem.getCalls());
+		assertEquals(0, createItem.getFailures());
+		assertTrue(createItem.getLatency().getMaxNanos() > 0);
+
+		final OperationMetrics storageCreate = registry.getMetrics("measured", "HierarchyStorage.createItem");
+		assertNotNull(storageCreate);
+		assertEquals(3, storageCreate.getCalls());
+		assertEquals(3, storageCreate.getRowsWritten());
+
+		final OperationMetrics childItems = registry.getMetrics("measured", "HierarchyStorage.getChildItems");
+		assertNotNull(childItems);
+		assertEquals(2, childItems.getRowsRead());
+	}
+
+	@Test
+	public void shouldRecordNestedOperationOnlyOnce() {
+		tested.createRootItem("a");
+		tested.createRootItem("b");
+		tested.createItem("a1", "a");
+		// printTree internally calls getItem, getChildItems and getRootItems
+		tested.printTree(null, 2);
+
+		assertEquals(1, registry.getMetrics("measured", "Hierarchy.printTree").getCalls());
+		assertNull(registry.getMetrics("measured", "Hierarchy.getChildItems"));
+		assertNull(registry.getMetrics("measured", "Hierarchy.getRootItems"));
+	}
+
+	@Test
+	public void shouldRecordSectionExhaustedFailures() {
+		tested.createRootItem("a");
+		tested.createRootItem("b");
+		assertThrows(SectionExhausted.class, () -> tested.createRootItem("c"));
+
+		final OperationMetrics createRootItem = registry.getMetrics("measured", "Hierarchy.createRootItem");
+		assertEquals(3, createRootItem.getCalls());
+		assertEquals(1, createRootItem.getFailures());
+		assertEquals(1, createRootItem.getSectionExhaustedFailures());
+	}
+
+}
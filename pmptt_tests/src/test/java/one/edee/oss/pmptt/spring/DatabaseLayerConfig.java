@@ -3,6 +3,7 @@ package one.edee.oss.pmptt.spring;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.dao.h2.H2Storage;
 import one.edee.oss.pmptt.dao.mysql.MySqlStorage;
 import one.edee.oss.pmptt.dao.oracle.OracleSqlStorage;
 import one.edee.oss.pmptt.util.JdbcUtils;
@@ -44,6 +45,8 @@ public class DatabaseLayerConfig {
 			return new MySqlStorage(dataSource, transactionManager);
 		} else if (platform == DatabaseType.ORACLE) {
 			return new OracleSqlStorage(dataSource, transactionManager);
+		} else if (platform == DatabaseType.H2) {
+			return new H2Storage(dataSource, transactionManager);
 		} else {
 			throw new IllegalStateException("Unsupported platform " + platform + " for MPTT implementation!");
 		}
@@ -100,5 +103,24 @@ public class DatabaseLayerConfig {
 		);
 	}
 
+	@Bean("dataSource")
+	@Profile("H2")
+	public DataSource h2DataSource(
+			@Value("${jdbc.url.h2}") String url,
+			@Value("${jdbc.user.h2}") String user,
+			@Value("${jdbc.password.h2}") String password
+	) {
+		final HikariConfig cfg = new HikariConfig();
+
+		cfg.setJdbcUrl(url);
+		cfg.setUsername(user);
+		cfg.setPassword(password);
+		cfg.setAutoCommit(true);
+		cfg.setMaximumPoolSize(5);
+		cfg.setMaxLifetime(10000);
+		return new TransactionAwareDataSourceProxy(
+				new HikariDataSource(cfg)
+		);
+	}
 
 }
@@ -0,0 +1,113 @@
+package one.edee.oss.pmptt.sync;
+
+import one.edee.oss.pmptt.PMPTT;
+import one.edee.oss.pmptt.dao.memory.MemoryStorage;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.util.StructureLoader;
+import one.edee.oss.pmptt.util.TreeGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class HierarchySynchronizerTest {
+
+	@Test
+	public void shouldSynchronizeRandomTrees() {
+		for (long seed = 1; seed <= 20; seed++) {
+			final MemoryStorage storage = new MemoryStorage();
+			final PMPTT pmptt = new PMPTT(storage);
+			final Hierarchy hierarchy = pmptt.getOrCreateHierarchy("synchronized", (short) 4, (short) 12);
+			final Set<String> currentCodes = new HashSet<>();
+			TreeGenerator.tree(hierarchy).nodes(180 + (seed % 3) * 30).fillRatio(0.5).seed(seed)
+				.generate(hierarchy, storage, item -> currentCodes.add(item.getCode()));
+
+			final Hierarchy expected = pmptt.getOrCreateHierarchy("expected", (short) 4, (short) 12);
+			final List<TargetItem> target = new ArrayList<>();
+			final Deque<HierarchyItem> path = new ArrayDeque<>();
+			TreeGenerator.tree(expected).nodes(210).fillRatio(0.5).seed(seed + 1000)
+				.generate(expected, storage, item -> {
+					while (!path.isEmpty() && path.peek().getLevel() >= item.getLevel()) {
+						path.pop();
+					}
+					target.add(new TargetItem(item.getCode(), path.isEmpty() ? null : path.peek().getCode()));
+					path.push(item);
+				});
+
+			final HierarchySynchronizer synchronizer = new HierarchySynchronizer(hierarchy);
+			final SynchronizationPlan plan = synchronizer.synchronize(target);
+
+			assertEquals(StructureLoader.storeHierarchy(expected), StructureLoader.storeHierarchy(hierarchy), "Seed " + seed);
+			assertEquals(target.stream().filter(it -> !currentCodes.contains(it.getCode())).count(), plan.getCount(SynchronizationStepType.CREATE));
+			assertTrue(plan.getCount(SynchronizationStepType.REMOVE) <= currentCodes.size() - (target.size() - plan.getCount(SynchronizationStepType.CREATE)));
+			assertTrue(synchronizer.plan(target).isEmpty());
+		}
+	}
+
+	@Test
+	public void shouldMoveOnlySiblingsOutOfOrder() {
+		final Hierarchy hierarchy = new PMPTT(new MemoryStorage()).getOrCreateHierarchy("ordered", (short) 4, (short) 12);
+		for (String code : Arrays.asList("a", "b", "c", "d", "e", "f")) {
+			hierarchy.createRootItem(code);
+		}
+
+		final SynchronizationPlan plan = new HierarchySynchronizer(hierarchy).synchronize(
+			StructureLoader.readTargetTree("f\nb\nc\na\nd\ne\n")
+		);
+
+		assertEquals(2, plan.getSteps().size());
+		assertEquals(2, plan.getCount(SynchronizationStepType.MOVE));
+		assertEquals("f\nb\nc\na\nd\ne\n", StructureLoader.storeHierarchy(hierarchy));
+	}
+
+	@Test
+	public void shouldMoveDeepDescendantsAwayBeforeMovingTheirAncestorDown() {
+		final Hierarchy hierarchy = new PMPTT(new MemoryStorage()).getOrCreateHierarchy("deep", (short) 3, (short) 12);
+		final String current =
+			"a\n" +
+			"    a1\n" +
+			"        a11\n" +
+			"b\n" +
+			"    b1\n";
+		new HierarchySynchronizer(hierarchy).synchronize(StructureLoader.readTargetTree(current));
+		assertEquals(current, StructureLoader.storeHierarchy(hierarchy));
+
+		final String target =
+			"b\n" +
+			"    b1\n" +
+			"        a\n" +
+			"    b2\n" +
+			"        a1\n" +
+			"a11\n";
+		new HierarchySynchronizer(hierarchy).synchronize(StructureLoader.readTargetTree(target));
+		assertEquals(target, StructureLoader.storeHierarchy(hierarchy));
+	}
+
+	@Test
+	public void shouldRejectInvalidTargetTree() {
+		final Hierarchy hierarchy = new PMPTT(new MemoryStorage()).getOrCreateHierarchy("invalid", (short) 2, (short) 12);
+		final HierarchySynchronizer synchronizer = new HierarchySynchronizer(hierarchy);
+
+		assertThrows(IllegalArgumentException.class, () -> synchronizer.plan(Arrays.asList(new TargetItem("a", null), new TargetItem("a", null))));
+		assertThrows(IllegalArgumentException.class, () -> synchronizer.plan(Arrays.asList(new TargetItem("a", "b"))));
+		assertThrows(IllegalArgumentException.class, () -> synchronizer.plan(Arrays.asList(new TargetItem("a", "b"), new TargetItem("b", "a"))));
+		assertThrows(IllegalArgumentException.class, () -> synchronizer.plan(StructureLoader.readTargetTree("a\n    b\n        c\n")));
+	}
+
+}
@@ -0,0 +1,75 @@
+package one.edee.oss.pmptt.util;
+
+import one.edee.oss.pmptt.util.IntervalIndex.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class IntervalIndexTest {
+
+	@Test
+	public void shouldFindNestedIntervals() {
+		final List<Interval<String>> intervals = new ArrayList<>();
+		intervals.add(new Interval<>(1L, 1000L, "root"));
+		intervals.add(new Interval<>(1L, 100L, "first"));
+		intervals.add(new Interval<>(101L, 200L, "second"));
+		intervals.add(new Interval<>(111L, 120L, "secondChild"));
+		final IntervalIndex<String> index = new IntervalIndex<>(intervals);
+
+		assertEquals(Collections.singletonList("root"), collect(index, 500L));
+		assertEquals(sorted("root", "first"), collect(index, 1L));
+		assertEquals(sorted("root", "second", "secondChild"), collect(index, 120L));
+		assertTrue(collect(index, 1001L).isEmpty());
+	}
+
+	@Test
+	public void shouldMatchBruteForceOnRandomIntervals() {
+		final Random random = new Random(42);
+		final List<Interval<Integer>> intervals = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			final long left = random.nextInt(10_000);
+			intervals.add(new Interval<>(left, left + random.nextInt(500), i));
+		}
+		final IntervalIndex<Integer> index = new IntervalIndex<>(intervals);
+
+		for (int i = 0; i < 1000; i++) {
+			final long point = random.nextInt(11_000);
+			final List<Integer> expected = new ArrayList<>();
+			for (Interval<Integer> interval : intervals) {
+				if (interval.getLeft() <= point && point <= interval.getRight()) {
+					expected.add(interval.getValue());
+				}
+			}
+			Collections.sort(expected);
+			assertEquals(expected, collect(index, point));
+		}
+	}
+
+	private static <T extends Comparable<T>> List<T> collect(IntervalIndex<T> index, long point) {
+		final List<T> result = new ArrayList<>();
+		index.collect(point, result);
+		Collections.sort(result);
+		return result;
+	}
+
+	@SafeVarargs
+	private static <T extends Comparable<T>> List<T> sorted(T... values) {
+		final List<T> result = new ArrayList<>();
+		Collections.addAll(result, values);
+		Collections.sort(result);
+		return result;
+	}
+
+}
@@ -23,7 +23,7 @@ public class JdbcUtils {
 
 	@RequiredArgsConstructor
 	public enum DatabaseType {
-		MYSQL("mysql"), ORACLE("oracle");
+		MYSQL("mysql"), ORACLE("oracle"), H2("h2");
 
 		@Getter private final String urlStringBase;
 
@@ -77,6 +77,9 @@ public class JdbcUtils {
 		if (jdbcUrl.startsWith(JDBC_DRIVE_NAME_PREFIX + DatabaseType.ORACLE.getUrlStringBase())) {
 			return DatabaseType.ORACLE;
 		}
+		if (jdbcUrl.startsWith(JDBC_DRIVE_NAME_PREFIX + DatabaseType.H2.getUrlStringBase())) {
+			return DatabaseType.H2;
+		}
 		return null;
 	}
 }
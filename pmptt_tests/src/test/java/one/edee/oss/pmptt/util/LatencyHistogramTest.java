@@ -0,0 +1,63 @@
+package one.edee.oss.pmptt.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class LatencyHistogramTest {
+
+	@Test
+	public void shouldCountSmallValuesExactly() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for (long i = 1; i <= 20; i++) {
+			histogram.record(i);
+		}
+
+		assertEquals(20, histogram.getCount());
+		assertEquals(10, histogram.getPercentileNanos(50.0));
+		assertEquals(20, histogram.getPercentileNanos(100.0));
+	}
+
+	@Test
+	public void shouldComputePercentilesWithinRelativeError() {
+		final Random random = new Random(42);
+		final LatencyHistogram histogram = new LatencyHistogram();
+		final long[] values = new long[100_000];
+		for (int i = 0; i < values.length; i++) {
+			// log-normal like distribution spanning several orders of magnitude
+			values[i] = (long) Math.exp(8 + 2 * random.nextGaussian());
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+
+		for (double percentile : new double[] {50.0, 90.0, 99.0, 99.9}) {
+			final long exact = values[(int) Math.ceil(values.length * percentile / 100.0) - 1];
+			final long approximate = histogram.getPercentileNanos(percentile);
+			assertTrue(approximate >= exact, "p" + percentile + " " + approximate + " is lower than " + exact);
+			assertTrue(approximate <= exact * (1.0 + 1.0 / LatencyHistogram.SUB_BUCKET_COUNT) + 1, "p" + percentile + " " + approximate + " is too far from " + exact);
+		}
+		assertEquals(values[values.length - 1], histogram.getPercentileNanos(100.0));
+	}
+
+	@Test
+	public void shouldHandleExtremeValues() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(0L);
+		histogram.record(Long.MAX_VALUE);
+
+		assertEquals(0L, histogram.getPercentileNanos(50.0));
+		assertEquals(Long.MAX_VALUE, histogram.getPercentileNanos(100.0));
+		assertEquals(2, Arrays.stream(histogram.getBucketCounts()).sum());
+	}
+
+}
@@ -0,0 +1,71 @@
+package one.edee.oss.pmptt.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class LongObjectHashMapTest {
+
+	@Test
+	public void shouldPutGetAndRemoveValues() {
+		final LongObjectHashMap<String> map = new LongObjectHashMap<>();
+		assertTrue(map.isEmpty());
+		assertNull(map.put(0L, "zero"));
+		assertNull(map.put(Long.MIN_VALUE, "min"));
+		assertNull(map.put(Long.MAX_VALUE, "max"));
+		assertEquals("zero", map.put(0L, "nothing"));
+
+		assertEquals(3, map.size());
+		assertEquals("nothing", map.get(0L));
+		assertEquals("min", map.get(Long.MIN_VALUE));
+		assertTrue(map.containsKey(Long.MAX_VALUE));
+		assertFalse(map.containsKey(1L));
+
+		assertEquals("min", map.remove(Long.MIN_VALUE));
+		assertNull(map.remove(Long.MIN_VALUE));
+		assertEquals(2, map.size());
+		assertThrows(IllegalArgumentException.class, () -> map.put(1L, null));
+	}
+
+	@Test
+	public void shouldBehaveLikeHashMapUnderRandomOperations() {
+		final Random random = new Random(42);
+		final LongObjectHashMap<Long> tested = new LongObjectHashMap<>();
+		final Map<Long, Long> expected = new HashMap<>();
+		for (int i = 0; i < 100_000; i++) {
+			// narrow key range so that removals hit existing keys and probe sequences collide often
+			final long key = random.nextInt(5_000) * 1_000_003L;
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(key), tested.remove(key));
+			} else {
+				assertEquals(expected.put(key, (long) i), tested.put(key, (long) i));
+			}
+		}
+		assertEquals(expected.size(), tested.size());
+		for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+			assertEquals(entry.getValue(), tested.get(entry.getKey()));
+		}
+		final Set<Long> iterated = new HashSet<>();
+		for (Long value : tested) {
+			assertTrue(iterated.add(value));
+		}
+		assertEquals(new HashSet<>(expected.values()), iterated);
+	}
+
+}
@@ -0,0 +1,76 @@
+package one.edee.oss.pmptt.util;
+
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.spi.OperationStats;
+
+import javax.annotation.Nonnull;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test helper asserting that single hierarchy operation stays within the budget of storage calls. Failure message
+ * contains the full {@link OperationStats} so that the offending storage methods are visible right away.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class StorageCallBudget {
+	private int maxReads = Integer.MAX_VALUE;
+	private int maxWrites = Integer.MAX_VALUE;
+	private long maxRowsWritten = Long.MAX_VALUE;
+	private final Map<String, Integer> maxCalls = new LinkedHashMap<>();
+
+	public static StorageCallBudget budget() {
+		return new StorageCallBudget();
+	}
+
+	public StorageCallBudget reads(int maxReads) {
+		this.maxReads = maxReads;
+		return this;
+	}
+
+	public StorageCallBudget writes(int maxWrites) {
+		this.maxWrites = maxWrites;
+		return this;
+	}
+
+	public StorageCallBudget rowsWritten(long maxRowsWritten) {
+		this.maxRowsWritten = maxRowsWritten;
+		return this;
+	}
+
+	public StorageCallBudget calls(@Nonnull String storageMethod, int max) {
+		this.maxCalls.put(storageMethod, max);
+		return this;
+	}
+
+	/**
+	 * Executes the operation on the hierarchy with statistics enabled and asserts they fit the budget.
+	 */
+	@Nonnull
+	public OperationStats assertWithin(@Nonnull Hierarchy hierarchy, @Nonnull Consumer<Hierarchy> operation) {
+		final OperationStats stats = hierarchy.executeWithStats(operation);
+		assertWithin(stats);
+		return stats;
+	}
+
+	/**
+	 * Asserts that the statistics fit the budget.
+	 */
+	public void assertWithin(@Nonnull OperationStats stats) {
+		assertFalse(stats.isFailed(), () -> "Operation failed:\n" + stats);
+		assertTrue(stats.getStorageReads() <= maxReads, () -> "Storage read budget " + maxReads + " exceeded:\n" + stats);
+		assertTrue(stats.getStorageWrites() <= maxWrites, () -> "Storage write budget " + maxWrites + " exceeded:\n" + stats);
+		assertTrue(stats.getRowsWritten() <= maxRowsWritten, () -> "Written rows budget " + maxRowsWritten + " exceeded:\n" + stats);
+		for (Map.Entry<String, Integer> entry : maxCalls.entrySet()) {
+			assertTrue(
+				stats.getStorageCalls(entry.getKey()) <= entry.getValue(),
+				() -> "Budget " + entry.getValue() + " of " + entry.getKey() + " calls exceeded:\n" + stats
+			);
+		}
+	}
+
+}
@@ -2,12 +2,14 @@ package one.edee.oss.pmptt.util;
 
 import one.edee.oss.pmptt.model.Hierarchy;
 import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.sync.TargetItem;
 import org.apache.commons.io.IOUtils;
 import org.springframework.core.io.Resource;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Stack;
 import java.util.regex.Matcher;
@@ -70,6 +72,40 @@ public class StructureLoader {
 		return sb.toString();
 	}
 
+	public static List<TargetItem> readTargetTree(String structure) {
+		final List<TargetItem> result = new ArrayList<>();
+		final List<String> path = new ArrayList<>();
+		for (String line : structure.split("\n")) {
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+			final int level = getWhiteSpaceIndentation(line) / 4;
+			while (path.size() > level) {
+				path.remove(path.size() - 1);
+			}
+			final String code = line.trim();
+			result.add(new TargetItem(code, path.isEmpty() ? null : path.get(path.size() - 1)));
+			path.add(code);
+		}
+		return result;
+	}
+
+	public static List<TargetItem> describeTargetTree(Hierarchy hierarchy) {
+		final List<TargetItem> result = new ArrayList<>();
+		for (HierarchyItem rootItem : hierarchy.getRootItems()) {
+			result.add(new TargetItem(rootItem.getCode(), null));
+			describeChildren(hierarchy, rootItem, result);
+		}
+		return result;
+	}
+
+	private static void describeChildren(Hierarchy hierarchy, HierarchyItem item, List<TargetItem> result) {
+		for (HierarchyItem childItem : hierarchy.getChildItems(item.getCode())) {
+			result.add(new TargetItem(childItem.getCode(), item.getCode()));
+			describeChildren(hierarchy, childItem, result);
+		}
+	}
+
 	private static void printChildren(Hierarchy hierarchy, HierarchyItem item, StringBuilder sb) {
 		for (HierarchyItem childItem : hierarchy.getChildItems(item.getCode())) {
 			for(int i = 0; i < childItem.getLevel() - 1; i++) {
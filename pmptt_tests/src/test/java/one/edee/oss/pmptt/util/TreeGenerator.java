@@ -0,0 +1,468 @@
+package one.edee.oss.pmptt.util;
+
+import one.edee.oss.pmptt.dao.HierarchyStorage;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.model.HierarchyItemWithHistory;
+import one.edee.oss.pmptt.model.Section;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Generator of synthetic trees of realistic shapes and (almost) arbitrary size. Unlike {@link StructureLoader} it
+ * doesn't go through {@link Hierarchy} API - bounds, buckets, orders and numbers of children are computed directly
+ * and items are streamed in depth first order (each parent precedes its children), so that they may be passed in
+ * batches to {@link HierarchyStorage#createItems(java.util.Collection)} or written to a file. Memory consumption
+ * doesn't depend on the node count, so trees of tens of millions of nodes may be produced.
+ *
+ * Requested node count is distributed top-down - each item gets budget of descendants that is split among its children
+ * according to the {@link FanOut} distribution. Items are forced to have more children when the budget wouldn't fit
+ * into the remaining levels otherwise, so node counts close to {@link #getCapacity()} produce sections filled up to
+ * the {@link one.edee.oss.pmptt.exception.SectionExhausted} limit. The same seed always produces the same tree.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class TreeGenerator {
+	private static final int DEFAULT_BATCH_SIZE = 10_000;
+	private static final String HEADER_PREFIX = "# pmptt tree levels=";
+	private static final String HEADER_SECTION_SIZE = " sectionSize=";
+	private final short levels;
+	private final short sectionSize;
+	private long nodeCount = 1_000;
+	private double fillRatio = 1.0;
+	private FanOut fanOut = FanOut.UNIFORM;
+	private long seed = 42L;
+	private String codePrefix = "node-";
+
+	private TreeGenerator(short levels, short sectionSize) {
+		this.levels = levels;
+		this.sectionSize = sectionSize;
+	}
+
+	/**
+	 * Creates generator of the tree with the dimensions of passed hierarchy.
+	 */
+	public static TreeGenerator tree(@Nonnull Hierarchy hierarchy) {
+		// hierarchy keeps dimensions incremented by one
+		return new TreeGenerator((short) (hierarchy.getLevels() - 1), (short) (hierarchy.getSectionSize() - 1));
+	}
+
+	/**
+	 * Creates generator of the tree with passed dimensions - same values as passed to the {@link Hierarchy} constructor.
+	 */
+	public static TreeGenerator tree(short levels, short sectionSize) {
+		return new TreeGenerator(levels, sectionSize);
+	}
+
+	/**
+	 * Total count of the generated items.
+	 */
+	public TreeGenerator nodes(long nodeCount) {
+		this.nodeCount = nodeCount;
+		return this;
+	}
+
+	/**
+	 * Share of the section size any item may use for its children - 1 allows filling sections up to the limit.
+	 */
+	public TreeGenerator fillRatio(double fillRatio) {
+		Assert.isTrue(fillRatio > 0 && fillRatio <= 1, "Fill ratio must be in range (0, 1>!");
+		this.fillRatio = fillRatio;
+		return this;
+	}
+
+	public TreeGenerator fanOut(@Nonnull FanOut fanOut) {
+		this.fanOut = fanOut;
+		return this;
+	}
+
+	public TreeGenerator seed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	/**
+	 * Prefix of the generated item codes - codes are composed of the prefix and the sequence number of the item.
+	 */
+	public TreeGenerator codePrefix(@Nonnull String codePrefix) {
+		this.codePrefix = codePrefix;
+		return this;
+	}
+
+	/**
+	 * Returns maximal number of children of single item respecting the fill ratio.
+	 */
+	public int getMaxChildren() {
+		return Math.max(1, (int) Math.floor(sectionSize * fillRatio));
+	}
+
+	/**
+	 * Returns maximal number of items the tree of configured dimensions and fill ratio may hold.
+	 */
+	public long getCapacity() {
+		return getSubtreeCapacity(levels);
+	}
+
+	/**
+	 * Generates the tree and passes the items to the consumer in depth first order.
+	 *
+	 * @param hierarchyCode code of the hierarchy the items will belong to
+	 * @param consumer consumer of the generated items
+	 * @return number of generated items
+	 */
+	public long generate(@Nonnull String hierarchyCode, @Nonnull Consumer<HierarchyItem> consumer) {
+		Assert.isTrue(nodeCount >= 0, "Node count must not be negative!");
+		Assert.isTrue(
+			nodeCount <= getCapacity(),
+			"Tree of " + levels + " levels and " + getMaxChildren() + " children per item may hold at most " +
+				getCapacity() + " items, " + nodeCount + " requested!"
+		);
+		final Random random = new Random(seed);
+		// section sizes of the items on particular levels (index = level)
+		final long[] itemSpans = new long[levels + 1];
+		for (short level = 1; level <= levels; level++) {
+			itemSpans[level] = Section.getSectionSizeForLevel((short) (sectionSize + 1), (short) (level + 1), (short) (levels + 1));
+		}
+
+		long sequence = 0;
+		final Deque<Frame> stack = new ArrayDeque<>(levels);
+		if (nodeCount > 0) {
+			stack.push(plan(random, 0L, (short) 1, nodeCount));
+		}
+		while (!stack.isEmpty()) {
+			final Frame frame = stack.peek();
+			if (frame.next == frame.budgets.length) {
+				stack.pop();
+				continue;
+			}
+			final int index = frame.next++;
+			final long leftBound = frame.parentLeftBound + 1 + index * itemSpans[frame.level];
+			final long descendants = frame.budgets[index];
+			final Frame children = descendants > 0 ? plan(random, leftBound, (short) (frame.level + 1), descendants) : null;
+			consumer.accept(
+				new HierarchyItemWithHistory(
+					hierarchyCode, codePrefix + sequence++, frame.level,
+					leftBound, leftBound + itemSpans[frame.level] - 1,
+					(short) (children == null ? 0 : children.budgets.length),
+					(short) (index + 1), (short) (index + 1)
+				)
+			);
+			if (children != null) {
+				stack.push(children);
+			}
+		}
+		return sequence;
+	}
+
+	/**
+	 * Generates the tree directly into the storage. Hierarchy must already exist in the storage and must be empty.
+	 *
+	 * @return number of generated items
+	 */
+	public long generate(@Nonnull Hierarchy hierarchy, @Nonnull HierarchyStorage storage) {
+		return generate(hierarchy, storage, item -> {});
+	}
+
+	/**
+	 * Generates the tree directly into the storage and passes each of the items also to the observer, so that
+	 * the caller may collect information about the generated tree. Hierarchy must already exist in the storage and must
+	 * be empty.
+	 *
+	 * @return number of generated items
+	 */
+	public long generate(@Nonnull Hierarchy hierarchy, @Nonnull HierarchyStorage storage, @Nonnull Consumer<HierarchyItem> observer) {
+		Assert.isTrue(
+			levels == hierarchy.getLevels() - 1 && sectionSize == hierarchy.getSectionSize() - 1,
+			"Generator dimensions don't match dimensions of the hierarchy " + hierarchy.getCode() + "!"
+		);
+		try (final BatchingSink sink = new BatchingSink(storage)) {
+			return generate(hierarchy.getCode(), sink.andThen(observer));
+		}
+	}
+
+	/**
+	 * Generates the tree into the file, one item per line. File may be loaded later by {@link #load(Path, Hierarchy, HierarchyStorage)}.
+	 *
+	 * @return number of generated items
+	 */
+	public long generate(@Nonnull Path file) {
+		try (final BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write(HEADER_PREFIX + levels + HEADER_SECTION_SIZE + sectionSize);
+			writer.newLine();
+			return generate("", item -> {
+				try {
+					writer.write(
+						item.getCode() + '\t' + item.getLevel() + '\t' + item.getLeftBound() + '\t' + item.getRightBound() +
+							'\t' + item.getBucket() + '\t' + item.getOrder() + '\t' + item.getNumberOfChildren()
+					);
+					writer.newLine();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Loads the tree previously generated to the file into the storage. Hierarchy must already exist in the storage,
+	 * must be empty and must have the same dimensions as the generated tree.
+	 *
+	 * @return number of loaded items
+	 */
+	public static long load(@Nonnull Path file, @Nonnull Hierarchy hierarchy, @Nonnull HierarchyStorage storage) {
+		try (
+			final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+			final BatchingSink sink = new BatchingSink(storage)
+		) {
+			final String expectedHeader = HEADER_PREFIX + (hierarchy.getLevels() - 1) + HEADER_SECTION_SIZE + (hierarchy.getSectionSize() - 1);
+			final String header = reader.readLine();
+			Assert.isTrue(
+				expectedHeader.equals(header),
+				"File " + file + " contains tree `" + header + "` that doesn't match hierarchy " + hierarchy.getCode() + "!"
+			);
+			long count = 0;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final String[] parts = line.split("\t");
+				sink.accept(
+					new HierarchyItemWithHistory(
+						hierarchy.getCode(), parts[0], Short.valueOf(parts[1]),
+						Long.valueOf(parts[2]), Long.valueOf(parts[3]),
+						Short.valueOf(parts[6]), Short.valueOf(parts[5]), Short.valueOf(parts[4])
+					)
+				);
+				count++;
+			}
+			return count;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*
+		PRIVATE METHODS
+	 */
+
+	/**
+	 * Decides number of children of the item and splits the budget of its descendants among them.
+	 */
+	private Frame plan(@Nonnull Random random, long parentLeftBound, short level, long budget) {
+		final int maxChildren = getMaxChildren();
+		final long childCapacity = getSubtreeCapacity(levels - level);
+		// children must be able to hold the entire budget in their subtrees
+		final long minChildren = childCapacity == Long.MAX_VALUE ? 1 : (budget + childCapacity) / (childCapacity + 1);
+		final int childCount = (int) Math.min(
+			Math.min(maxChildren, budget),
+			Math.max(minChildren, fanOut.getChildCount(random, maxChildren))
+		);
+		final double[] weights = fanOut.getWeights(random, childCount);
+		final long[] budgets = new long[childCount];
+		long remaining = budget - childCount;
+		while (remaining > 0) {
+			double weightSum = 0;
+			for (int i = 0; i < childCount; i++) {
+				if (budgets[i] < childCapacity) {
+					weightSum += weights[i];
+				}
+			}
+			long distributed = 0;
+			for (int i = 0; i < childCount; i++) {
+				if (budgets[i] < childCapacity) {
+					final long share = Math.min(childCapacity - budgets[i], (long) Math.floor(remaining * weights[i] / weightSum));
+					budgets[i] += share;
+					distributed += share;
+				}
+			}
+			// rounding leftovers are handed out one by one
+			for (int i = 0; i < childCount && distributed == 0; i++) {
+				if (budgets[i] < childCapacity) {
+					budgets[i]++;
+					distributed++;
+				}
+			}
+			remaining -= distributed;
+		}
+		return new Frame(parentLeftBound, level, budgets);
+	}
+
+	/**
+	 * Returns maximal number of items in the subtree of given depth (not counting the subtree root).
+	 */
+	private long getSubtreeCapacity(int depth) {
+		final long maxChildren = getMaxChildren();
+		long capacity = 0;
+		long levelCapacity = 1;
+		for (int i = 0; i < depth; i++) {
+			if (levelCapacity > Long.MAX_VALUE / maxChildren) {
+				return Long.MAX_VALUE;
+			}
+			levelCapacity *= maxChildren;
+			if (capacity > Long.MAX_VALUE - levelCapacity) {
+				return Long.MAX_VALUE;
+			}
+			capacity += levelCapacity;
+		}
+		return capacity;
+	}
+
+	/**
+	 * Distribution of the number of children and of the subtree sizes among the siblings.
+	 */
+	public enum FanOut {
+
+		/**
+		 * Number of children is uniformly distributed, siblings have subtrees of similar size.
+		 */
+		UNIFORM {
+			@Override
+			int getChildCount(@Nonnull Random random, int maxChildren) {
+				return 1 + random.nextInt(maxChildren);
+			}
+
+			@Override
+			double[] getWeights(@Nonnull Random random, int childCount) {
+				final double[] weights = new double[childCount];
+				for (int i = 0; i < childCount; i++) {
+					weights[i] = 1.0;
+				}
+				return weights;
+			}
+		},
+
+		/**
+		 * Number of children follows Zipf distribution - most items have few children, few items have many of them.
+		 * Subtree sizes of the siblings follow Zipf distribution as well.
+		 */
+		ZIPF {
+			@Override
+			int getChildCount(@Nonnull Random random, int maxChildren) {
+				double harmonic = 0;
+				for (int i = 1; i <= maxChildren; i++) {
+					harmonic += 1.0 / i;
+				}
+				final double threshold = random.nextDouble() * harmonic;
+				double cumulative = 0;
+				for (int i = 1; i <= maxChildren; i++) {
+					cumulative += 1.0 / i;
+					if (cumulative >= threshold) {
+						return i;
+					}
+				}
+				return maxChildren;
+			}
+
+			@Override
+			double[] getWeights(@Nonnull Random random, int childCount) {
+				final double[] weights = new double[childCount];
+				for (int i = 0; i < childCount; i++) {
+					weights[i] = 1.0 / (i + 1);
+				}
+				// the biggest subtree is not always the first one
+				for (int i = childCount - 1; i > 0; i--) {
+					final int swapped = random.nextInt(i + 1);
+					final double weight = weights[i];
+					weights[i] = weights[swapped];
+					weights[swapped] = weight;
+				}
+				return weights;
+			}
+		},
+
+		/**
+		 * Few items have their sections full while the others have one or two children, few siblings hold most
+		 * of the descendants.
+		 */
+		FEW_HUGE_PARENTS {
+			@Override
+			int getChildCount(@Nonnull Random random, int maxChildren) {
+				return random.nextDouble() < 0.02 ? maxChildren : 1 + random.nextInt(Math.min(2, maxChildren));
+			}
+
+			@Override
+			double[] getWeights(@Nonnull Random random, int childCount) {
+				final double[] weights = new double[childCount];
+				for (int i = 0; i < childCount; i++) {
+					weights[i] = random.nextDouble() < 0.05 ? 50.0 : 1.0;
+				}
+				return weights;
+			}
+		};
+
+		/**
+		 * Returns preferred number of children in range 1 to maxChildren.
+		 */
+		abstract int getChildCount(@Nonnull Random random, int maxChildren);
+
+		/**
+		 * Returns relative weights the budget of descendants is split among the children by.
+		 */
+		abstract double[] getWeights(@Nonnull Random random, int childCount);
+
+	}
+
+	/**
+	 * Children of single item waiting to be generated.
+	 */
+	private static class Frame {
+		private final long parentLeftBound;
+		private final short level;
+		private final long[] budgets;
+		private int next;
+
+		Frame(long parentLeftBound, short level, long[] budgets) {
+			this.parentLeftBound = parentLeftBound;
+			this.level = level;
+			this.budgets = budgets;
+		}
+
+	}
+
+	/**
+	 * Passes the items to the storage in batches.
+	 */
+	private static class BatchingSink implements Consumer<HierarchyItem>, AutoCloseable {
+		private final HierarchyStorage storage;
+		private final List<HierarchyItem> batch = new ArrayList<>(DEFAULT_BATCH_SIZE);
+
+		BatchingSink(@Nonnull HierarchyStorage storage) {
+			this.storage = storage;
+		}
+
+		@Override
+		public void accept(HierarchyItem item) {
+			batch.add(item);
+			if (batch.size() == DEFAULT_BATCH_SIZE) {
+				flush();
+			}
+		}
+
+		@Override
+		public void close() {
+			flush();
+		}
+
+		private void flush() {
+			if (!batch.isEmpty()) {
+				storage.createItems(batch);
+				batch.clear();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,117 @@
+package one.edee.oss.pmptt.util;
+
+import one.edee.oss.pmptt.PMPTT;
+import one.edee.oss.pmptt.dao.memory.MemoryStorage;
+import one.edee.oss.pmptt.exception.SectionExhausted;
+import one.edee.oss.pmptt.model.Hierarchy;
+import one.edee.oss.pmptt.model.HierarchyItem;
+import one.edee.oss.pmptt.util.TreeGenerator.FanOut;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static one.edee.oss.pmptt.util.TreeGenerator.tree;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * No extra information provided - see (selfexplanatory) method signatures.
+ * I have the best intention to write more detailed documentation but if you see this, there was not enough time or will to do so.
+ *
+ * @author Jan Novotný (novotny@fg.cz), FG Forrest a.s. (c) 2026
+ */
+public class TreeGeneratorTest {
+	private final MemoryStorage storage = new MemoryStorage();
+	private final PMPTT pmptt = new PMPTT(storage);
+
+	@Test
+	public void shouldGenerateSameTreeForSameSeed() {
+		final List<String> first = describe(tree((short) 4, (short) 6).nodes(500).fanOut(FanOut.ZIPF).seed(7));
+		final List<String> second = describe(tree((short) 4, (short) 6).nodes(500).fanOut(FanOut.ZIPF).seed(7));
+		final List<String> third = describe(tree((short) 4, (short) 6).nodes(500).fanOut(FanOut.ZIPF).seed(8));
+
+		assertEquals(500, first.size());
+		assertEquals(first, second);
+		assertNotEquals(first, third);
+	}
+
+	@Test
+	public void shouldGenerateTreeIdenticalToTreeBuiltByHierarchy() {
+		for (FanOut fanOut : FanOut.values()) {
+			final Hierarchy generated = pmptt.getOrCreateHierarchy("generated-" + fanOut, (short) 4, (short) 5);
+			final Hierarchy built = pmptt.getOrCreateHierarchy("built-" + fanOut, (short) 4, (short) 5);
+			final HierarchyItem[] lastItemOnLevel = new HierarchyItem[5];
+			final long count = tree(generated).nodes(300).fillRatio(0.8).fanOut(fanOut).generate(generated.getCode(), item -> {
+				storage.createItem(item, item.getLevel() == 1 ? null : lastItemOnLevel[item.getLevel() - 1]);
+				lastItemOnLevel[item.getLevel()] = item;
+				if (item.getLevel() == 1) {
+					built.createRootItem(item.getCode());
+				} else {
+					built.createItem(item.getCode(), lastItemOnLevel[item.getLevel() - 1].getCode());
+				}
+			});
+
+			assertEquals(300, count);
+			assertEquals(
+				StructureLoader.storeHierarchyAndPrintWithBounds(built),
+				StructureLoader.storeHierarchyAndPrintWithBounds(generated)
+			);
+			for (HierarchyItem rootItem : generated.getRootItems()) {
+				for (HierarchyItem item : generated.getAllChildItems(rootItem.getCode())) {
+					assertEquals(built.getItem(item.getCode()).getNumberOfChildren(), item.getNumberOfChildren());
+					assertEquals(built.getItem(item.getCode()).getOrder(), item.getOrder());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void shouldFillSectionsUpToTheLimit() {
+		final Hierarchy hierarchy = pmptt.getOrCreateHierarchy("full", (short) 3, (short) 4);
+		final TreeGenerator generator = tree(hierarchy);
+
+		assertEquals(4 + 16 + 64, generator.getCapacity());
+		assertEquals(84, generator.nodes(generator.getCapacity()).generate(hierarchy, storage));
+		assertEquals(4, hierarchy.getRootItems().size());
+		assertThrows(SectionExhausted.class, () -> hierarchy.createRootItem("another"));
+		assertThrows(SectionExhausted.class, () -> hierarchy.createItem("another", hierarchy.getRootItems().get(0).getCode()));
+	}
+
+	@Test
+	public void shouldRejectNodeCountExceedingCapacity() {
+		assertThrows(IllegalArgumentException.class, () -> describe(tree((short) 2, (short) 3).nodes(13)));
+		assertEquals(6, describe(tree((short) 2, (short) 3).nodes(6).fillRatio(0.7)).size());
+		assertThrows(IllegalArgumentException.class, () -> describe(tree((short) 2, (short) 3).nodes(7).fillRatio(0.7)));
+	}
+
+	@Test
+	public void shouldLoadTreeGeneratedToFile(@TempDir Path directory) {
+		final Path file = directory.resolve("tree.tsv");
+		final TreeGenerator generator = tree((short) 5, (short) 8).nodes(2_000).fanOut(FanOut.FEW_HUGE_PARENTS);
+		final Hierarchy direct = pmptt.getOrCreateHierarchy("direct", (short) 5, (short) 8);
+		final Hierarchy loaded = pmptt.getOrCreateHierarchy("loaded", (short) 5, (short) 8);
+
+		assertEquals(2_000, generator.generate(file));
+		assertEquals(2_000, generator.generate(direct, storage));
+		assertEquals(2_000, TreeGenerator.load(file, loaded, storage));
+		assertEquals(
+			StructureLoader.storeHierarchyAndPrintWithBounds(direct),
+			StructureLoader.storeHierarchyAndPrintWithBounds(loaded)
+		);
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> TreeGenerator.load(file, pmptt.getOrCreateHierarchy("other", (short) 5, (short) 9), storage)
+		);
+	}
+
+	private static List<String> describe(TreeGenerator generator) {
+		final List<String> items = new ArrayList<>();
+		generator.generate("test", item -> items.add(item.getCode() + ":" + item.getLeftBound() + "-" + item.getRightBound() + "/" + item.getNumberOfChildren()));
+		return items;
+	}
+
+}